@@ -0,0 +1,105 @@
+package com.example.demo.config.mapper;
+
+import com.example.demo.dto.ProjectDTO;
+import com.example.demo.entities.Persona;
+import com.example.demo.entities.Project;
+import com.example.demo.entities.Task;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Method;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * CPU e allocazioni di {@link EntityMapper#toDto(Project)} con molti task: lettura degli ID tramite
+ * {@code Identifiable} contro la versione precedente di {@code toIdSet}, che invocava {@code getId()} via
+ * reflection per ogni elemento. Le allocazioni per operazione si leggono con {@code -prof gc}
+ * ({@code gc.alloc.rate.norm}).
+ *
+ * CPU and allocations of {@link EntityMapper#toDto(Project)} with many tasks: reading the IDs through
+ * {@code Identifiable} against the previous {@code toIdSet}, which invoked {@code getId()} via reflection for every
+ * element. Allocations per operation are read with {@code -prof gc} ({@code gc.alloc.rate.norm}).
+ *
+ * <pre>mvn -Pbenchmark test-compile exec:exec -Djmh.args="ProjectMapperBenchmark -prof gc"</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProjectMapperBenchmark {
+
+    private static final int TEAM = 50;
+
+    @Param({"1000", "10000", "100000"})
+    private int tasks;
+
+    private final EntityMapper mapper = new EntityMapperImpl();
+    private Project project;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Set<Task> taskSet = new HashSet<>();
+        for (long i = 1; i <= tasks; i++) {
+            taskSet.add(Task.builder().id(i).title("Task " + i).build());
+        }
+        Set<Persona> team = new HashSet<>();
+        for (long i = 1; i <= TEAM; i++) {
+            team.add(Persona.builder().id(i).firstName("Name" + i).lastName("Last" + i).build());
+        }
+        project = Project.builder().id(1L).code("P1").name("Project").tasks(taskSet).team(team).build();
+    }
+
+    @Benchmark
+    public ProjectDTO identifiable() {
+        return mapper.toDto(project);
+    }
+
+    /**
+     * Mappatura generata da MapStruct con il {@code toIdSet} riflessivo precedente.
+     * MapStruct-generated mapping with the previous reflective {@code toIdSet}.
+     */
+    @Benchmark
+    public ProjectDTO reflective() {
+        ProjectDTO dto = mapper.toDtoWithoutCollections(project);
+        dto.setTeamMemberIds(reflectiveIdSet(project.getTeam()));
+        dto.setTaskIds(reflectiveIdSet(project.getTasks()));
+        return dto;
+    }
+
+    private static Set<Long> reflectiveIdSet(Set<?> entities) {
+        if (entities == null || entities.isEmpty()) {
+            return null;
+        }
+        return entities.stream()
+                .filter(Objects::nonNull)
+                .map(entity -> {
+                    try {
+                        Method getIdMethod = entity.getClass().getMethod("getId");
+                        Object id = getIdMethod.invoke(entity);
+                        if (id instanceof Long) {
+                            return (Long) id;
+                        }
+                        throw new IllegalStateException("getId() non restituisce Long");
+                    } catch (ReflectiveOperationException e) {
+                        throw new IllegalStateException(e);
+                    }
+                })
+                .collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.demo.config.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput del lavoro sul token svolto da {@link JwtAuthenticationFilter} per ogni richiesta: il percorso
+ * precedente (tre parser costruiti e tre verifiche per richiesta: validazione, username, ruoli) contro
+ * {@link JwtUtil#parseToken(String)} senza e con {@link VerifiedTokenCache}.
+ *
+ * Throughput of the token work done by {@link JwtAuthenticationFilter} on every request: the previous path (three
+ * parsers built and three verifications per request: validation, username, roles) against
+ * {@link JwtUtil#parseToken(String)} without and with {@link VerifiedTokenCache}.
+ *
+ * <pre>mvn -Pbenchmark test-compile exec:exec -Djmh.args="JwtParsingBenchmark -prof gc"</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class JwtParsingBenchmark {
+
+    private static final long EXPIRATION_MS = Duration.ofMinutes(15).toMillis();
+
+    /** Sessioni distinte che si alternano nelle richieste / Distinct sessions alternating across requests. */
+    @Param({"1000"})
+    private int sessions;
+
+    private JwtKeyRing keyRing;
+    private JwtUtil uncached;
+    private JwtUtil cached;
+    private String[] tokens;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+
+        String token(JwtParsingBenchmark benchmark) {
+            String[] tokens = benchmark.tokens;
+            return tokens[next++ % tokens.length];
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        keyRing = new JwtKeyRing("0123456789abcdef0123456789abcdef", Duration.ofDays(1), Duration.ofHours(1),
+                EXPIRATION_MS);
+        uncached = new JwtUtil(keyRing, EXPIRATION_MS, 0);
+        cached = new JwtUtil(keyRing, EXPIRATION_MS, sessions * 2);
+        tokens = new String[sessions];
+        for (int i = 0; i < sessions; i++) {
+            tokens[i] = cached.generateToken("user" + i, Set.of("USER", "MANAGER"));
+        }
+    }
+
+    /**
+     * Percorso precedente: {@code validateToken}, {@code getUsernameFromJwt} e {@code getRolesFromJwt} costruivano
+     * ognuno un parser e verificavano di nuovo la firma.
+     * Previous path: {@code validateToken}, {@code getUsernameFromJwt} and {@code getRolesFromJwt} each built a
+     * parser and verified the signature again.
+     */
+    @Benchmark
+    public void legacyTripleParse(Cursor cursor, Blackhole blackhole) {
+        String token = cursor.token(this);
+        blackhole.consume(parseFresh(token));
+        blackhole.consume(parseFresh(token).getSubject());
+        blackhole.consume(parseFresh(token).get("roles", List.class));
+    }
+
+    @Benchmark
+    public void parseOnce(Cursor cursor, Blackhole blackhole) {
+        ParsedToken parsed = uncached.parseToken(cursor.token(this));
+        blackhole.consume(parsed.getUsername());
+        blackhole.consume(parsed.getRoles());
+    }
+
+    @Benchmark
+    public void parseOnceCached(Cursor cursor, Blackhole blackhole) {
+        ParsedToken parsed = cached.parseToken(cursor.token(this));
+        blackhole.consume(parsed.getUsername());
+        blackhole.consume(parsed.getRoles());
+    }
+
+    private Claims parseFresh(String token) {
+        return Jwts.parser()
+                .keyLocator(keyRing.locator())
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+}
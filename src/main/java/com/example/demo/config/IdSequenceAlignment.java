@@ -0,0 +1,95 @@
+package com.example.demo.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Allinea all’avvio le sequenze degli ID di persone e account con le righe già presenti nelle tabelle.
+ *
+ * <p><strong>English:</strong> Aligns at startup the ID sequences of personas and accounts with the rows already
+ * present in the tables.</p>
+ * <p><strong>Italiano:</strong> Allinea all’avvio le sequenze degli ID di persone e account con le righe già
+ * presenti nelle tabelle.</p>
+ *
+ * <p>{@code personas} e {@code accounts} usavano colonne {@code AUTO_INCREMENT}; le sequenze create da
+ * {@code ddl-auto=update} partono da 1 e produrrebbero ID già usati. {@code SETVAL} porta ogni sequenza oltre
+ * l’ID massimo e non la fa mai arretrare, quindi l’allineamento è idempotente e sicuro anche con più nodi. Viene
+ * eseguito dopo l’aggiornamento dello schema e prima che l’applicazione accetti richieste; su database diversi da
+ * MariaDB non fa nulla.</p>
+ * <p><strong>English:</strong> {@code personas} and {@code accounts} used {@code AUTO_INCREMENT} columns; the
+ * sequences created by {@code ddl-auto=update} start at 1 and would produce IDs already in use. {@code SETVAL}
+ * moves each sequence past the maximum ID and never moves it back, so the alignment is idempotent and safe with
+ * several nodes. It runs after the schema update and before the application accepts requests; on databases other
+ * than MariaDB it does nothing.</p>
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@Slf4j
+public class IdSequenceAlignment {
+
+    /**
+     * Sequenze da allineare, con la tabella da cui leggere l’ID massimo.
+     * Sequences to align, with the table to read the maximum ID from.
+     */
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "personas_seq", "personas",
+            "accounts_seq", "accounts");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Costruttore iniettato con {@link JdbcTemplate}.
+     *
+     * <p><strong>English:</strong> Constructor injected with {@link JdbcTemplate}.</p>
+     *
+     * @param jdbcTemplate accesso JDBC al database
+     *                     <p><strong>English:</strong> JDBC access to the database.</p>
+     */
+    public IdSequenceAlignment(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Porta ogni sequenza oltre l’ID massimo della sua tabella.
+     * Moves every sequence past the maximum ID of its table.
+     */
+    @PostConstruct
+    void align() {
+        if (!isMariaDb()) {
+            return;
+        }
+        SEQUENCES.forEach((sequence, table) -> {
+            try {
+                Long max = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+                if (max != null && max > 0) {
+                    // SETVAL ignora i valori inferiori a quello corrente / SETVAL ignores values below the current one
+                    jdbcTemplate.queryForList("SELECT SETVAL(" + sequence + ", " + max + ")");
+                    log.debug("Sequenza {} allineata oltre l'ID {} di {}", sequence, max, table);
+                }
+            } catch (DataAccessException ex) {
+                log.error("Allineamento della sequenza {} con {} non riuscito", sequence, table, ex);
+            }
+        });
+    }
+
+    private boolean isMariaDb() {
+        try {
+            // mysql-connector-j riporta "MySQL" anche su MariaDB: conta la versione (es. 10.11.6-MariaDB)
+            // mysql-connector-j reports "MySQL" on MariaDB too: the version tells (e.g. 10.11.6-MariaDB)
+            String product = JdbcUtils.extractDatabaseMetaData(jdbcTemplate.getDataSource(),
+                    metaData -> metaData.getDatabaseProductName() + " " + metaData.getDatabaseProductVersion());
+            return product.toLowerCase(Locale.ROOT).contains("mariadb");
+        } catch (Exception ex) {
+            log.warn("Impossibile determinare il database per l'allineamento delle sequenze: {}", ex.getMessage());
+            return false;
+        }
+    }
+}
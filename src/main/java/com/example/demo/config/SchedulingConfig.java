@@ -0,0 +1,13 @@
+package com.example.demo.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Abilita i job pianificati (manutenzione delle partizioni e retention dei log di audit).
+ * Enables scheduled jobs (audit log partition maintenance and retention).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
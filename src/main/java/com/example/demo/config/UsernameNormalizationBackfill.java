@@ -0,0 +1,36 @@
+package com.example.demo.config;
+
+import com.example.demo.repositories.AccountRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Valorizza all’avvio la colonna username_normalized per gli account creati prima della sua introduzione.
+ * Eseguito prima di {@link SetupWizard}, che resta in attesa di comandi CLI.
+ *
+ * Fills the username_normalized column at startup for accounts created before it was introduced.
+ * Runs before {@link SetupWizard}, which then blocks waiting for CLI commands.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+@Slf4j
+public class UsernameNormalizationBackfill implements ApplicationRunner {
+
+    private final AccountRepository accountRepository;
+
+    @Override
+    @Transactional
+    public void run(ApplicationArguments args) {
+        int updated = accountRepository.backfillUsernameNormalized();
+        if (updated > 0) {
+            log.info("username_normalized valorizzato per {} account", updated);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.demo.config.audit;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * Autore delle modifiche registrate automaticamente: l’ID account del token della richiesta corrente.
+ *
+ * <p><strong>English:</strong> Author of automatically recorded changes: the account ID of the current
+ * request's token.</p>
+ * <p><strong>Italiano:</strong> Autore delle modifiche registrate automaticamente: l’ID account del token
+ * della richiesta corrente.</p>
+ *
+ * <p>L’ID viene salvato come attributo di richiesta da {@code JwtAuthenticationFilter}, così che
+ * {@link EntityAuditListener} non debba cercare l’account per username.</p>
+ * <p><strong>English:</strong> The ID is stored as a request attribute by {@code JwtAuthenticationFilter},
+ * so that {@link EntityAuditListener} does not need to look the account up by username.</p>
+ */
+public final class AuditActor {
+
+    /** Nome dell’attributo di richiesta / Request attribute name. */
+    public static final String ACCOUNT_ID_ATTRIBUTE = AuditActor.class.getName() + ".accountId";
+
+    private AuditActor() {
+    }
+
+    /**
+     * @return ID dell’account autenticato, o {@code null} fuori da una richiesta o senza token
+     *         <p><strong>English:</strong> authenticated account ID, or {@code null} outside a request or
+     *         without a token.</p>
+     */
+    public static Long currentAccountId() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        return attributes.getAttribute(ACCOUNT_ID_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof Long id
+                ? id : null;
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.demo.config.audit;
+
+import com.example.demo.dto.AuditLogDTO;
+
+import java.time.Instant;
+
+/**
+ * Voce di audit immutabile in attesa di essere scritta da {@link AuditPipeline}.
+ *
+ * <p><strong>English:</strong> Immutable audit entry waiting to be written by {@link AuditPipeline}.</p>
+ * <p><strong>Italiano:</strong> Voce di audit immutabile in attesa di essere scritta da {@link AuditPipeline}.</p>
+ *
+ * <p>Contiene solo l’ID dell’account autore, così che l’accodamento non richieda alcuna lettura
+ * dal database. Il timestamp è fissato al momento dell’accodamento, non della scrittura.</p>
+ * <p><strong>English:</strong> Holds only the author account's ID, so that enqueueing needs no database
+ * read. The timestamp is fixed at enqueue time, not at write time.</p>
+ *
+ * @param entityName  nome dell’entità modificata / modified entity name
+ * @param entityId    ID dell’entità modificata / modified entity ID
+ * @param action      azione eseguita / action performed
+ * @param changedById ID dell’account autore, può essere {@code null} / author account ID, may be {@code null}
+ * @param timestamp   istante dell’evento / event instant
+ * @param details     dettagli della modifica / change details
+ */
+public record AuditEvent(String entityName, Long entityId, String action, Long changedById,
+                         Instant timestamp, String details) {
+
+    /**
+     * Crea l’evento da un DTO; se il timestamp manca viene usato l’istante corrente.
+     * Creates the event from a DTO; if the timestamp is missing the current instant is used.
+     */
+    public static AuditEvent from(AuditLogDTO dto) {
+        Instant timestamp = dto.getTimestamp() != null ? dto.getTimestamp() : Instant.now();
+        return new AuditEvent(dto.getEntityName(), dto.getEntityId(), dto.getAction(),
+                dto.getChangedByAccountId(), timestamp, dto.getDetails());
+    }
+}
@@ -0,0 +1,423 @@
+package com.example.demo.config.audit;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Journal locale append-only degli eventi di audit, scritto su segmenti a dimensione fissa mappati in memoria.
+ *
+ * <p><strong>English:</strong> Local append-only journal of audit events, written to fixed-size memory-mapped
+ * segments.</p>
+ * <p><strong>Italiano:</strong> Journal locale append-only degli eventi di audit, scritto su segmenti a
+ * dimensione fissa mappati in memoria.</p>
+ *
+ * <p>Quando è abilitato ({@code audit.journal.enabled}), {@link AuditPipeline} scrive ogni evento qui prima di
+ * tutto e il writer legge dal journal invece che dalla coda in memoria: un evento accettato sopravvive quindi a
+ * un riavvio e a un database non disponibile, che ritarda soltanto lo svuotamento. Ogni segmento
+ * ({@code audit-NNNNNNNNNNNN.seg}) inizia con magic e versione; ogni record è
+ * {@code [int lunghezza][int CRC32C][payload]} ({@link AuditJournalRecord}) e la lunghezza viene scritta per
+ * ultima, così che un record interrotto appaia come spazio libero. Un record con lunghezza {@code -1} chiude il
+ * segmento. Il file {@code checkpoint} (segmento, offset, CRC) indica fin dove i record sono già in
+ * {@code audit_Logs}; i segmenti interamente precedenti vengono eliminati (compattazione). All’avvio la coda
+ * dell’ultimo segmento viene verificata con il CRC e il journal viene riletto dal checkpoint a lotti di
+ * {@code audit.journal.replay-batch-size}. La consegna è "almeno una volta".</p>
+ * <p><strong>English:</strong> When enabled ({@code audit.journal.enabled}), {@link AuditPipeline} writes every
+ * event here first and the writer reads from the journal instead of the in-memory queue: an accepted event
+ * therefore survives a restart and an unavailable database, which only delays draining. Each segment
+ * ({@code audit-NNNNNNNNNNNN.seg}) starts with magic and version; each record is
+ * {@code [int length][int CRC32C][payload]} ({@link AuditJournalRecord}) and the length is written last, so an
+ * interrupted record looks like free space. A record with length {@code -1} closes the segment. The
+ * {@code checkpoint} file (segment, offset, CRC) tells how far records are already in {@code audit_Logs};
+ * segments entirely before it are deleted (compaction). At startup the tail of the last segment is verified
+ * with the CRC and the journal is replayed from the checkpoint in batches of
+ * {@code audit.journal.replay-batch-size}. Delivery is at-least-once.</p>
+ *
+ * <p>Senza {@code audit.journal.sync} i dati sono al sicuro da un crash del processo ma non da un’interruzione
+ * di corrente prima che il sistema operativo scriva le pagine su disco.</p>
+ * <p><strong>English:</strong> Without {@code audit.journal.sync} data is safe from a process crash but not from a
+ * power loss before the operating system writes the pages to disk.</p>
+ */
+@Component
+@Slf4j
+public class AuditJournal {
+
+    private static final int MAGIC = 0x41554A31;
+    private static final int VERSION = 1;
+    private static final int SEGMENT_HEADER = 8;
+    private static final int RECORD_HEADER = 8;
+    private static final int END_OF_SEGMENT = -1;
+    private static final int CHECKPOINT_SIZE = 16;
+
+    private final boolean enabled;
+    private final Path dir;
+    private final int segmentSize;
+    private final int maxSegments;
+    private final int replayBatchSize;
+    private final boolean sync;
+
+    private final Object lock = new Object();
+    private long oldestSegment;
+    private long writeSegment;
+    private MappedByteBuffer writeBuffer;
+    private int writePosition;
+
+    // Stato del lettore, usato solo dal thread writer di AuditPipeline / Reader state, used only by AuditPipeline's writer thread
+    private long readSegment;
+    private int readPosition;
+    private ByteBuffer readBuffer;
+    private long readBufferSegment = -1;
+    private long checkpointSegment;
+    private int checkpointPosition;
+
+    /**
+     * Costruisce il journal a partire dalle proprietà {@code audit.journal.*}.
+     *
+     * <p><strong>English:</strong> Builds the journal from the {@code audit.journal.*} properties.</p>
+     *
+     * @param enabled         abilita il journal
+     *                        <p><strong>English:</strong> enables the journal.</p>
+     * @param dir             cartella dei segmenti
+     *                        <p><strong>English:</strong> segment directory.</p>
+     * @param segmentSize     dimensione di ogni segmento
+     *                        <p><strong>English:</strong> size of each segment.</p>
+     * @param maxSegments     numero massimo di segmenti non ancora consegnati
+     *                        <p><strong>English:</strong> maximum number of not yet delivered segments.</p>
+     * @param replayBatchSize record per lotto letti dal journal
+     *                        <p><strong>English:</strong> records per batch read from the journal.</p>
+     * @param sync            forza su disco ogni record
+     *                        <p><strong>English:</strong> forces every record to disk.</p>
+     */
+    public AuditJournal(
+            @Value("${audit.journal.enabled:false}") boolean enabled,
+            @Value("${audit.journal.dir:audit-journal}") String dir,
+            @Value("${audit.journal.segment-size:64MB}") DataSize segmentSize,
+            @Value("${audit.journal.max-segments:64}") int maxSegments,
+            @Value("${audit.journal.replay-batch-size:1000}") int replayBatchSize,
+            @Value("${audit.journal.sync:false}") boolean sync
+    ) {
+        this.enabled = enabled;
+        this.dir = Path.of(dir);
+        this.segmentSize = (int) Math.min(Integer.MAX_VALUE, Math.max(64 * 1024, segmentSize.toBytes()));
+        this.maxSegments = Math.max(2, maxSegments);
+        this.replayBatchSize = Math.max(1, replayBatchSize);
+        this.sync = sync;
+    }
+
+    /**
+     * Apre i segmenti esistenti, verifica la coda dell’ultimo e riprende dal checkpoint.
+     * Opens the existing segments, verifies the tail of the last one and resumes from the checkpoint.
+     */
+    @PostConstruct
+    void open() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Files.createDirectories(dir);
+        List<Long> existing = listSegments();
+        oldestSegment = existing.isEmpty() ? 0 : existing.get(0);
+        writeSegment = existing.isEmpty() ? 0 : existing.get(existing.size() - 1);
+        writeBuffer = map(writeSegment, true);
+        writePosition = recoverTail(writeBuffer);
+
+        readCheckpoint();
+        if (checkpointSegment < oldestSegment || checkpointSegment > writeSegment) {
+            checkpointSegment = oldestSegment;
+            checkpointPosition = SEGMENT_HEADER;
+        }
+        rewind();
+        log.info("Journal di audit aperto: segmenti {}-{}, ripresa da {}:{}",
+                oldestSegment, writeSegment, checkpointSegment, checkpointPosition);
+    }
+
+    /**
+     * @return {@code true} se il journal è abilitato
+     *         <p><strong>English:</strong> {@code true} if the journal is enabled.</p>
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return record per lotto letti dal journal
+     *         <p><strong>English:</strong> records per batch read from the journal.</p>
+     */
+    public int getReplayBatchSize() {
+        return replayBatchSize;
+    }
+
+    /**
+     * Aggiunge un evento in coda al journal.
+     *
+     * <p><strong>English:</strong> Appends an event to the journal.</p>
+     *
+     * @param event evento da registrare
+     *              <p><strong>English:</strong> event to record.</p>
+     * @return {@code false} se l’evento non entra in un segmento o il limite di segmenti è raggiunto
+     *         <p><strong>English:</strong> {@code false} if the event does not fit in a segment or the segment
+     *         limit has been reached.</p>
+     */
+    public boolean append(AuditEvent event) {
+        byte[] payload = AuditJournalRecord.encode(event);
+        int needed = RECORD_HEADER + payload.length;
+        if (needed > segmentSize - SEGMENT_HEADER - Integer.BYTES) {
+            return false;
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        synchronized (lock) {
+            try {
+                if (writePosition + needed > segmentSize - Integer.BYTES && !roll()) {
+                    return false;
+                }
+            } catch (IOException ex) {
+                log.error("Rotazione del journal di audit non riuscita: {}", ex.getMessage());
+                return false;
+            }
+            int start = writePosition;
+            writeBuffer.putInt(start + Integer.BYTES, (int) crc.getValue());
+            writeBuffer.put(start + RECORD_HEADER, payload);
+            writeBuffer.putInt(start, payload.length);
+            writePosition += needed;
+            if (sync) {
+                writeBuffer.force(start, needed);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Legge i prossimi record non ancora consegnati, a partire dalla posizione del lettore.
+     *
+     * <p><strong>English:</strong> Reads the next not yet delivered records, from the reader position.</p>
+     *
+     * @param max numero massimo di record
+     *            <p><strong>English:</strong> maximum number of records.</p>
+     * @return eventi letti (vuota se il journal è svuotato)
+     *         <p><strong>English:</strong> read events (empty if the journal is drained).</p>
+     */
+    public List<AuditEvent> read(int max) {
+        if (!enabled) {
+            return List.of();
+        }
+        long endSegment;
+        int endPosition;
+        synchronized (lock) {
+            endSegment = writeSegment;
+            endPosition = writePosition;
+        }
+        List<AuditEvent> events = new ArrayList<>(Math.min(max, 1024));
+        try {
+            while (events.size() < max && (readSegment < endSegment || readPosition < endPosition)) {
+                ByteBuffer buffer = readBuffer();
+                int length = buffer.getInt(readPosition);
+                if (length == END_OF_SEGMENT || length == 0) {
+                    if (readSegment == endSegment) {
+                        break;
+                    }
+                    nextReadSegment();
+                    continue;
+                }
+                AuditEvent event = decode(buffer, readPosition, length);
+                if (event == null) {
+                    log.error("Record corrotto nel journal di audit a {}:{}, resto del segmento saltato", readSegment, readPosition);
+                    if (readSegment == endSegment) {
+                        break;
+                    }
+                    nextReadSegment();
+                    continue;
+                }
+                events.add(event);
+                readPosition += RECORD_HEADER + length;
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return events;
+    }
+
+    /**
+     * Conferma i record letti finora (già scritti nel database) ed elimina i segmenti interamente consegnati.
+     * Confirms the records read so far (already written to the database) and deletes fully delivered segments.
+     */
+    public void commit() {
+        checkpointSegment = readSegment;
+        checkpointPosition = readPosition;
+        try {
+            writeCheckpoint();
+            compact();
+        } catch (IOException ex) {
+            log.warn("Aggiornamento del checkpoint del journal di audit non riuscito: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Riporta il lettore all’ultimo checkpoint (lotto non scritto nel database).
+     * Moves the reader back to the last checkpoint (batch not written to the database).
+     */
+    public void rewind() {
+        readSegment = checkpointSegment;
+        readPosition = checkpointPosition;
+    }
+
+    private boolean roll() throws IOException {
+        if (writeSegment - oldestSegment + 1 >= maxSegments) {
+            return false;
+        }
+        writeBuffer.putInt(writePosition, END_OF_SEGMENT);
+        writeBuffer.force();
+        writeSegment++;
+        writeBuffer = map(writeSegment, true);
+        writePosition = SEGMENT_HEADER;
+        return true;
+    }
+
+    /**
+     * Trova la fine dei record validi dell’ultimo segmento e azzera lo spazio successivo (record interrotti).
+     * Finds the end of the valid records of the last segment and zeroes the space after it (interrupted records).
+     */
+    private int recoverTail(MappedByteBuffer buffer) {
+        int position = SEGMENT_HEADER;
+        while (position + RECORD_HEADER <= segmentSize) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || decode(buffer, position, length) == null) {
+                break;
+            }
+            position += RECORD_HEADER + length;
+        }
+        for (int i = position; i < segmentSize; i++) {
+            if (buffer.get(i) != 0) {
+                buffer.put(i, (byte) 0);
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Decodifica il record in {@code position}, o {@code null} se lunghezza o CRC non sono validi.
+     * Decodes the record at {@code position}, or {@code null} if length or CRC are invalid.
+     */
+    private AuditEvent decode(ByteBuffer buffer, int position, int length) {
+        if (length <= 0 || position + RECORD_HEADER + length > buffer.limit()) {
+            return null;
+        }
+        ByteBuffer payload = buffer.slice(position + RECORD_HEADER, length);
+        CRC32C crc = new CRC32C();
+        crc.update(payload.duplicate());
+        if ((int) crc.getValue() != buffer.getInt(position + Integer.BYTES)) {
+            return null;
+        }
+        try {
+            return AuditJournalRecord.decode(payload);
+        } catch (BufferUnderflowException | IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    private ByteBuffer readBuffer() throws IOException {
+        if (readBufferSegment != readSegment) {
+            readBuffer = map(readSegment, false);
+            readBufferSegment = readSegment;
+        }
+        return readBuffer;
+    }
+
+    private void nextReadSegment() {
+        readSegment++;
+        readPosition = SEGMENT_HEADER;
+    }
+
+    private void compact() throws IOException {
+        long deleteBefore = checkpointSegment;
+        long oldest;
+        synchronized (lock) {
+            oldest = oldestSegment;
+            oldestSegment = Math.max(oldestSegment, Math.min(deleteBefore, writeSegment));
+        }
+        for (long segment = oldest; segment < deleteBefore; segment++) {
+            Files.deleteIfExists(segmentPath(segment));
+        }
+    }
+
+    private MappedByteBuffer map(long segment, boolean write) throws IOException {
+        Path path = segmentPath(segment);
+        boolean created = write && !Files.exists(path);
+        try (FileChannel channel = write
+                ? FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(write ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY,
+                    0, write ? segmentSize : channel.size());
+            if (created) {
+                buffer.putInt(0, MAGIC);
+                buffer.putInt(Integer.BYTES, VERSION);
+            } else if (buffer.getInt(0) != MAGIC) {
+                throw new IOException("Not an audit journal segment: " + path);
+            }
+            return buffer;
+        }
+    }
+
+    private Path segmentPath(long segment) {
+        return dir.resolve(String.format("audit-%012d.seg", segment));
+    }
+
+    private List<Long> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.matches("audit-\\d{12}\\.seg"))
+                    .map(name -> Long.parseLong(name.substring(6, 18)))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private void readCheckpoint() throws IOException {
+        Path path = dir.resolve("checkpoint");
+        checkpointSegment = -1;
+        if (!Files.exists(path) || Files.size(path) != CHECKPOINT_SIZE) {
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        long segment = buffer.getLong(0);
+        int position = buffer.getInt(Long.BYTES);
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(0, Long.BYTES + Integer.BYTES));
+        if ((int) crc.getValue() == buffer.getInt(Long.BYTES + Integer.BYTES)) {
+            checkpointSegment = segment;
+            checkpointPosition = position;
+        } else {
+            log.warn("Checkpoint del journal di audit non valido: rilettura dal segmento più vecchio");
+        }
+    }
+
+    private void writeCheckpoint() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(CHECKPOINT_SIZE);
+        buffer.putLong(checkpointSegment).putInt(checkpointPosition);
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.array(), 0, Long.BYTES + Integer.BYTES);
+        buffer.putInt((int) crc.getValue()).flip();
+        try (FileChannel channel = FileChannel.open(dir.resolve("checkpoint"),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            channel.write(buffer, 0);
+            if (sync) {
+                channel.force(false);
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.demo.config.audit;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * Formato binario fisso di un {@link AuditEvent} nel journal locale.
+ *
+ * <p><strong>English:</strong> Fixed binary format of an {@link AuditEvent} in the local journal.</p>
+ * <p><strong>Italiano:</strong> Formato binario fisso di un {@link AuditEvent} nel journal locale.</p>
+ *
+ * <pre>
+ * byte   flags        (bit 0: entityId, bit 1: changedById, bit 2: timestamp presenti / present)
+ * long   entityId     (se presente / if present)
+ * long   changedById  (se presente / if present)
+ * long   epochSecond  (se presente / if present)
+ * int    nano         (se presente / if present)
+ * string entityName, action, details: int lunghezza (-1 = null) + byte UTF-8 / int length (-1 = null) + UTF-8 bytes
+ * </pre>
+ */
+final class AuditJournalRecord {
+
+    private static final int HAS_ENTITY_ID = 1;
+    private static final int HAS_CHANGED_BY = 1 << 1;
+    private static final int HAS_TIMESTAMP = 1 << 2;
+
+    private AuditJournalRecord() {
+    }
+
+    static byte[] encode(AuditEvent event) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            int flags = (event.entityId() != null ? HAS_ENTITY_ID : 0)
+                    | (event.changedById() != null ? HAS_CHANGED_BY : 0)
+                    | (event.timestamp() != null ? HAS_TIMESTAMP : 0);
+            out.writeByte(flags);
+            if (event.entityId() != null) {
+                out.writeLong(event.entityId());
+            }
+            if (event.changedById() != null) {
+                out.writeLong(event.changedById());
+            }
+            if (event.timestamp() != null) {
+                out.writeLong(event.timestamp().getEpochSecond());
+                out.writeInt(event.timestamp().getNano());
+            }
+            writeString(out, event.entityName());
+            writeString(out, event.action());
+            writeString(out, event.details());
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    static AuditEvent decode(ByteBuffer in) {
+        int flags = in.get();
+        Long entityId = (flags & HAS_ENTITY_ID) != 0 ? in.getLong() : null;
+        Long changedById = (flags & HAS_CHANGED_BY) != 0 ? in.getLong() : null;
+        Instant timestamp = (flags & HAS_TIMESTAMP) != 0 ? Instant.ofEpochSecond(in.getLong(), in.getInt()) : null;
+        String entityName = readString(in);
+        String action = readString(in);
+        String details = readString(in);
+        return new AuditEvent(entityName, entityId, action, changedById, timestamp, details);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(utf8.length);
+        out.write(utf8);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] utf8 = new byte[length];
+        in.get(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.demo.config.audit;
+
+import java.util.Locale;
+
+/**
+ * Comportamento di {@link AuditPipeline} quando la coda in memoria è piena.
+ * Behaviour of {@link AuditPipeline} when the in-memory queue is full.
+ */
+public enum AuditOverflowPolicy {
+
+    /** Scarta l’evento e incrementa il contatore dei persi / Discards the event and increments the dropped counter. */
+    DROP,
+
+    /**
+     * Blocca il thread chiamante fino a {@code audit.pipeline.block-timeout}, poi scarta l’evento.
+     * Blocks the calling thread up to {@code audit.pipeline.block-timeout}, then discards the event.
+     */
+    BLOCK,
+
+    /**
+     * Scrive l’evento su un file NDJSON locale, reinserito nel database quando la coda si svuota.
+     * Writes the event to a local NDJSON file, replayed into the database once the queue drains.
+     */
+    SPILL;
+
+    /**
+     * Converte il valore di configurazione (case-insensitive) nella politica corrispondente.
+     * Converts the configuration value (case-insensitive) into the matching policy.
+     *
+     * @throws IllegalArgumentException se la politica non è supportata / if the policy is not supported
+     */
+    public static AuditOverflowPolicy from(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException | NullPointerException ex) {
+            throw new IllegalArgumentException("Unsupported audit overflow policy: " + value);
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package com.example.demo.config.audit;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.function.Supplier;
+
+/**
+ * Gestisce il partizionamento mensile (RANGE COLUMNS su {@code timestamp}) della tabella {@code audit_Logs}.
+ *
+ * <p><strong>English:</strong> Manages the monthly partitioning (RANGE COLUMNS on {@code timestamp}) of the
+ * {@code audit_Logs} table.</p>
+ * <p><strong>Italiano:</strong> Gestisce il partizionamento mensile (RANGE COLUMNS su {@code timestamp}) della
+ * tabella {@code audit_Logs}.</p>
+ *
+ * <p>All’avvio, se la tabella non è ancora partizionata, viene convertita una sola volta: la chiave esterna
+ * verso {@code accounts} viene rimossa, la chiave primaria diventa {@code (id, timestamp)} e si crea una
+ * partizione {@code pYYYYMM} per ogni mese dal più vecchio log, più {@code p_future} (MAXVALUE). All’avvio e
+ * ogni giorno vengono poi create in anticipo le partizioni per i prossimi {@code audit.partitions.months-ahead}
+ * mesi, dividendo {@code p_future}, che resta vuota e rende l’operazione immediata. I confini sono in UTC,
+ * come i valori {@code Instant} scritti da Hibernate. Le operazioni DDL sono serializzate tra i nodi con
+ * {@code GET_LOCK}. Su database diversi da MariaDB/MySQL il componente non fa nulla.</p>
+ * <p><strong>English:</strong> At startup, if the table is not partitioned yet, it is converted once: the foreign
+ * key to {@code accounts} is dropped, the primary key becomes {@code (id, timestamp)} and a {@code pYYYYMM}
+ * partition is created for each month since the oldest log, plus {@code p_future} (MAXVALUE). Then, at startup
+ * and daily, partitions for the next {@code audit.partitions.months-ahead} months are created ahead of time by
+ * splitting {@code p_future}, which stays empty and makes the operation instantaneous. Boundaries are in UTC,
+ * like the {@code Instant} values written by Hibernate. DDL is serialised across nodes with {@code GET_LOCK}.
+ * On databases other than MariaDB/MySQL the component does nothing.</p>
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@Slf4j
+public class AuditPartitionManager implements ApplicationRunner {
+
+    /** Tabella partizionata / Partitioned table. */
+    public static final String TABLE = "audit_Logs";
+
+    /** Partizione finale sempre vuota / Trailing partition, always empty. */
+    static final String FUTURE = "p_future";
+
+    private static final String LOCK_NAME = "audit_Logs_partitions";
+    private static final DateTimeFormatter NAME = DateTimeFormatter.ofPattern("'p'yyyyMM");
+    private static final DateTimeFormatter BOUND = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final int monthsAhead;
+    private volatile Boolean supported;
+
+    /**
+     * Costruisce il gestore a partire dalle proprietà {@code audit.partitions.*}.
+     *
+     * <p><strong>English:</strong> Builds the manager from the {@code audit.partitions.*} properties.</p>
+     *
+     * @param jdbcTemplate template JDBC per le istruzioni DDL
+     *                     <p><strong>English:</strong> JDBC template for DDL statements.</p>
+     * @param enabled      abilita il partizionamento
+     *                     <p><strong>English:</strong> enables partitioning.</p>
+     * @param monthsAhead  mesi futuri per cui le partizioni devono già esistere
+     *                     <p><strong>English:</strong> future months whose partitions must already exist.</p>
+     */
+    public AuditPartitionManager(
+            JdbcTemplate jdbcTemplate,
+            @Value("${audit.partitions.enabled:true}") boolean enabled,
+            @Value("${audit.partitions.months-ahead:3}") int monthsAhead
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.monthsAhead = Math.max(1, monthsAhead);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        maintain();
+    }
+
+    /**
+     * Converte la tabella se necessario e crea le partizioni dei mesi successivi.
+     * Converts the table if needed and creates the partitions of the upcoming months.
+     */
+    @Scheduled(cron = "${audit.partitions.cron:0 0 2 * * *}", zone = "UTC")
+    public void maintain() {
+        if (!isActive()) {
+            return;
+        }
+        try {
+            withLock(() -> {
+                if (partitions().isEmpty()) {
+                    convert();
+                }
+                addFuturePartitions();
+                return null;
+            });
+        } catch (DataAccessException ex) {
+            log.error("Manutenzione delle partizioni di {} non riuscita", TABLE, ex);
+        }
+    }
+
+    /**
+     * @return {@code true} se il partizionamento è abilitato e il database è MariaDB/MySQL
+     *         <p><strong>English:</strong> {@code true} if partitioning is enabled and the database is MariaDB/MySQL.</p>
+     */
+    public boolean isActive() {
+        if (!enabled) {
+            return false;
+        }
+        if (supported == null) {
+            String product;
+            try {
+                product = JdbcUtils.extractDatabaseMetaData(dataSource(), DatabaseMetaData::getDatabaseProductName);
+            } catch (Exception ex) {
+                log.warn("Impossibile determinare il database per il partizionamento dell'audit: {}", ex.getMessage());
+                return false;
+            }
+            String name = product.toLowerCase(Locale.ROOT);
+            supported = name.contains("mariadb") || name.contains("mysql");
+            if (!supported) {
+                log.info("Partizionamento di {} non supportato su {}: disattivato", TABLE, product);
+            }
+        }
+        return supported;
+    }
+
+    /**
+     * Elenca le partizioni mensili esistenti, in ordine; vuota se la tabella non è partizionata.
+     * Lists the existing monthly partitions, in order; empty if the table is not partitioned.
+     *
+     * @return partizioni con il loro limite superiore esclusivo (UTC), esclusa {@code p_future}
+     *         <p><strong>English:</strong> partitions with their exclusive upper bound (UTC), excluding
+     *         {@code p_future}.</p>
+     */
+    public List<Partition> partitions() {
+        List<Partition> result = new ArrayList<>();
+        jdbcTemplate.query("""
+                        select partition_name, partition_description from information_schema.partitions
+                        where table_schema = database() and table_name = ? and partition_name is not null
+                        order by partition_ordinal_position""",
+                rs -> {
+                    String name = rs.getString(1);
+                    String bound = rs.getString(2).replace("'", "");
+                    if (!FUTURE.equals(name) && !"MAXVALUE".equalsIgnoreCase(bound)) {
+                        result.add(new Partition(name, LocalDateTime.parse(bound, BOUND)));
+                    }
+                }, TABLE);
+        return result;
+    }
+
+    /**
+     * Elimina una partizione (i suoi dati sono già stati archiviati).
+     * Drops a partition (its data has already been archived).
+     */
+    void dropPartition(String name) {
+        withLock(() -> {
+            jdbcTemplate.execute("alter table " + TABLE + " drop partition " + name);
+            log.info("Partizione {} di {} eliminata", name, TABLE);
+            return null;
+        });
+    }
+
+    /**
+     * Conversione una tantum della tabella esistente (riscrive la tabella: va eseguita a traffico basso).
+     * One-off conversion of the existing table (rewrites the table: should run under low traffic).
+     */
+    private void convert() {
+        List<String> foreignKeys = jdbcTemplate.queryForList("""
+                select constraint_name from information_schema.referential_constraints
+                where constraint_schema = database() and table_name = ?""", String.class, TABLE);
+        for (String foreignKey : foreignKeys) {
+            jdbcTemplate.execute("alter table " + TABLE + " drop foreign key " + foreignKey);
+        }
+        int stamped = jdbcTemplate.update("update " + TABLE + " set timestamp = utc_timestamp(6) where timestamp is null");
+        if (stamped > 0) {
+            log.warn("{} log di audit senza timestamp marcati con l'istante della conversione", stamped);
+        }
+        jdbcTemplate.execute("alter table " + TABLE + " drop primary key, add primary key (id, timestamp)");
+
+        Timestamp oldest = jdbcTemplate.queryForObject("select min(timestamp) from " + TABLE,
+                (rs, row) -> rs.getTimestamp(1, utcCalendar()));
+        YearMonth first = oldest != null
+                ? YearMonth.from(oldest.toInstant().atOffset(ZoneOffset.UTC))
+                : YearMonth.now(ZoneOffset.UTC);
+        YearMonth last = YearMonth.now(ZoneOffset.UTC).plusMonths(monthsAhead);
+        StringBuilder ddl = new StringBuilder("alter table ").append(TABLE)
+                .append(" partition by range columns(timestamp) (");
+        for (YearMonth month = first; !month.isAfter(last); month = month.plusMonths(1)) {
+            ddl.append(definition(month)).append(", ");
+        }
+        ddl.append("partition ").append(FUTURE).append(" values less than (maxvalue))");
+        jdbcTemplate.execute(ddl.toString());
+        log.info("{} partizionata per mese da {} a {}", TABLE, first, last);
+    }
+
+    private void addFuturePartitions() {
+        List<Partition> existing = partitions();
+        YearMonth next = existing.isEmpty()
+                ? YearMonth.now(ZoneOffset.UTC)
+                : YearMonth.from(existing.get(existing.size() - 1).upperBound());
+        YearMonth last = YearMonth.now(ZoneOffset.UTC).plusMonths(monthsAhead);
+        if (next.isAfter(last)) {
+            return;
+        }
+        StringBuilder ddl = new StringBuilder("alter table ").append(TABLE)
+                .append(" reorganize partition ").append(FUTURE).append(" into (");
+        for (YearMonth month = next; !month.isAfter(last); month = month.plusMonths(1)) {
+            ddl.append(definition(month)).append(", ");
+        }
+        ddl.append("partition ").append(FUTURE).append(" values less than (maxvalue))");
+        jdbcTemplate.execute(ddl.toString());
+        log.info("Partizioni di {} create fino a {}", TABLE, last);
+    }
+
+    private static String definition(YearMonth month) {
+        return "partition " + NAME.format(month.atDay(1)) + " values less than ('"
+                + BOUND.format(month.plusMonths(1).atDay(1).atStartOfDay()) + "')";
+    }
+
+    /**
+     * Esegue l’azione sotto un lock con nome del database; se un altro nodo lo detiene l’azione viene saltata.
+     * Runs the action under a database named lock; if another node holds it the action is skipped.
+     */
+    private <T> T withLock(Supplier<T> action) {
+        return jdbcTemplate.execute((Connection connection) -> {
+            if (!namedLock(connection, "select get_lock(?, 10)")) {
+                log.info("Manutenzione delle partizioni di {} in corso su un altro nodo", TABLE);
+                return null;
+            }
+            try {
+                return action.get();
+            } finally {
+                namedLock(connection, "select release_lock(?)");
+            }
+        });
+    }
+
+    private static boolean namedLock(Connection connection, String sql) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.setString(1, LOCK_NAME);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && rs.getInt(1) == 1;
+            }
+        }
+    }
+
+    /**
+     * Nuovo calendario UTC per leggere e scrivere i timestamp via JDBC ({@link Calendar} non è thread-safe).
+     * New UTC calendar to read and write timestamps via JDBC ({@link Calendar} is not thread-safe).
+     */
+    public static Calendar utcCalendar() {
+        return Calendar.getInstance(TimeZone.getTimeZone(ZoneOffset.UTC));
+    }
+
+    private DataSource dataSource() {
+        return jdbcTemplate.getDataSource();
+    }
+
+    /**
+     * Partizione mensile con il suo limite superiore esclusivo (UTC).
+     * Monthly partition with its exclusive upper bound (UTC).
+     *
+     * @param name       nome della partizione ({@code pYYYYMM}) / partition name ({@code pYYYYMM})
+     * @param upperBound limite superiore esclusivo / exclusive upper bound
+     */
+    public record Partition(String name, LocalDateTime upperBound) {
+    }
+}
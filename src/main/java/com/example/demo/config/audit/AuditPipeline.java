@@ -0,0 +1,530 @@
+package com.example.demo.config.audit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.BatchUpdateException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pipeline asincrona di scrittura dei log di audit: gli eventi vengono accodati dal thread della richiesta
+ * in una coda limitata e scritti nel database a lotti JDBC da un unico thread in background.
+ *
+ * <p><strong>English:</strong> Asynchronous audit log write pipeline: events are enqueued by the request thread
+ * into a bounded queue and written to the database in JDBC batches by a single background thread.</p>
+ * <p><strong>Italiano:</strong> Pipeline asincrona di scrittura dei log di audit: gli eventi vengono accodati dal
+ * thread della richiesta in una coda limitata e scritti nel database a lotti JDBC da un unico thread in background.</p>
+ *
+ * <p>Il writer attende il primo evento al massimo {@code audit.pipeline.flush-interval}, poi preleva fino a
+ * {@code audit.pipeline.batch-size} eventi e li inserisce con un solo {@code batchUpdate}, senza passare dal
+ * persistence context. Quando la coda è piena si applica {@link AuditOverflowPolicy}. Con {@code SPILL} anche i
+ * lotti non scritti perché il database non risponde finiscono nel file di spill e vengono reinseriti quando la coda è
+ * vuota. Se il database rifiuta un lotto per un errore non transitorio (vincolo, valore troppo lungo) le righe non
+ * confermate vengono riprovate una alla volta e solo quelle rifiutate vanno nel file dead-letter
+ * ({@code audit.pipeline.dead-letter-file}). I due file stanno sotto {@code audit.data-dir}, che deve essere un
+ * percorso assoluto, e ogni scrittura è forzata su disco prima di accettare l’evento.
+ * Allo shutdown la coda viene svuotata entro {@code audit.pipeline.shutdown-timeout}, dopo il graceful shutdown del
+ * web server; gli eventi inviati dopo l’arresto vanno nel journal o nel file di spill, oppure vengono rifiutati.</p>
+ * <p><strong>English:</strong> The writer waits at most {@code audit.pipeline.flush-interval} for the first
+ * event, then takes up to {@code audit.pipeline.batch-size} events and inserts them with a single
+ * {@code batchUpdate}, bypassing the persistence context. When the queue is full {@link AuditOverflowPolicy}
+ * applies. With {@code SPILL}, batches not written because the database is down also go to the spill file and
+ * are replayed once the queue is empty. If the database rejects a batch with a non-transient error (constraint,
+ * value too long) the unconfirmed rows are retried one at a time and only the rejected ones go to the dead-letter
+ * file ({@code audit.pipeline.dead-letter-file}). Both files live under {@code audit.data-dir}, which must be an
+ * absolute path, and every write is forced to disk before the event is accepted. On shutdown the queue is drained within {@code audit.pipeline.shutdown-timeout}, after the
+ * web server's graceful shutdown; events submitted after the stop go to the journal or the spill file, or are
+ * rejected.</p>
+ *
+ * <p>Metriche Micrometer: {@code audit.pipeline.queue.size} e {@code audit.pipeline.events} con tag
+ * {@code outcome} = {@code written}, {@code dropped}, {@code spilled}, {@code failed}, {@code journaled},
+ * {@code dead_lettered}.</p>
+ * <p><strong>English:</strong> Micrometer metrics: {@code audit.pipeline.queue.size} and
+ * {@code audit.pipeline.events} tagged {@code outcome} = {@code written}, {@code dropped}, {@code spilled},
+ * {@code failed}, {@code journaled}, {@code dead_lettered}.</p>
+ */
+@Component
+@Slf4j
+public class AuditPipeline implements SmartLifecycle {
+
+    private static final String INSERT_SQL =
+            "insert into audit_Logs (entity_name, entity_id, action, changed_by_id, timestamp, details) "
+                    + "values (?, ?, ?, ?, ?, ?)";
+
+    /** Pausa dopo un replay fallito / Pause after a failed replay. */
+    private static final long REPLAY_RETRY_MS = 5_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BlockingQueue<AuditEvent> queue;
+    private final AuditOverflowPolicy overflowPolicy;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final long blockTimeoutMs;
+    private final long shutdownTimeoutMs;
+    private final AuditSpillFile spillFile;
+    private final AuditSpillFile deadLetterFile;
+    private final AuditJournal journal;
+    private final Calendar utc = AuditPartitionManager.utcCalendar();
+
+    private final Counter written;
+    private final Counter dropped;
+    private final Counter spilled;
+    private final Counter failed;
+    private final Counter journaled;
+    private final Counter deadLettered;
+
+    private volatile boolean running;
+    private volatile boolean stopped;
+    private Thread writer;
+    private long replayNotBefore;
+
+    /**
+     * Costruisce la pipeline a partire dalle proprietà {@code audit.pipeline.*}.
+     *
+     * <p><strong>English:</strong> Builds the pipeline from the {@code audit.pipeline.*} properties.</p>
+     *
+     * @param jdbcTemplate    template JDBC per gli inserimenti a lotti
+     *                        <p><strong>English:</strong> JDBC template for batch inserts.</p>
+     * @param journal         journal locale opzionale ({@code audit.journal.enabled})
+     *                        <p><strong>English:</strong> optional local journal ({@code audit.journal.enabled}).</p>
+     * @param objectMapper    mapper JSON usato per il file di spill
+     *                        <p><strong>English:</strong> JSON mapper used for the spill file.</p>
+     * @param meterRegistry   registro Micrometer
+     *                        <p><strong>English:</strong> Micrometer registry.</p>
+     * @param capacity        capacità della coda in memoria
+     *                        <p><strong>English:</strong> in-memory queue capacity.</p>
+     * @param batchSize       numero massimo di righe per lotto
+     *                        <p><strong>English:</strong> maximum rows per batch.</p>
+     * @param flushInterval   attesa massima prima di scrivere un lotto incompleto
+     *                        <p><strong>English:</strong> maximum wait before writing an incomplete batch.</p>
+     * @param overflow        politica a coda piena (DROP, BLOCK, SPILL)
+     *                        <p><strong>English:</strong> full-queue policy (DROP, BLOCK, SPILL).</p>
+     * @param blockTimeout    attesa massima del chiamante con BLOCK
+     *                        <p><strong>English:</strong> maximum caller wait with BLOCK.</p>
+     * @param spillFile       percorso assoluto del file di spill
+     *                        <p><strong>English:</strong> absolute spill file path.</p>
+     * @param deadLetterFile  percorso assoluto del file con le righe rifiutate dal database
+     *                        <p><strong>English:</strong> absolute path of the file holding rows rejected by the
+     *                        database.</p>
+     * @param shutdownTimeout tempo concesso allo svuotamento della coda allo shutdown
+     *                        <p><strong>English:</strong> time allowed to drain the queue on shutdown.</p>
+     */
+    public AuditPipeline(
+            JdbcTemplate jdbcTemplate,
+            AuditJournal journal,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${audit.pipeline.capacity:10000}") int capacity,
+            @Value("${audit.pipeline.batch-size:200}") int batchSize,
+            @Value("${audit.pipeline.flush-interval:200ms}") Duration flushInterval,
+            @Value("${audit.pipeline.overflow:BLOCK}") String overflow,
+            @Value("${audit.pipeline.block-timeout:50ms}") Duration blockTimeout,
+            @Value("${audit.pipeline.spill-file:${audit.data-dir}/audit-spill.ndjson}") String spillFile,
+            @Value("${audit.pipeline.dead-letter-file:${audit.data-dir}/audit-dead-letter.ndjson}") String deadLetterFile,
+            @Value("${audit.pipeline.shutdown-timeout:10s}") Duration shutdownTimeout
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.journal = journal;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        this.overflowPolicy = AuditOverflowPolicy.from(overflow);
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalMs = Math.max(1, flushInterval.toMillis());
+        this.blockTimeoutMs = Math.max(0, blockTimeout.toMillis());
+        this.shutdownTimeoutMs = Math.max(0, shutdownTimeout.toMillis());
+        this.spillFile = new AuditSpillFile(absolute("audit.pipeline.spill-file", spillFile), objectMapper);
+        this.deadLetterFile = new AuditSpillFile(absolute("audit.pipeline.dead-letter-file", deadLetterFile),
+                objectMapper);
+
+        Gauge.builder("audit.pipeline.queue.size", queue, BlockingQueue::size)
+                .description("Eventi di audit in attesa di scrittura")
+                .register(meterRegistry);
+        this.written = outcomeCounter(meterRegistry, "written");
+        this.dropped = outcomeCounter(meterRegistry, "dropped");
+        this.spilled = outcomeCounter(meterRegistry, "spilled");
+        this.failed = outcomeCounter(meterRegistry, "failed");
+        this.journaled = outcomeCounter(meterRegistry, "journaled");
+        this.deadLettered = outcomeCounter(meterRegistry, "dead_lettered");
+    }
+
+    /**
+     * Accoda un evento di audit senza accedere al database.
+     *
+     * <p><strong>English:</strong> Enqueues an audit event without touching the database.</p>
+     *
+     * @param event evento da scrivere
+     *              <p><strong>English:</strong> event to write.</p>
+     * <p>Con il journal abilitato l’evento viene scritto nel {@link AuditJournal}; la coda in memoria e
+     * {@link AuditOverflowPolicy} si applicano solo se il journal lo rifiuta (segmenti esauriti).</p>
+     * <p><strong>English:</strong> With the journal enabled the event is written to the {@link AuditJournal};
+     * the in-memory queue and {@link AuditOverflowPolicy} only apply if the journal rejects it (segments
+     * exhausted).</p>
+     *
+     * @return {@code true} se l’evento è stato registrato, accodato o riversato su file, {@code false} se è stato scartato
+     *         <p><strong>English:</strong> {@code true} if the event was journaled, enqueued or spilled to file,
+     *         {@code false} if it was discarded.</p>
+     */
+    public boolean submit(AuditEvent event) {
+        if (journal.isEnabled() && journal.append(event)) {
+            journaled.increment();
+            return true;
+        }
+        if (stopped) {
+            // Writer fermato: la coda non verrebbe più svuotata / Writer stopped: the queue would never be drained
+            if (overflowPolicy == AuditOverflowPolicy.SPILL && spill(List.of(event))) {
+                return true;
+            }
+            dropped.increment();
+            return false;
+        }
+        if (queue.offer(event)) {
+            return true;
+        }
+        switch (overflowPolicy) {
+            case BLOCK -> {
+                try {
+                    if (queue.offer(event, blockTimeoutMs, TimeUnit.MILLISECONDS)) {
+                        return true;
+                    }
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            case SPILL -> {
+                if (spill(List.of(event))) {
+                    return true;
+                }
+            }
+            case DROP -> {
+            }
+        }
+        dropped.increment();
+        return false;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        stopped = false;
+        writer = Thread.ofPlatform().name("audit-writer").daemon(true).start(this::runWriter);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        stopped = true;
+        writer.interrupt();
+        try {
+            writer.join(shutdownTimeoutMs);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        List<AuditEvent> leftover = new ArrayList<>();
+        queue.drainTo(leftover);
+        if (!leftover.isEmpty()) {
+            if (overflowPolicy != AuditOverflowPolicy.SPILL || !spill(leftover)) {
+                log.warn("Shutdown: {} eventi di audit non scritti", leftover.size());
+                dropped.increment(leftover.size());
+            }
+        }
+        spillFile.close();
+        deadLetterFile.close();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Fase inferiore sia al graceful shutdown sia all’arresto del web server (un gradino sotto): la pipeline parte
+     * prima che il server accetti richieste e si ferma solo dopo che le richieste in corso sono terminate.
+     * Phase below both the graceful shutdown and the stop of the web server (one step lower): the pipeline starts
+     * before the server accepts requests and stops only after in-flight requests have completed.
+     */
+    @Override
+    public int getPhase() {
+        return WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 2048;
+    }
+
+    private void runWriter() {
+        replaySpill();
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                if (running && drainJournal()) {
+                    continue;
+                }
+                AuditEvent first = running ? queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS) : queue.poll();
+                if (first == null) {
+                    if (running) {
+                        replaySpill();
+                    }
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException ex) {
+                // stop(): si esce dall'attesa e si svuota la coda senza più attendere
+            } catch (RuntimeException ex) {
+                log.error("Errore inatteso nel writer dell'audit", ex);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Scrive nel database il prossimo lotto del journal e ne conferma il checkpoint. Le righe rifiutate dal
+     * database vanno nel file dead-letter e il checkpoint le supera; se il database non risponde il lettore torna
+     * al primo evento non consegnato e si ritenta dopo una pausa, senza perdere eventi.
+     * Writes the journal's next batch to the database and confirms its checkpoint. Rows rejected by the database go
+     * to the dead-letter file and the checkpoint moves past them; if the database is down the reader goes back to
+     * the first undelivered event and retries after a pause, without losing events.
+     *
+     * @return {@code true} se il lotto è stato consegnato / if the batch was delivered
+     */
+    private boolean drainJournal() throws InterruptedException {
+        if (!journal.isEnabled()) {
+            return false;
+        }
+        List<AuditEvent> batch = journal.read(journal.getReplayBatchSize());
+        if (batch.isEmpty()) {
+            return false;
+        }
+        List<AuditEvent> undelivered = deliver(batch);
+        if (undelivered.isEmpty()) {
+            journal.commit();
+            return true;
+        }
+        int delivered = deliveredPrefix(batch, undelivered);
+        journal.rewind();
+        if (delivered > 0) {
+            journal.read(delivered);
+            journal.commit();
+        }
+        log.warn("Scrittura di {} eventi dal journal di audit rinviata", batch.size() - delivered);
+        Thread.sleep(REPLAY_RETRY_MS);
+        return false;
+    }
+
+    /**
+     * Scrive un lotto; gli eventi non scritti perché il database non risponde vengono riversati su file con SPILL,
+     * altrimenti sono persi.
+     * Writes a batch; events not written because the database is down are spilled to file with SPILL, otherwise
+     * they are lost.
+     */
+    private void write(List<AuditEvent> batch) {
+        List<AuditEvent> undelivered = deliver(batch);
+        if (undelivered.isEmpty()) {
+            return;
+        }
+        if (overflowPolicy == AuditOverflowPolicy.SPILL && spill(undelivered)) {
+            log.warn("{} eventi di audit riversati su file", undelivered.size());
+            return;
+        }
+        log.error("{} eventi di audit non scritti", undelivered.size());
+        failed.increment(undelivered.size());
+    }
+
+    /**
+     * Scrive un lotto isolando le righe rifiutate dal database. Se il lotto fallisce per un errore non transitorio
+     * le righe non confermate dal driver vengono riprovate una alla volta e quelle rifiutate vanno nel file
+     * dead-letter; un errore transitorio (database non raggiungibile, timeout) interrompe la consegna.
+     * Writes a batch isolating the rows rejected by the database. If the batch fails with a non-transient error the
+     * rows not confirmed by the driver are retried one at a time and the rejected ones go to the dead-letter file;
+     * a transient error (database unreachable, timeout) stops the delivery.
+     *
+     * @return eventi non consegnati per un errore transitorio, nell’ordine del lotto /
+     *         events not delivered because of a transient error, in batch order
+     */
+    private List<AuditEvent> deliver(List<AuditEvent> batch) {
+        DataAccessException failure;
+        try {
+            insert(batch);
+            return List.of();
+        } catch (DataAccessException ex) {
+            failure = ex;
+        }
+        if (isTransient(failure)) {
+            log.warn("Database non disponibile per {} eventi di audit: {}", batch.size(), failure.getMessage());
+            return batch;
+        }
+        boolean[] confirmed = confirmedRows(failure, batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            if (confirmed[i]) {
+                written.increment();
+                continue;
+            }
+            AuditEvent event = batch.get(i);
+            try {
+                insert(List.of(event));
+            } catch (DataAccessException ex) {
+                if (isTransient(ex)) {
+                    log.warn("Database non disponibile durante la scrittura riga per riga dell'audit: {}", ex.getMessage());
+                    List<AuditEvent> undelivered = new ArrayList<>();
+                    for (int j = i; j < batch.size(); j++) {
+                        if (!confirmed[j]) {
+                            undelivered.add(batch.get(j));
+                        }
+                    }
+                    return undelivered;
+                }
+                deadLetter(event, ex);
+            }
+        }
+        return List.of();
+    }
+
+    /**
+     * Righe già scritte secondo i conteggi del {@link BatchUpdateException}; senza conteggi nessuna riga è
+     * considerata scritta.
+     * Rows already written according to the {@link BatchUpdateException} counts; without counts no row is
+     * considered written.
+     */
+    private static boolean[] confirmedRows(DataAccessException failure, int size) {
+        boolean[] confirmed = new boolean[size];
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof BatchUpdateException batchFailure && batchFailure.getUpdateCounts() != null) {
+                int[] counts = batchFailure.getUpdateCounts();
+                for (int i = 0; i < Math.min(size, counts.length); i++) {
+                    confirmed[i] = counts[i] >= 0 || counts[i] == Statement.SUCCESS_NO_INFO;
+                }
+                break;
+            }
+        }
+        return confirmed;
+    }
+
+    private static boolean isTransient(DataAccessException ex) {
+        return ex instanceof TransientDataAccessException
+                || ex instanceof RecoverableDataAccessException
+                || ex instanceof DataAccessResourceFailureException;
+    }
+
+    private void deadLetter(AuditEvent event, DataAccessException cause) {
+        log.error("Evento di audit rifiutato dal database ({} {}): {}", event.entityName(), event.action(), cause.getMessage());
+        try {
+            deadLetterFile.append(List.of(event));
+            deadLettered.increment();
+        } catch (IOException ex) {
+            log.error("Scrittura sul file dead-letter dell'audit non riuscita: {}", ex.getMessage());
+            failed.increment();
+        }
+    }
+
+    /**
+     * Percorso di un file locale della pipeline: relativo, dipenderebbe dalla directory di avvio della JVM.
+     * Path of a local pipeline file: if relative, it would depend on the directory the JVM was started from.
+     *
+     * @throws IllegalArgumentException se il percorso non è assoluto / if the path is not absolute
+     */
+    private static Path absolute(String property, String value) {
+        Path path = Path.of(value);
+        if (!path.isAbsolute()) {
+            throw new IllegalArgumentException(property + " deve essere un percorso assoluto (audit.data-dir) / "
+                    + "must be an absolute path (audit.data-dir): " + value);
+        }
+        return path;
+    }
+
+    /**
+     * Numero di eventi iniziali del lotto consegnati, cioè la posizione del primo evento non consegnato.
+     * Number of leading events of the batch delivered, i.e. the position of the first undelivered event.
+     */
+    private static int deliveredPrefix(List<AuditEvent> batch, List<AuditEvent> undelivered) {
+        if (undelivered.isEmpty()) {
+            return batch.size();
+        }
+        AuditEvent first = undelivered.get(0);
+        int index = 0;
+        while (batch.get(index) != first) {
+            index++;
+        }
+        return index;
+    }
+
+    private void insert(List<AuditEvent> batch) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, event) -> {
+            ps.setString(1, event.entityName());
+            ps.setObject(2, event.entityId(), Types.BIGINT);
+            ps.setString(3, event.action());
+            ps.setObject(4, event.changedById(), Types.BIGINT);
+            ps.setTimestamp(5, event.timestamp() != null ? Timestamp.from(event.timestamp()) : null, utc);
+            ps.setString(6, event.details());
+        });
+        written.increment(batch.size());
+    }
+
+    private boolean spill(List<AuditEvent> events) {
+        try {
+            spillFile.append(events);
+            spilled.increment(events.size());
+            return true;
+        } catch (IOException ex) {
+            log.error("Scrittura sul file di spill dell'audit non riuscita: {}", ex.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Reinserisce gli eventi del file di spill; se il database non risponde il replay riprende al giro successivo
+     * dal primo evento non consegnato.
+     * Replays the spill file's events; if the database is down the replay resumes on the next round from the first
+     * undelivered event.
+     */
+    private void replaySpill() {
+        if (System.currentTimeMillis() < replayNotBefore || !spillFile.hasPending()) {
+            return;
+        }
+        try {
+            AuditSpillFile.Replay replay = spillFile.replay(batchSize, chunk -> deliveredPrefix(chunk, deliver(chunk)));
+            if (replay.delivered() > 0) {
+                log.info("Reinseriti {} eventi di audit dal file di spill", replay.delivered());
+            }
+            if (replay.complete()) {
+                return;
+            }
+            log.warn("Replay del file di spill dell'audit interrotto, si riprende dal primo evento non consegnato");
+        } catch (IOException ex) {
+            log.warn("Replay del file di spill dell'audit rinviato: {}", ex.getMessage());
+        }
+        replayNotBefore = System.currentTimeMillis() + REPLAY_RETRY_MS;
+    }
+
+    private static Counter outcomeCounter(MeterRegistry registry, String outcome) {
+        return Counter.builder("audit.pipeline.events")
+                .description("Eventi di audit per esito")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.demo.config.audit;
+
+import com.example.demo.dto.AuditLogDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.Calendar;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Job di retention dei log di audit: archivia su disco e poi elimina le partizioni mensili più vecchie.
+ *
+ * <p><strong>English:</strong> Audit log retention job: archives to disk and then drops the oldest monthly
+ * partitions.</p>
+ * <p><strong>Italiano:</strong> Job di retention dei log di audit: archivia su disco e poi elimina le partizioni
+ * mensili più vecchie.</p>
+ *
+ * <p>Ogni partizione interamente precedente agli ultimi {@code audit.retention.months} mesi viene letta in
+ * streaming ({@code SELECT ... PARTITION (pYYYYMM)}, senza toccare le altre) e scritta in
+ * {@code audit.archive.dir/audit_Logs-pYYYYMM.ndjson.gz}, un {@link AuditLogDTO} per riga. Il file viene prima
+ * scritto con estensione {@code .tmp} e rinominato a scrittura completata; solo allora la partizione viene
+ * eliminata con {@code DROP PARTITION}, che non genera righe di undo. Se il job si interrompe, la partizione
+ * resta e viene riarchiviata al giro successivo.</p>
+ * <p><strong>English:</strong> Every partition entirely older than the last {@code audit.retention.months} months
+ * is streamed ({@code SELECT ... PARTITION (pYYYYMM)}, without touching the others) and written to
+ * {@code audit.archive.dir/audit_Logs-pYYYYMM.ndjson.gz}, one {@link AuditLogDTO} per line. The file is first
+ * written with a {@code .tmp} extension and renamed once complete; only then is the partition dropped with
+ * {@code DROP PARTITION}, which generates no undo rows. If the job is interrupted, the partition stays and is
+ * archived again on the next run.</p>
+ */
+@Component
+@Slf4j
+public class AuditRetentionJob {
+
+    private final AuditPartitionManager partitionManager;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final int retentionMonths;
+    private final Path archiveDir;
+
+    /**
+     * Costruisce il job a partire dalle proprietà {@code audit.retention.*} e {@code audit.archive.*}.
+     *
+     * <p><strong>English:</strong> Builds the job from the {@code audit.retention.*} and {@code audit.archive.*}
+     * properties.</p>
+     *
+     * @param partitionManager gestore delle partizioni
+     *                         <p><strong>English:</strong> partition manager.</p>
+     * @param jdbcTemplate     template JDBC per la lettura in streaming
+     *                         <p><strong>English:</strong> JDBC template for streaming reads.</p>
+     * @param objectMapper     mapper JSON per l’archivio
+     *                         <p><strong>English:</strong> JSON mapper for the archive.</p>
+     * @param retentionMonths  mesi mantenuti nel database (0 = nessuna retention)
+     *                         <p><strong>English:</strong> months kept in the database (0 = no retention).</p>
+     * @param archiveDir       cartella degli archivi compressi
+     *                         <p><strong>English:</strong> compressed archive directory.</p>
+     */
+    public AuditRetentionJob(
+            AuditPartitionManager partitionManager,
+            JdbcTemplate jdbcTemplate,
+            ObjectMapper objectMapper,
+            @Value("${audit.retention.months:24}") int retentionMonths,
+            @Value("${audit.archive.dir:audit-archive}") String archiveDir
+    ) {
+        this.partitionManager = partitionManager;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.retentionMonths = retentionMonths;
+        this.archiveDir = Path.of(archiveDir);
+    }
+
+    /**
+     * Archivia ed elimina le partizioni scadute.
+     * Archives and drops the expired partitions.
+     */
+    @Scheduled(cron = "${audit.retention.cron:0 30 2 * * *}", zone = "UTC")
+    public void run() {
+        if (retentionMonths <= 0 || !partitionManager.isActive()) {
+            return;
+        }
+        LocalDateTime cutoff = YearMonth.now(ZoneOffset.UTC).minusMonths(retentionMonths).atDay(1).atStartOfDay();
+        for (AuditPartitionManager.Partition partition : partitionManager.partitions()) {
+            if (partition.upperBound().isAfter(cutoff)) {
+                break;
+            }
+            try {
+                long rows = archive(partition.name());
+                partitionManager.dropPartition(partition.name());
+                log.info("Partizione {} archiviata ({} righe)", partition.name(), rows);
+            } catch (IOException | UncheckedIOException | DataAccessException ex) {
+                log.error("Archiviazione della partizione {} non riuscita, ritento al prossimo giro", partition.name(), ex);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Scrive la partizione in un file NDJSON compresso con gzip.
+     * Writes the partition to a gzip-compressed NDJSON file.
+     *
+     * @return righe archiviate / archived rows
+     */
+    long archive(String partition) throws IOException {
+        Files.createDirectories(archiveDir);
+        Path target = archiveDir.resolve(AuditPartitionManager.TABLE + "-" + partition + ".ndjson.gz");
+        Path tmp = archiveDir.resolve(target.getFileName() + ".tmp");
+        Calendar utc = AuditPartitionManager.utcCalendar();
+        long[] rows = {0};
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(tmp));
+             SequenceWriter writer = objectMapper.writer().withRootValueSeparator("\n").writeValues(out)) {
+            jdbcTemplate.query(connection -> {
+                PreparedStatement ps = connection.prepareStatement(
+                        "select id, entity_name, entity_id, action, changed_by_id, timestamp, details from "
+                                + AuditPartitionManager.TABLE + " partition (" + partition + ") order by id",
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                // Streaming riga per riga con il driver MySQL/MariaDB / Row-by-row streaming with the MySQL/MariaDB driver
+                ps.setFetchSize(Integer.MIN_VALUE);
+                return ps;
+            }, rs -> {
+                AuditLogDTO dto = new AuditLogDTO();
+                dto.setId(rs.getLong(1));
+                dto.setEntityName(rs.getString(2));
+                dto.setEntityId(rs.getObject(3, Long.class));
+                dto.setAction(rs.getString(4));
+                dto.setChangedByAccountId(rs.getObject(5, Long.class));
+                Timestamp timestamp = rs.getTimestamp(6, utc);
+                dto.setTimestamp(timestamp != null ? timestamp.toInstant() : null);
+                dto.setDetails(rs.getString(7));
+                try {
+                    writer.write(dto);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+                rows[0]++;
+            });
+        }
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return rows[0];
+    }
+}
@@ -0,0 +1,209 @@
+package com.example.demo.config.audit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * File NDJSON locale su cui {@link AuditPipeline} riversa gli eventi che non trovano posto in coda
+ * o che non è stato possibile scrivere nel database.
+ *
+ * <p><strong>English:</strong> Local NDJSON file onto which {@link AuditPipeline} spills the events that do
+ * not fit in the queue or that could not be written to the database.</p>
+ * <p><strong>Italiano:</strong> File NDJSON locale su cui {@link AuditPipeline} riversa gli eventi che non
+ * trovano posto in coda o che non è stato possibile scrivere nel database.</p>
+ *
+ * <p>La rilettura sposta prima il file in {@code <nome>.replay}, così che le nuove scritture proseguano su
+ * un file vuoto; il file di replay viene cancellato solo dopo che tutti i suoi eventi sono stati consegnati.
+ * Le righe già consegnate sono registrate in {@code <nome>.replay.offset}: un replay interrotto (database non
+ * raggiungibile) riprende dal primo evento non consegnato. Solo un crash tra la consegna di un blocco e il
+ * salvataggio della posizione può ripetere quel blocco.</p>
+ * <p><strong>English:</strong> Replay first moves the file to {@code <name>.replay}, so new writes continue
+ * on an empty file; the replay file is deleted only after all of its events have been delivered.
+ * Lines already delivered are recorded in {@code <name>.replay.offset}: an interrupted replay (database
+ * unreachable) resumes from the first undelivered event. Only a crash between delivering a chunk and saving the
+ * position can repeat that chunk.</p>
+ */
+@Slf4j
+class AuditSpillFile {
+
+    private final Path path;
+    private final Path replayPath;
+    private final Path offsetPath;
+    private final ObjectMapper objectMapper;
+    private FileOutputStream output;
+    private BufferedWriter writer;
+
+    AuditSpillFile(Path path, ObjectMapper objectMapper) {
+        this.path = path;
+        this.replayPath = path.resolveSibling(path.getFileName() + ".replay");
+        this.offsetPath = path.resolveSibling(path.getFileName() + ".replay.offset");
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Accoda gli eventi al file e forza la scrittura su disco ({@code fsync}) prima di restituire: un evento
+     * accettato sopravvive anche a un crash del sistema operativo.
+     * Appends the events to the file and forces them to disk ({@code fsync}) before returning: an accepted event
+     * also survives an operating system crash.
+     *
+     * <p>Si usa {@link java.io.FileDescriptor#sync()} e non un {@code FileChannel}: il writer della pipeline viene
+     * interrotto allo shutdown e un canale interrotto si chiude a metà scrittura.</p>
+     * <p><strong>English:</strong> {@link java.io.FileDescriptor#sync()} is used rather than a {@code FileChannel}:
+     * the pipeline writer is interrupted on shutdown and an interrupted channel closes mid-write.</p>
+     */
+    synchronized void append(Collection<AuditEvent> events) throws IOException {
+        if (writer == null) {
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            output = new FileOutputStream(path.toFile(), true);
+            writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        }
+        for (AuditEvent event : events) {
+            writer.write(objectMapper.writeValueAsString(event));
+            writer.newLine();
+        }
+        writer.flush();
+        output.getFD().sync();
+    }
+
+    /**
+     * @return {@code true} se ci sono eventi da rileggere
+     *         <p><strong>English:</strong> {@code true} if there are events to replay.</p>
+     */
+    synchronized boolean hasPending() {
+        return Files.exists(replayPath) || sizeOf(path) > 0;
+    }
+
+    /**
+     * Rilegge gli eventi a blocchi e li consegna a {@code sink}, che restituisce quanti eventi iniziali del blocco
+     * ha consegnato. Dopo ogni blocco le righe consumate vengono salvate in {@code <nome>.replay.offset}, così un
+     * replay interrotto riprende dal primo evento non consegnato; il file viene rimosso quando è stato consegnato
+     * tutto.
+     * Replays the events in chunks and hands them to {@code sink}, which returns how many leading events of the
+     * chunk it delivered. After every chunk the consumed lines are saved to {@code <name>.replay.offset}, so an
+     * interrupted replay resumes from the first undelivered event; the file is removed once everything has been
+     * delivered.
+     *
+     * @return eventi consegnati e completamento del file / delivered events and file completion
+     */
+    Replay replay(int chunkSize, ToIntFunction<List<AuditEvent>> sink) throws IOException {
+        synchronized (this) {
+            if (!Files.exists(replayPath)) {
+                if (writer != null) {
+                    writer.close();
+                    writer = null;
+                    output = null;
+                }
+                if (!Files.exists(path)) {
+                    return new Replay(0, true);
+                }
+                Files.deleteIfExists(offsetPath);
+                Files.move(path, replayPath, StandardCopyOption.ATOMIC_MOVE);
+            }
+        }
+        long skip = readOffset();
+        long lines = 0;
+        int delivered = 0;
+        try (BufferedReader reader = Files.newBufferedReader(replayPath, StandardCharsets.UTF_8)) {
+            List<AuditEvent> chunk = new ArrayList<>(chunkSize);
+            List<Long> chunkLines = new ArrayList<>(chunkSize);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                long current = lines++;
+                if (current < skip || line.isBlank()) {
+                    continue;
+                }
+                try {
+                    chunk.add(objectMapper.readValue(line, AuditEvent.class));
+                    chunkLines.add(current);
+                } catch (IOException ex) {
+                    log.warn("Riga di audit non leggibile scartata dal file di spill: {}", ex.getMessage());
+                    continue;
+                }
+                if (chunk.size() == chunkSize) {
+                    int accepted = sink.applyAsInt(chunk);
+                    delivered += accepted;
+                    if (accepted < chunk.size()) {
+                        writeOffset(chunkLines.get(accepted));
+                        return new Replay(delivered, false);
+                    }
+                    writeOffset(lines);
+                    chunk.clear();
+                    chunkLines.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                int accepted = sink.applyAsInt(chunk);
+                delivered += accepted;
+                if (accepted < chunk.size()) {
+                    writeOffset(chunkLines.get(accepted));
+                    return new Replay(delivered, false);
+                }
+            }
+        }
+        Files.delete(replayPath);
+        Files.deleteIfExists(offsetPath);
+        return new Replay(delivered, true);
+    }
+
+    /**
+     * Esito di un replay.
+     * Outcome of a replay.
+     *
+     * @param delivered eventi consegnati / delivered events
+     * @param complete  {@code true} se il file è stato consegnato per intero / if the whole file was delivered
+     */
+    record Replay(int delivered, boolean complete) {
+    }
+
+    synchronized void close() {
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException ex) {
+                log.warn("Chiusura del file di spill dell'audit non riuscita: {}", ex.getMessage());
+            }
+            writer = null;
+            output = null;
+        }
+    }
+
+    private long readOffset() {
+        try {
+            return Files.exists(offsetPath) ? Long.parseLong(Files.readString(offsetPath).trim()) : 0;
+        } catch (IOException | NumberFormatException ex) {
+            log.warn("Posizione del replay dell'audit illeggibile, si riparte dall'inizio: {}", ex.getMessage());
+            return 0;
+        }
+    }
+
+    private void writeOffset(long lines) throws IOException {
+        Path temp = offsetPath.resolveSibling(offsetPath.getFileName() + ".tmp");
+        Files.writeString(temp, Long.toString(lines), StandardCharsets.UTF_8);
+        Files.move(temp, offsetPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static long sizeOf(Path file) {
+        try {
+            return Files.exists(file) ? Files.size(file) : 0;
+        } catch (IOException ex) {
+            return 0;
+        }
+    }
+}
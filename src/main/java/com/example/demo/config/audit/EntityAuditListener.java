@@ -0,0 +1,244 @@
+package com.example.demo.config.audit;
+
+import com.example.demo.entities.AuditLog;
+import com.example.demo.entities.Identifiable;
+import com.example.demo.entities.RefreshSession;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.temporal.TemporalAccessor;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Registra automaticamente in {@code audit_Logs} inserimenti, modifiche e cancellazioni di tutte le entità.
+ *
+ * <p><strong>English:</strong> Automatically records inserts, updates and deletes of every entity into
+ * {@code audit_Logs}.</p>
+ * <p><strong>Italiano:</strong> Registra automaticamente in {@code audit_Logs} inserimenti, modifiche e
+ * cancellazioni di tutte le entità.</p>
+ *
+ * <p>I listener post-insert/update/delete di Hibernate calcolano al flush il diff dei soli campi modificati
+ * (dallo stato già presente nell’evento, senza query) e lo serializzano in {@code details} come JSON compatto:
+ * {@code {"campo":[vecchio,nuovo]}} per gli aggiornamenti, {@code {"campo":valore}} per inserimenti e
+ * cancellazioni. Le associazioni sono ridotte al loro ID, le collezioni sono escluse e i campi in
+ * {@code audit.entities.masked-fields} sono sostituiti da {@code "***"}. L’evento viene consegnato ad
+ * {@link AuditPipeline} solo dopo il commit; con il rollback viene scartato. Sono esclusi gli stessi log di audit e
+ * le sessioni di refresh, che cambiano a ogni rinnovo del token.</p>
+ * <p><strong>English:</strong> Hibernate's post-insert/update/delete listeners compute at flush time the diff of
+ * the changed fields only (from the state already carried by the event, with no query) and serialise it into
+ * {@code details} as compact JSON: {@code {"field":[old,new]}} for updates, {@code {"field":value}} for inserts
+ * and deletes. Associations are reduced to their ID, collections are left out and the fields in
+ * {@code audit.entities.masked-fields} are replaced by {@code "***"}. The event is handed to
+ * {@link AuditPipeline} only after commit; on rollback it is discarded. Audit logs themselves and refresh sessions,
+ * which change on every token renewal, are left out.</p>
+ */
+@Component
+@Slf4j
+public class EntityAuditListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private static final String MASK = "***";
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final AuditPipeline auditPipeline;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final Set<String> maskedFields;
+    private final Set<String> ignoredFields;
+
+    /**
+     * Costruisce il listener a partire dalle proprietà {@code audit.entities.*}.
+     *
+     * <p><strong>English:</strong> Builds the listener from the {@code audit.entities.*} properties.</p>
+     *
+     * @param entityManagerFactory factory su cui registrare i listener
+     *                             <p><strong>English:</strong> factory the listeners are registered on.</p>
+     * @param auditPipeline        pipeline asincrona di scrittura
+     *                             <p><strong>English:</strong> asynchronous write pipeline.</p>
+     * @param objectMapper         mapper JSON per i dettagli
+     *                             <p><strong>English:</strong> JSON mapper for the details.</p>
+     * @param enabled              abilita l’audit automatico
+     *                             <p><strong>English:</strong> enables automatic auditing.</p>
+     * @param maskedFields         campi il cui valore non viene mai scritto
+     *                             <p><strong>English:</strong> fields whose value is never written.</p>
+     * @param ignoredFields        campi esclusi dal diff
+     *                             <p><strong>English:</strong> fields left out of the diff.</p>
+     */
+    public EntityAuditListener(
+            EntityManagerFactory entityManagerFactory,
+            AuditPipeline auditPipeline,
+            ObjectMapper objectMapper,
+            @Value("${audit.entities.enabled:true}") boolean enabled,
+            @Value("${audit.entities.masked-fields:passwordHash}") Set<String> maskedFields,
+            @Value("${audit.entities.ignored-fields:usernameNormalized}") Set<String> ignoredFields
+    ) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.auditPipeline = auditPipeline;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.maskedFields = Set.copyOf(maskedFields);
+        this.ignoredFields = Set.copyOf(ignoredFields);
+    }
+
+    /**
+     * Aggiunge questo listener agli eventi post-insert, post-update e post-delete di Hibernate.
+     * Appends this listener to Hibernate's post-insert, post-update and post-delete events.
+     */
+    @PostConstruct
+    void register() {
+        if (!enabled) {
+            return;
+        }
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (isAudited(event.getEntity())) {
+            Map<String, Object> diff = snapshot(event.getPersister(), event.getState());
+            enqueue(event.getSession(), event.getPersister(), event.getId(), "CREATE", diff);
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (!isAudited(event.getEntity())) {
+            return;
+        }
+        String[] names = event.getPersister().getPropertyNames();
+        Object[] oldState = event.getOldState();
+        Object[] state = event.getState();
+        int[] dirty = event.getDirtyProperties() != null ? event.getDirtyProperties() : changed(oldState, state);
+        Map<String, Object> diff = new LinkedHashMap<>();
+        for (int i : dirty) {
+            String name = names[i];
+            if (ignoredFields.contains(name) || state[i] instanceof Collection<?> || state[i] instanceof Map<?, ?>) {
+                continue;
+            }
+            Object before = oldState != null ? value(name, oldState[i]) : null;
+            diff.put(name, new Object[]{before, value(name, state[i])});
+        }
+        if (!diff.isEmpty()) {
+            enqueue(event.getSession(), event.getPersister(), event.getId(), "UPDATE", diff);
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (isAudited(event.getEntity())) {
+            Map<String, Object> diff = snapshot(event.getPersister(), event.getDeletedState());
+            enqueue(event.getSession(), event.getPersister(), event.getId(), "DELETE", diff);
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    /**
+     * Indici dei campi cambiati quando Hibernate non li ha calcolati (es. merge di un’entità detached).
+     * Indexes of the changed fields when Hibernate did not compute them (e.g. merge of a detached entity).
+     */
+    private static int[] changed(Object[] oldState, Object[] state) {
+        if (oldState == null) {
+            return IntStream.range(0, state.length).toArray();
+        }
+        return IntStream.range(0, state.length)
+                .filter(i -> !Objects.equals(oldState[i], state[i]))
+                .toArray();
+    }
+
+    private boolean isAudited(Object entity) {
+        return !(entity instanceof AuditLog || entity instanceof RefreshSession);
+    }
+
+    private Map<String, Object> snapshot(EntityPersister persister, Object[] state) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        if (state == null) {
+            return values;
+        }
+        String[] names = persister.getPropertyNames();
+        for (int i = 0; i < names.length; i++) {
+            Object value = state[i];
+            if (value == null || ignoredFields.contains(names[i])
+                    || value instanceof Collection<?> || value instanceof Map<?, ?>) {
+                continue;
+            }
+            values.put(names[i], value(names[i], value));
+        }
+        return values;
+    }
+
+    /**
+     * Riduce un valore a una forma compatta e serializzabile: ID per le associazioni, stringa ISO per le date.
+     * Reduces a value to a compact, serialisable form: ID for associations, ISO string for dates.
+     */
+    private Object value(String name, Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (maskedFields.contains(name)) {
+            return MASK;
+        }
+        if (value instanceof Identifiable identifiable) {
+            return identifiable.getId();
+        }
+        if (value instanceof Enum<?> constant) {
+            return constant.name();
+        }
+        if (value instanceof TemporalAccessor) {
+            return value.toString();
+        }
+        return value;
+    }
+
+    /**
+     * Serializza i dettagli subito (lo stato può cambiare dopo il flush) e accoda l’evento dopo il commit.
+     * Serialises the details right away (state may change after the flush) and enqueues the event after commit.
+     */
+    private void enqueue(EventSource session, EntityPersister persister, Object id, String action, Map<String, Object> diff) {
+        String entityName = persister.getMappedClass().getSimpleName();
+        String details;
+        try {
+            details = objectMapper.writeValueAsString(diff);
+        } catch (JsonProcessingException ex) {
+            log.warn("Dettagli di audit non serializzabili per {}#{}: {}", entityName, id, ex.getMessage());
+            details = null;
+        }
+        AuditEvent auditEvent = new AuditEvent(entityName,
+                id instanceof Number number ? number.longValue() : null,
+                action, AuditActor.currentAccountId(), Instant.now(), details);
+        session.getActionQueue().registerProcess((success, s) -> {
+            if (success) {
+                auditPipeline.submit(auditEvent);
+            }
+        });
+    }
+}
@@ -0,0 +1,229 @@
+package com.example.demo.config.catalog;
+
+import com.example.demo.services.events.PermissionChangedEvent;
+import com.example.demo.services.events.RoleChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Catalogo in memoria di ruoli e permessi, servito da un’istantanea immutabile e versionata.
+ *
+ * <p><strong>English:</strong> In-memory catalog of roles and permissions, served from an immutable, versioned
+ * snapshot.</p>
+ * <p><strong>Italiano:</strong> Catalogo in memoria di ruoli e permessi, servito da un’istantanea immutabile e
+ * versionata.</p>
+ *
+ * <p>Le tabelle {@code roles}, {@code permissions} e {@code role_permission} cambiano di rado: vengono lette con
+ * due query JDBC e l’intero grafo viene pubblicato con un solo {@link AtomicReference#set(Object)}, quindi un
+ * lettore vede sempre un’istantanea coerente senza lock né query. L’istantanea viene ricaricata dopo il commit di
+ * un {@link RoleChangedEvent} o {@link PermissionChangedEvent} e ogni {@code security.catalog.refresh-interval}
+ * per le modifiche fatte da altri nodi; la versione aumenta solo se il contenuto è cambiato. Chi non trova un
+ * elemento nell’istantanea (creato da poco su un altro nodo) può ripiegare sul repository.</p>
+ * <p><strong>English:</strong> The {@code roles}, {@code permissions} and {@code role_permission} tables rarely
+ * change: they are read with two JDBC queries and the whole graph is published with a single
+ * {@link AtomicReference#set(Object)}, so a reader always sees a consistent snapshot without locks or queries.
+ * The snapshot is reloaded after the commit of a {@link RoleChangedEvent} or {@link PermissionChangedEvent} and
+ * every {@code security.catalog.refresh-interval} for changes made by other nodes; the version only grows when
+ * the content has changed. Callers missing an element in the snapshot (recently created on another node) can
+ * fall back to the repository.</p>
+ */
+@Component
+@Slf4j
+public class RoleCatalog {
+
+    static final String PERMISSIONS_SQL = "SELECT id, name, description FROM permissions ORDER BY id";
+    static final String ROLES_SQL = """
+            SELECT r.id, r.name, r.description, rp.permission_id
+            FROM roles r
+            LEFT JOIN role_permission rp ON rp.role_id = r.id
+            ORDER BY r.id, rp.permission_id""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AtomicReference<Snapshot> current = new AtomicReference<>();
+
+    /**
+     * Permesso nel catalogo.
+     * Permission in the catalog.
+     *
+     * @param id          ID del permesso / permission ID
+     * @param name        nome del permesso / permission name
+     * @param description descrizione / description
+     */
+    public record PermissionEntry(Long id, String name, String description) {
+    }
+
+    /**
+     * Ruolo nel catalogo, con gli ID dei suoi permessi.
+     * Role in the catalog, with the IDs of its permissions.
+     *
+     * @param id            ID del ruolo / role ID
+     * @param name          nome del ruolo / role name
+     * @param description   descrizione / description
+     * @param permissionIds ID dei permessi, immutabile / permission IDs, immutable
+     */
+    public record RoleEntry(Long id, String name, String description, Set<Long> permissionIds) {
+    }
+
+    /**
+     * Istantanea immutabile dell’intero grafo ruoli/permessi.
+     * Immutable snapshot of the whole role/permission graph.
+     *
+     * @param version         versione, aumentata a ogni cambiamento / version, increased on every change
+     * @param roles           ruoli in ordine di ID / roles in ID order
+     * @param permissions     permessi in ordine di ID / permissions in ID order
+     * @param rolesById       ruoli per ID / roles by ID
+     * @param rolesByName     ruoli per nome / roles by name
+     * @param permissionsById permessi per ID / permissions by ID
+     */
+    public record Snapshot(long version, List<RoleEntry> roles, List<PermissionEntry> permissions,
+                           Map<Long, RoleEntry> rolesById, Map<String, RoleEntry> rolesByName,
+                           Map<Long, PermissionEntry> permissionsById) {
+
+        private static Snapshot of(long version, List<RoleEntry> roles, List<PermissionEntry> permissions) {
+            return new Snapshot(version, roles, permissions,
+                    index(roles, RoleEntry::id), index(roles, RoleEntry::name), index(permissions, PermissionEntry::id));
+        }
+
+        /**
+         * @param id ID del ruolo / role ID
+         * @return ruolo, se presente / role, if present
+         */
+        public Optional<RoleEntry> role(Long id) {
+            return Optional.ofNullable(id != null ? rolesById.get(id) : null);
+        }
+
+        /**
+         * @param id ID del permesso / permission ID
+         * @return permesso, se presente / permission, if present
+         */
+        public Optional<PermissionEntry> permission(Long id) {
+            return Optional.ofNullable(id != null ? permissionsById.get(id) : null);
+        }
+
+        private boolean sameContent(Snapshot other) {
+            return other != null && roles.equals(other.roles) && permissions.equals(other.permissions);
+        }
+
+        private static <K, V> Map<K, V> index(List<V> values, Function<V, K> key) {
+            return values.stream().collect(Collectors.toUnmodifiableMap(key, Function.identity()));
+        }
+    }
+
+    /**
+     * Costruttore iniettato con {@link JdbcTemplate}.
+     *
+     * <p><strong>English:</strong> Constructor injected with {@link JdbcTemplate}.</p>
+     *
+     * @param jdbcTemplate accesso JDBC a ruoli e permessi
+     *                     <p><strong>English:</strong> JDBC access to roles and permissions.</p>
+     */
+    public RoleCatalog(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Istantanea corrente, caricata al primo uso.
+     *
+     * <p><strong>English:</strong> Current snapshot, loaded on first use.</p>
+     *
+     * @return istantanea immutabile
+     *         <p><strong>English:</strong> immutable snapshot.</p>
+     */
+    public Snapshot snapshot() {
+        Snapshot snapshot = current.get();
+        return snapshot != null ? snapshot : reload();
+    }
+
+    /**
+     * Rilegge il catalogo e pubblica la nuova istantanea se il contenuto è cambiato.
+     *
+     * <p><strong>English:</strong> Re-reads the catalog and publishes the new snapshot if the content changed.</p>
+     *
+     * @return istantanea corrente dopo la ricarica
+     *         <p><strong>English:</strong> current snapshot after the reload.</p>
+     */
+    public synchronized Snapshot reload() {
+        Snapshot previous = current.get();
+        List<PermissionEntry> permissions = jdbcTemplate.query(PERMISSIONS_SQL, (rs, n) ->
+                new PermissionEntry(rs.getLong("id"), rs.getString("name"), rs.getString("description")));
+        Map<Long, RoleEntry> roles = new LinkedHashMap<>();
+        Map<Long, Set<Long>> grants = new LinkedHashMap<>();
+        jdbcTemplate.query(ROLES_SQL, rs -> {
+            long id = rs.getLong("id");
+            if (!roles.containsKey(id)) {
+                roles.put(id, new RoleEntry(id, rs.getString("name"), rs.getString("description"), Set.of()));
+                grants.put(id, new LinkedHashSet<>());
+            }
+            long permissionId = rs.getLong("permission_id");
+            if (!rs.wasNull()) {
+                grants.get(id).add(permissionId);
+            }
+        });
+        List<RoleEntry> roleList = roles.values().stream()
+                .map(role -> new RoleEntry(role.id(), role.name(), role.description(), Set.copyOf(grants.get(role.id()))))
+                .toList();
+        Snapshot next = Snapshot.of(previous != null ? previous.version() + 1 : 0, roleList, List.copyOf(permissions));
+        if (next.sameContent(previous)) {
+            return previous;
+        }
+        current.set(next);
+        log.debug("Catalogo ruoli/permessi alla versione {}: {} ruoli, {} permessi",
+                next.version(), roleList.size(), permissions.size());
+        return next;
+    }
+
+    /**
+     * Ricarica il catalogo dopo il commit della modifica di un ruolo.
+     *
+     * <p><strong>English:</strong> Reloads the catalog after the commit of a role change.</p>
+     *
+     * @param event evento di modifica del ruolo
+     *              <p><strong>English:</strong> role change event.</p>
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRoleChanged(RoleChangedEvent event) {
+        refresh();
+    }
+
+    /**
+     * Ricarica il catalogo dopo il commit della modifica di un permesso.
+     *
+     * <p><strong>English:</strong> Reloads the catalog after the commit of a permission change.</p>
+     *
+     * @param event evento di modifica del permesso
+     *              <p><strong>English:</strong> permission change event.</p>
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPermissionChanged(PermissionChangedEvent event) {
+        refresh();
+    }
+
+    /**
+     * Ricarica periodica, per le modifiche fatte da altri nodi; in caso di errore resta valida l’istantanea precedente.
+     * Periodic reload, for changes made by other nodes; on failure the previous snapshot stays in use.
+     */
+    @Scheduled(fixedDelayString = "${security.catalog.refresh-interval:5m}",
+            initialDelayString = "${security.catalog.refresh-interval:5m}")
+    public void refresh() {
+        try {
+            reload();
+        } catch (DataAccessException ex) {
+            log.warn("Ricarica del catalogo ruoli/permessi non riuscita, resta la versione {}: {}",
+                    current.get() != null ? current.get().version() : "-", ex.getMessage());
+        }
+    }
+}
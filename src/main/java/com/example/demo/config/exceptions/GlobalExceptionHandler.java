@@ -3,6 +3,7 @@ package com.example.demo.config.exceptions;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.UnsupportedJwtException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -11,6 +12,7 @@ import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -159,6 +161,50 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
     }
 
+    /**
+     * Gestisce le eccezioni di risorsa satura (ServiceBusyException).
+     *
+     * <p><strong>English:</strong> Handles ServiceBusyException, returning 503 Service Unavailable
+     * with a {@code Retry-After} header, in seconds.</p>
+     * <p><strong>Italiano:</strong> Gestisce ServiceBusyException,
+     * restituendo 503 Service Unavailable con l’header {@code Retry-After}, in secondi.</p>
+     *
+     * @param ex l’eccezione di tipo ServiceBusyException
+     *           <p><strong>English:</strong> the exception instance for a saturated resource.</p>
+     *           <p><strong>Italiano:</strong> l’istanza dell’eccezione per una risorsa satura.</p>
+     * @return ResponseEntity con il messaggio dell’eccezione e status 503 (Service Unavailable)
+     *         <p><strong>English:</strong> a ResponseEntity with the exception’s message and HTTP status 503.</p>
+     *         <p><strong>Italiano:</strong> una ResponseEntity con il messaggio dell’eccezione e stato HTTP 503.</p>
+     */
+    @ExceptionHandler(ServiceBusyException.class)
+    public ResponseEntity<String> handleServiceBusy(ServiceBusyException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, retryAfterSeconds(ex.getRetryAfter()))
+                .body(ex.getMessage());
+    }
+
+    /**
+     * Gestisce le eccezioni di troppi tentativi di login (TooManyAttemptsException).
+     *
+     * <p><strong>English:</strong> Handles TooManyAttemptsException, returning 429 Too Many Requests
+     * with a {@code Retry-After} header, in seconds.</p>
+     * <p><strong>Italiano:</strong> Gestisce TooManyAttemptsException,
+     * restituendo 429 Too Many Requests con l’header {@code Retry-After}, in secondi.</p>
+     *
+     * @param ex l’eccezione di tipo TooManyAttemptsException
+     *           <p><strong>English:</strong> the exception instance for a throttled client or locked account.</p>
+     *           <p><strong>Italiano:</strong> l’istanza dell’eccezione per un client limitato o un account bloccato.</p>
+     * @return ResponseEntity con il messaggio dell’eccezione e status 429 (Too Many Requests)
+     *         <p><strong>English:</strong> a ResponseEntity with the exception’s message and HTTP status 429.</p>
+     *         <p><strong>Italiano:</strong> una ResponseEntity con il messaggio dell’eccezione e stato HTTP 429.</p>
+     */
+    @ExceptionHandler(TooManyAttemptsException.class)
+    public ResponseEntity<String> handleTooManyAttempts(TooManyAttemptsException ex) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, retryAfterSeconds(ex.getRetryAfter()))
+                .body(ex.getMessage());
+    }
+
     /**
      * Gestisce tutte le altre eccezioni non catturate specificamente.
      *
@@ -179,4 +225,12 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body("Errore interno: " + ex.getMessage());
     }
+
+    /**
+     * Valore dell’header {@code Retry-After}: secondi interi, arrotondati per eccesso, almeno 1.
+     * {@code Retry-After} header value: whole seconds, rounded up, at least 1.
+     */
+    private static String retryAfterSeconds(Duration retryAfter) {
+        return Long.toString(Math.max(1, (retryAfter.toMillis() + 999) / 1000));
+    }
 }
@@ -0,0 +1,40 @@
+package com.example.demo.config.exceptions;
+
+import java.time.Duration;
+
+/**
+ * Eccezione lanciata quando una risorsa limitata è satura e la richiesta va ripetuta più tardi.
+ *
+ * <p><strong>English:</strong> Exception thrown when a bounded resource is saturated and the request should be
+ * retried later.</p>
+ * <p><strong>Italiano:</strong> Eccezione lanciata quando una risorsa limitata è satura e la richiesta va
+ * ripetuta più tardi.</p>
+ */
+public class ServiceBusyException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    /**
+     * Costruisce una nuova istanza di {@code ServiceBusyException} con il tempo di attesa suggerito.
+     *
+     * <p><strong>English:</strong> Constructs a new {@code ServiceBusyException} with the suggested wait time.</p>
+     * <p><strong>Italiano:</strong> Costruisce una nuova {@code ServiceBusyException} con il tempo di attesa suggerito.</p>
+     *
+     * @param message    il messaggio di dettaglio
+     *                   <p><strong>English:</strong> the detail message.</p>
+     * @param retryAfter attesa suggerita al client prima di riprovare
+     *                   <p><strong>English:</strong> wait suggested to the client before retrying.</p>
+     */
+    public ServiceBusyException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * Attesa suggerita prima di riprovare.
+     * Suggested wait before retrying.
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
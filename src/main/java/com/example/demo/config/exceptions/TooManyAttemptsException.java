@@ -0,0 +1,40 @@
+package com.example.demo.config.exceptions;
+
+import java.time.Duration;
+
+/**
+ * Eccezione lanciata quando un client o un account ha superato il numero di tentativi di login consentiti.
+ *
+ * <p><strong>English:</strong> Exception thrown when a client or an account has exceeded the allowed number of
+ * login attempts.</p>
+ * <p><strong>Italiano:</strong> Eccezione lanciata quando un client o un account ha superato il numero di
+ * tentativi di login consentiti.</p>
+ */
+public class TooManyAttemptsException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    /**
+     * Costruisce una nuova istanza di {@code TooManyAttemptsException} con il tempo di attesa richiesto.
+     *
+     * <p><strong>English:</strong> Constructs a new {@code TooManyAttemptsException} with the required wait time.</p>
+     * <p><strong>Italiano:</strong> Costruisce una nuova {@code TooManyAttemptsException} con il tempo di attesa richiesto.</p>
+     *
+     * @param message    il messaggio di dettaglio
+     *                   <p><strong>English:</strong> the detail message.</p>
+     * @param retryAfter attesa prima che un nuovo tentativo venga accettato
+     *                   <p><strong>English:</strong> wait before a new attempt is accepted.</p>
+     */
+    public TooManyAttemptsException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * Attesa prima che un nuovo tentativo venga accettato.
+     * Wait before a new attempt is accepted.
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.demo.config.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Scrive uno {@link Stream} di entità sulla risposta in NDJSON o CSV, riga per riga.
+ *
+ * <p><strong>English:</strong> Writes a {@link Stream} of entities onto the response as NDJSON or CSV, row by row.</p>
+ * <p><strong>Italiano:</strong> Scrive uno {@link Stream} di entità sulla risposta in NDJSON o CSV, riga per riga.</p>
+ *
+ * <p>Le entità vengono lette a blocchi di {@code export.flush-every} righe; ogni blocco viene mappato
+ * in DTO in una volta sola, serializzato, e poi il persistence context viene svuotato per intero
+ * (incluse le associazioni EAGER) e l’output inviato al client. La memoria usata resta quindi costante, indipendentemente
+ * dalla dimensione della tabella. Deve essere invocato all’interno di una transazione in sola lettura
+ * che mantiene aperto il cursore dello stream.</p>
+ * <p><strong>English:</strong> Entities are read in chunks of {@code export.flush-every} rows; each chunk is
+ * mapped to DTOs in one go, serialised, then the whole persistence context (including EAGER associations)
+ * is cleared and output is flushed to the client. Memory therefore stays constant regardless of table size.
+ * Must be called inside a read-only transaction that keeps the stream's cursor open.</p>
+ */
+@Component
+public class EntityExporter {
+
+    private final ObjectMapper objectMapper;
+    private final CsvMapper csvMapper;
+    private final int flushEvery;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Costruttore iniettato con l’{@link ObjectMapper} dell’applicazione.
+     *
+     * <p><strong>English:</strong> Constructor injected with the application's {@link ObjectMapper}.</p>
+     *
+     * @param objectMapper mapper JSON configurato da Spring Boot
+     *                     <p><strong>English:</strong> JSON mapper configured by Spring Boot.</p>
+     * @param flushEvery   righe tra due svuotamenti del persistence context e dell’output
+     *                     <p><strong>English:</strong> rows between two persistence context and output flushes.</p>
+     */
+    public EntityExporter(ObjectMapper objectMapper, @Value("${export.flush-every:500}") int flushEvery) {
+        this.objectMapper = objectMapper;
+        this.csvMapper = new CsvMapper();
+        Jackson2ObjectMapperBuilder.json().configure(this.csvMapper);
+        this.flushEvery = Math.max(1, flushEvery);
+    }
+
+    /**
+     * Esporta le righe nel formato richiesto.
+     *
+     * <p><strong>English:</strong> Exports the rows in the requested format.</p>
+     *
+     * @param rows   stream di entità, aperto sul cursore del database
+     *               <p><strong>English:</strong> entity stream, open on the database cursor.</p>
+     * @param mapper conversione di un blocco di entità → DTO (stesso ordine)
+     *               <p><strong>English:</strong> conversion of a chunk of entities → DTOs (same order).</p>
+     * @param type   classe del DTO (usata per lo schema CSV)
+     *               <p><strong>English:</strong> DTO class (used for the CSV schema).</p>
+     * @param format formato di output
+     *               <p><strong>English:</strong> output format.</p>
+     * @param out    stream della risposta
+     *               <p><strong>English:</strong> response stream.</p>
+     */
+    public <E, D> void export(Stream<E> rows, Function<List<E>, List<D>> mapper, Class<D> type,
+                              ExportFormat format, OutputStream out) {
+        try (rows; SequenceWriter writer = writerFor(type, format, out)) {
+            Iterator<E> iterator = rows.iterator();
+            List<E> chunk = new ArrayList<>(flushEvery);
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == flushEvery) {
+                    writeChunk(chunk, mapper, writer);
+                }
+            }
+            writeChunk(chunk, mapper, writer);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private <E, D> void writeChunk(List<E> chunk, Function<List<E>, List<D>> mapper,
+                                   SequenceWriter writer) throws IOException {
+        if (!chunk.isEmpty()) {
+            writer.writeAll(mapper.apply(chunk));
+            chunk.clear();
+        }
+        entityManager.clear();
+        writer.flush();
+    }
+
+    private SequenceWriter writerFor(Class<?> type, ExportFormat format, OutputStream out) throws IOException {
+        return switch (format) {
+            case NDJSON -> objectMapper.writerFor(type).withRootValueSeparator("\n").writeValues(out);
+            case CSV -> csvMapper.writerFor(type).with(csvMapper.schemaFor(type).withHeader()).writeValues(out);
+        };
+    }
+}
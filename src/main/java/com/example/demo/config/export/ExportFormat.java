@@ -0,0 +1,51 @@
+package com.example.demo.config.export;
+
+import org.springframework.http.MediaType;
+
+import java.util.Locale;
+
+/**
+ * Formati supportati dagli endpoint di esportazione.
+ * Formats supported by the export endpoints.
+ */
+public enum ExportFormat {
+
+    /** Un oggetto JSON per riga / One JSON object per line. */
+    NDJSON(MediaType.parseMediaType("application/x-ndjson"), "ndjson"),
+
+    /** CSV con riga di intestazione / CSV with a header row. */
+    CSV(MediaType.parseMediaType("text/csv"), "csv");
+
+    private final MediaType mediaType;
+    private final String extension;
+
+    ExportFormat(MediaType mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Converte il parametro di richiesta (case-insensitive) nel formato corrispondente.
+     * Converts the request parameter (case-insensitive) into the matching format.
+     *
+     * @throws IllegalArgumentException se il formato non è supportato / if the format is not supported
+     */
+    public static ExportFormat from(String value) {
+        if (value == null || value.isBlank()) {
+            return NDJSON;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Unsupported export format: " + value);
+        }
+    }
+}
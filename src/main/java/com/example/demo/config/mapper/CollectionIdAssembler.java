@@ -0,0 +1,126 @@
+package com.example.demo.config.mapper;
+
+import com.example.demo.dto.*;
+import com.example.demo.entities.*;
+import com.example.demo.repositories.*;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Converte liste di entità in DTO leggendo gli insiemi di ID delle collezioni con query dedicate.
+ *
+ * <p><strong>English:</strong> Converts lists of entities to DTOs, reading the collections' ID sets with dedicated queries.</p>
+ * <p><strong>Italiano:</strong> Converte liste di entità in DTO leggendo gli insiemi di ID delle collezioni con query dedicate.</p>
+ *
+ * <p>Le entità sono mappate con i metodi {@code EntityMapper.toDtoWithoutCollections}, che non inizializzano
+ * le collezioni lazy; per ogni collezione viene poi eseguita una sola query proiettata ({@link IdLink})
+ * sulla tabella di join o sulla colonna FK, per tutta la lista. Un dipartimento con 5000 persone costa
+ * quindi una query su {@code personas.department_id} invece di 5000 entità {@code Persona} idratate.</p>
+ * <p><strong>English:</strong> Entities are mapped with the {@code EntityMapper.toDtoWithoutCollections}
+ * methods, which do not initialise lazy collections; then a single projected query ({@link IdLink}) per
+ * collection is run on the join table or FK column, for the whole list. A department with 5000 people
+ * therefore costs one query on {@code personas.department_id} instead of 5000 hydrated {@code Persona}
+ * entities.</p>
+ */
+@Component
+@RequiredArgsConstructor
+public class CollectionIdAssembler {
+
+    /** Numero massimo di ID per clausola IN / Maximum number of IDs per IN clause. */
+    private static final int IN_CHUNK = 1000;
+
+    private final EntityMapper mapper;
+    private final PersonaRepository personaRepository;
+    private final ProjectRepository projectRepository;
+    private final DepartmentRepository departmentRepository;
+    private final PositionRepository positionRepository;
+    private final TeamRepository teamRepository;
+
+    public PersonaDTO toDto(Persona persona) {
+        return toPersonaDtos(List.of(persona)).get(0);
+    }
+
+    public List<PersonaDTO> toPersonaDtos(List<Persona> personas) {
+        List<PersonaDTO> dtos = personas.stream().map(mapper::toDtoWithoutCollections).toList();
+        fill(dtos, PersonaDTO::getId, personaRepository::findTeamLinks, PersonaDTO::setTeamIds);
+        fill(dtos, PersonaDTO::getId, personaRepository::findProjectLinks, PersonaDTO::setProjectIds);
+        return dtos;
+    }
+
+    public ProjectDTO toDto(Project project) {
+        return toProjectDtos(List.of(project)).get(0);
+    }
+
+    public List<ProjectDTO> toProjectDtos(List<Project> projects) {
+        List<ProjectDTO> dtos = projects.stream().map(mapper::toDtoWithoutCollections).toList();
+        fill(dtos, ProjectDTO::getId, projectRepository::findTeamMemberLinks, ProjectDTO::setTeamMemberIds);
+        fill(dtos, ProjectDTO::getId, projectRepository::findTaskLinks, ProjectDTO::setTaskIds);
+        return dtos;
+    }
+
+    public DepartmentDTO toDto(Department department) {
+        return toDepartmentDtos(List.of(department)).get(0);
+    }
+
+    public List<DepartmentDTO> toDepartmentDtos(List<Department> departments) {
+        List<DepartmentDTO> dtos = departments.stream().map(mapper::toDtoWithoutCollections).toList();
+        fill(dtos, DepartmentDTO::getId, departmentRepository::findPersonaLinks, DepartmentDTO::setPersonaIds);
+        return dtos;
+    }
+
+    public PositionDTO toDto(Position position) {
+        return toPositionDtos(List.of(position)).get(0);
+    }
+
+    public List<PositionDTO> toPositionDtos(List<Position> positions) {
+        List<PositionDTO> dtos = positions.stream().map(mapper::toDtoWithoutCollections).toList();
+        fill(dtos, PositionDTO::getId, positionRepository::findPersonaLinks, PositionDTO::setPersonaIds);
+        return dtos;
+    }
+
+    public TeamDTO toDto(Team team) {
+        return toTeamDtos(List.of(team)).get(0);
+    }
+
+    public List<TeamDTO> toTeamDtos(List<Team> teams) {
+        List<TeamDTO> dtos = teams.stream().map(mapper::toDtoWithoutCollections).toList();
+        fill(dtos, TeamDTO::getId, teamRepository::findMemberLinks, TeamDTO::setMemberIds);
+        return dtos;
+    }
+
+    /**
+     * Carica i collegamenti per tutti i DTO (una query ogni {@value #IN_CHUNK} ID) e imposta gli insiemi di ID.
+     * Come {@link EntityMapper#toIdSet(Set)}, una collezione vuota resta {@code null}.
+     *
+     * <p><strong>English:</strong> Loads the links for all DTOs (one query every {@value #IN_CHUNK} IDs) and sets
+     * the ID sets. Like {@link EntityMapper#toIdSet(Set)}, an empty collection stays {@code null}.</p>
+     */
+    private static <D> void fill(List<D> dtos, Function<D, Long> idOf,
+                                 Function<Collection<Long>, List<IdLink>> query,
+                                 BiConsumer<D, Set<Long>> setter) {
+        List<Long> ids = new ArrayList<>(dtos.size());
+        for (D dto : dtos) {
+            Long id = idOf.apply(dto);
+            if (id != null) {
+                ids.add(id);
+            }
+        }
+        if (ids.isEmpty()) {
+            return;
+        }
+        Map<Long, Set<Long>> byOwner = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += IN_CHUNK) {
+            List<Long> chunk = ids.subList(from, Math.min(from + IN_CHUNK, ids.size()));
+            for (IdLink link : query.apply(chunk)) {
+                byOwner.computeIfAbsent(link.getOwnerId(), k -> new HashSet<>()).add(link.getTargetId());
+            }
+        }
+        for (D dto : dtos) {
+            setter.accept(dto, byOwner.get(idOf.apply(dto)));
+        }
+    }
+}
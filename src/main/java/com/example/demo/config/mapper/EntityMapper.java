@@ -4,12 +4,12 @@ import com.example.demo.dto.*;
 import com.example.demo.dto.response.AccountResponseDTO;
 import com.example.demo.dto.response.LoginResponseDTO;
 import com.example.demo.entities.*;
+import com.example.demo.config.catalog.RoleCatalog;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.Named;
 
-import java.lang.reflect.Method;
-import java.util.Objects;
+import java.util.HashSet;
 import java.util.Set;
 import java.util.stream.Collectors;
 /**
@@ -29,6 +29,11 @@ import java.util.stream.Collectors;
  *         </ul>
  *     </li>
  * </ul>
+ *
+ * <p>I metodi {@code toDtoWithoutCollections} non accedono alle collezioni lazy: gli insiemi di ID vengono
+ * riempiti da {@link CollectionIdAssembler} con una query sulle sole tabelle di join.</p>
+ * <p><strong>English:</strong> The {@code toDtoWithoutCollections} methods do not touch lazy collections: the ID
+ * sets are filled by {@link CollectionIdAssembler} with a query on the join tables only.</p>
  */
 @Mapper(componentModel = "spring")
 public interface EntityMapper {
@@ -116,56 +121,44 @@ public interface EntityMapper {
     @Mapping(target = "enabled",       source = "account.enabled")
     @Mapping(target = "lastLogin",     source = "account.lastLogin")
     @Mapping(target = "roleNames",     source = "account.roles", qualifiedByName = "rolesToNameSet")
+    @Mapping(target = "refreshToken",  ignore = true)
     LoginResponseDTO toLoginResponseDto(Account account, String token);
 
     /**
-     * Converte un {@code Set<?>} di entità in un {@code Set<Long>} di ID,
-     * utilizzando reflection per invocare il metodo {@code getId()} di ogni entità.
+     * Converte un {@code Set} di entità {@link Identifiable} in un {@code Set<Long>} di ID.
+     *
+     * <p><strong>English:</strong> Helper method to convert a {@code Set} of {@link Identifiable} entities into a {@code Set<Long>} of IDs.</p>
+     * <p><strong>Italiano:</strong> Metodo helper per convertire un {@code Set} di entità {@link Identifiable} in un {@code Set<Long>} di ID.</p>
      *
-     * <p><strong>English:</strong> Helper method to convert a {@code Set<?>} of entities into a {@code Set<Long>} of IDs,
-     * using reflection to invoke {@code getId()} on each entity object.</p>
-     * <p><strong>Italiano:</strong> Metodo helper per convertire un {@code Set<?>} di entità in un {@code Set<Long>} di ID,
-     * utilizzando reflection per invocare {@code getId()} su ciascun oggetto entità.</p>
+     * <p>L’ID viene letto tramite {@link Identifiable#getId()}, senza reflection; sui proxy lazy di
+     * Hibernate la chiamata non inizializza l’entità.</p>
+     * <p><strong>English:</strong> The ID is read through {@link Identifiable#getId()}, without reflection;
+     * on Hibernate lazy proxies the call does not initialise the entity.</p>
      *
      * <p>Se il set è {@code null} o vuoto, restituisce {@code null}.</p>
      * <p><strong>English:</strong> If the input set is {@code null} or empty, returns {@code null}.</p>
      * <p><strong>Italiano:</strong> Se il set di input è {@code null} o vuoto, restituisce {@code null}.</p>
      *
-     * @param entities il set di entità generiche (qualsiasi classe con metodo {@code getId()})
-     *                 <p><strong>English:</strong> the set of generic entities (any class having {@code getId()}).</p>
-     *                 <p><strong>Italiano:</strong> il set di entità generiche (qualsiasi classe con metodo {@code getId()}).</p>
+     * @param entities il set di entità
+     *                 <p><strong>English:</strong> the set of entities.</p>
+     *                 <p><strong>Italiano:</strong> il set di entità.</p>
      * @return un {@code Set<Long>} contenente gli ID delle entità mappate,
      *         o {@code null} se il set di entità è {@code null} o vuoto
      *         <p><strong>English:</strong> a {@code Set<Long>} containing the entity IDs, or {@code null} if input is {@code null} or empty.</p>
      *         <p><strong>Italiano:</strong> un {@code Set<Long>} contenente gli ID delle entità, o {@code null} se l’input è {@code null} o vuoto.</p>
-     * @throws RuntimeException se il metodo {@code getId()} non restituisce {@code Long}
-     *                        o se si verifica un errore di reflection
-     *                        <p><strong>English:</strong> if {@code getId()} does not return {@code Long} or if a reflection error occurs.</p>
-     *                        <p><strong>Italiano:</strong> se {@code getId()} non restituisce {@code Long} o si verifica un errore di reflection.</p>
      */
     @Named("toIdSet")
-    default Set<Long> toIdSet(Set<?> entities) {
+    default Set<Long> toIdSet(Set<? extends Identifiable> entities) {
         if (entities == null || entities.isEmpty()) {
             return null;
         }
-        return entities.stream()
-                .filter(Objects::nonNull)
-                .map(entity -> {
-                    try {
-                        Method getIdMethod = entity.getClass().getMethod("getId");
-                        Object id = getIdMethod.invoke(entity);
-                        if (id instanceof Long) {
-                            return (Long) id;
-                        } else {
-                            throw new RuntimeException("EntityMapper.getId() method did not return Long for entity: " +
-                                    entity.getClass().getSimpleName());
-                        }
-                    } catch (Exception e) {
-                        throw new RuntimeException("Could not fetch id from entity: " +
-                                entity.getClass().getSimpleName(), e);
-                    }
-                })
-                .collect(Collectors.toSet());
+        Set<Long> ids = new HashSet<>(Math.max(16, (int) (entities.size() / .75f) + 1));
+        for (Identifiable entity : entities) {
+            if (entity != null) {
+                ids.add(entity.getId());
+            }
+        }
+        return ids;
     }
 
     /**
@@ -207,6 +200,13 @@ public interface EntityMapper {
     @Mapping(target = "projectIds", source = "projects", qualifiedByName = "toIdSet")
     PersonaDTO toDto(Persona persona);
 
+    @Mapping(target = "accountId", source = "account.id")
+    @Mapping(target = "departmentId", source = "department.id")
+    @Mapping(target = "positionId", source = "position.id")
+    @Mapping(target = "teamIds", ignore = true)
+    @Mapping(target = "projectIds", ignore = true)
+    PersonaDTO toDtoWithoutCollections(Persona persona);
+
     @Mapping(target = "account", ignore = true)
     @Mapping(target = "department", ignore = true)
     @Mapping(target = "position", ignore = true)
@@ -228,9 +228,13 @@ public interface EntityMapper {
     @Mapping(target = "permissions", ignore = true)
     Role toEntity(RoleDTO dto);
 
+    RoleDTO toDto(RoleCatalog.RoleEntry role);
+
     // Permission
     PermissionDTO toDto(Permission permission);
 
+    PermissionDTO toDto(RoleCatalog.PermissionEntry permission);
+
     Permission toEntity(PermissionDTO dto);
 
     // Department
@@ -238,6 +242,10 @@ public interface EntityMapper {
     @Mapping(target = "personaIds", source = "personas", qualifiedByName = "toIdSet")
     DepartmentDTO toDto(Department dept);
 
+    @Mapping(target = "managerId", source = "manager.id")
+    @Mapping(target = "personaIds", ignore = true)
+    DepartmentDTO toDtoWithoutCollections(Department dept);
+
     @Mapping(target = "manager", ignore = true)
     @Mapping(target = "personas", ignore = true)
     Department toEntity(DepartmentDTO dto);
@@ -246,6 +254,9 @@ public interface EntityMapper {
     @Mapping(target = "personaIds", source = "personas", qualifiedByName = "toIdSet")
     PositionDTO toDto(Position pos);
 
+    @Mapping(target = "personaIds", ignore = true)
+    PositionDTO toDtoWithoutCollections(Position pos);
+
     @Mapping(target = "personas", ignore = true)
     Position toEntity(PositionDTO dto);
 
@@ -253,6 +264,9 @@ public interface EntityMapper {
     @Mapping(target = "memberIds", source = "members", qualifiedByName = "toIdSet")
     TeamDTO toDto(Team team);
 
+    @Mapping(target = "memberIds", ignore = true)
+    TeamDTO toDtoWithoutCollections(Team team);
+
     @Mapping(target = "members", ignore = true)
     Team toEntity(TeamDTO dto);
 
@@ -261,6 +275,10 @@ public interface EntityMapper {
     @Mapping(target = "taskIds", source = "tasks", qualifiedByName = "toIdSet")
     ProjectDTO toDto(Project project);
 
+    @Mapping(target = "teamMemberIds", ignore = true)
+    @Mapping(target = "taskIds", ignore = true)
+    ProjectDTO toDtoWithoutCollections(Project project);
+
     @Mapping(target = "team", ignore = true)
     @Mapping(target = "tasks", ignore = true)
     Project toEntity(ProjectDTO dto);
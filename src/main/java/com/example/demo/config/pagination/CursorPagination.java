@@ -0,0 +1,194 @@
+package com.example.demo.config.pagination;
+
+import com.example.demo.dto.response.CursorPageDTO;
+import com.example.demo.repositories.CursorRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Utility condivisa per la paginazione a cursore (keyset sull’ID).
+ *
+ * <p><strong>English:</strong> Shared utility for cursor pagination (keyset on ID).</p>
+ * <p><strong>Italiano:</strong> Utility condivisa per la paginazione a cursore (keyset sull’ID).</p>
+ *
+ * <p>Ogni pagina è una singola query {@code WHERE id > :ultimoId ORDER BY id LIMIT size + 1}
+ * sull’indice della chiave primaria: il costo non dipende dalla profondità, a differenza di OFFSET.
+ * Il cursore è l’ultimo ID restituito, codificato in un token opaco.</p>
+ * <p><strong>English:</strong> Each page is a single {@code WHERE id > :lastId ORDER BY id LIMIT size + 1}
+ * query on the primary key index: cost does not depend on depth, unlike OFFSET. The cursor is the
+ * last returned ID, encoded as an opaque token.</p>
+ */
+public final class CursorPagination {
+
+    /** Dimensione di pagina predefinita / Default page size. */
+    public static final int DEFAULT_SIZE = 50;
+
+    /** Dimensione di pagina massima / Maximum page size. */
+    public static final int MAX_SIZE = 500;
+
+    private static final String PREFIX = "id:";
+
+    private static final String TIME_PREFIX = "ts:";
+
+    private CursorPagination() {
+    }
+
+    /**
+     * Legge una pagina a partire dal cursore e mappa gli elementi.
+     *
+     * <p><strong>English:</strong> Reads a page starting from the cursor and maps the items.</p>
+     *
+     * @param repository repository con supporto al cursore
+     *                   <p><strong>English:</strong> cursor-capable repository.</p>
+     * @param cursor     token restituito dalla pagina precedente, {@code null} per la prima pagina
+     *                   <p><strong>English:</strong> token returned by the previous page, {@code null} for the first page.</p>
+     * @param size       numero di elementi richiesti (limitato a {@link #MAX_SIZE})
+     *                   <p><strong>English:</strong> requested number of items (capped at {@link #MAX_SIZE}).</p>
+     * @param idOf       estrattore dell’ID dell’entità
+     *                   <p><strong>English:</strong> entity ID extractor.</p>
+     * @param mapper     conversione entità → DTO
+     *                   <p><strong>English:</strong> entity → DTO conversion.</p>
+     * @return pagina con il cursore successivo
+     *         <p><strong>English:</strong> page with the next cursor.</p>
+     * @throws IllegalArgumentException se il cursore non è valido
+     *                                  <p><strong>English:</strong> if the cursor is invalid.</p>
+     */
+    public static <E, D> CursorPageDTO<D> page(CursorRepository<E> repository, String cursor, Integer size,
+                                               Function<E, Long> idOf, Function<E, D> mapper) {
+        return pageBatch(repository, cursor, size, idOf, rows -> rows.stream().map(mapper).toList());
+    }
+
+    /**
+     * Come {@link #page}, ma converte l’intera pagina in una volta (ad es. con {@code CollectionIdAssembler}).
+     *
+     * <p><strong>English:</strong> Like {@link #page}, but converts the whole page at once (e.g. with
+     * {@code CollectionIdAssembler}).</p>
+     */
+    public static <E, D> CursorPageDTO<D> pageBatch(CursorRepository<E> repository, String cursor, Integer size,
+                                                    Function<E, Long> idOf, Function<List<E>, List<D>> mapper) {
+        return pageQuery(repository::findByIdGreaterThanOrderByIdAsc, cursor, size, idOf, mapper);
+    }
+
+    /**
+     * Come {@link #pageBatch}, con una query a piacere che riceve l’ultimo ID letto (filtri aggiuntivi).
+     *
+     * <p><strong>English:</strong> Like {@link #pageBatch}, with any query receiving the last read ID
+     * (additional filters).</p>
+     *
+     * @param query query ordinata per ID crescente con predicato {@code id > afterId}
+     *              <p><strong>English:</strong> query ordered by ascending ID with an {@code id > afterId} predicate.</p>
+     */
+    public static <E, D> CursorPageDTO<D> pageQuery(BiFunction<Long, Pageable, Slice<E>> query, String cursor, Integer size,
+                                                    Function<E, Long> idOf, Function<List<E>, List<D>> mapper) {
+        int limit = clampSize(size);
+        Slice<E> slice = query.apply(decode(cursor), PageRequest.of(0, limit));
+        List<E> content = slice.getContent();
+        List<D> items = content.isEmpty() ? List.of() : mapper.apply(content);
+        String next = slice.hasNext() && !content.isEmpty()
+                ? encode(idOf.apply(content.get(content.size() - 1)))
+                : null;
+        return new CursorPageDTO<>(items, next, next != null);
+    }
+
+    /**
+     * Codifica l’ultimo ID letto in un token opaco.
+     *
+     * <p><strong>English:</strong> Encodes the last read ID into an opaque token.</p>
+     */
+    public static String encode(Long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + lastId).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Decodifica un token in ultimo ID letto; {@code null} o vuoto indica la prima pagina (0).
+     *
+     * <p><strong>English:</strong> Decodes a token into the last read ID; {@code null} or blank means the first page (0).</p>
+     *
+     * @throws IllegalArgumentException se il token non è valido
+     *                                  <p><strong>English:</strong> if the token is invalid.</p>
+     */
+    public static long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+            if (!raw.startsWith(PREFIX)) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return Long.parseLong(raw.substring(PREFIX.length()));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
+    /**
+     * Codifica la posizione {@code (timestamp, id)} dell’ultima riga letta, per ordinamenti per tempo.
+     *
+     * <p><strong>English:</strong> Encodes the {@code (timestamp, id)} position of the last read row, for
+     * time-based orderings.</p>
+     */
+    public static String encode(Instant timestamp, Long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((TIME_PREFIX + timestamp + '|' + lastId).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Decodifica un token creato da {@link #encode(Instant, Long)}; {@code null} o vuoto indica la prima pagina.
+     *
+     * <p><strong>English:</strong> Decodes a token created by {@link #encode(Instant, Long)}; {@code null} or blank
+     * means the first page.</p>
+     *
+     * @return posizione, o {@code null} per la prima pagina
+     *         <p><strong>English:</strong> position, or {@code null} for the first page.</p>
+     * @throws IllegalArgumentException se il token non è valido
+     *                                  <p><strong>English:</strong> if the token is invalid.</p>
+     */
+    public static TimePosition decodeTime(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+            int separator = raw.lastIndexOf('|');
+            if (!raw.startsWith(TIME_PREFIX) || separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new TimePosition(Instant.parse(raw.substring(TIME_PREFIX.length(), separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException ex) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
+    /**
+     * Limita la dimensione richiesta a {@code [1, MAX_SIZE]}, con {@code DEFAULT_SIZE} se assente.
+     * Clamps the requested size to {@code [1, MAX_SIZE]}, with {@code DEFAULT_SIZE} when missing.
+     */
+    public static int clampSize(Integer size) {
+        if (size == null || size <= 0) {
+            return DEFAULT_SIZE;
+        }
+        return Math.min(size, MAX_SIZE);
+    }
+
+    /**
+     * Posizione di una riga in un ordinamento per {@code (timestamp, id)}.
+     * Position of a row in a {@code (timestamp, id)} ordering.
+     *
+     * @param timestamp timestamp della riga / row timestamp
+     * @param id        ID della riga / row ID
+     */
+    public record TimePosition(Instant timestamp, long id) {
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.demo.config.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Sceglie il costo BCrypt più alto che rispetta una latenza obiettivo sull’hardware corrente.
+ *
+ * <p><strong>English:</strong> Picks the highest BCrypt cost that meets a latency target on the current
+ * hardware.</p>
+ * <p><strong>Italiano:</strong> Sceglie il costo BCrypt più alto che rispetta una latenza obiettivo
+ * sull’hardware corrente.</p>
+ *
+ * <p>Ogni incremento del costo raddoppia il tempo di calcolo: partendo dal minimo, il benchmark prende la mediana
+ * di {@value #SAMPLES} hash per livello e si ferma appena il livello successivo supererebbe l’obiettivo. Il minimo
+ * viene sempre rispettato, anche se già più lento dell’obiettivo. Ogni livello misurato e il costo scelto finiscono
+ * nel log: la calibrazione è un benchmark da cui ricavare il valore di {@code security.hashing.bcrypt.strength}
+ * da fissare fuori dal profilo {@code dev}, dove nodi e riavvii diversi potrebbero altrimenti scegliere costi
+ * diversi.</p>
+ * <p><strong>English:</strong> Each cost increment doubles the computation time: starting from the minimum, the
+ * benchmark takes the median of {@value #SAMPLES} hashes per level and stops as soon as the next level would exceed
+ * the target. The minimum is always honoured, even if it is already slower than the target. Every measured level
+ * and the chosen cost are logged: calibration is a benchmark from which to derive the
+ * {@code security.hashing.bcrypt.strength} value to pin outside the {@code dev} profile, where different nodes and
+ * restarts could otherwise settle on different costs.</p>
+ */
+@Slf4j
+final class BCryptCostCalibrator {
+
+    private static final String SAMPLE = "calibration-sample-password";
+    static final int SAMPLES = 5;
+
+    private BCryptCostCalibrator() {
+    }
+
+    /**
+     * Esegue il benchmark e restituisce il costo scelto.
+     *
+     * <p><strong>English:</strong> Runs the benchmark and returns the chosen cost.</p>
+     *
+     * @param target      latenza obiettivo di un singolo hash
+     *                    <p><strong>English:</strong> latency target of a single hash.</p>
+     * @param minStrength costo minimo ammesso
+     *                    <p><strong>English:</strong> minimum allowed cost.</p>
+     * @param maxStrength costo massimo ammesso
+     *                    <p><strong>English:</strong> maximum allowed cost.</p>
+     * @return costo BCrypt tra {@code minStrength} e {@code maxStrength}
+     *         <p><strong>English:</strong> BCrypt cost between {@code minStrength} and {@code maxStrength}.</p>
+     */
+    static int calibrate(Duration target, int minStrength, int maxStrength) {
+        // Riscaldamento del JIT / JIT warm-up
+        new BCryptPasswordEncoder(4).encode(SAMPLE);
+        long targetNanos = target.toNanos();
+        int chosen = minStrength;
+        long measured = 0;
+        for (int strength = minStrength; strength <= maxStrength; strength++) {
+            long nanos = median(strength);
+            log.info("BCrypt costo {}: mediana {} ms su {} hash", strength, Duration.ofNanos(nanos).toMillis(), SAMPLES);
+            if (nanos > targetNanos && strength > minStrength) {
+                break;
+            }
+            chosen = strength;
+            measured = nanos;
+            if (nanos * 2 > targetNanos) {
+                break;
+            }
+        }
+        log.info("Costo BCrypt calibrato: {} ({} ms per hash, obiettivo {} ms); "
+                        + "fissare security.hashing.bcrypt.strength={} fuori dal profilo dev",
+                chosen, Duration.ofNanos(measured).toMillis(), target.toMillis(), chosen);
+        return chosen;
+    }
+
+    /**
+     * Mediana di {@value #SAMPLES} hash al costo indicato, per non dipendere da una singola misura disturbata da
+     * GC o da altri processi.
+     *
+     * <p><strong>English:</strong> Median of {@value #SAMPLES} hashes at the given cost, so as not to depend on a
+     * single measurement disturbed by GC or other processes.</p>
+     */
+    private static long median(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        long[] samples = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            encoder.encode(SAMPLE);
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples[SAMPLES / 2];
+    }
+}
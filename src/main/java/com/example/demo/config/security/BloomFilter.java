@@ -0,0 +1,83 @@
+package com.example.demo.config.security;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro di Bloom di stringhe, thread-safe e senza lock.
+ *
+ * <p><strong>English:</strong> Thread-safe, lock-free Bloom filter of strings.</p>
+ * <p><strong>Italiano:</strong> Filtro di Bloom di stringhe, thread-safe e senza lock.</p>
+ *
+ * <p>Dimensionato per {@code expectedInsertions} elementi con probabilità di falso positivo {@code fpp}. Le
+ * {@code k} posizioni derivano da un solo hash a 64 bit con il double hashing di Kirsch–Mitzenmacher, quindi una
+ * verifica costa un passaggio sulla stringa più {@code k} letture. I falsi negativi sono impossibili.</p>
+ * <p><strong>English:</strong> Sized for {@code expectedInsertions} elements with false positive probability
+ * {@code fpp}. The {@code k} positions come from a single 64-bit hash through Kirsch–Mitzenmacher double hashing,
+ * so a check costs one pass over the string plus {@code k} reads. False negatives are impossible.</p>
+ */
+final class BloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bits;
+    private final int hashes;
+
+    BloomFilter(long expectedInsertions, double fpp) {
+        long n = Math.max(1, expectedInsertions);
+        long m = Math.max(64, (long) Math.ceil(-n * Math.log(fpp) / (Math.log(2) * Math.log(2))));
+        this.words = new AtomicLongArray((int) Math.min(Integer.MAX_VALUE - 8, (m + 63) >>> 6));
+        this.bits = (long) words.length() << 6;
+        this.hashes = Math.max(1, (int) Math.round((double) bits / n * Math.log(2)));
+    }
+
+    void add(String value) {
+        long hash = hash(value);
+        long h1 = mix(hash);
+        long h2 = mix(hash + 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashes; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bits);
+            long mask = 1L << bit;
+            int index = (int) (bit >>> 6);
+            if ((words.get(index) & mask) == 0) {
+                words.accumulateAndGet(index, mask, (current, add) -> current | add);
+            }
+        }
+    }
+
+    boolean mightContain(String value) {
+        long hash = hash(value);
+        long h1 = mix(hash);
+        long h2 = mix(hash + 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashes; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bits);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    int hashes() {
+        return hashes;
+    }
+
+    long bits() {
+        return bits;
+    }
+
+    /** FNV-1a a 64 bit sui caratteri / 64-bit FNV-1a over the characters. */
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /** Finalizzatore di SplitMix64 / SplitMix64 finalizer. */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.demo.config.security;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * {@link PasswordEncoder} che esegue {@code encode} e {@code matches} su {@link PasswordHashingExecutor}.
+ *
+ * <p><strong>English:</strong> {@link PasswordEncoder} that runs {@code encode} and {@code matches} on
+ * {@link PasswordHashingExecutor}.</p>
+ * <p><strong>Italiano:</strong> {@link PasswordEncoder} che esegue {@code encode} e {@code matches} su
+ * {@link PasswordHashingExecutor}.</p>
+ *
+ * <p>Copre anche le verifiche fatte da Spring Security in {@code DaoAuthenticationProvider}, incluso l’hash
+ * fittizio calcolato per gli username inesistenti. {@code upgradeEncoding} non calcola hash e resta sul
+ * thread chiamante.</p>
+ * <p><strong>English:</strong> Also covers the checks Spring Security performs in
+ * {@code DaoAuthenticationProvider}, including the dummy hash computed for unknown usernames.
+ * {@code upgradeEncoding} computes no hash and stays on the calling thread.</p>
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final PasswordHashingExecutor executor;
+
+    BoundedPasswordEncoder(PasswordEncoder delegate, PasswordHashingExecutor executor) {
+        this.delegate = delegate;
+        this.executor = executor;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return executor.execute("encode", () -> delegate.encode(rawPassword));
+    }
+
+    /**
+     * Calcola in parallelo gli hash di più password, nell’ordine ricevuto.
+     *
+     * <p><strong>English:</strong> Hashes several passwords in parallel, in the given order.</p>
+     *
+     * @param rawPasswords password in chiaro
+     *                     <p><strong>English:</strong> plain-text passwords.</p>
+     * @return hash delle password
+     *         <p><strong>English:</strong> password hashes.</p>
+     * @see PasswordHashingExecutor#executeAll(String, List)
+     */
+    public List<String> encodeAll(List<? extends CharSequence> rawPasswords) {
+        List<Supplier<String>> tasks = rawPasswords.stream()
+                .<Supplier<String>>map(raw -> () -> delegate.encode(raw))
+                .toList();
+        return executor.executeAll("encode", tasks);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return executor.execute("matches", () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
@@ -1,14 +1,13 @@
 package com.example.demo.config.security;
 
 import com.example.demo.entities.Account;
+import com.example.demo.entities.Role;
 import com.example.demo.repositories.AccountRepository;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
 import java.util.stream.Collectors;
@@ -25,24 +24,38 @@ import java.util.stream.Collectors;
  * <p><strong>English:</strong> Implements {@link UserDetailsService} to lookup an {@link Account}
  * in the database, verify account status, and return a {@link UserDetails} object with appropriate
  * authorities.</p>
+ *
+ * <p>I risultati sono serviti da {@link UserDetailsCache}: solo i miss eseguono la query
+ * sull’account e sui ruoli.</p>
+ * <p><strong>English:</strong> Results are served from {@link UserDetailsCache}: only misses
+ * run the account and role query.</p>
  */
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
 
     private final AccountRepository accountRepository;
+    private final UserDetailsCache userDetailsCache;
+    private final PermissionRegistry permissionRegistry;
 
     /**
-     * Costruttore iniettato con {@link AccountRepository}.
+     * Costruttore iniettato con {@link AccountRepository}, {@link UserDetailsCache} e {@link PermissionRegistry}.
      *
-     * <p><strong>English:</strong> Constructor injected with {@link AccountRepository}.</p>
-     * <p><strong>Italiano:</strong> Costruttore iniettato con {@link AccountRepository}.</p>
+     * <p><strong>English:</strong> Constructor injected with {@link AccountRepository}, {@link UserDetailsCache} and {@link PermissionRegistry}.</p>
+     * <p><strong>Italiano:</strong> Costruttore iniettato con {@link AccountRepository}, {@link UserDetailsCache} e {@link PermissionRegistry}.</p>
      *
      * @param accountRepository repository per le operazioni CRUD su {@link Account}
      *                          <p><strong>English:</strong> repository for CRUD operations on {@link Account}.</p>
      *                          <p><strong>Italiano:</strong> repository per operazioni CRUD su {@link Account}.</p>
+     * @param userDetailsCache  cache degli utenti già caricati
+     *                          <p><strong>English:</strong> cache of already loaded users.</p>
+     * @param permissionRegistry registro che fornisce le autorità precompilate per i ruoli
+     *                          <p><strong>English:</strong> registry providing the precompiled authorities for the roles.</p>
      */
-    public CustomUserDetailsService(AccountRepository accountRepository) {
+    public CustomUserDetailsService(AccountRepository accountRepository, UserDetailsCache userDetailsCache,
+                                    PermissionRegistry permissionRegistry) {
         this.accountRepository = accountRepository;
+        this.userDetailsCache = userDetailsCache;
+        this.permissionRegistry = permissionRegistry;
     }
 
     /**
@@ -57,7 +70,7 @@ public class CustomUserDetailsService implements UserDetailsService {
      *     <li>Se non trovato, lancia {@link UsernameNotFoundException} con messaggio adeguato.</li>
      *     <li>Verifica se l’account è abilitato ({@link Account#getEnabled()}); altrimenti lancia {@link UsernameNotFoundException}.</li>
      *     <li>Verifica se l’email è verificata ({@link Account#getEmailVerified()}); altrimenti lancia {@link UsernameNotFoundException}.</li>
-     *     <li>Crea una lista di {@link SimpleGrantedAuthority} mappando i ruoli di {@link Account}.</li>
+     *     <li>Ottiene da {@link PermissionRegistry#authoritiesFor(java.util.Set)} le autorità precompilate per i ruoli di {@link Account} (ruoli, permessi e {@link PermissionSetAuthority}).</li>
      *     <li>Restituisce un oggetto {@link User} (implementazione di {@link UserDetails}) con username, password, autorità e stato di blocco.</li>
      * </ol>
      *
@@ -67,7 +80,7 @@ public class CustomUserDetailsService implements UserDetailsService {
      *     <li>If not found, throw {@link UsernameNotFoundException} with a descriptive message.</li>
      *     <li>Check if account is enabled ({@link Account#getEnabled()}); otherwise throw {@link UsernameNotFoundException}.</li>
      *     <li>Check if email is verified ({@link Account#getEmailVerified()}); otherwise throw {@link UsernameNotFoundException}.</li>
-     *     <li>Create a list of {@link SimpleGrantedAuthority} by mapping {@link Account}'s roles.</li>
+     *     <li>Get from {@link PermissionRegistry#authoritiesFor(java.util.Set)} the precompiled authorities for {@link Account}'s roles (roles, permissions and {@link PermissionSetAuthority}).</li>
      *     <li>Return a {@link User} (implementation of {@link UserDetails}) with username, password, authorities, and lock status.</li>
      * </ol>
      *
@@ -82,8 +95,11 @@ public class CustomUserDetailsService implements UserDetailsService {
      *                                   <p><strong>Italiano:</strong> se l’account non esiste, è disabilitato o l’email non è verificata.</p>
      */
     @Override
-    @Transactional
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        return userDetailsCache.get(username, this::loadFromDatabase);
+    }
+
+    private UserDetails loadFromDatabase(String username) {
         Account account = accountRepository.findByUsername(username)
                 .orElseThrow( ()-> new UsernameNotFoundException("No user found with username: " + username));
         if(Boolean.FALSE.equals(account.getEnabled())){
@@ -92,9 +108,9 @@ public class CustomUserDetailsService implements UserDetailsService {
         if(Boolean.FALSE.equals(account.getEmailVerified())){
             throw new UsernameNotFoundException("Email not verified");
         }
-        var authorities = account.getRoles().stream()
-                .map(role -> new SimpleGrantedAuthority(role.getName()))
-                .collect(Collectors.toList());
+        var authorities = permissionRegistry.authoritiesFor(account.getRoles().stream()
+                .map(Role::getName)
+                .collect(Collectors.toSet()));
 
         return User.withUsername(account.getUsername())
                 .password(account.getPasswordHash())
@@ -1,21 +1,27 @@
 package com.example.demo.config.security;
 
+import com.example.demo.config.audit.AuditActor;
 import io.jsonwebtoken.ExpiredJwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.AccountStatusUserDetailsChecker;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.time.Instant;
+import java.util.Collection;
 
 /**
  * Filtro di Servlet che estrae e valida il token JWT da ogni richiesta HTTP.
@@ -27,8 +33,10 @@ import java.util.stream.Collectors;
  * <ol>
  *     <li>Estrae header Authorization; se non presente o non inizia con “Bearer ”, passa la richiesta al prossimo filtro.</li>
  *     <li>Se presente, rimuove prefisso “Bearer ” per ottenere il token.</li>
- *     <li>Invoca {@link JwtUtil#validateToken(String)}; se valido, estrae username tramite {@link JwtUtil#getUsernameFromJwt(String)} e ruoli tramite {@link JwtUtil#getRolesFromJwt(String)}.</li>
+ *     <li>Invoca {@link JwtUtil#parseToken(String)} una sola volta: firma e scadenza vengono verificate (o lette dalla cache dei token già verificati) e username e ruoli sono letti dal {@link ParsedToken}.</li>
+ *     <li>Rifiuta i token revocati al logout, consultando {@link TokenRevocationList}.</li>
  *     <li>Carica i dettagli utente con {@link CustomUserDetailsService#loadUserByUsername(String)}</li>
+ *     <li>Rifiuta gli account bloccati o disabilitati con {@link AccountStatusUserDetailsChecker}.</li>
  *     <li>Costruisce un {@link UsernamePasswordAuthenticationToken} con l’utente, le autorità e le informazioni di contesto.</li>
  *     <li>Imposta l’autenticazione in {@link SecurityContextHolder}.</li>
  *     <li>Se il token è scaduto ({@link ExpiredJwtException}) o null’altro errore JWT, salva l’eccezione in request attribute “exception”.</li>
@@ -39,14 +47,27 @@ import java.util.stream.Collectors;
  * <ol>
  *     <li>Extract Authorization header; if absent or not starting with “Bearer ”, delegate to next filter.</li>
  *     <li>If present, strip “Bearer ” prefix to obtain token.</li>
- *     <li>Call {@link JwtUtil#validateToken(String)}; if valid, extract username via {@link JwtUtil#getUsernameFromJwt(String)} and roles via {@link JwtUtil#getRolesFromJwt(String)}.</li>
+ *     <li>Call {@link JwtUtil#parseToken(String)} once: signature and expiration are verified (or read from the verified-token cache) and username and roles are read from the {@link ParsedToken}.</li>
+ *     <li>Reject tokens revoked at logout, by consulting {@link TokenRevocationList}.</li>
  *     <li>Load user details with {@link CustomUserDetailsService#loadUserByUsername(String)}.</li>
+ *     <li>Reject locked or disabled accounts with {@link AccountStatusUserDetailsChecker}.</li>
  *     <li>Construct a {@link UsernamePasswordAuthenticationToken} with the user, authorities, and request details.</li>
  *     <li>Set authentication in {@link SecurityContextHolder}.</li>
  *     <li>If token is expired ({@link ExpiredJwtException}) or any JWT error, store exception in request attribute “exception.”</li>
  *     <li>Delegate to next filter with {@code filterChain.doFilter(request, response)}.</li>
  * </ol>
  *
+ * <p>Con {@code jwt.trusted-claims.enabled=true} (modalità “trusted claims”) il caricamento dell’account
+ * viene saltato: l’{@code Authentication} è costruita solo dai claim del token (ID account, stato di
+ * abilitazione/blocco, ruoli incorporati al login) e dai permessi precompilati da {@link PermissionRegistry}. Il database viene interrogato tramite
+ * {@link CustomUserDetailsService} solo se {@link TokenVersionChecker} indica che l’account è cambiato
+ * dopo l’emissione del token, o se il token non contiene i claim di stato.</p>
+ * <p><strong>English:</strong> With {@code jwt.trusted-claims.enabled=true} (“trusted claims” mode) the
+ * account load is skipped: the {@code Authentication} is built purely from the token claims (account ID,
+ * enabled/locked state, roles embedded at login) and the permissions precompiled by {@link PermissionRegistry}. The database is queried through
+ * {@link CustomUserDetailsService} only when {@link TokenVersionChecker} reports that the account changed
+ * after the token was issued, or when the token carries no state claims.</p>
+ *
  * <p>Il metodo {@link #shouldNotFilter(HttpServletRequest)} evita la validazione JWT per rotte che iniziano con “/api/auth”.</p>
  * <p><strong>English:</strong> The method {@link #shouldNotFilter(HttpServletRequest)} skips JWT validation for routes starting with “/api/auth.”</p>
  */
@@ -55,7 +76,11 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
     private final CustomUserDetailsService userDetailsService;
-
+    private final TokenVersionChecker tokenVersionChecker;
+    private final TokenRevocationList revocationList;
+    private final PermissionRegistry permissionRegistry;
+    private final boolean trustedClaims;
+    private final AccountStatusUserDetailsChecker accountStatusChecker = new AccountStatusUserDetailsChecker();
 
     /**
      * Costruttore iniettato con {@link JwtUtil} e {@link CustomUserDetailsService}.
@@ -69,10 +94,33 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
      * @param userDetailsService  servizio personalizzato per caricare dettagli utente
      *                            <p><strong>English:</strong> custom service to load user details.</p>
      *                            <p><strong>Italiano:</strong> servizio personalizzato per caricare dettagli utente.</p>
+     * @param tokenVersionChecker controllo di revoca usato in modalità “trusted claims”
+     *                            <p><strong>English:</strong> revocation check used in “trusted claims” mode.</p>
+     *                            <p><strong>Italiano:</strong> controllo di revoca usato in modalità “trusted claims”.</p>
+     * @param revocationList      elenco dei token revocati al logout
+     *                            <p><strong>English:</strong> list of tokens revoked at logout.</p>
+     *                            <p><strong>Italiano:</strong> elenco dei token revocati al logout.</p>
+     * @param permissionRegistry  registro che fornisce le autorità precompilate per i ruoli
+     *                            <p><strong>English:</strong> registry providing the precompiled authorities for the roles.</p>
+     *                            <p><strong>Italiano:</strong> registro che fornisce le autorità precompilate per i ruoli.</p>
+     * @param trustedClaims       abilita la modalità “trusted claims”
+     *                            <p><strong>English:</strong> enables “trusted claims” mode.</p>
+     *                            <p><strong>Italiano:</strong> abilita la modalità “trusted claims”.</p>
      */
-    public JwtAuthenticationFilter(JwtUtil jwtUtil, CustomUserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(
+            JwtUtil jwtUtil,
+            CustomUserDetailsService userDetailsService,
+            TokenVersionChecker tokenVersionChecker,
+            TokenRevocationList revocationList,
+            PermissionRegistry permissionRegistry,
+            @Value("${jwt.trusted-claims.enabled:false}") boolean trustedClaims
+    ) {
         this.jwtUtil = jwtUtil;
         this.userDetailsService = userDetailsService;
+        this.tokenVersionChecker = tokenVersionChecker;
+        this.revocationList = revocationList;
+        this.permissionRegistry = permissionRegistry;
+        this.trustedClaims = trustedClaims;
     }
 
     /**
@@ -112,18 +160,32 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         if(header != null && header.startsWith("Bearer ")){
             String token = header.substring(7);
             try{
-                if(jwtUtil.validateToken(token)){
-                    String username = jwtUtil.getUsernameFromJwt(token);
-                    var userDetails = userDetailsService.loadUserByUsername(username);
-                    Set<String> roles = jwtUtil.getRolesFromJwt(token);
-
-                    var authorities = roles.stream()
-                            .map(SimpleGrantedAuthority::new)
-                            .collect(Collectors.toList());
+                ParsedToken parsed = jwtUtil.parseToken(token);
+                if (revocationList.isRevoked(parsed.getTokenId())) {
+                    throw new BadCredentialsException("Token revocato");
+                }
+                UserDetails userDetails;
+                Collection<? extends GrantedAuthority> authorities;
+                if (trustedClaims && parsed.hasStateClaims()
+                        && tokenVersionChecker.isCurrent(parsed.getAccountId(), parsed.getTokenVersion())) {
+                    userDetails = userFromClaims(parsed);
+                    authorities = userDetails.getAuthorities();
+                } else if (trustedClaims) {
+                    // Account cambiato dopo il login (o token senza claim di stato): si usa lo stato del database
+                    // Account changed after login (or token without state claims): use the database state
+                    userDetails = userDetailsService.loadUserByUsername(parsed.getUsername());
+                    authorities = userDetails.getAuthorities();
+                } else {
+                    userDetails = userDetailsService.loadUserByUsername(parsed.getUsername());
+                    authorities = permissionRegistry.authoritiesFor(parsed.getRoles());
+                }
+                accountStatusChecker.check(userDetails);
 
-                    UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(userDetails, null, authorities);
-                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(userDetails, null, authorities);
+                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                SecurityContextHolder.getContext().setAuthentication(authentication);
+                if (parsed.getAccountId() != null) {
+                    request.setAttribute(AuditActor.ACCOUNT_ID_ATTRIBUTE, parsed.getAccountId());
                 }
             } catch (ExpiredJwtException ex){
                 request.setAttribute("exception" , ex);
@@ -134,6 +196,33 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Costruisce il principal esclusivamente dai claim del token, senza accedere al database.
+     *
+     * <p><strong>English:</strong> Builds the principal purely from the token claims, without touching the database.</p>
+     *
+     * <p>Le autorità sono quelle precompilate da {@link PermissionRegistry} per i ruoli del token: ruoli, loro
+     * permessi correnti e {@link PermissionSetAuthority}. Abilitazione e blocco (claim “enabled” e “lck”) finiscono
+     * nel principal e vengono verificati dal filtro come per un account letto dal database.</p>
+     * <p><strong>English:</strong> Authorities are those precompiled by {@link PermissionRegistry} for the token's
+     * roles: roles, their current permissions and {@link PermissionSetAuthority}. Enablement and lock (“enabled” and
+     * “lck” claims) end up in the principal and are checked by the filter as for an account read from the
+     * database.</p>
+     *
+     * @param parsed token verificato con claim di stato
+     *               <p><strong>English:</strong> verified token carrying state claims.</p>
+     * @return {@link UserDetails} senza password
+     *         <p><strong>English:</strong> {@link UserDetails} without password.</p>
+     */
+    private UserDetails userFromClaims(ParsedToken parsed) {
+        return User.withUsername(parsed.getUsername())
+                .password("")
+                .authorities(permissionRegistry.authoritiesFor(parsed.getRoles()))
+                .disabled(Boolean.FALSE.equals(parsed.getEnabled()))
+                .accountLocked(parsed.getLockedUntil() != null && parsed.getLockedUntil().isAfter(Instant.now()))
+                .build();
+    }
+
     /**
      * Determina se questo filtro deve essere saltato per la richiesta corrente.
      *
@@ -0,0 +1,201 @@
+package com.example.demo.config.security;
+
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.security.Keys;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Anello delle chiavi di firma dei JWT, con rotazione periodica e identificativo {@code kid}.
+ *
+ * <p><strong>English:</strong> Ring of JWT signing keys, with periodic rotation and {@code kid} identifier.</p>
+ * <p><strong>Italiano:</strong> Anello delle chiavi di firma dei JWT, con rotazione periodica e identificativo
+ * {@code kid}.</p>
+ *
+ * <p>Ogni periodo di {@code jwt.keys.rotation-period} ha la sua chiave HMAC SHA-256, derivata da
+ * {@code jwt.secret} con HMAC sul numero del periodo: tutti i nodi calcolano le stesse chiavi senza stato
+ * condiviso, e un riavvio non invalida i token emessi. I token vengono firmati con la chiave del periodo corrente
+ * e portano il suo {@code kid} nell’header; in verifica la chiave viene cercata per {@code kid} in una mappa
+ * immutabile precalcolata, senza derivazioni né costruzione di parser per chiamata. Una chiave resta valida per
+ * {@code jwt.keys.grace-period} dopo la fine del suo periodo (almeno la durata di un access token); la chiave del
+ * periodo successivo è già accettata, per tollerare orologi non allineati tra nodi. Cambiare {@code jwt.secret}
+ * invalida tutti i token.</p>
+ * <p><strong>English:</strong> Every {@code jwt.keys.rotation-period} period has its own HMAC SHA-256 key,
+ * derived from {@code jwt.secret} with an HMAC over the period number: all nodes compute the same keys without
+ * shared state, and a restart does not invalidate issued tokens. Tokens are signed with the current period's key
+ * and carry its {@code kid} in the header; on verification the key is looked up by {@code kid} in a precomputed
+ * immutable map, with no derivation nor parser construction per call. A key stays valid for
+ * {@code jwt.keys.grace-period} after its period ends (at least one access token lifetime); the next period's key
+ * is already accepted, to tolerate skewed clocks across nodes. Changing {@code jwt.secret} invalidates every
+ * token.</p>
+ */
+@Component
+@Slf4j
+public class JwtKeyRing {
+
+    private static final String KID_PREFIX = "k";
+    private static final String DERIVATION_LABEL = "jwt-signing-key:";
+
+    private final SecretKey masterKey;
+    private final long periodMillis;
+    private final Duration gracePeriod;
+    private final Clock clock;
+    private final LocatorAdapter<Key> locator = new LocatorAdapter<>() {
+        @Override
+        protected Key locate(JwsHeader header) {
+            return verificationKey(header.getKeyId());
+        }
+    };
+
+    private volatile Ring ring;
+
+    /**
+     * Chiave di un periodo con il suo limite di validità in verifica.
+     * Key of a period with its verification validity limit.
+     */
+    private record PeriodKey(String kid, SecretKey key, Instant validUntil) {
+    }
+
+    /**
+     * Istantanea immutabile delle chiavi, sostituita a ogni rotazione.
+     * Immutable snapshot of the keys, replaced at every rotation.
+     */
+    private record Ring(long period, PeriodKey signing, Map<String, PeriodKey> verification) {
+    }
+
+    /**
+     * Costruisce l’anello a partire da {@code jwt.secret} e dalle proprietà {@code jwt.keys.*}.
+     *
+     * <p><strong>English:</strong> Builds the ring from {@code jwt.secret} and the {@code jwt.keys.*} properties.</p>
+     *
+     * @param secret          segreto principale da cui derivare le chiavi (almeno 256 bit)
+     *                        <p><strong>English:</strong> master secret the keys are derived from (at least 256 bits).</p>
+     * @param rotationPeriod  durata di ogni chiave di firma
+     *                        <p><strong>English:</strong> lifetime of every signing key.</p>
+     * @param gracePeriod     validità in verifica di una chiave dopo la fine del suo periodo
+     *                        <p><strong>English:</strong> verification validity of a key after its period ends.</p>
+     * @param jwtExpirationMs durata degli access token, minimo del periodo di grazia
+     *                        <p><strong>English:</strong> access token lifetime, lower bound of the grace period.</p>
+     */
+    @Autowired
+    public JwtKeyRing(
+            @Value("${jwt.secret}") String secret,
+            @Value("${jwt.keys.rotation-period:1d}") Duration rotationPeriod,
+            @Value("${jwt.keys.grace-period:1h}") Duration gracePeriod,
+            @Value("${jwt.expiration-ms}") long jwtExpirationMs
+    ) {
+        this(secret, rotationPeriod, gracePeriod, jwtExpirationMs, Clock.systemUTC());
+    }
+
+    JwtKeyRing(String secret, Duration rotationPeriod, Duration gracePeriod, long jwtExpirationMs, Clock clock) {
+        if (rotationPeriod.isNegative() || rotationPeriod.isZero()) {
+            throw new IllegalArgumentException("jwt.keys.rotation-period deve essere positivo");
+        }
+        this.masterKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.periodMillis = rotationPeriod.toMillis();
+        Duration tokenLifetime = Duration.ofMillis(jwtExpirationMs);
+        this.gracePeriod = gracePeriod.compareTo(tokenLifetime) < 0 ? tokenLifetime : gracePeriod;
+        this.clock = clock;
+        this.ring = build(periodOf(clock.instant()));
+    }
+
+    /**
+     * Chiave e {@code kid} con cui firmare un nuovo token.
+     *
+     * <p><strong>English:</strong> Key and {@code kid} to sign a new token with.</p>
+     *
+     * @return coppia {@code kid} / chiave del periodo corrente
+     *         <p><strong>English:</strong> {@code kid} / key pair of the current period.</p>
+     */
+    public Map.Entry<String, SecretKey> signingKey() {
+        PeriodKey signing = current().signing();
+        return Map.entry(signing.kid(), signing.key());
+    }
+
+    /**
+     * Locator da passare al {@link io.jsonwebtoken.JwtParser}, che risolve la chiave dal {@code kid}.
+     *
+     * <p><strong>English:</strong> Locator for the {@link io.jsonwebtoken.JwtParser}, resolving the key from the
+     * {@code kid}.</p>
+     *
+     * @return locator thread-safe
+     *         <p><strong>English:</strong> thread-safe locator.</p>
+     */
+    public LocatorAdapter<Key> locator() {
+        return locator;
+    }
+
+    /**
+     * Prepara le chiavi del nuovo periodo prima che servano e ritira quelle oltre il periodo di grazia.
+     * Prepares the keys of the new period before they are needed and retires those past the grace period.
+     */
+    @Scheduled(fixedDelayString = "${jwt.keys.check-interval:1m}")
+    public void rotate() {
+        current();
+    }
+
+    Key verificationKey(String kid) {
+        PeriodKey key = kid != null ? current().verification().get(kid) : null;
+        if (key == null || !clock.instant().isBefore(key.validUntil())) {
+            throw new MalformedJwtException("Chiave di firma sconosciuta o ritirata: " + kid);
+        }
+        return key.key();
+    }
+
+    private Ring current() {
+        Ring snapshot = ring;
+        long period = periodOf(clock.instant());
+        if (snapshot.period() == period) {
+            return snapshot;
+        }
+        synchronized (this) {
+            if (ring.period() != period) {
+                ring = build(period);
+                log.info("Rotazione chiave JWT: firma con {}", ring.signing().kid());
+            }
+            return ring;
+        }
+    }
+
+    private Ring build(long period) {
+        long retained = (gracePeriod.toMillis() + periodMillis - 1) / periodMillis;
+        Map<String, PeriodKey> verification = new HashMap<>();
+        for (long p = period - retained; p <= period + 1; p++) {
+            PeriodKey key = derive(p);
+            verification.put(key.kid(), key);
+        }
+        return new Ring(period, verification.get(KID_PREFIX + period), Map.copyOf(verification));
+    }
+
+    private PeriodKey derive(long period) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(masterKey);
+            byte[] material = mac.doFinal((DERIVATION_LABEL + period).getBytes(StandardCharsets.UTF_8));
+            Instant validUntil = Instant.ofEpochMilli((period + 1) * periodMillis).plus(gracePeriod);
+            return new PeriodKey(KID_PREFIX + period, Keys.hmacShaKeyFor(material), validUntil);
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private long periodOf(Instant instant) {
+        return Math.floorDiv(instant.toEpochMilli(), periodMillis);
+    }
+}
@@ -2,13 +2,15 @@ package com.example.demo.config.security;
 
 import io.jsonwebtoken.*;
 
-import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.security.Key;
+import javax.crypto.SecretKey;
+import java.time.Instant;
 import java.util.Date;
+import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
 
 /**
  * Utility per operazioni JWT: generazione, estrazione dati e validazione.
@@ -16,35 +18,61 @@ import java.util.Set;
  * <p><strong>English:</strong> Utility for JWT operations: generation, data extraction, and validation.</p>
  * <p><strong>Italiano:</strong> Utility per operazioni JWT: generazione, estrazione dati e validazione.</p>
  *
- * <p>Usa la chiave segreta (HMAC SHA) e parametri configurati per creare e verificare token
- * JSON Web Token (JWT).</p>
- * <p><strong>English:</strong> Uses secret key (HMAC SHA) and configured parameters to create and verify
- * JSON Web Tokens (JWT).</p>
+ * <p>Firma i token con HMAC SHA-256 usando la chiave corrente di {@link JwtKeyRing}, il cui {@code kid}
+ * viene scritto nell’header; in verifica la chiave viene scelta dal {@code kid}.</p>
+ * <p><strong>English:</strong> Signs tokens with HMAC SHA-256 using the current key of {@link JwtKeyRing},
+ * whose {@code kid} is written in the header; on verification the key is chosen by {@code kid}.</p>
+ *
+ * <p>Il {@link JwtParser} viene costruito una sola volta (è thread-safe) e ogni token verificato
+ * viene memorizzato in una {@link VerifiedTokenCache} fino alla scadenza: le richieste successive
+ * con lo stesso token non ripetono la verifica della firma.</p>
+ * <p><strong>English:</strong> The {@link JwtParser} is built only once (it is thread-safe) and every
+ * verified token is stored in a {@link VerifiedTokenCache} until it expires: subsequent requests
+ * carrying the same token skip signature verification.</p>
  */
 @Component
 public class JwtUtil {
 
-    private final Key signingKey;
+    /** Claim con l’ID dell’account / Claim holding the account ID. */
+    public static final String CLAIM_ACCOUNT_ID = "uid";
+    /** Claim con la versione dello stato di sicurezza / Claim holding the security state version. */
+    public static final String CLAIM_TOKEN_VERSION = "ver";
+    /** Claim con lo stato di abilitazione / Claim holding the enablement state. */
+    public static final String CLAIM_ENABLED = "enabled";
+    /** Claim con la fine del blocco in secondi epoch / Claim holding the lock expiration in epoch seconds. */
+    public static final String CLAIM_LOCKED_UNTIL = "lck";
+
+    private final JwtKeyRing keyRing;
     private final Long jwtExpirationMs;
+    private final JwtParser parser;
+    private final VerifiedTokenCache tokenCache;
 
     /**
-     * Costruttore che inietta la chiave segreta e la durata del token dalle proprietà.
+     * Costruttore che inietta l’anello delle chiavi di firma e la durata del token dalle proprietà.
      *
-     * <p><strong>English:</strong> Constructor that injects secret key and token duration from properties.</p>
+     * <p><strong>English:</strong> Constructor that injects the signing key ring and token duration from properties.</p>
      *
-     * @param secret          stringa segreta HMAC SHA per firmare il token (da application.properties)
-     *                        <p><strong>English:</strong> HMAC SHA secret string to sign the token (from application.properties).</p>
-     *                        <p><strong>Italiano:</strong> stringa segreta HMAC SHA per firmare il token (da application.properties).</p>
+     * @param keyRing         chiavi HMAC SHA per firmare e verificare i token
+     *                        <p><strong>English:</strong> HMAC SHA keys to sign and verify tokens.</p>
+     *                        <p><strong>Italiano:</strong> chiavi HMAC SHA per firmare e verificare i token.</p>
      * @param jwtExpirationMs durata del token in millisecondi (da application.properties)
      *                        <p><strong>English:</strong> token duration in milliseconds (from application.properties).</p>
      *                        <p><strong>Italiano:</strong> durata del token in millisecondi (da application.properties).</p>
+     * @param cacheMaxSize    numero massimo di token verificati in cache ({@code 0} disabilita la cache)
+     *                        <p><strong>English:</strong> maximum number of verified tokens kept in cache ({@code 0} disables caching).</p>
+     *                        <p><strong>Italiano:</strong> numero massimo di token verificati in cache ({@code 0} disabilita la cache).</p>
      */
     public JwtUtil(
-            @Value("${jwt.secret}") String secret,
-            @Value("${jwt.expiration-ms}") long jwtExpirationMs
+            JwtKeyRing keyRing,
+            @Value("${jwt.expiration-ms}") long jwtExpirationMs,
+            @Value("${jwt.cache.max-size:10000}") int cacheMaxSize
     ) {
-        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        this.keyRing = keyRing;
         this.jwtExpirationMs = jwtExpirationMs;
+        this.parser = Jwts.parser()
+                .keyLocator(keyRing.locator())
+                .build();
+        this.tokenCache = new VerifiedTokenCache(cacheMaxSize);
     }
 
     /**
@@ -54,20 +82,22 @@ public class JwtUtil {
      *
      * <p>Campi inclusi:</p>
      * <ul>
+     *     <li>{@code jti}: identificativo casuale, usato da {@link TokenRevocationList}.</li>
      *     <li>{@code sub}: subject impostato come username.</li>
      *     <li>{@code roles}: lista di ruoli dell’utente.</li>
      *     <li>{@code iat}: data di emissione.</li>
      *     <li>{@code exp}: data di scadenza calcolata come <code>now + jwtExpirationMs</code>.</li>
-     *     <li>Firma HMAC SHA256 con la chiave segreta {@link #signingKey}.</li>
+     *     <li>Firma HMAC SHA256 con la chiave corrente di {@link JwtKeyRing}, indicata dall’header {@code kid}.</li>
      * </ul>
      *
      * <p><strong>English:</strong> Included claims:</p>
      * <ul>
+     *     <li>{@code jti}: random identifier, used by {@link TokenRevocationList}.</li>
      *     <li>{@code sub}: subject set as username.</li>
      *     <li>{@code roles}: list of user roles.</li>
      *     <li>{@code iat}: issued at timestamp.</li>
      *     <li>{@code exp}: expiration timestamp computed as <code>now + jwtExpirationMs</code>.</li>
-     *     <li>HMAC SHA256 signature with secret key {@link #signingKey}.</li>
+     *     <li>HMAC SHA256 signature with the current {@link JwtKeyRing} key, named by the {@code kid} header.</li>
      * </ul>
      *
      * @param username stringa username da includere nel token
@@ -81,17 +111,84 @@ public class JwtUtil {
      *         <p><strong>Italiano:</strong> stringa token JWT compatto e firmato.</p>
      */
     public String generateToken(String username, Set<String> roles){
+        return generateToken(username, roles, Map.of());
+    }
+
+    /**
+     * Genera un token JWT firmato con username, ruoli e claim aggiuntivi (es. stato dell’account).
+     *
+     * <p><strong>English:</strong> Generates a signed JWT token with username, roles and additional claims
+     * (e.g. account state).</p>
+     *
+     * @param username    stringa username da includere nel token
+     *                    <p><strong>English:</strong> username string to include in token.</p>
+     * @param roles       insieme di nomi ruoli da includere come claim
+     *                    <p><strong>English:</strong> set of role names to include as a claim.</p>
+     * @param extraClaims claim aggiuntivi, vedi le costanti {@code CLAIM_*}
+     *                    <p><strong>English:</strong> additional claims, see the {@code CLAIM_*} constants.</p>
+     * @return stringa token JWT compatto e firmato
+     *         <p><strong>English:</strong> compact, signed JWT token string.</p>
+     */
+    public String generateToken(String username, Set<String> roles, Map<String, ?> extraClaims){
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtExpirationMs);
+        Map.Entry<String, SecretKey> signingKey = keyRing.signingKey();
         return Jwts.builder()
+                .header().keyId(signingKey.getKey()).and()
+                .setId(UUID.randomUUID().toString())
                 .setSubject(username)
                 .claim("roles" , roles)
+                .addClaims(extraClaims)
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
-                .signWith(signingKey, SignatureAlgorithm.ES256)
+                .signWith(signingKey.getValue(), Jwts.SIG.HS256)
                 .compact();
     }
 
+    /**
+     * Verifica un token JWT una sola volta e ne restituisce i claim in forma immutabile.
+     *
+     * <p><strong>English:</strong> Verifies a JWT token once and returns its claims in immutable form.</p>
+     *
+     * <p>Se lo stesso token è già stato verificato e non è scaduto, viene restituito dalla cache
+     * senza ricalcolare la firma HMAC né decodificare di nuovo il JSON.</p>
+     * <p><strong>English:</strong> If the same token has already been verified and is not expired,
+     * it is returned from the cache without recomputing the HMAC signature or decoding the JSON again.</p>
+     *
+     * @param token token JWT compatto
+     *              <p><strong>English:</strong> compact JWT token.</p>
+     *              <p><strong>Italiano:</strong> token JWT compatto.</p>
+     * @return {@link ParsedToken} con username, ruoli e scadenza
+     *         <p><strong>English:</strong> {@link ParsedToken} with username, roles and expiration.</p>
+     *         <p><strong>Italiano:</strong> {@link ParsedToken} con username, ruoli e scadenza.</p>
+     * @throws ExpiredJwtException   se il token è scaduto
+     *                               <p><strong>English:</strong> if the token is expired.</p>
+     *                               <p><strong>Italiano:</strong> se il token è scaduto.</p>
+     * @throws MalformedJwtException se il token è malformato o la firma non è valida
+     *                               <p><strong>English:</strong> if the token is malformed or the signature is invalid.</p>
+     *                               <p><strong>Italiano:</strong> se il token è malformato o la firma non è valida.</p>
+     */
+    public ParsedToken parseToken(String token) {
+        if (token == null || token.isBlank()) {
+            throw new MalformedJwtException("Token JWT non valido");
+        }
+        Instant now = Instant.now();
+        String key = VerifiedTokenCache.keyOf(token);
+        ParsedToken cached = tokenCache.get(key, now);
+        if (cached != null) {
+            return cached;
+        }
+        try {
+            ParsedToken parsed = new ParsedToken(parser.parseClaimsJws(token).getBody());
+            tokenCache.put(key, parsed, now);
+            return parsed;
+        } catch (ExpiredJwtException ex) {
+            throw ex;
+        } catch (JwtException | IllegalArgumentException ex) {
+            throw new MalformedJwtException("Token JWT non valido", ex);
+        }
+    }
+
     /**
      * Estrae lo username dal token JWT valido.
      *
@@ -108,12 +205,7 @@ public class JwtUtil {
      *                      <p><strong>Italiano:</strong> se il parsing del token fallisce (firma non valida, malformato, scaduto).</p>
      */
     public String getUsernameFromJwt(String token){
-        return Jwts.parser()
-                .setSigningKey(signingKey)
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+        return parseToken(token).getUsername();
     }
 
     /**
@@ -131,14 +223,8 @@ public class JwtUtil {
      *                      <p><strong>English:</strong> if token parsing fails (invalid signature, malformed, expired).</p>
      *                      <p><strong>Italiano:</strong> se il parsing del token fallisce (firma non valida, malformato, scaduto).</p>
      */
-    @SuppressWarnings("unchecked")
     public Set<String> getRolesFromJwt(String token) {
-        Claims claims = Jwts.parser()
-                .setSigningKey(signingKey)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        return claims.get("roles", Set.class);
+        return parseToken(token).getRoles();
     }
 
     /**
@@ -170,16 +256,7 @@ public class JwtUtil {
      *                               <p><strong>Italiano:</strong> per altri errori di parsing JWT (es. algoritmo non supportato).</p>
      */
     public boolean validateToken(String token) {
-        try {
-            Jwts.parser()
-                    .setSigningKey(signingKey)
-                    .build()
-                    .parseClaimsJws(token);
-            return true;
-        } catch (ExpiredJwtException ex) {
-            throw ex;
-        } catch (JwtException | IllegalArgumentException ex) {
-            throw new MalformedJwtException("Token JWT non valido", ex);
-        }
+        parseToken(token);
+        return true;
     }
 }
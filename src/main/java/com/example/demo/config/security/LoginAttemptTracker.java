@@ -0,0 +1,409 @@
+package com.example.demo.config.security;
+
+import com.example.demo.config.audit.AuditPartitionManager;
+import com.example.demo.config.exceptions.TooManyAttemptsException;
+import com.example.demo.entities.Account;
+import com.example.demo.services.events.AccountChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Conteggio in memoria dei tentativi di login falliti per username e per IP, con blocco temporaneo automatico.
+ *
+ * <p><strong>English:</strong> In-memory count of failed login attempts per username and per IP, with automatic
+ * temporary lockout.</p>
+ * <p><strong>Italiano:</strong> Conteggio in memoria dei tentativi di login falliti per username e per IP, con
+ * blocco temporaneo automatico.</p>
+ *
+ * <p>Ogni chiave ha una finestra scorrevole di {@code security.login-attempts.window} divisa in intervalli; ogni
+ * intervallo è un {@code long} che contiene numero dell’intervallo e conteggio, aggiornato con CAS senza lock.
+ * Le chiavi stanno in due cache Caffeine limitate (quindi concorrenti e a segmenti), così un attacco con molti
+ * username o IP diversi non fa crescere la memoria senza limiti.</p>
+ * <p><strong>English:</strong> Each key has a sliding window of {@code security.login-attempts.window} split into
+ * slots; each slot is a {@code long} holding slot number and count, updated by lock-free CAS. Keys live in two
+ * bounded Caffeine caches (hence concurrent and striped), so an attack with many different usernames or IPs does
+ * not grow memory without bound.</p>
+ *
+ * <p>Superati {@code max-failures} errori nella finestra, lo username viene bloccato per {@code lock-duration};
+ * superati {@code ip-max-failures} errori, l’IP viene respinto fino allo scorrimento della finestra. In entrambi i
+ * casi {@link #checkAllowed(String, String)} lancia {@link TooManyAttemptsException} prima di calcolare l’hash.
+ * {@code failedAttempts} e {@code lockedUntil} non vengono scritti a ogni errore: {@link #flush()} li salva a
+ * lotti ogni {@code flush-interval} con un solo {@code batchUpdate} per tipo.</p>
+ * <p><strong>English:</strong> Beyond {@code max-failures} errors in the window the username is locked for
+ * {@code lock-duration}; beyond {@code ip-max-failures} errors the IP is rejected until the window slides. In both
+ * cases {@link #checkAllowed(String, String)} throws {@link TooManyAttemptsException} before any hash is computed.
+ * {@code failedAttempts} and {@code lockedUntil} are not written on every error: {@link #flush()} saves them in
+ * batches every {@code flush-interval} with a single {@code batchUpdate} per kind.</p>
+ *
+ * <p>Gli account bloccati da un salvataggio vengono invalidati in {@link UserDetailsCache}. Non si pubblica
+ * {@link AccountChangedEvent}: il tracker stesso lo ascolta e dimenticherebbe il blocco appena registrato.</p>
+ * <p><strong>English:</strong> Accounts locked by a flush are evicted from {@link UserDetailsCache}.
+ * {@link AccountChangedEvent} is not published: the tracker listens to it and would forget the lock it just
+ * recorded.</p>
+ */
+@Component
+@Slf4j
+public class LoginAttemptTracker {
+
+    static final String FAILURES_SQL = "update accounts set failed_attempts = coalesce(failed_attempts, 0) + ? "
+            + "where username_normalized = ?";
+    static final String LOCK_SQL = "update accounts set locked_until = ? "
+            + "where username_normalized = ? and (locked_until is null or locked_until < ?)";
+
+    private static final int SLOTS = 10;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UserDetailsCache userDetailsCache;
+    private final LongSupplier clock;
+    private final boolean enabled;
+    private final long slotMillis;
+    private final int maxFailures;
+    private final long lockMillis;
+    private final int ipMaxFailures;
+    private final Cache<String, AttemptState> byUsername;
+    private final Cache<String, AttemptState> byIp;
+    private final Set<AttemptState> dirty = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Costruisce il tracker a partire dalle proprietà {@code security.login-attempts.*}.
+     *
+     * <p><strong>English:</strong> Builds the tracker from the {@code security.login-attempts.*} properties.</p>
+     *
+     * @param jdbcTemplate  template JDBC per il salvataggio a lotti
+     *                      <p><strong>English:</strong> JDBC template for batched persistence.</p>
+     * @param userDetailsCache cache degli utenti, invalidata per gli account bloccati
+     *                      <p><strong>English:</strong> user cache, evicted for locked accounts.</p>
+     * @param enabled       abilita il conteggio e il blocco
+     *                      <p><strong>English:</strong> enables counting and lockout.</p>
+     * @param window        ampiezza della finestra scorrevole
+     *                      <p><strong>English:</strong> sliding window length.</p>
+     * @param maxFailures   errori per username che causano il blocco
+     *                      <p><strong>English:</strong> failures per username that trigger the lock.</p>
+     * @param lockDuration  durata del blocco automatico
+     *                      <p><strong>English:</strong> automatic lock duration.</p>
+     * @param ipMaxFailures errori per IP oltre i quali l’IP viene respinto
+     *                      <p><strong>English:</strong> failures per IP beyond which the IP is rejected.</p>
+     * @param maxEntries    chiavi massime tenute in memoria per tipo
+     *                      <p><strong>English:</strong> maximum keys kept in memory per kind.</p>
+     */
+    @Autowired
+    public LoginAttemptTracker(
+            JdbcTemplate jdbcTemplate,
+            UserDetailsCache userDetailsCache,
+            @Value("${security.login-attempts.enabled:true}") boolean enabled,
+            @Value("${security.login-attempts.window:15m}") Duration window,
+            @Value("${security.login-attempts.max-failures:5}") int maxFailures,
+            @Value("${security.login-attempts.lock-duration:15m}") Duration lockDuration,
+            @Value("${security.login-attempts.ip-max-failures:50}") int ipMaxFailures,
+            @Value("${security.login-attempts.max-entries:100000}") long maxEntries
+    ) {
+        this(jdbcTemplate, userDetailsCache, System::currentTimeMillis, enabled, window, maxFailures, lockDuration, ipMaxFailures, maxEntries);
+    }
+
+    LoginAttemptTracker(JdbcTemplate jdbcTemplate, UserDetailsCache userDetailsCache, LongSupplier clock,
+                        boolean enabled, Duration window, int maxFailures, Duration lockDuration, int ipMaxFailures,
+                        long maxEntries) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.userDetailsCache = userDetailsCache;
+        this.clock = clock;
+        this.enabled = enabled;
+        this.slotMillis = Math.max(1, window.toMillis() / SLOTS);
+        this.maxFailures = maxFailures;
+        this.lockMillis = lockDuration.toMillis();
+        this.ipMaxFailures = ipMaxFailures;
+        Duration idle = window.plus(lockDuration);
+        this.byUsername = Caffeine.newBuilder().maximumSize(maxEntries).expireAfterAccess(idle).build();
+        this.byIp = Caffeine.newBuilder().maximumSize(maxEntries).expireAfterAccess(idle).build();
+    }
+
+    /**
+     * Verifica che username e IP possano tentare il login.
+     *
+     * <p><strong>English:</strong> Checks that username and IP may attempt a login.</p>
+     *
+     * @param username username del tentativo
+     *                 <p><strong>English:</strong> attempted username.</p>
+     * @param clientIp IP del client, {@code null} se sconosciuto
+     *                 <p><strong>English:</strong> client IP, {@code null} if unknown.</p>
+     * @throws TooManyAttemptsException se lo username è bloccato o l’IP ha superato il limite
+     *                                  <p><strong>English:</strong> if the username is locked or the IP is over the
+     *                                  limit.</p>
+     */
+    public void checkAllowed(String username, String clientIp) {
+        if (!enabled) {
+            return;
+        }
+        long now = clock.getAsLong();
+        AttemptState user = username != null ? byUsername.getIfPresent(Account.normalize(username)) : null;
+        if (user != null && user.lockedUntil.get() > now) {
+            throw new TooManyAttemptsException("Account temporaneamente bloccato / Account temporarily locked",
+                    Duration.ofMillis(user.lockedUntil.get() - now));
+        }
+        AttemptState ip = clientIp != null ? byIp.getIfPresent(clientIp) : null;
+        if (ip != null && ip.window.sum(now) >= ipMaxFailures) {
+            throw new TooManyAttemptsException("Troppi tentativi da questo indirizzo / Too many attempts from this address",
+                    Duration.ofMillis(slotMillis));
+        }
+    }
+
+    /**
+     * Registra un tentativo fallito e, al raggiungimento della soglia, blocca lo username.
+     *
+     * <p><strong>English:</strong> Records a failed attempt and, when the threshold is reached, locks the
+     * username.</p>
+     *
+     * @param username username del tentativo
+     *                 <p><strong>English:</strong> attempted username.</p>
+     * @param clientIp IP del client, {@code null} se sconosciuto
+     *                 <p><strong>English:</strong> client IP, {@code null} if unknown.</p>
+     */
+    public void recordFailure(String username, String clientIp) {
+        if (!enabled) {
+            return;
+        }
+        long now = clock.getAsLong();
+        if (clientIp != null) {
+            byIp.get(clientIp, AttemptState::new).window.increment(now);
+        }
+        if (username == null) {
+            return;
+        }
+        AttemptState user = byUsername.get(Account.normalize(username), AttemptState::new);
+        user.unflushed.incrementAndGet();
+        if (user.window.increment(now) >= maxFailures) {
+            long until = now + lockMillis;
+            long previous = user.lockedUntil.get();
+            if (previous <= now && user.lockedUntil.compareAndSet(previous, until)) {
+                user.window.reset();
+                user.lockDirty.set(true);
+                log.info("Username {} bloccato fino a {} dopo {} tentativi falliti", user.key, Instant.ofEpochMilli(until), maxFailures);
+            }
+        }
+        dirty.add(user);
+    }
+
+    /**
+     * Azzera il conteggio dello username dopo un login riuscito; {@code failedAttempts} viene azzerato dal chiamante.
+     *
+     * <p><strong>English:</strong> Clears the username's count after a successful login; {@code failedAttempts} is
+     * reset by the caller.</p>
+     *
+     * @param username username autenticato
+     *                 <p><strong>English:</strong> authenticated username.</p>
+     */
+    public void recordSuccess(String username) {
+        if (enabled && username != null) {
+            clear(Account.normalize(username));
+        }
+    }
+
+    /**
+     * Dimentica gli username modificati (es. sblocco manuale), dopo il commit.
+     *
+     * <p><strong>English:</strong> Forgets the changed usernames (e.g. manual unlock), after commit.</p>
+     *
+     * @param event evento di modifica
+     *              <p><strong>English:</strong> change event.</p>
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAccountChanged(AccountChangedEvent event) {
+        event.getUsernames().forEach(username -> clear(Account.normalize(username)));
+    }
+
+    /**
+     * Salva a lotti i tentativi falliti e i blocchi accumulati dall’ultimo salvataggio.
+     *
+     * <p><strong>English:</strong> Saves in batches the failed attempts and locks accumulated since the last
+     * save.</p>
+     *
+     * <p>In caso di errore del database i valori tornano in attesa e vengono ritentati al giro successivo.
+     * {@code locked_until} è scritto in UTC, come lo legge Hibernate per {@link Account#getLockedUntil()}.</p>
+     * <p><strong>English:</strong> On a database error the values go back to pending and are retried on the next
+     * run. {@code locked_until} is written in UTC, as Hibernate reads it for {@link Account#getLockedUntil()}.</p>
+     */
+    @Scheduled(fixedDelayString = "${security.login-attempts.flush-interval:5s}")
+    @PreDestroy
+    public void flush() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+        List<Pending> taken = new ArrayList<>();
+        List<Object[]> failures = new ArrayList<>();
+        List<Timestamp> locks = new ArrayList<>();
+        List<String> lockKeys = new ArrayList<>();
+        for (AttemptState state : dirty) {
+            // Rimosso prima di leggere: un errore concorrente lo riaggiunge / Removed before reading: a concurrent failure re-adds it
+            dirty.remove(state);
+            Pending pending = new Pending(state, state.unflushed.getAndSet(0), state.lockDirty.getAndSet(false));
+            if (pending.failures() > 0) {
+                failures.add(new Object[]{pending.failures(), state.key});
+            }
+            if (pending.lock()) {
+                locks.add(new Timestamp(state.lockedUntil.get()));
+                lockKeys.add(state.key);
+            }
+            taken.add(pending);
+        }
+        try {
+            if (!failures.isEmpty()) {
+                jdbcTemplate.batchUpdate(FAILURES_SQL, failures);
+            }
+            if (!locks.isEmpty()) {
+                evictLocked(lockKeys, jdbcTemplate.batchUpdate(LOCK_SQL, new LockSetter(lockKeys, locks,
+                        AuditPartitionManager.utcCalendar())));
+            }
+        } catch (DataAccessException ex) {
+            log.warn("Salvataggio dei tentativi di login non riuscito, ritento al prossimo giro: {}", ex.getMessage());
+            for (Pending pending : taken) {
+                pending.state().unflushed.addAndGet(pending.failures());
+                if (pending.lock()) {
+                    pending.state().lockDirty.set(true);
+                }
+                dirty.add(pending.state());
+            }
+        }
+    }
+
+    /**
+     * Invalida in {@link UserDetailsCache} gli account appena bloccati, così il blocco vale anche per le richieste
+     * autenticate prima della scadenza del TTL; senza conteggi invalida tutti gli username del lotto.
+     * Evicts the accounts just locked from {@link UserDetailsCache}, so the lock also applies to authenticated
+     * requests before the TTL expires; without counts it evicts every username of the batch.
+     */
+    private void evictLocked(List<String> keys, int[] counts) {
+        Set<String> locked = new HashSet<>();
+        for (int i = 0; i < keys.size(); i++) {
+            if (counts == null || i >= counts.length || counts[i] != 0) {
+                locked.add(keys.get(i));
+            }
+        }
+        userDetailsCache.evictIgnoreCase(locked);
+    }
+
+    private void clear(String key) {
+        AttemptState state = byUsername.getIfPresent(key);
+        if (state != null) {
+            byUsername.invalidate(key);
+            state.unflushed.set(0);
+            state.lockDirty.set(false);
+            dirty.remove(state);
+        }
+    }
+
+    /**
+     * Parametri di {@link #LOCK_SQL}: i timestamp sono legati con un calendario UTC, altrimenti il driver li
+     * scriverebbe nel fuso orario della JVM.
+     * Parameters of {@link #LOCK_SQL}: timestamps are bound with a UTC calendar, otherwise the driver would write
+     * them in the JVM time zone.
+     */
+    private record LockSetter(List<String> keys, List<Timestamp> until, Calendar utc)
+            implements BatchPreparedStatementSetter {
+
+        @Override
+        public void setValues(PreparedStatement ps, int i) throws SQLException {
+            ps.setTimestamp(1, until.get(i), utc);
+            ps.setString(2, keys.get(i));
+            ps.setTimestamp(3, until.get(i), utc);
+        }
+
+        @Override
+        public int getBatchSize() {
+            return keys.size();
+        }
+    }
+
+    /**
+     * Valori presi da uno stato durante un salvataggio.
+     * Values taken from a state during a flush.
+     */
+    private record Pending(AttemptState state, int failures, boolean lock) {
+    }
+
+    /**
+     * Stato di una chiave: finestra scorrevole, blocco e valori non ancora salvati.
+     * State of a key: sliding window, lock and values not yet saved.
+     */
+    private final class AttemptState {
+
+        private final String key;
+        private final SlidingWindow window = new SlidingWindow();
+        private final AtomicLong lockedUntil = new AtomicLong();
+        private final AtomicInteger unflushed = new AtomicInteger();
+        private final AtomicBoolean lockDirty = new AtomicBoolean();
+
+        private AttemptState(String key) {
+            this.key = key;
+        }
+    }
+
+    /**
+     * Contatore a finestra scorrevole senza lock: ogni intervallo è {@code (numero intervallo << 20) | conteggio}.
+     * Lock-free sliding window counter: each slot is {@code (slot number << 20) | count}.
+     */
+    private final class SlidingWindow {
+
+        private static final int COUNT_BITS = 20;
+        private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+        private final AtomicLongArray slots = new AtomicLongArray(SLOTS);
+
+        int increment(long now) {
+            long epoch = now / slotMillis;
+            int index = (int) (epoch % SLOTS);
+            while (true) {
+                long current = slots.get(index);
+                long next = current >>> COUNT_BITS == epoch
+                        ? Math.min(current + 1, (epoch << COUNT_BITS) | COUNT_MASK)
+                        : (epoch << COUNT_BITS) | 1;
+                if (slots.compareAndSet(index, current, next)) {
+                    return sum(now);
+                }
+            }
+        }
+
+        int sum(long now) {
+            long epoch = now / slotMillis;
+            int total = 0;
+            for (int i = 0; i < SLOTS; i++) {
+                long slot = slots.get(i);
+                if (epoch - (slot >>> COUNT_BITS) < SLOTS) {
+                    total += (int) (slot & COUNT_MASK);
+                }
+            }
+            return total;
+        }
+
+        void reset() {
+            for (int i = 0; i < SLOTS; i++) {
+                slots.set(i, 0);
+            }
+        }
+    }
+}
@@ -3,12 +3,16 @@ package com.example.demo.config.security;
 
 import com.example.demo.config.exceptions.EntityNotFoundException;
 import com.example.demo.config.exceptions.FailedLoginException;
+import com.example.demo.config.exceptions.ServiceBusyException;
+import com.example.demo.config.exceptions.TooManyAttemptsException;
 import com.example.demo.config.mapper.EntityMapper;
 import com.example.demo.dto.request.LoginRequestDTO;
 import com.example.demo.dto.response.LoginResponseDTO;
 import com.example.demo.entities.Account;
 import com.example.demo.repositories.AccountRepository;
+import io.jsonwebtoken.JwtException;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -19,6 +23,8 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -38,10 +44,19 @@ import java.util.stream.Collectors;
  *         dei tentativi falliti e lancia {@link BadCredentialsException}.</li>
  *     <li>Se l’utente esiste, resetta i tentativi falliti, aggiorna il timestamp
  *         di ultimo login e salva l’entità {@link Account}.</li>
+ *     <li>Se l’hash della password è obsoleto (algoritmo o costo), lo ricalcola con la password appena
+ *         verificata.</li>
  *     <li>Estrae i nomi dei ruoli, genera un token JWT tramite {@link JwtUtil} e
  *         ritorna un {@link LoginResponseDTO} mappato con {@link EntityMapper}.</li>
  * </ol>
  *
+ * <p>Il token include anche ID account, versione dello stato di sicurezza, stato di
+ * abilitazione/blocco, usati da {@link JwtAuthenticationFilter} in modalità
+ * “trusted claims” per evitare il caricamento dell’account a ogni richiesta.</p>
+ * <p><strong>English:</strong> The token also carries account ID, security state version,
+ * enabled/locked state, used by {@link JwtAuthenticationFilter} in
+ * “trusted claims” mode to avoid loading the account on every request.</p>
+ *
  * @see AuthenticationManager
  * @see JwtUtil
  * @see EntityMapper
@@ -49,6 +64,7 @@ import java.util.stream.Collectors;
 @Service
 @Transactional
 @RequiredArgsConstructor
+@Slf4j
 public class LoginService {
 
     private final AccountRepository accountRepository;
@@ -56,6 +72,9 @@ public class LoginService {
     private final JwtUtil jwtUtil;
     private final AuthenticationManager authenticationManager;
     private final EntityMapper mapper;
+    private final LoginAttemptTracker loginAttemptTracker;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenRevocationList revocationList;
 
     /**
      * Esegue il login per un utente dato un {@link LoginRequestDTO}.
@@ -64,10 +83,12 @@ public class LoginService {
      *
      * <p>Passaggi:</p>
      * <ol>
+     *     <li>Respinge subito username bloccati e IP oltre il limite tramite {@link LoginAttemptTracker},
+     *         senza calcolare l’hash.</li>
      *     <li>Tenta di autenticare le credenziali tramite
      *         {@link AuthenticationManager#authenticate(Authentication)}.</li>
-     *     <li>Se l’autenticazione fallisce, incrementa
-     *         {@code failedAttempts} nel record {@link Account} (se esiste) e lancia
+     *     <li>Se l’autenticazione fallisce, registra il tentativo in {@link LoginAttemptTracker}
+     *         (che salva {@code failedAttempts} e {@code lockedUntil} a lotti) e lancia
      *         {@link BadCredentialsException}.</li>
      *     <li>Recupera l’oggetto {@link Account} dal database;
      *         se non esiste, lancia {@link EntityNotFoundException}.</li>
@@ -75,18 +96,26 @@ public class LoginService {
      *         e salva l’entità aggiornata.</li>
      *     <li>Estrae i nomi dei ruoli, genera token JWT tramite {@link JwtUtil#generateToken(String, Set)},
      *         quindi mappa l’account e il token in {@link LoginResponseDTO} tramite {@link EntityMapper}.</li>
+     *     <li>Apre una sessione di refresh tramite {@link RefreshTokenService} e ne aggiunge il token alla
+     *         risposta.</li>
      * </ol>
      *
      * @param loginRequest DTO contenente username e password dell’utente
      *                     <p><strong>English:</strong> DTO containing user's username and password.</p>
+     * @param clientIp     indirizzo IP del client, {@code null} se sconosciuto
+     *                     <p><strong>English:</strong> client IP address, {@code null} if unknown.</p>
      * @return {@link LoginResponseDTO} con i dati dell’account e il token JWT
      *         <p><strong>English:</strong> {@link LoginResponseDTO} containing account data and the JWT token.</p>
      * @throws BadCredentialsException     se l’autenticazione fallisce (credenziali errate)
      *                                     <p><strong>English:</strong> if authentication fails (invalid credentials).</p>
      * @throws EntityNotFoundException     se l’account con lo username specificato non esiste
      *                                     <p><strong>English:</strong> if account with given username is not found.</p>
+     * @throws TooManyAttemptsException    se lo username è bloccato o l’IP ha superato il limite di tentativi
+     *                                     <p><strong>English:</strong> if the username is locked or the IP is over
+     *                                     the attempt limit.</p>
      */
-    public LoginResponseDTO login(LoginRequestDTO loginRequest){
+    public LoginResponseDTO login(LoginRequestDTO loginRequest, String clientIp){
+        loginAttemptTracker.checkAllowed(loginRequest.getUsername(), clientIp);
         try{
             Authentication auth = authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(
@@ -95,24 +124,142 @@ public class LoginService {
                     )
             );
         } catch (AuthenticationException ex){
-            Account account = accountRepository.findByUsername(loginRequest.getUsername())
-                    .orElse(null);
-            if (account != null) {
-                int attuali = account.getFailedAttempts() != null ? account.getFailedAttempts() : 0;
-                account.setFailedAttempts(attuali + 1);
-                accountRepository.save(account);
-            }
+            loginAttemptTracker.recordFailure(loginRequest.getUsername(), clientIp);
             throw new BadCredentialsException("Invalid credential");
         }
         Account account = accountRepository.findByUsername(loginRequest.getUsername())
                 .orElseThrow( () -> new EntityNotFoundException("Account with username \"" + loginRequest.getUsername() + "\" not found"));
 
+        loginAttemptTracker.recordSuccess(account.getUsername());
         account.setFailedAttempts(0);
         account.setLastLogin(Instant.now());
+        upgradePasswordHash(account, loginRequest.getPassword());
         Account updated = accountRepository.save(account);
-        Set<String> roleNames = updated.getRoles().stream().map(role -> role.getName()).collect(Collectors.toSet());
-        String token = jwtUtil.generateToken(updated.getUsername(), roleNames);
-        return mapper.toLoginResponseDto(updated, token);
+        return respond(updated, refreshTokenService.issue(updated));
+    }
+
+    /**
+     * Emette un nuovo access token a partire da un refresh token, senza verificare la password.
+     *
+     * <p><strong>English:</strong> Issues a new access token from a refresh token, without checking the password.</p>
+     *
+     * <p>Una sola ricerca indicizzata su {@code refresh_sessions} (con account, ruoli e permessi) e due scritture
+     * per la rotazione; nessun hash BCrypt. Il refresh token usato non è più valido: la risposta ne contiene uno
+     * nuovo. Le revoche fatte durante il rifiuto (riuso, account bloccato) vengono confermate anche se la
+     * richiesta fallisce.</p>
+     * <p><strong>English:</strong> A single indexed lookup on {@code refresh_sessions} (with account, roles and
+     * permissions) and two writes for the rotation; no BCrypt hash. The refresh token used is no longer valid: the
+     * response carries a new one. Revocations made while rejecting (reuse, locked account) are committed even if the
+     * request fails.</p>
+     *
+     * @param refreshToken refresh token ricevuto al login o al refresh precedente
+     *                     <p><strong>English:</strong> refresh token received at login or at the previous refresh.</p>
+     * @return {@link LoginResponseDTO} con nuovo access token e nuovo refresh token
+     *         <p><strong>English:</strong> {@link LoginResponseDTO} with new access token and new refresh token.</p>
+     * @throws BadCredentialsException se il refresh token non è valido, è scaduto o è già stato usato
+     *                                 <p><strong>English:</strong> if the refresh token is invalid, expired or
+     *                                 already used.</p>
+     */
+    @Transactional(noRollbackFor = BadCredentialsException.class)
+    public LoginResponseDTO refresh(String refreshToken) {
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(refreshToken)
+                .orElseThrow(() -> new BadCredentialsException("Invalid refresh token"));
+        return respond(rotation.account(), rotation.refreshToken());
+    }
+
+    /**
+     * Chiude la sessione: revoca l’access token fino alla sua scadenza e la famiglia del refresh token.
+     *
+     * <p><strong>English:</strong> Ends the session: revokes the access token until its expiration and the refresh
+     * token family.</p>
+     *
+     * <p>Entrambi i token sono facoltativi. Un access token scaduto o non valido (firma errata, chiave uscita dal
+     * ring) non viene registrato, perché è comunque rifiutato; il refresh token viene revocato in ogni caso.</p>
+     * <p><strong>English:</strong> Both tokens are optional. An expired or invalid access token (wrong signature,
+     * key rotated out of the ring) is not recorded, since it is rejected anyway; the refresh token is revoked in
+     * every case.</p>
+     *
+     * @param accessToken  access token in uso, senza prefisso “Bearer ”
+     *                     <p><strong>English:</strong> access token in use, without the “Bearer ” prefix.</p>
+     * @param refreshToken refresh token della stessa sessione
+     *                     <p><strong>English:</strong> refresh token of the same session.</p>
+     */
+    public void logout(String accessToken, String refreshToken) {
+        if (accessToken != null && !accessToken.isBlank()) {
+            try {
+                ParsedToken parsed = jwtUtil.parseToken(accessToken);
+                revocationList.revoke(parsed.getTokenId(), parsed.getAccountId(), parsed.getExpiration());
+            } catch (JwtException ex) {
+                log.debug("Logout con access token scaduto o non valido: {}", ex.getMessage());
+            }
+        }
+        refreshTokenService.revoke(refreshToken);
+    }
+
+    /**
+     * Genera l’access token e compone la risposta.
+     *
+     * <p><strong>English:</strong> Generates the access token and builds the response.</p>
+     */
+    private LoginResponseDTO respond(Account account, String refreshToken) {
+        Set<String> roleNames = account.getRoles().stream().map(role -> role.getName()).collect(Collectors.toSet());
+        String token = jwtUtil.generateToken(account.getUsername(), roleNames, stateClaims(account));
+        LoginResponseDTO response = mapper.toLoginResponseDto(account, token);
+        response.setRefreshToken(refreshToken);
+        return response;
+    }
+
+    /**
+     * Ricalcola l’hash della password se è stato prodotto con un algoritmo o un costo inferiori a quelli attuali.
+     *
+     * <p><strong>English:</strong> Rehashes the password if it was produced with an older algorithm or a lower cost
+     * than the current ones.</p>
+     *
+     * <p>La password in chiaro è disponibile solo qui, dopo un login riuscito. Se il pool di hashing è saturo
+     * l’aggiornamento viene rimandato al login successivo invece di far fallire questo.</p>
+     * <p><strong>English:</strong> The plain password is only available here, after a successful login. If the
+     * hashing pool is saturated the upgrade is deferred to the next login instead of failing this one.</p>
+     *
+     * @param account     account autenticato
+     *                    <p><strong>English:</strong> authenticated account.</p>
+     * @param rawPassword password appena verificata
+     *                    <p><strong>English:</strong> password just verified.</p>
+     */
+    private void upgradePasswordHash(Account account, String rawPassword) {
+        if (!passwordEncoder.upgradeEncoding(account.getPasswordHash())) {
+            return;
+        }
+        try {
+            account.setPasswordHash(passwordEncoder.encode(rawPassword));
+        } catch (ServiceBusyException ex) {
+            log.debug("Aggiornamento dell'hash rimandato per {}: pool di hashing saturo", account.getUsername());
+        }
+    }
+
+    /**
+     * Costruisce i claim di stato dell’account da incorporare nel token.
+     *
+     * <p><strong>English:</strong> Builds the account state claims to embed in the token.</p>
+     *
+     * <p>I permessi non vengono incorporati: {@link JwtAuthenticationFilter} li ricava dai ruoli tramite
+     * {@link PermissionRegistry}, quindi restano aggiornati anche per i token già emessi.</p>
+     * <p><strong>English:</strong> Permissions are not embedded: {@link JwtAuthenticationFilter} derives them from
+     * the roles through {@link PermissionRegistry}, so they stay current for tokens already issued.</p>
+     *
+     * @param account   account autenticato
+     *                  <p><strong>English:</strong> authenticated account.</p>
+     * @return mappa dei claim (vedi costanti {@code JwtUtil.CLAIM_*})
+     *         <p><strong>English:</strong> claims map (see {@code JwtUtil.CLAIM_*} constants).</p>
+     */
+    private Map<String, Object> stateClaims(Account account) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(JwtUtil.CLAIM_ACCOUNT_ID, account.getId());
+        claims.put(JwtUtil.CLAIM_TOKEN_VERSION, account.getTokenVersion() != null ? account.getTokenVersion() : 0);
+        claims.put(JwtUtil.CLAIM_ENABLED, !Boolean.FALSE.equals(account.getEnabled()));
+        if (account.getLockedUntil() != null) {
+            claims.put(JwtUtil.CLAIM_LOCKED_UNTIL, account.getLockedUntil().getEpochSecond());
+        }
+        return claims;
     }
 
 }
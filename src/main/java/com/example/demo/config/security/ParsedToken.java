@@ -0,0 +1,183 @@
+package com.example.demo.config.security;
+
+import io.jsonwebtoken.Claims;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Rappresentazione immutabile di un token JWT già verificato (firma e scadenza).
+ *
+ * <p><strong>English:</strong> Immutable representation of an already verified JWT (signature and expiration).</p>
+ * <p><strong>Italiano:</strong> Rappresentazione immutabile di un token JWT già verificato (firma e scadenza).</p>
+ *
+ * <p>Viene prodotto una sola volta per richiesta da {@link JwtUtil#parseToken(String)} e
+ * conservato in {@link VerifiedTokenCache} fino alla scadenza, così che username e ruoli
+ * vengano letti senza ripetere la verifica HMAC e la decodifica JSON.</p>
+ * <p><strong>English:</strong> Produced once per request by {@link JwtUtil#parseToken(String)} and
+ * kept in {@link VerifiedTokenCache} until expiration, so that username and roles are read
+ * without repeating HMAC verification and JSON decoding.</p>
+ */
+public final class ParsedToken {
+
+    private final Claims claims;
+    private final String tokenId;
+    private final String username;
+    private final Set<String> roles;
+    private final Instant issuedAt;
+    private final Instant expiration;
+    private final Long accountId;
+    private final Integer tokenVersion;
+    private final Boolean enabled;
+    private final Instant lockedUntil;
+
+    /**
+     * Costruisce il token verificato a partire dai claim decodificati.
+     *
+     * <p><strong>English:</strong> Builds the verified token from the decoded claims.</p>
+     *
+     * @param claims claim del token con firma già verificata
+     *               <p><strong>English:</strong> token claims whose signature has already been verified.</p>
+     *               <p><strong>Italiano:</strong> claim del token con firma già verificata.</p>
+     */
+    ParsedToken(Claims claims) {
+        this.claims = claims;
+        this.tokenId = claims.getId();
+        this.username = claims.getSubject();
+        this.roles = toStringSet(claims.get("roles"));
+        this.issuedAt = claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null;
+        this.expiration = claims.getExpiration() != null ? claims.getExpiration().toInstant() : null;
+        this.accountId = claims.get(JwtUtil.CLAIM_ACCOUNT_ID) instanceof Number n ? n.longValue() : null;
+        this.tokenVersion = claims.get(JwtUtil.CLAIM_TOKEN_VERSION) instanceof Number n ? n.intValue() : null;
+        this.enabled = claims.get(JwtUtil.CLAIM_ENABLED) instanceof Boolean b ? b : null;
+        this.lockedUntil = claims.get(JwtUtil.CLAIM_LOCKED_UNTIL) instanceof Number n ? Instant.ofEpochSecond(n.longValue()) : null;
+    }
+
+    /**
+     * Converte il claim “roles” (array JSON decodificato come lista) in un set immutabile.
+     *
+     * <p><strong>English:</strong> Converts the “roles” claim (JSON array decoded as a list) into an immutable set.</p>
+     */
+    private static Set<String> toStringSet(Object value) {
+        if (!(value instanceof Collection<?> values) || values.isEmpty()) {
+            return Collections.emptySet();
+        }
+        Set<String> result = new LinkedHashSet<>(values.size());
+        for (Object item : values) {
+            if (item != null) {
+                result.add(item.toString());
+            }
+        }
+        return Collections.unmodifiableSet(result);
+    }
+
+    /**
+     * @return claim completi del token
+     *         <p><strong>English:</strong> full token claims.</p>
+     */
+    public Claims getClaims() {
+        return claims;
+    }
+
+    /**
+     * @return identificativo univoco del token (claim “jti”), {@code null} per token emessi prima della revoca
+     *         <p><strong>English:</strong> unique token identifier (“jti” claim), {@code null} for tokens issued before
+     *         revocation support.</p>
+     */
+    public String getTokenId() {
+        return tokenId;
+    }
+
+    /**
+     * @return username presente nel claim “sub”
+     *         <p><strong>English:</strong> username present in the “sub” claim.</p>
+     */
+    public String getUsername() {
+        return username;
+    }
+
+    /**
+     * @return set immutabile dei nomi dei ruoli presenti nel claim “roles”
+     *         <p><strong>English:</strong> immutable set of role names present in the “roles” claim.</p>
+     */
+    public Set<String> getRoles() {
+        return roles;
+    }
+
+    /**
+     * @return istante di emissione (claim “iat”), può essere {@code null}
+     *         <p><strong>English:</strong> issued-at instant (“iat” claim), may be {@code null}.</p>
+     */
+    public Instant getIssuedAt() {
+        return issuedAt;
+    }
+
+    /**
+     * @return istante di scadenza (claim “exp”), può essere {@code null}
+     *         <p><strong>English:</strong> expiration instant (“exp” claim), may be {@code null}.</p>
+     */
+    public Instant getExpiration() {
+        return expiration;
+    }
+
+    /**
+     * @return ID dell’account (claim “uid”), {@code null} per token emessi senza claim di stato
+     *         <p><strong>English:</strong> account ID (“uid” claim), {@code null} for tokens issued without state claims.</p>
+     */
+    public Long getAccountId() {
+        return accountId;
+    }
+
+    /**
+     * @return versione dello stato di sicurezza al momento del login (claim “ver”)
+     *         <p><strong>English:</strong> security state version at login time (“ver” claim).</p>
+     */
+    public Integer getTokenVersion() {
+        return tokenVersion;
+    }
+
+    /**
+     * @return stato di abilitazione al momento del login (claim “enabled”)
+     *         <p><strong>English:</strong> enablement state at login time (“enabled” claim).</p>
+     */
+    public Boolean getEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return fine del blocco al momento del login (claim “lck”), {@code null} se non bloccato
+     *         <p><strong>English:</strong> lock expiration at login time (“lck” claim), {@code null} if not locked.</p>
+     */
+    public Instant getLockedUntil() {
+        return lockedUntil;
+    }
+
+    /**
+     * Indica se il token contiene i claim di stato necessari alla modalità “trusted claims”.
+     *
+     * <p><strong>English:</strong> Tells whether the token carries the state claims required by “trusted claims” mode.</p>
+     *
+     * @return {@code true} se sono presenti “uid”, “ver” e “enabled”
+     *         <p><strong>English:</strong> {@code true} if “uid”, “ver” and “enabled” are present.</p>
+     */
+    public boolean hasStateClaims() {
+        return accountId != null && tokenVersion != null && enabled != null;
+    }
+
+    /**
+     * Indica se il token è scaduto rispetto all’istante fornito.
+     *
+     * <p><strong>English:</strong> Tells whether the token is expired relative to the given instant.</p>
+     *
+     * @param now istante di riferimento
+     *            <p><strong>English:</strong> reference instant.</p>
+     * @return {@code true} se {@code exp} è presente e non successivo a {@code now}
+     *         <p><strong>English:</strong> {@code true} if {@code exp} is present and not after {@code now}.</p>
+     */
+    public boolean isExpired(Instant now) {
+        return expiration != null && !expiration.isAfter(now);
+    }
+}
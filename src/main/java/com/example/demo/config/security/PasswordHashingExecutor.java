@@ -0,0 +1,237 @@
+package com.example.demo.config.security;
+
+import com.example.demo.config.exceptions.ServiceBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Pool dedicato e limitato per il calcolo degli hash delle password (BCrypt), con controllo di ammissione.
+ *
+ * <p><strong>English:</strong> Dedicated, bounded pool for password hashing (BCrypt), with admission control.</p>
+ * <p><strong>Italiano:</strong> Pool dedicato e limitato per il calcolo degli hash delle password (BCrypt), con
+ * controllo di ammissione.</p>
+ *
+ * <p>Gli hash vengono calcolati da {@code security.hashing.threads} thread (di default uno per CPU) con una coda
+ * di {@code security.hashing.queue-capacity} elementi. Il thread della richiesta attende il risultato senza
+ * consumare CPU, quindi una raffica di login occupa al massimo questi core e il resto dell’API continua a
+ * rispondere. A coda piena, o se l’hash non è pronto entro {@code security.hashing.wait-timeout}, viene lanciata
+ * subito {@link ServiceBusyException} (503 con {@code Retry-After}).</p>
+ * <p><strong>English:</strong> Hashes are computed by {@code security.hashing.threads} threads (one per CPU by
+ * default) with a queue of {@code security.hashing.queue-capacity} entries. The request thread waits for the
+ * result without burning CPU, so a login storm occupies at most these cores and the rest of the API keeps
+ * responding. When the queue is full, or the hash is not ready within {@code security.hashing.wait-timeout},
+ * {@link ServiceBusyException} is thrown right away (503 with {@code Retry-After}).</p>
+ *
+ * <p>Metriche / Metrics: {@code security.hashing.queue.size}, {@code security.hashing.active},
+ * {@code security.hashing.wait}, {@code security.hashing.duration{operation}},
+ * {@code security.hashing.rejected}.</p>
+ */
+@Component
+public class PasswordHashingExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final Duration waitTimeout;
+    private final Duration retryAfter;
+    private final MeterRegistry meterRegistry;
+    private final Timer waitTimer;
+    private final Counter rejected;
+
+    /**
+     * Costruisce il pool a partire dalle proprietà {@code security.hashing.*}.
+     *
+     * <p><strong>English:</strong> Builds the pool from the {@code security.hashing.*} properties.</p>
+     *
+     * @param threads       thread di calcolo (0 = numero di CPU)
+     *                      <p><strong>English:</strong> worker threads (0 = number of CPUs).</p>
+     * @param queueCapacity richieste in attesa oltre a quelle in calcolo
+     *                      <p><strong>English:</strong> requests waiting beyond those being hashed.</p>
+     * @param waitTimeout   attesa massima del chiamante per il risultato
+     *                      <p><strong>English:</strong> maximum time the caller waits for the result.</p>
+     * @param retryAfter    valore di {@code Retry-After} restituito in caso di rifiuto
+     *                      <p><strong>English:</strong> {@code Retry-After} value returned on rejection.</p>
+     * @param meterRegistry registro Micrometer
+     *                      <p><strong>English:</strong> Micrometer registry.</p>
+     */
+    public PasswordHashingExecutor(
+            @Value("${security.hashing.threads:0}") int threads,
+            @Value("${security.hashing.queue-capacity:64}") int queueCapacity,
+            @Value("${security.hashing.wait-timeout:5s}") Duration waitTimeout,
+            @Value("${security.hashing.retry-after:2s}") Duration retryAfter,
+            MeterRegistry meterRegistry
+    ) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger sequence = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                task -> Thread.ofPlatform().name("password-hash-" + sequence.incrementAndGet()).daemon(true).unstarted(task),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.executor.prestartAllCoreThreads();
+        this.waitTimeout = waitTimeout;
+        this.retryAfter = retryAfter;
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("security.hashing.queue.size", executor, pool -> pool.getQueue().size())
+                .description("Hash di password in attesa di un thread / Password hashes waiting for a thread")
+                .register(meterRegistry);
+        Gauge.builder("security.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Hash di password in calcolo / Password hashes being computed")
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("security.hashing.wait")
+                .description("Attesa in coda prima del calcolo / Queue wait before hashing")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("security.hashing.rejected")
+                .description("Richieste rifiutate per pool saturo / Requests rejected because the pool is saturated")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Esegue un’operazione di hashing sul pool e ne attende il risultato.
+     *
+     * <p><strong>English:</strong> Runs a hashing operation on the pool and waits for its result.</p>
+     *
+     * @param operation nome dell’operazione per la metrica di durata (es. {@code matches})
+     *                  <p><strong>English:</strong> operation name for the duration metric (e.g. {@code matches}).</p>
+     * @param task      calcolo da eseguire
+     *                  <p><strong>English:</strong> computation to run.</p>
+     * @return risultato del calcolo
+     *         <p><strong>English:</strong> computation result.</p>
+     * @throws ServiceBusyException se il pool è saturo o il risultato non arriva in tempo
+     *                              <p><strong>English:</strong> if the pool is saturated or the result is late.</p>
+     */
+    public <T> T execute(String operation, Supplier<T> task) {
+        return await(submit(operation, task));
+    }
+
+    /**
+     * Esegue più operazioni di hashing in parallelo e ne restituisce i risultati nello stesso ordine.
+     *
+     * <p><strong>English:</strong> Runs several hashing operations in parallel and returns their results in the
+     * same order.</p>
+     *
+     * <p>Il chiamante tiene in coda al massimo un’operazione per thread del pool, così un lotto grande non riempie
+     * la coda e i login continuano a essere ammessi tra un’operazione e l’altra; se la coda è piena attende prima
+     * le proprie operazioni già accodate. Al primo errore le operazioni non ancora completate vengono annullate.</p>
+     * <p><strong>English:</strong> The caller keeps at most one operation per pool thread in flight, so a large
+     * batch does not fill the queue and logins keep being admitted in between; if the queue is full it first waits
+     * for its own queued operations. On the first failure the operations not yet completed are cancelled.</p>
+     *
+     * @param operation nome dell’operazione per la metrica di durata (es. {@code encode})
+     *                  <p><strong>English:</strong> operation name for the duration metric (e.g. {@code encode}).</p>
+     * @param tasks     calcoli da eseguire
+     *                  <p><strong>English:</strong> computations to run.</p>
+     * @return risultati, nell’ordine dei calcoli
+     *         <p><strong>English:</strong> results, in the order of the computations.</p>
+     * @throws ServiceBusyException se il pool è saturo o un risultato non arriva in tempo
+     *                              <p><strong>English:</strong> if the pool is saturated or a result is late.</p>
+     */
+    public <T> List<T> executeAll(String operation, List<? extends Supplier<T>> tasks) {
+        int window = executor.getMaximumPoolSize();
+        List<T> results = new ArrayList<>(tasks.size());
+        Deque<Future<T>> pending = new ArrayDeque<>();
+        try {
+            for (Supplier<T> task : tasks) {
+                if (pending.size() >= window) {
+                    results.add(await(pending.poll()));
+                }
+                Future<T> future = trySubmit(operation, task);
+                // Coda piena (es. login in attesa): si libera un posto attendendo la propria operazione più vecchia
+                // Queue full (e.g. waiting logins): free a slot by waiting for our own oldest operation
+                while (future == null && !pending.isEmpty()) {
+                    results.add(await(pending.poll()));
+                    future = trySubmit(operation, task);
+                }
+                if (future == null) {
+                    throw busy();
+                }
+                pending.add(future);
+            }
+            while (!pending.isEmpty()) {
+                results.add(await(pending.poll()));
+            }
+        } catch (RuntimeException ex) {
+            pending.forEach(future -> future.cancel(true));
+            throw ex;
+        }
+        return results;
+    }
+
+    private <T> Future<T> submit(String operation, Supplier<T> task) {
+        Future<T> future = trySubmit(operation, task);
+        if (future == null) {
+            throw busy();
+        }
+        return future;
+    }
+
+    /**
+     * Accoda un’operazione; {@code null} se il pool la rifiuta.
+     * Enqueues an operation; {@code null} if the pool rejects it.
+     */
+    private <T> Future<T> trySubmit(String operation, Supplier<T> task) {
+        Timer duration = Timer.builder("security.hashing.duration")
+                .description("Durata del calcolo dell’hash / Hash computation time")
+                .tag("operation", operation)
+                .register(meterRegistry);
+        long enqueued = System.nanoTime();
+        try {
+            return executor.submit(() -> {
+                waitTimer.record(System.nanoTime() - enqueued, TimeUnit.NANOSECONDS);
+                return duration.record(task);
+            });
+        } catch (RejectedExecutionException ex) {
+            return null;
+        }
+    }
+
+    private <T> T await(Future<T> future) {
+        try {
+            return future.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            future.cancel(true);
+            throw busy();
+        } catch (InterruptedException ex) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw busy();
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+
+    /**
+     * Interrompe i thread del pool alla chiusura del contesto.
+     * Stops the pool threads when the context is closed.
+     */
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private ServiceBusyException busy() {
+        rejected.increment();
+        return new ServiceBusyException("Troppi login in corso, riprova più tardi / Too many logins in progress, retry later",
+                retryAfter);
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.demo.config.security;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Verifiche di permesso per la method security, esposte come bean {@code perm}.
+ *
+ * <p><strong>English:</strong> Permission checks for method security, exposed as the {@code perm} bean.</p>
+ * <p><strong>Italiano:</strong> Verifiche di permesso per la method security, esposte come bean {@code perm}.</p>
+ *
+ * <p>Esempio / Example: {@code @PreAuthorize("@perm.has(authentication, 'USER_READ')")}.</p>
+ *
+ * <p>I permessi dell’utente vengono presi dal {@link PermissionSetAuthority} già compilato e ogni verifica è un
+ * AND bit a bit, senza scorrere né allocare elenchi di {@code SimpleGrantedAuthority}. Per autenticazioni prive
+ * di tale autorità i permessi vengono calcolati dai nomi delle autorità, trattati come ruoli.</p>
+ * <p><strong>English:</strong> The user's permissions are taken from the already compiled
+ * {@link PermissionSetAuthority} and every check is a bitwise AND, without scanning or allocating
+ * {@code SimpleGrantedAuthority} lists. For authentications lacking that authority the permissions are computed
+ * from the authority names, treated as roles.</p>
+ */
+@Component("perm")
+public class PermissionChecks {
+
+    private final PermissionRegistry registry;
+
+    /**
+     * Costruttore iniettato con {@link PermissionRegistry}.
+     *
+     * <p><strong>English:</strong> Constructor injected with {@link PermissionRegistry}.</p>
+     *
+     * @param registry registro dei permessi
+     *                 <p><strong>English:</strong> permission registry.</p>
+     */
+    public PermissionChecks(PermissionRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Indica se l’utente ha il permesso indicato.
+     *
+     * <p><strong>English:</strong> Tells whether the user has the given permission.</p>
+     *
+     * @param authentication autenticazione corrente
+     *                       <p><strong>English:</strong> current authentication.</p>
+     * @param permission     nome del permesso
+     *                       <p><strong>English:</strong> permission name.</p>
+     * @return {@code true} se concesso
+     *         <p><strong>English:</strong> {@code true} if granted.</p>
+     */
+    public boolean has(Authentication authentication, String permission) {
+        int bit = registry.bitOf(permission);
+        return bit >= 0 && permissionsOf(authentication).contains(bit);
+    }
+
+    /**
+     * Indica se l’utente ha tutti i permessi indicati.
+     *
+     * <p><strong>English:</strong> Tells whether the user has all the given permissions.</p>
+     *
+     * @param authentication autenticazione corrente
+     *                       <p><strong>English:</strong> current authentication.</p>
+     * @param permissions    nomi dei permessi
+     *                       <p><strong>English:</strong> permission names.</p>
+     * @return {@code true} se tutti concessi
+     *         <p><strong>English:</strong> {@code true} if all granted.</p>
+     */
+    public boolean hasAll(Authentication authentication, String... permissions) {
+        PermissionSet granted = permissionsOf(authentication);
+        for (String permission : permissions) {
+            if (!granted.contains(registry.bitOf(permission))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Indica se l’utente ha almeno uno dei permessi indicati.
+     *
+     * <p><strong>English:</strong> Tells whether the user has at least one of the given permissions.</p>
+     *
+     * @param authentication autenticazione corrente
+     *                       <p><strong>English:</strong> current authentication.</p>
+     * @param permissions    nomi dei permessi
+     *                       <p><strong>English:</strong> permission names.</p>
+     * @return {@code true} se almeno uno è concesso
+     *         <p><strong>English:</strong> {@code true} if at least one is granted.</p>
+     */
+    public boolean hasAny(Authentication authentication, String... permissions) {
+        PermissionSet granted = permissionsOf(authentication);
+        for (String permission : permissions) {
+            if (granted.contains(registry.bitOf(permission))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private PermissionSet permissionsOf(Authentication authentication) {
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return PermissionSet.EMPTY;
+        }
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            if (authority instanceof PermissionSetAuthority compiled) {
+                return registry.permissionsOf(compiled);
+            }
+        }
+        List<String> names = new ArrayList<>();
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            if (authority.getAuthority() != null) {
+                names.add(authority.getAuthority());
+            }
+        }
+        return registry.permissionsOf(names);
+    }
+}
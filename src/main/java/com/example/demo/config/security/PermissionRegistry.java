@@ -0,0 +1,185 @@
+package com.example.demo.config.security;
+
+import com.example.demo.config.catalog.RoleCatalog;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Registro dei permessi: assegna a ogni permesso un indice di bit e compila ogni ruolo in un {@link PermissionSet}.
+ *
+ * <p><strong>English:</strong> Permission registry: assigns every permission a bit index and compiles every role
+ * into a {@link PermissionSet}.</p>
+ * <p><strong>Italiano:</strong> Registro dei permessi: assegna a ogni permesso un indice di bit e compila ogni
+ * ruolo in un {@link PermissionSet}.</p>
+ *
+ * <p>Ruoli e permessi vengono presi dall’istantanea di {@link RoleCatalog}, senza query; gli indici sono assegnati
+ * in ordine di ID e non vengono mai riassegnati finché l’applicazione è in esecuzione, quindi un insieme compilato
+ * resta interpretabile anche dopo una ricarica. Per ogni combinazione di ruoli l’elenco di autorità (ruoli,
+ * permessi e {@link PermissionSetAuthority}) viene costruito una volta e riusato da
+ * {@link CustomUserDetailsService} e {@link JwtAuthenticationFilter}. I ruoli vengono ricompilati quando cambia la
+ * versione del catalogo.</p>
+ * <p><strong>English:</strong> Roles and permissions are taken from the {@link RoleCatalog} snapshot, without
+ * queries; indices are assigned in ID order and never reassigned while the application runs, so a compiled set stays
+ * meaningful across reloads. For every role combination the authority list (roles, permissions and
+ * {@link PermissionSetAuthority}) is built once and reused by {@link CustomUserDetailsService} and
+ * {@link JwtAuthenticationFilter}. Roles are recompiled when the catalog version changes.</p>
+ */
+@Component
+public class PermissionRegistry {
+
+    private final RoleCatalog catalog;
+    private final ConcurrentMap<String, Integer> bits = new ConcurrentHashMap<>();
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * Ruoli compilati e autorità per combinazione di ruoli, validi per una versione del catalogo.
+     * Compiled roles and authorities per role combination, valid for one catalog version.
+     */
+    private record Snapshot(long version, Map<String, PermissionSet> roles, Map<String, List<String>> roleGrants,
+                            ConcurrentMap<Set<String>, List<GrantedAuthority>> authorities) {
+    }
+
+    /**
+     * Costruttore iniettato con {@link RoleCatalog}.
+     *
+     * <p><strong>English:</strong> Constructor injected with {@link RoleCatalog}.</p>
+     *
+     * @param catalog catalogo di ruoli e permessi
+     *                <p><strong>English:</strong> role and permission catalog.</p>
+     */
+    public PermissionRegistry(RoleCatalog catalog) {
+        this.catalog = catalog;
+    }
+
+    /**
+     * Indice di bit di un permesso.
+     *
+     * <p><strong>English:</strong> Bit index of a permission.</p>
+     *
+     * @param permission nome del permesso
+     *                   <p><strong>English:</strong> permission name.</p>
+     * @return indice, o {@code -1} se il permesso non esiste
+     *         <p><strong>English:</strong> index, or {@code -1} if the permission does not exist.</p>
+     */
+    public int bitOf(String permission) {
+        snapshot();
+        Integer bit = permission != null ? bits.get(permission) : null;
+        return bit != null ? bit : -1;
+    }
+
+    /**
+     * Permessi effettivi di un insieme di ruoli (unione dei ruoli compilati).
+     *
+     * <p><strong>English:</strong> Effective permissions of a set of roles (union of the compiled roles).</p>
+     *
+     * @param roleNames nomi dei ruoli; i ruoli sconosciuti non concedono permessi
+     *                  <p><strong>English:</strong> role names; unknown roles grant no permission.</p>
+     * @return permessi effettivi
+     *         <p><strong>English:</strong> effective permissions.</p>
+     */
+    public PermissionSet permissionsOf(Collection<String> roleNames) {
+        Map<String, PermissionSet> roles = snapshot().roles();
+        PermissionSet result = PermissionSet.EMPTY;
+        for (String roleName : roleNames) {
+            result = result.or(roles.getOrDefault(roleName, PermissionSet.EMPTY));
+        }
+        return result;
+    }
+
+    /**
+     * Permessi correnti di un’autorità compilata, ricompilati solo se il registro è stato ricaricato nel frattempo.
+     *
+     * <p><strong>English:</strong> Current permissions of a compiled authority, recompiled only if the registry has
+     * been reloaded in the meantime.</p>
+     *
+     * @param authority autorità compilata
+     *                  <p><strong>English:</strong> compiled authority.</p>
+     * @return permessi effettivi correnti
+     *         <p><strong>English:</strong> current effective permissions.</p>
+     */
+    public PermissionSet permissionsOf(PermissionSetAuthority authority) {
+        return authority.getVersion() == snapshot().version()
+                ? authority.getPermissions()
+                : permissionsOf(authority.getRoleNames());
+    }
+
+    /**
+     * Autorità di Spring Security per una combinazione di ruoli: i ruoli, i loro permessi e un
+     * {@link PermissionSetAuthority}. L’elenco è immutabile e condiviso da tutti gli utenti con gli stessi ruoli.
+     *
+     * <p><strong>English:</strong> Spring Security authorities for a role combination: the roles, their permissions
+     * and a {@link PermissionSetAuthority}. The list is immutable and shared by all users with the same roles.</p>
+     *
+     * @param roleNames nomi dei ruoli
+     *                  <p><strong>English:</strong> role names.</p>
+     * @return autorità precompilate
+     *         <p><strong>English:</strong> precompiled authorities.</p>
+     */
+    public List<GrantedAuthority> authoritiesFor(Set<String> roleNames) {
+        Snapshot current = snapshot();
+        List<GrantedAuthority> authorities = current.authorities().get(roleNames);
+        if (authorities != null) {
+            return authorities;
+        }
+        Set<String> key = Set.copyOf(roleNames);
+        return current.authorities().computeIfAbsent(key, roles -> compileAuthorities(current, roles));
+    }
+
+    private Snapshot snapshot() {
+        RoleCatalog.Snapshot source = catalog.snapshot();
+        Snapshot compiled = snapshot;
+        if (compiled != null && compiled.version() == source.version()) {
+            return compiled;
+        }
+        return compile(source);
+    }
+
+    private synchronized Snapshot compile(RoleCatalog.Snapshot source) {
+        Snapshot compiled = snapshot;
+        if (compiled != null && compiled.version() == source.version()) {
+            return compiled;
+        }
+        for (RoleCatalog.PermissionEntry permission : source.permissions()) {
+            bits.computeIfAbsent(permission.name(), name -> bits.size());
+        }
+        Map<String, PermissionSet> roles = new HashMap<>();
+        Map<String, List<String>> grants = new HashMap<>();
+        for (RoleCatalog.RoleEntry role : source.roles()) {
+            List<String> names = role.permissionIds().stream()
+                    .flatMap(id -> source.permission(id).stream())
+                    .map(RoleCatalog.PermissionEntry::name)
+                    .toList();
+            grants.put(role.name(), names);
+            roles.put(role.name(), PermissionSet.of(names.stream().mapToInt(bits::get).toArray()));
+        }
+        Snapshot next = new Snapshot(source.version(), Map.copyOf(roles), Map.copyOf(grants), new ConcurrentHashMap<>());
+        snapshot = next;
+        return next;
+    }
+
+    private List<GrantedAuthority> compileAuthorities(Snapshot current, Set<String> roleNames) {
+        List<GrantedAuthority> authorities = new ArrayList<>();
+        PermissionSet permissions = PermissionSet.EMPTY;
+        for (String roleName : roleNames) {
+            authorities.add(new SimpleGrantedAuthority(roleName));
+            permissions = permissions.or(current.roles().getOrDefault(roleName, PermissionSet.EMPTY));
+        }
+        roleNames.stream()
+                .flatMap(roleName -> current.roleGrants().getOrDefault(roleName, List.of()).stream())
+                .distinct()
+                .forEach(permission -> authorities.add(new SimpleGrantedAuthority(permission)));
+        authorities.add(new PermissionSetAuthority(roleNames, permissions, current.version()));
+        return List.copyOf(authorities);
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.demo.config.security;
+
+import java.util.Arrays;
+
+/**
+ * Insieme immutabile di permessi rappresentato come bitset, con gli indici assegnati da {@link PermissionRegistry}.
+ *
+ * <p><strong>English:</strong> Immutable set of permissions represented as a bitset, with the indices assigned by
+ * {@link PermissionRegistry}.</p>
+ * <p><strong>Italiano:</strong> Insieme immutabile di permessi rappresentato come bitset, con gli indici assegnati
+ * da {@link PermissionRegistry}.</p>
+ *
+ * <p>Appartenenza e inclusione sono AND bit a bit su un {@code long[]}, senza allocazioni.</p>
+ * <p><strong>English:</strong> Membership and inclusion are bitwise ANDs over a {@code long[]}, without
+ * allocations.</p>
+ */
+public final class PermissionSet {
+
+    /** Insieme vuoto / Empty set. */
+    public static final PermissionSet EMPTY = new PermissionSet(new long[0]);
+
+    private final long[] words;
+
+    private PermissionSet(long[] words) {
+        this.words = words;
+    }
+
+    /**
+     * Crea l’insieme con i bit indicati.
+     *
+     * <p><strong>English:</strong> Creates the set with the given bits.</p>
+     *
+     * @param bits indici dei permessi; quelli negativi (permessi sconosciuti) vengono ignorati
+     *             <p><strong>English:</strong> permission indices; negative ones (unknown permissions) are ignored.</p>
+     * @return nuovo insieme
+     *         <p><strong>English:</strong> new set.</p>
+     */
+    static PermissionSet of(int... bits) {
+        int max = -1;
+        for (int bit : bits) {
+            max = Math.max(max, bit);
+        }
+        if (max < 0) {
+            return EMPTY;
+        }
+        long[] words = new long[(max >>> 6) + 1];
+        for (int bit : bits) {
+            if (bit >= 0) {
+                words[bit >>> 6] |= 1L << bit;
+            }
+        }
+        return new PermissionSet(words);
+    }
+
+    /**
+     * Unione con un altro insieme.
+     *
+     * <p><strong>English:</strong> Union with another set.</p>
+     *
+     * @param other altro insieme
+     *              <p><strong>English:</strong> other set.</p>
+     * @return nuovo insieme, o uno dei due se l’altro è contenuto
+     *         <p><strong>English:</strong> new set, or one of the two if the other is contained.</p>
+     */
+    PermissionSet or(PermissionSet other) {
+        if (containsAll(other)) {
+            return this;
+        }
+        if (other.containsAll(this)) {
+            return other;
+        }
+        long[] result = Arrays.copyOf(words, Math.max(words.length, other.words.length));
+        for (int i = 0; i < other.words.length; i++) {
+            result[i] |= other.words[i];
+        }
+        return new PermissionSet(result);
+    }
+
+    /**
+     * Indica se il permesso con l’indice dato appartiene all’insieme.
+     *
+     * <p><strong>English:</strong> Tells whether the permission with the given index belongs to the set.</p>
+     *
+     * @param bit indice del permesso
+     *            <p><strong>English:</strong> permission index.</p>
+     * @return {@code true} se presente
+     *         <p><strong>English:</strong> {@code true} if present.</p>
+     */
+    public boolean contains(int bit) {
+        int word = bit >>> 6;
+        return bit >= 0 && word < words.length && (words[word] & (1L << bit)) != 0;
+    }
+
+    /**
+     * Indica se tutti i permessi di {@code required} appartengono all’insieme.
+     *
+     * <p><strong>English:</strong> Tells whether all permissions of {@code required} belong to the set.</p>
+     *
+     * @param required permessi richiesti
+     *                 <p><strong>English:</strong> required permissions.</p>
+     * @return {@code true} se tutti presenti
+     *         <p><strong>English:</strong> {@code true} if all present.</p>
+     */
+    public boolean containsAll(PermissionSet required) {
+        for (int i = 0; i < required.words.length; i++) {
+            long have = i < words.length ? words[i] : 0L;
+            if ((have & required.words[i]) != required.words[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Indica se almeno un permesso di {@code other} appartiene all’insieme.
+     *
+     * <p><strong>English:</strong> Tells whether at least one permission of {@code other} belongs to the set.</p>
+     *
+     * @param other permessi da cercare
+     *              <p><strong>English:</strong> permissions to look for.</p>
+     * @return {@code true} se l’intersezione non è vuota
+     *         <p><strong>English:</strong> {@code true} if the intersection is not empty.</p>
+     */
+    public boolean intersects(PermissionSet other) {
+        int length = Math.min(words.length, other.words.length);
+        for (int i = 0; i < length; i++) {
+            if ((words[i] & other.words[i]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return numero di permessi nell’insieme
+     *         <p><strong>English:</strong> number of permissions in the set.</p>
+     */
+    public int size() {
+        int size = 0;
+        for (long word : words) {
+            size += Long.bitCount(word);
+        }
+        return size;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof PermissionSet other)) {
+            return false;
+        }
+        return containsAll(other) && other.containsAll(this);
+    }
+
+    @Override
+    public int hashCode() {
+        int length = words.length;
+        while (length > 0 && words[length - 1] == 0L) {
+            length--;
+        }
+        return Arrays.hashCode(Arrays.copyOf(words, length));
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("PermissionSet{");
+        for (int bit = 0; bit < words.length << 6; bit++) {
+            if (contains(bit)) {
+                sb.append(sb.length() > 14 ? "," : "").append(bit);
+            }
+        }
+        return sb.append('}').toString();
+    }
+}
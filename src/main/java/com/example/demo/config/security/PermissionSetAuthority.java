@@ -0,0 +1,69 @@
+package com.example.demo.config.security;
+
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Set;
+
+/**
+ * Autorità che porta i permessi effettivi dell’utente già compilati in un {@link PermissionSet}.
+ *
+ * <p><strong>English:</strong> Authority carrying the user's effective permissions already compiled into a
+ * {@link PermissionSet}.</p>
+ * <p><strong>Italiano:</strong> Autorità che porta i permessi effettivi dell’utente già compilati in un
+ * {@link PermissionSet}.</p>
+ *
+ * <p>Viene aggiunta da {@link PermissionRegistry#authoritiesFor(Set)} accanto alle autorità testuali e letta da
+ * {@link PermissionChecks}. Non ha rappresentazione testuale, quindi {@link #getAuthority()} restituisce
+ * {@code null} come previsto dal contratto di {@link GrantedAuthority}. La versione permette di riconoscere un
+ * insieme compilato prima dell’ultima ricarica del registro.</p>
+ * <p><strong>English:</strong> Added by {@link PermissionRegistry#authoritiesFor(Set)} next to the textual
+ * authorities and read by {@link PermissionChecks}. It has no textual representation, so {@link #getAuthority()}
+ * returns {@code null} as the {@link GrantedAuthority} contract prescribes. The version tells apart a set compiled
+ * before the latest registry reload.</p>
+ */
+public final class PermissionSetAuthority implements GrantedAuthority {
+
+    private final Set<String> roleNames;
+    private final PermissionSet permissions;
+    private final long version;
+
+    PermissionSetAuthority(Set<String> roleNames, PermissionSet permissions, long version) {
+        this.roleNames = roleNames;
+        this.permissions = permissions;
+        this.version = version;
+    }
+
+    /**
+     * @return {@code null}: l’autorità non è esprimibile come stringa
+     *         <p><strong>English:</strong> {@code null}: the authority cannot be expressed as a string.</p>
+     */
+    @Override
+    public String getAuthority() {
+        return null;
+    }
+
+    /**
+     * @return nomi dei ruoli da cui l’insieme è stato compilato
+     *         <p><strong>English:</strong> names of the roles the set was compiled from.</p>
+     */
+    public Set<String> getRoleNames() {
+        return roleNames;
+    }
+
+    /**
+     * @return permessi effettivi compilati
+     *         <p><strong>English:</strong> compiled effective permissions.</p>
+     */
+    public PermissionSet getPermissions() {
+        return permissions;
+    }
+
+    long getVersion() {
+        return version;
+    }
+
+    @Override
+    public String toString() {
+        return "PermissionSetAuthority{roles=" + roleNames + ", permissions=" + permissions + '}';
+    }
+}
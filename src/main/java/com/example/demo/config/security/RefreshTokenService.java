@@ -0,0 +1,186 @@
+package com.example.demo.config.security;
+
+import com.example.demo.entities.Account;
+import com.example.demo.entities.RefreshSession;
+import com.example.demo.repositories.RefreshSessionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Emissione e rotazione dei refresh token, salvati come hash in {@code refresh_sessions}.
+ *
+ * <p><strong>English:</strong> Issues and rotates refresh tokens, stored as hashes in {@code refresh_sessions}.</p>
+ * <p><strong>Italiano:</strong> Emissione e rotazione dei refresh token, salvati come hash in
+ * {@code refresh_sessions}.</p>
+ *
+ * <p>Il refresh token è un valore casuale opaco di 256 bit; nel database c’è solo il suo SHA-256, cercato con
+ * l’indice univoco {@code token_hash}. Ogni uso ruota il token: la sessione corrente viene marcata come ruotata
+ * (con un update condizionale, senza lock) e ne nasce una nuova nella stessa famiglia. Se arriva un token già
+ * ruotato, l’intera famiglia viene revocata. Nessun hash di password viene calcolato.</p>
+ * <p><strong>English:</strong> The refresh token is an opaque 256-bit random value; the database only holds its
+ * SHA-256, looked up through the unique {@code token_hash} index. Every use rotates the token: the current session
+ * is marked as rotated (with a conditional update, without locks) and a new one is created in the same family. If
+ * an already rotated token comes in, the whole family is revoked. No password hash is computed.</p>
+ */
+@Service
+@Transactional
+@Slf4j
+public class RefreshTokenService {
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshSessionRepository sessionRepository;
+    private final Duration ttl;
+    private final SecureRandom random = new SecureRandom();
+
+    /**
+     * Costruisce il servizio a partire dalle proprietà {@code jwt.refresh.*}.
+     *
+     * <p><strong>English:</strong> Builds the service from the {@code jwt.refresh.*} properties.</p>
+     *
+     * @param sessionRepository repository delle sessioni
+     *                          <p><strong>English:</strong> session repository.</p>
+     * @param ttl               durata di un refresh token
+     *                          <p><strong>English:</strong> refresh token lifetime.</p>
+     */
+    public RefreshTokenService(
+            RefreshSessionRepository sessionRepository,
+            @Value("${jwt.refresh.ttl:30d}") Duration ttl
+    ) {
+        this.sessionRepository = sessionRepository;
+        this.ttl = ttl;
+    }
+
+    /**
+     * Risultato di una rotazione: account della sessione e nuovo refresh token.
+     * Result of a rotation: the session's account and the new refresh token.
+     *
+     * @param account      account proprietario, con ruoli e permessi caricati
+     *                     <p><strong>English:</strong> owning account, with roles and permissions loaded.</p>
+     * @param refreshToken nuovo refresh token in chiaro
+     *                     <p><strong>English:</strong> new plain refresh token.</p>
+     */
+    public record Rotation(Account account, String refreshToken) {
+    }
+
+    /**
+     * Apre una nuova famiglia di sessioni per un login riuscito.
+     *
+     * <p><strong>English:</strong> Opens a new session family for a successful login.</p>
+     *
+     * @param account account autenticato
+     *                <p><strong>English:</strong> authenticated account.</p>
+     * @return refresh token in chiaro, da restituire al client
+     *         <p><strong>English:</strong> plain refresh token, to be returned to the client.</p>
+     */
+    public String issue(Account account) {
+        return create(account, random.nextLong(), Instant.now());
+    }
+
+    /**
+     * Ruota un refresh token valido.
+     *
+     * <p><strong>English:</strong> Rotates a valid refresh token.</p>
+     *
+     * <p>Restituisce vuoto se il token è sconosciuto, scaduto, già ruotato, oppure se l’account è disabilitato,
+     * bloccato o ha cambiato versione di sicurezza; negli ultimi casi la famiglia viene revocata.</p>
+     * <p><strong>English:</strong> Returns empty if the token is unknown, expired, already rotated, or if the
+     * account is disabled, locked or has changed security version; in the latter cases the family is revoked.</p>
+     *
+     * @param refreshToken refresh token in chiaro
+     *                     <p><strong>English:</strong> plain refresh token.</p>
+     * @return rotazione eseguita o vuoto
+     *         <p><strong>English:</strong> performed rotation or empty.</p>
+     */
+    public Optional<Rotation> rotate(String refreshToken) {
+        if (refreshToken == null || refreshToken.isBlank()) {
+            return Optional.empty();
+        }
+        Instant now = Instant.now();
+        RefreshSession session = sessionRepository.findByTokenHash(hash(refreshToken)).orElse(null);
+        if (session == null || !session.getExpiresAt().isAfter(now)) {
+            return Optional.empty();
+        }
+        if (session.getRevokedAt() != null || sessionRepository.markRotated(session.getId(), now) == 0) {
+            log.warn("Refresh token riutilizzato per l'account {}: revoco la famiglia di sessioni", session.getAccount().getId());
+            sessionRepository.revokeFamily(session.getFamilyId(), now);
+            return Optional.empty();
+        }
+        Account account = session.getAccount();
+        if (!isUsable(account, session, now)) {
+            sessionRepository.revokeFamily(session.getFamilyId(), now);
+            return Optional.empty();
+        }
+        return Optional.of(new Rotation(account, create(account, session.getFamilyId(), now)));
+    }
+
+    /**
+     * Revoca la famiglia di sessioni di un refresh token, per il logout.
+     *
+     * <p><strong>English:</strong> Revokes the session family of a refresh token, for logout.</p>
+     *
+     * @param refreshToken refresh token in chiaro; token sconosciuti vengono ignorati
+     *                     <p><strong>English:</strong> plain refresh token; unknown tokens are ignored.</p>
+     */
+    public void revoke(String refreshToken) {
+        if (refreshToken == null || refreshToken.isBlank()) {
+            return;
+        }
+        sessionRepository.findByTokenHash(hash(refreshToken))
+                .ifPresent(session -> sessionRepository.revokeFamily(session.getFamilyId(), Instant.now()));
+    }
+
+    /**
+     * Elimina le sessioni scadute, ruotate o meno.
+     * Deletes expired sessions, rotated or not.
+     */
+    @Scheduled(cron = "${jwt.refresh.cleanup-cron:0 15 3 * * *}")
+    public void purgeExpired() {
+        int deleted = sessionRepository.deleteExpired(Instant.now());
+        if (deleted > 0) {
+            log.info("Eliminate {} sessioni di refresh scadute", deleted);
+        }
+    }
+
+    private String create(Account account, long familyId, Instant now) {
+        byte[] raw = new byte[TOKEN_BYTES];
+        random.nextBytes(raw);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+        sessionRepository.save(RefreshSession.builder()
+                .account(account)
+                .tokenHash(hash(token))
+                .familyId(familyId)
+                .tokenVersion(account.getTokenVersion() != null ? account.getTokenVersion() : 0)
+                .createdAt(now)
+                .expiresAt(now.plus(ttl))
+                .build());
+        return token;
+    }
+
+    private static boolean isUsable(Account account, RefreshSession session, Instant now) {
+        int version = account.getTokenVersion() != null ? account.getTokenVersion() : 0;
+        return !Boolean.FALSE.equals(account.getEnabled())
+                && (account.getLockedUntil() == null || !account.getLockedUntil().isAfter(now))
+                && version == session.getTokenVersion();
+    }
+
+    static byte[] hash(String token) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
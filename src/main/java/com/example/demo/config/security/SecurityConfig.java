@@ -1,8 +1,11 @@
 package com.example.demo.config.security;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.Customizer;
@@ -12,10 +15,14 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import java.time.Duration;
+import java.util.Map;
+
 
 /**
  * Configurazione di Spring Security per l’applicazione.
@@ -39,6 +46,9 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 @RequiredArgsConstructor
 public class SecurityConfig {
 
+    private static final String BCRYPT = "bcrypt";
+    private static final String DEV_PROFILE = "dev";
+
     private final CustomUserDetailsService userDetailsService;
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
 
@@ -93,12 +103,86 @@ public class SecurityConfig {
      *
      * <p><strong>English:</strong> Bean for encoding passwords using BCrypt.</p>
      *
+     * <p>Gli hash vengono calcolati sul pool limitato {@link PasswordHashingExecutor}, non sui thread di Tomcat.
+     * Ogni nuovo hash registra algoritmo e costo ({@code {bcrypt}$2a$12$...}); gli hash storici senza prefisso
+     * restano validi e vengono aggiornati da {@link LoginService} al primo login riuscito, come quelli con costo
+     * inferiore all’attuale. Con {@code security.hashing.bcrypt.strength=0} il costo viene scelto all’avvio da
+     * {@link BCryptCostCalibrator} in base a {@code security.hashing.target-latency}, ma solo nel profilo
+     * {@code dev}: altrove il costo va fissato, perché nodi diversi calibrerebbero costi diversi e quello più
+     * alto ricalcolerebbe l’hash a ogni login.</p>
+     * <p><strong>English:</strong> Hashes are computed on the bounded {@link PasswordHashingExecutor} pool, not on
+     * Tomcat threads. Every new hash records algorithm and cost ({@code {bcrypt}$2a$12$...}); legacy hashes without
+     * a prefix stay valid and are upgraded by {@link LoginService} on the first successful login, as are those with
+     * a lower cost than the current one. With {@code security.hashing.bcrypt.strength=0} the cost is chosen at
+     * startup by {@link BCryptCostCalibrator} from {@code security.hashing.target-latency}, but only in the
+     * {@code dev} profile: elsewhere the cost must be pinned, because different nodes would calibrate different
+     * costs and the one with the higher cost would rehash on every login.</p>
+     *
+     * @param hashingExecutor pool dedicato al calcolo degli hash
+     *                        <p><strong>English:</strong> pool dedicated to hash computation.</p>
+     * @param environment     ambiente Spring, per riconoscere il profilo {@code dev}
+     *                        <p><strong>English:</strong> Spring environment, to detect the {@code dev} profile.</p>
+     * @param strength        costo BCrypt (0 = calibrato all’avvio, solo in {@code dev})
+     *                        <p><strong>English:</strong> BCrypt cost (0 = calibrated at startup, {@code dev}
+     *                        only).</p>
+     * @param targetLatency   latenza obiettivo di un hash per la calibrazione
+     *                        <p><strong>English:</strong> per-hash latency target for calibration.</p>
+     * @param minStrength     costo minimo ammesso dalla calibrazione
+     *                        <p><strong>English:</strong> minimum cost allowed by calibration.</p>
+     * @param maxStrength     costo massimo ammesso dalla calibrazione
+     *                        <p><strong>English:</strong> maximum cost allowed by calibration.</p>
      * @return {@link PasswordEncoder} configurato per utilizzare {@link BCryptPasswordEncoder}
      *         <p><strong>English:</strong> {@link PasswordEncoder} configured to use {@link BCryptPasswordEncoder}.</p>
+     * @throws IllegalStateException se il costo non è fissato fuori dal profilo {@code dev}
+     *                               <p><strong>English:</strong> if the cost is not pinned outside the {@code dev}
+     *                               profile.</p>
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(
+            PasswordHashingExecutor hashingExecutor,
+            Environment environment,
+            @Value("${security.hashing.bcrypt.strength:0}") int strength,
+            @Value("${security.hashing.target-latency:250ms}") Duration targetLatency,
+            @Value("${security.hashing.bcrypt.min-strength:10}") int minStrength,
+            @Value("${security.hashing.bcrypt.max-strength:14}") int maxStrength
+    ) {
+        boolean dev = environment.acceptsProfiles(Profiles.of(DEV_PROFILE));
+        int cost = bcryptStrength(strength, dev, targetLatency, minStrength, maxStrength);
+        return new BoundedPasswordEncoder(delegatingPasswordEncoder(cost), hashingExecutor);
+    }
+
+    /**
+     * Costo BCrypt da usare: quello configurato oppure, solo in {@code dev}, quello calibrato.
+     *
+     * <p><strong>English:</strong> BCrypt cost to use: the configured one or, in {@code dev} only, the calibrated
+     * one.</p>
+     */
+    static int bcryptStrength(int strength, boolean dev, Duration targetLatency, int minStrength, int maxStrength) {
+        if (strength > 0) {
+            return strength;
+        }
+        if (!dev) {
+            throw new IllegalStateException("security.hashing.bcrypt.strength deve essere fissato fuori dal profilo "
+                    + DEV_PROFILE + ": ricavarlo dal log di calibrazione di un nodo rappresentativo");
+        }
+        return BCryptCostCalibrator.calibrate(targetLatency, minStrength, maxStrength);
+    }
+
+    /**
+     * Encoder delegante con BCrypt al costo indicato come algoritmo predefinito.
+     *
+     * <p><strong>English:</strong> Delegating encoder with BCrypt at the given cost as the default algorithm.</p>
+     *
+     * <p>Gli hash senza prefisso {@code {id}} sono verificati come BCrypt e segnalati da
+     * {@link PasswordEncoder#upgradeEncoding(String)}.</p>
+     * <p><strong>English:</strong> Hashes without an {@code {id}} prefix are verified as BCrypt and flagged by
+     * {@link PasswordEncoder#upgradeEncoding(String)}.</p>
+     */
+    static PasswordEncoder delegatingPasswordEncoder(int strength) {
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(BCRYPT,
+                Map.of(BCRYPT, new BCryptPasswordEncoder(strength)));
+        encoder.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder(strength));
+        return encoder;
     }
 
     /**
@@ -0,0 +1,216 @@
+package com.example.demo.config.security;
+
+import com.example.demo.entities.RevokedToken;
+import com.example.demo.repositories.RevokedTokenRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Elenco degli access token revocati prima della scadenza: tabella {@code revoked_tokens} replicata in un filtro
+ * di Bloom in memoria.
+ *
+ * <p><strong>English:</strong> List of access tokens revoked before expiry: the {@code revoked_tokens} table
+ * mirrored into an in-memory Bloom filter.</p>
+ * <p><strong>Italiano:</strong> Elenco degli access token revocati prima della scadenza: tabella
+ * {@code revoked_tokens} replicata in un filtro di Bloom in memoria.</p>
+ *
+ * <p>Nel caso comune (token non revocato) {@link #isRevoked(String)} risponde dal solo filtro, senza query. Solo
+ * le risposte positive, vere o false, vengono confermate sul database con una ricerca per chiave primaria, il cui
+ * esito resta in cache per {@code jwt.revocation.confirm-ttl}. Le revoche fatte da altri nodi vengono aggiunte
+ * ogni {@code jwt.revocation.sync-interval}; il filtro viene ricostruito dopo la pulizia giornaliera delle righe
+ * scadute. Finché il primo caricamento non riesce, ogni token viene verificato sul database.</p>
+ * <p><strong>English:</strong> In the common case (token not revoked) {@link #isRevoked(String)} answers from the
+ * filter alone, with no query. Only positive answers, true or false, are confirmed against the database with a
+ * primary key lookup, whose outcome is cached for {@code jwt.revocation.confirm-ttl}. Revocations made by other
+ * nodes are added every {@code jwt.revocation.sync-interval}; the filter is rebuilt after the daily cleanup of
+ * expired rows. Until the first load succeeds, every token is checked against the database.</p>
+ *
+ * <p>Metriche / Metrics: {@code security.revocation.checks{result=clear|false_positive|revoked}}.</p>
+ */
+@Component
+@Slf4j
+public class TokenRevocationList {
+
+    /** Sovrapposizione delle letture incrementali, per gli orologi non allineati / Overlap of incremental reads, for skewed clocks. */
+    private static final Duration SYNC_OVERLAP = Duration.ofMinutes(1);
+
+    private final RevokedTokenRepository repository;
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+    private final Cache<String, Boolean> confirmed;
+    private final Counter clear;
+    private final Counter falsePositive;
+    private final Counter revoked;
+
+    private volatile BloomFilter filter;
+    private volatile boolean loaded;
+    private volatile Instant lastSync = Instant.EPOCH;
+
+    /**
+     * Costruisce l’elenco a partire dalle proprietà {@code jwt.revocation.*}.
+     *
+     * <p><strong>English:</strong> Builds the list from the {@code jwt.revocation.*} properties.</p>
+     *
+     * @param repository         repository dei token revocati
+     *                           <p><strong>English:</strong> revoked token repository.</p>
+     * @param expectedInsertions revoche attive previste, per dimensionare il filtro
+     *                           <p><strong>English:</strong> expected active revocations, to size the filter.</p>
+     * @param falsePositiveRate  probabilità di falso positivo del filtro
+     *                           <p><strong>English:</strong> filter false positive probability.</p>
+     * @param confirmTtl         durata in cache delle conferme sul database
+     *                           <p><strong>English:</strong> cache lifetime of database confirmations.</p>
+     * @param meterRegistry      registro Micrometer
+     *                           <p><strong>English:</strong> Micrometer registry.</p>
+     */
+    public TokenRevocationList(
+            RevokedTokenRepository repository,
+            @Value("${jwt.revocation.expected-insertions:100000}") long expectedInsertions,
+            @Value("${jwt.revocation.false-positive-rate:0.001}") double falsePositiveRate,
+            @Value("${jwt.revocation.confirm-ttl:1m}") Duration confirmTtl,
+            MeterRegistry meterRegistry
+    ) {
+        this.repository = repository;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.filter = new BloomFilter(expectedInsertions, falsePositiveRate);
+        this.confirmed = Caffeine.newBuilder().maximumSize(10_000).expireAfterWrite(confirmTtl).build();
+        this.clear = checkCounter(meterRegistry, "clear");
+        this.falsePositive = checkCounter(meterRegistry, "false_positive");
+        this.revoked = checkCounter(meterRegistry, "revoked");
+    }
+
+    /**
+     * Carica il filtro prima che il server accetti richieste.
+     * Loads the filter before the server accepts requests.
+     */
+    @PostConstruct
+    void load() {
+        try {
+            rebuild();
+        } catch (DataAccessException ex) {
+            log.warn("Caricamento dei token revocati non riuscito, verifica sul database fino al prossimo tentativo: {}",
+                    ex.getMessage());
+        }
+    }
+
+    /**
+     * Indica se un token è stato revocato.
+     *
+     * <p><strong>English:</strong> Tells whether a token has been revoked.</p>
+     *
+     * @param tokenId claim {@code jti}; {@code null} per token senza identificativo (mai revocati)
+     *                <p><strong>English:</strong> {@code jti} claim; {@code null} for tokens without identifier
+     *                (never revoked).</p>
+     * @return {@code true} se il token è revocato
+     *         <p><strong>English:</strong> {@code true} if the token is revoked.</p>
+     */
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null) {
+            return false;
+        }
+        if (loaded && !filter.mightContain(tokenId)) {
+            clear.increment();
+            return false;
+        }
+        boolean result = confirmed.get(tokenId, repository::existsById);
+        (result ? revoked : falsePositive).increment();
+        return result;
+    }
+
+    /**
+     * Revoca un token fino alla sua scadenza.
+     *
+     * <p><strong>English:</strong> Revokes a token until its expiration.</p>
+     *
+     * @param tokenId   claim {@code jti}
+     *                  <p><strong>English:</strong> {@code jti} claim.</p>
+     * @param accountId account del token, se noto
+     *                  <p><strong>English:</strong> token account, if known.</p>
+     * @param expiresAt scadenza del token
+     *                  <p><strong>English:</strong> token expiration.</p>
+     */
+    @Transactional
+    public void revoke(String tokenId, Long accountId, Instant expiresAt) {
+        Instant now = Instant.now();
+        if (tokenId == null || expiresAt == null || !expiresAt.isAfter(now)) {
+            return;
+        }
+        repository.save(RevokedToken.builder()
+                .tokenId(tokenId).accountId(accountId).revokedAt(now).expiresAt(expiresAt)
+                .build());
+        filter.add(tokenId);
+        confirmed.put(tokenId, Boolean.TRUE);
+    }
+
+    /**
+     * Aggiunge al filtro le revoche fatte nel frattempo, anche da altri nodi.
+     * Adds to the filter the revocations made in the meantime, including by other nodes.
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.sync-interval:30s}", initialDelayString = "${jwt.revocation.sync-interval:30s}")
+    public void sync() {
+        try {
+            if (!loaded) {
+                rebuild();
+                return;
+            }
+            Instant started = Instant.now();
+            addAll(repository.findTokenIdsRevokedSince(lastSync.minus(SYNC_OVERLAP)));
+            lastSync = started;
+        } catch (DataAccessException ex) {
+            log.warn("Allineamento dei token revocati non riuscito: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Elimina le revoche scadute e ricostruisce il filtro, che non supporta la rimozione.
+     * Deletes expired revocations and rebuilds the filter, which does not support removal.
+     */
+    @Scheduled(cron = "${jwt.revocation.cleanup-cron:0 20 3 * * *}")
+    @Transactional
+    public void purgeExpired() {
+        int deleted = repository.deleteExpired(Instant.now());
+        rebuild();
+        log.info("Eliminate {} revoche scadute, filtro ricostruito", deleted);
+    }
+
+    private void rebuild() {
+        Instant started = Instant.now();
+        List<String> ids = repository.findActiveTokenIds(started);
+        BloomFilter next = new BloomFilter(Math.max(expectedInsertions, 2L * ids.size()), falsePositiveRate);
+        ids.forEach(next::add);
+        filter = next;
+        confirmed.invalidateAll();
+        loaded = true;
+        // Revoche avvenute durante la lettura / Revocations made during the read
+        addAll(repository.findTokenIdsRevokedSince(started.minus(SYNC_OVERLAP)));
+        lastSync = started;
+    }
+
+    private void addAll(List<String> ids) {
+        BloomFilter current = filter;
+        for (String id : ids) {
+            current.add(id);
+            confirmed.invalidate(id);
+        }
+    }
+
+    private static Counter checkCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("security.revocation.checks")
+                .description("Verifiche di revoca dei token per esito / Token revocation checks by outcome")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.demo.config.security;
+
+import com.example.demo.repositories.AccountRepository;
+import com.example.demo.services.events.AccountChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Controllo di revoca a breve durata per la modalità “trusted claims”.
+ *
+ * <p><strong>English:</strong> Short-lived revocation check for “trusted claims” mode.</p>
+ * <p><strong>Italiano:</strong> Controllo di revoca a breve durata per la modalità “trusted claims”.</p>
+ *
+ * <p>Confronta la versione dello stato di sicurezza incorporata nel token (claim “ver”) con
+ * {@code Account.tokenVersion}. La versione corrente viene letta con una query sulla sola colonna
+ * ({@link AccountRepository#findTokenVersionById(Long)}) e tenuta in memoria per
+ * {@code jwt.trusted-claims.version-ttl-ms}: entro questa finestra un account attivo non genera
+ * alcuna query, e una modifica allo stato viene rilevata al più dopo la stessa finestra.</p>
+ * <p><strong>English:</strong> Compares the security state version embedded in the token (“ver” claim)
+ * with {@code Account.tokenVersion}. The current version is read with a single-column query
+ * ({@link AccountRepository#findTokenVersionById(Long)}) and kept in memory for
+ * {@code jwt.trusted-claims.version-ttl-ms}: within that window an active account issues no query,
+ * and a state change is detected at most after the same window.</p>
+ */
+@Component
+public class TokenVersionChecker {
+
+    private final AccountRepository accountRepository;
+    private final long ttlNanos;
+    private final Map<Long, CachedVersion> versions = new ConcurrentHashMap<>();
+
+    /**
+     * Costruttore iniettato con {@link AccountRepository} e durata della cache.
+     *
+     * <p><strong>English:</strong> Constructor injected with {@link AccountRepository} and cache duration.</p>
+     *
+     * @param accountRepository repository per la lettura della versione
+     *                          <p><strong>English:</strong> repository used to read the version.</p>
+     * @param ttlMs             durata in millisecondi di una versione letta dal database
+     *                          <p><strong>English:</strong> lifetime in milliseconds of a version read from the database.</p>
+     */
+    public TokenVersionChecker(
+            AccountRepository accountRepository,
+            @Value("${jwt.trusted-claims.version-ttl-ms:30000}") long ttlMs
+    ) {
+        this.accountRepository = accountRepository;
+        this.ttlNanos = Math.max(0, ttlMs) * 1_000_000L;
+    }
+
+    /**
+     * Indica se la versione incorporata nel token coincide con quella corrente dell’account.
+     *
+     * <p><strong>English:</strong> Tells whether the version embedded in the token matches the account's current one.</p>
+     *
+     * @param accountId    ID dell’account (claim “uid”)
+     *                     <p><strong>English:</strong> account ID (“uid” claim).</p>
+     * @param tokenVersion versione presente nel token (claim “ver”)
+     *                     <p><strong>English:</strong> version carried by the token (“ver” claim).</p>
+     * @return {@code true} se l’account esiste e la versione coincide
+     *         <p><strong>English:</strong> {@code true} if the account exists and the version matches.</p>
+     */
+    public boolean isCurrent(Long accountId, Integer tokenVersion) {
+        long now = System.nanoTime();
+        CachedVersion cached = versions.get(accountId);
+        if (cached == null || now - cached.loadedAt() > ttlNanos) {
+            Integer current = accountRepository.findTokenVersionById(accountId).orElse(null);
+            if (current == null) {
+                versions.remove(accountId);
+                return false;
+            }
+            cached = new CachedVersion(current, now);
+            versions.put(accountId, cached);
+        }
+        return Objects.equals(cached.version(), tokenVersion);
+    }
+
+    /**
+     * Dimentica la versione memorizzata per un account, forzando una nuova lettura.
+     *
+     * <p><strong>English:</strong> Forgets the stored version for an account, forcing a fresh read.</p>
+     *
+     * @param accountId ID dell’account
+     *                  <p><strong>English:</strong> account ID.</p>
+     */
+    public void evict(Long accountId) {
+        if (accountId != null) {
+            versions.remove(accountId);
+        }
+    }
+
+    /**
+     * Dimentica la versione dell’account modificato, dopo il commit della modifica.
+     *
+     * <p><strong>English:</strong> Forgets the modified account's version, after the change commits.</p>
+     *
+     * @param event evento di modifica dell’account
+     *              <p><strong>English:</strong> account change event.</p>
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAccountChanged(AccountChangedEvent event) {
+        evict(event.getAccountId());
+    }
+
+    private record CachedVersion(Integer version, long loadedAt) {
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.demo.config.security;
+
+import com.example.demo.entities.Account;
+import com.example.demo.services.events.AccountChangedEvent;
+import com.example.demo.services.events.PermissionChangedEvent;
+import com.example.demo.services.events.RoleChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Cache in-process, limitata e con TTL, degli oggetti {@link UserDetails} caricati da {@link CustomUserDetailsService}.
+ *
+ * <p><strong>English:</strong> Bounded, TTL-limited in-process cache of the {@link UserDetails} objects loaded by
+ * {@link CustomUserDetailsService}.</p>
+ * <p><strong>Italiano:</strong> Cache in-process, limitata e con TTL, degli oggetti {@link UserDetails} caricati da
+ * {@link CustomUserDetailsService}.</p>
+ *
+ * <p>Le voci vengono invalidate con precisione da {@link AccountChangedEvent} (per username) e per intero da
+ * {@link RoleChangedEvent} o {@link PermissionChangedEvent}, dopo il commit della transazione che ha modificato i dati. Il TTL limita
+ * l’obsolescenza per le modifiche fatte da altri nodi. Hit, miss ed evizioni sono pubblicati su Micrometer
+ * con il nome di cache {@code userDetails}.</p>
+ * <p><strong>English:</strong> Entries are evicted precisely by {@link AccountChangedEvent} (per username) and
+ * entirely by {@link RoleChangedEvent} or {@link PermissionChangedEvent}, after the commit of the transaction that changed the data. The TTL
+ * bounds staleness for changes made by other nodes. Hits, misses and evictions are published to Micrometer
+ * under the cache name {@code userDetails}.</p>
+ */
+@Component
+public class UserDetailsCache {
+
+    private final Cache<String, UserDetails> cache;
+    private final boolean enabled;
+
+    /**
+     * Costruisce la cache a partire dalle proprietà {@code security.user-cache.*}.
+     *
+     * <p><strong>English:</strong> Builds the cache from the {@code security.user-cache.*} properties.</p>
+     *
+     * @param enabled       abilita la cache
+     *                      <p><strong>English:</strong> enables the cache.</p>
+     * @param maxSize       numero massimo di utenti in cache
+     *                      <p><strong>English:</strong> maximum number of cached users.</p>
+     * @param ttl           durata massima di una voce dalla scrittura
+     *                      <p><strong>English:</strong> maximum lifetime of an entry since write.</p>
+     * @param meterRegistry registro Micrometer per le metriche della cache
+     *                      <p><strong>English:</strong> Micrometer registry for cache metrics.</p>
+     */
+    public UserDetailsCache(
+            @Value("${security.user-cache.enabled:true}") boolean enabled,
+            @Value("${security.user-cache.max-size:10000}") long maxSize,
+            @Value("${security.user-cache.ttl:5m}") Duration ttl,
+            MeterRegistry meterRegistry
+    ) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "userDetails");
+    }
+
+    /**
+     * Restituisce l’utente dalla cache o lo carica con la funzione fornita.
+     *
+     * <p><strong>English:</strong> Returns the user from the cache or loads it with the given function.</p>
+     *
+     * <p>Viene sempre restituita una copia, perché Spring Security cancella le credenziali
+     * dell’oggetto dopo l’autenticazione. Le eccezioni del caricamento e gli account bloccati non
+     * vengono memorizzati, così che la scadenza temporale del blocco sia sempre rispettata.</p>
+     * <p><strong>English:</strong> A copy is always returned, because Spring Security erases the
+     * object's credentials after authentication. Loading exceptions and locked accounts are not
+     * cached, so that the time-based lock expiration is always honoured.</p>
+     *
+     * @param username username richiesto
+     *                 <p><strong>English:</strong> requested username.</p>
+     * @param loader   funzione di caricamento dal database
+     *                 <p><strong>English:</strong> database loading function.</p>
+     * @return copia dell’utente
+     *         <p><strong>English:</strong> copy of the user.</p>
+     */
+    public UserDetails get(String username, Function<String, UserDetails> loader) {
+        if (!enabled) {
+            return loader.apply(username);
+        }
+        UserDetails user = cache.getIfPresent(username);
+        if (user == null) {
+            user = loader.apply(username);
+            if (user.isAccountNonLocked()) {
+                cache.put(username, user);
+            }
+        }
+        return User.withUserDetails(user).build();
+    }
+
+    /**
+     * Invalida gli username interessati da una modifica di account, dopo il commit.
+     *
+     * <p><strong>English:</strong> Evicts the usernames affected by an account change, after commit.</p>
+     *
+     * @param event evento di modifica
+     *              <p><strong>English:</strong> change event.</p>
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAccountChanged(AccountChangedEvent event) {
+        cache.invalidateAll(event.getUsernames());
+    }
+
+    /**
+     * Invalida gli utenti indicati in qualunque maiuscolo/minuscolo siano stati caricati.
+     *
+     * <p><strong>English:</strong> Evicts the given users whatever letter case they were loaded with.</p>
+     *
+     * @param normalizedUsernames username normalizzati ({@link Account#normalize(String)})
+     *                            <p><strong>English:</strong> normalized usernames ({@link Account#normalize(String)}).</p>
+     */
+    public void evictIgnoreCase(Set<String> normalizedUsernames) {
+        if (!normalizedUsernames.isEmpty()) {
+            cache.asMap().keySet().removeIf(username -> normalizedUsernames.contains(Account.normalize(username)));
+        }
+    }
+
+    /**
+     * Invalida l’intera cache quando cambia un ruolo.
+     *
+     * <p><strong>English:</strong> Evicts the whole cache when a role changes.</p>
+     *
+     * @param event evento di modifica del ruolo
+     *              <p><strong>English:</strong> role change event.</p>
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRoleChanged(RoleChangedEvent event) {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Invalida l’intera cache quando cambia un permesso, perché le autorità ne contengono i nomi.
+     *
+     * <p><strong>English:</strong> Evicts the whole cache when a permission changes, since authorities carry its
+     * name.</p>
+     *
+     * @param event evento di modifica del permesso
+     *              <p><strong>English:</strong> permission change event.</p>
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPermissionChanged(PermissionChangedEvent event) {
+        cache.invalidateAll();
+    }
+
+    /**
+     * @return statistiche correnti (hit, miss, evizioni)
+     *         <p><strong>English:</strong> current statistics (hits, misses, evictions).</p>
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+}
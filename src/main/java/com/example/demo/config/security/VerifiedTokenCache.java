@@ -0,0 +1,142 @@
+package com.example.demo.config.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache limitata e consapevole della scadenza dei token JWT già verificati.
+ *
+ * <p><strong>English:</strong> Bounded, expiry-aware cache of already verified JWT tokens.</p>
+ * <p><strong>Italiano:</strong> Cache limitata e consapevole della scadenza dei token JWT già verificati.</p>
+ *
+ * <p>La chiave è l’hash SHA-256 del token compatto, così la cache non conserva i token in chiaro.
+ * Una voce viene restituita solo finché il claim {@code exp} non è trascorso; le voci scadute
+ * vengono rimosse in lettura e durante la pulizia che precede un inserimento a cache piena.
+ * I token privi di {@code exp} non vengono mai memorizzati.</p>
+ * <p><strong>English:</strong> The key is the SHA-256 hash of the compact token, so the cache never keeps
+ * plain tokens. An entry is returned only until its {@code exp} claim has passed; expired entries are
+ * removed on read and during the sweep that precedes an insertion into a full cache.
+ * Tokens without {@code exp} are never stored.</p>
+ */
+class VerifiedTokenCache {
+
+    private final int maxSize;
+    private final Map<String, ParsedToken> entries;
+
+    /**
+     * Crea una cache con il numero massimo di voci indicato.
+     *
+     * <p><strong>English:</strong> Creates a cache holding at most the given number of entries.</p>
+     *
+     * @param maxSize numero massimo di token memorizzati; {@code 0} disabilita la cache
+     *                <p><strong>English:</strong> maximum number of cached tokens; {@code 0} disables the cache.</p>
+     */
+    VerifiedTokenCache(int maxSize) {
+        this.maxSize = Math.max(0, maxSize);
+        this.entries = new ConcurrentHashMap<>(Math.min(this.maxSize, 1024));
+    }
+
+    /**
+     * Calcola la chiave di cache (SHA-256, Base64 URL-safe) per un token compatto.
+     *
+     * <p><strong>English:</strong> Computes the cache key (SHA-256, URL-safe Base64) for a compact token.</p>
+     *
+     * @param token token JWT compatto
+     *              <p><strong>English:</strong> compact JWT token.</p>
+     * @return hash del token
+     *         <p><strong>English:</strong> token hash.</p>
+     */
+    static String keyOf(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 non disponibile / SHA-256 not available", ex);
+        }
+    }
+
+    /**
+     * Restituisce il token verificato associato alla chiave, se presente e non scaduto.
+     *
+     * <p><strong>English:</strong> Returns the verified token for the key, if present and not expired.</p>
+     *
+     * @param key chiave calcolata con {@link #keyOf(String)}
+     *            <p><strong>English:</strong> key computed with {@link #keyOf(String)}.</p>
+     * @param now istante corrente
+     *            <p><strong>English:</strong> current instant.</p>
+     * @return token verificato oppure {@code null}
+     *         <p><strong>English:</strong> verified token or {@code null}.</p>
+     */
+    ParsedToken get(String key, Instant now) {
+        if (maxSize == 0) {
+            return null;
+        }
+        ParsedToken cached = entries.get(key);
+        if (cached == null) {
+            return null;
+        }
+        if (cached.isExpired(now)) {
+            entries.remove(key, cached);
+            return null;
+        }
+        return cached;
+    }
+
+    /**
+     * Memorizza un token verificato; se la cache è piena rimuove prima le voci scadute
+     * e, se non basta, una porzione arbitraria delle voci rimanenti.
+     *
+     * <p><strong>English:</strong> Stores a verified token; when the cache is full it first removes
+     * expired entries and, if that is not enough, an arbitrary share of the remaining ones.</p>
+     *
+     * @param key    chiave calcolata con {@link #keyOf(String)}
+     *               <p><strong>English:</strong> key computed with {@link #keyOf(String)}.</p>
+     * @param parsed token verificato
+     *               <p><strong>English:</strong> verified token.</p>
+     * @param now    istante corrente
+     *               <p><strong>English:</strong> current instant.</p>
+     */
+    void put(String key, ParsedToken parsed, Instant now) {
+        if (maxSize == 0 || parsed.getExpiration() == null || parsed.isExpired(now)) {
+            return;
+        }
+        if (entries.size() >= maxSize) {
+            evict(now);
+        }
+        entries.put(key, parsed);
+    }
+
+    /**
+     * Rimuove tutte le voci.
+     *
+     * <p><strong>English:</strong> Removes all entries.</p>
+     */
+    void clear() {
+        entries.clear();
+    }
+
+    /**
+     * @return numero di voci attualmente memorizzate
+     *         <p><strong>English:</strong> number of entries currently stored.</p>
+     */
+    int size() {
+        return entries.size();
+    }
+
+    private void evict(Instant now) {
+        entries.values().removeIf(parsed -> parsed.isExpired(now));
+        int target = maxSize - Math.max(1, maxSize / 10);
+        Iterator<String> keys = entries.keySet().iterator();
+        while (entries.size() > target && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+}
@@ -1,6 +1,5 @@
 package com.example.demo.config.validation;
 
-import com.example.demo.repositories.PersonaRepository;
 import jakarta.validation.ConstraintValidator;
 import jakarta.validation.ConstraintValidatorContext;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -18,30 +17,30 @@ import org.springframework.stereotype.Component;
 @Component
 public class ExistingPersonaValidator implements ConstraintValidator<ExistingPersona, Long> {
 
-    private final PersonaRepository repository;
+    private final ReferenceResolver resolver;
 
     /**
-     * Costruttore con iniezione del repository.
-     * Constructor with repository injection.
+     * Costruttore con iniezione del resolver dei riferimenti.
+     * Constructor with reference resolver injection.
      *
-     * @param repository repository per accedere alle entità Persona / repository for accessing Persona entities
+     * @param resolver resolver che carica la Persona una volta per richiesta / resolver loading the Persona once per request
      */
     @Autowired
-    public ExistingPersonaValidator(PersonaRepository repository) {
-        this.repository = repository;
+    public ExistingPersonaValidator(ReferenceResolver resolver) {
+        this.resolver = resolver;
     }
 
     /**
      * Verifica se il personaId è valido.
      * <ul>
      *   <li>Se personaId è null, restituisce true (per delegare a @NotNull eventuale errore).</li>
-     *   <li>Altrimenti, verifica che esista almeno un record con quell’ID nel {@link PersonaRepository}.</li>
+     *   <li>Altrimenti, carica la Persona tramite {@link ReferenceResolver}, che la rende disponibile al servizio nella stessa richiesta.</li>
      * </ul>
      *
      * Checks if personaId is valid.
      * <ul>
      *   <li>If personaId is null, returns true (delegating null-check to @NotNull).</li>
-     *   <li>Otherwise, checks that at least one record with that ID exists in {@link PersonaRepository}.</li>
+     *   <li>Otherwise, loads the Persona through {@link ReferenceResolver}, which makes it available to the service within the same request.</li>
      * </ul>
      *
      * @param personaId       ID della Persona da validare / ID of the Persona to validate
@@ -55,6 +54,6 @@ public class ExistingPersonaValidator implements ConstraintValidator<ExistingPer
             // @NotNull will handle the null case
             return true;
         }
-        return repository.existsById(personaId);
+        return resolver.persona(personaId).isPresent();
     }
 }
@@ -1,6 +1,5 @@
 package com.example.demo.config.validation;
 
-import com.example.demo.repositories.RoleRepository;
 import jakarta.validation.ConstraintValidator;
 import jakarta.validation.ConstraintValidatorContext;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -18,30 +17,30 @@ import java.util.Set;
  */
 public class ExistingRolesValidator implements ConstraintValidator<ExistingRoles, Set<Long>> {
 
-    private final RoleRepository repository;
+    private final ReferenceResolver resolver;
 
     /**
-     * Costruttore con iniezione del repository.
-     * Constructor with repository injection.
+     * Costruttore con iniezione del resolver dei riferimenti.
+     * Constructor with reference resolver injection.
      *
-     * @param repository repository per accedere alle entità Role / repository for accessing Role entities
+     * @param resolver resolver che carica i Role a lotti / resolver loading Roles in batches
      */
     @Autowired
-    public ExistingRolesValidator(RoleRepository repository) {
-        this.repository = repository;
+    public ExistingRolesValidator(ReferenceResolver resolver) {
+        this.resolver = resolver;
     }
 
     /**
      * Verifica se tutti i roleIds nel Set esistono.
      * <ul>
      *   <li>Se roleIds è null o vuoto, restituisce true (per delegare a @NotEmpty eventuale errore).</li>
-     *   <li>Altrimenti, verifica che ogni ID esista nel {@link RoleRepository}.</li>
+     *   <li>Altrimenti, carica tutti gli ID con una sola query tramite {@link ReferenceResolver}; i Role trovati restano disponibili al servizio nella stessa richiesta.</li>
      * </ul>
      *
      * Checks if all roleIds in the Set exist.
      * <ul>
      *   <li>If roleIds is null or empty, returns true (delegating empty-check to @NotEmpty).</li>
-     *   <li>Otherwise, checks that each ID exists in {@link RoleRepository}.</li>
+     *   <li>Otherwise, loads all IDs with a single query through {@link ReferenceResolver}; the Roles found stay available to the service within the same request.</li>
      * </ul>
      *
      * @param roleIds         Insieme di ID dei Role da validare / Set of Role IDs to validate
@@ -55,6 +54,6 @@ public class ExistingRolesValidator implements ConstraintValidator<ExistingRoles
             // @NotEmpty will handle the empty or null case
             return true;
         }
-        return roleIds.stream().allMatch(repository::existsById);
+        return resolver.roles(roleIds).keySet().containsAll(roleIds);
     }
 }
@@ -0,0 +1,121 @@
+package com.example.demo.config.validation;
+
+import com.example.demo.entities.Persona;
+import com.example.demo.entities.Role;
+import com.example.demo.repositories.PersonaRepository;
+import com.example.demo.repositories.RoleRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Risolve gli ID di Role e Persona di una richiesta con query a lotti, condividendo il risultato tra validatori e
+ * servizi della stessa richiesta HTTP.
+ *
+ * <p><strong>English:</strong> Resolves the Role and Persona IDs of a request with batched queries, sharing the
+ * result between validators and services of the same HTTP request.</p>
+ * <p><strong>Italiano:</strong> Risolve gli ID di Role e Persona di una richiesta con query a lotti, condividendo il
+ * risultato tra validatori e servizi della stessa richiesta HTTP.</p>
+ *
+ * <p>{@link ExistingRolesValidator} carica tutti i ruoli richiesti con un’unica query {@code IN}; il servizio che
+ * poi costruisce l’account riceve le stesse entità senza altre query, indipendentemente dal numero di ruoli. Le
+ * entità risolte sono tenute negli attributi della richiesta corrente; fuori da una richiesta HTTP (job, test)
+ * ogni chiamata interroga il database.</p>
+ * <p><strong>English:</strong> {@link ExistingRolesValidator} loads all requested roles with a single {@code IN}
+ * query; the service that then builds the account receives the same entities without further queries, whatever
+ * the number of roles. Resolved entities are kept in the current request's attributes; outside an HTTP request
+ * (jobs, tests) every call queries the database.</p>
+ */
+@Component
+public class ReferenceResolver {
+
+    private static final String ATTRIBUTE = ReferenceResolver.class.getName();
+
+    private final RoleRepository roleRepository;
+    private final PersonaRepository personaRepository;
+
+    /**
+     * Entità già risolte nella richiesta corrente, comprese quelle risultate inesistenti.
+     * Entities already resolved in the current request, including those found missing.
+     */
+    private static final class Resolved {
+        private final Map<Long, Role> roles = new HashMap<>();
+        private final Set<Long> missingRoles = new HashSet<>();
+        private final Map<Long, Optional<Persona>> personas = new HashMap<>();
+    }
+
+    /**
+     * Costruttore con iniezione dei repository.
+     * Constructor with repository injection.
+     *
+     * @param roleRepository    repository dei Role / Role repository
+     * @param personaRepository repository delle Persona / Persona repository
+     */
+    public ReferenceResolver(RoleRepository roleRepository, PersonaRepository personaRepository) {
+        this.roleRepository = roleRepository;
+        this.personaRepository = personaRepository;
+    }
+
+    /**
+     * Risolve un insieme di ID di Role; gli ID non ancora visti nella richiesta vengono caricati con una sola query.
+     * Resolves a set of Role IDs; IDs not yet seen in the request are loaded with a single query.
+     *
+     * @param roleIds ID dei Role / Role IDs
+     * @return Role trovati per ID; gli ID inesistenti sono assenti dalla mappa /
+     *         Roles found by ID; missing IDs are absent from the map
+     */
+    public Map<Long, Role> roles(Collection<Long> roleIds) {
+        Resolved resolved = resolved();
+        List<Long> pending = roleIds.stream()
+                .filter(id -> id != null && !resolved.roles.containsKey(id) && !resolved.missingRoles.contains(id))
+                .distinct()
+                .toList();
+        if (!pending.isEmpty()) {
+            roleRepository.findAllById(pending).forEach(role -> resolved.roles.put(role.getId(), role));
+            pending.stream().filter(id -> !resolved.roles.containsKey(id)).forEach(resolved.missingRoles::add);
+        }
+        Map<Long, Role> result = new HashMap<>();
+        for (Long id : roleIds) {
+            Role role = resolved.roles.get(id);
+            if (role != null) {
+                result.put(id, role);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Risolve l’ID di una Persona, una sola volta per richiesta.
+     * Resolves a Persona ID, once per request.
+     *
+     * @param personaId ID della Persona / Persona ID
+     * @return Persona, se esiste / Persona, if it exists
+     */
+    public Optional<Persona> persona(Long personaId) {
+        if (personaId == null) {
+            return Optional.empty();
+        }
+        return resolved().personas.computeIfAbsent(personaId, personaRepository::findById);
+    }
+
+    private static Resolved resolved() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return new Resolved();
+        }
+        Resolved resolved = (Resolved) attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (resolved == null) {
+            resolved = new Resolved();
+            attributes.setAttribute(ATTRIBUTE, resolved, RequestAttributes.SCOPE_REQUEST);
+        }
+        return resolved;
+    }
+}
@@ -1,10 +1,14 @@
 package com.example.demo.controllers;
 
 import com.example.demo.dto.request.AccountPasswordResetDTO;
+import com.example.demo.dto.request.BulkAccountProvisioningDTO;
 import com.example.demo.dto.request.CreateAccountRequestDTO;
 import com.example.demo.dto.request.UpdateAccountRequestDTO;
 import com.example.demo.dto.response.AccountResponseDTO;
 import com.example.demo.dto.response.AccountSummaryDTO;
+import com.example.demo.dto.response.BulkProvisioningReportDTO;
+import com.example.demo.dto.response.CursorPageDTO;
+import com.example.demo.services.interfaces.AccountProvisioningService;
 import com.example.demo.services.interfaces.AccountService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -22,9 +26,11 @@ import org.springframework.web.bind.annotation.*;
 public class AccountController {
 
     private final AccountService service;
+    private final AccountProvisioningService provisioningService;
 
-    public AccountController(AccountService service) {
+    public AccountController(AccountService service, AccountProvisioningService provisioningService) {
         this.service = service;
+        this.provisioningService = provisioningService;
     }
 
     /**
@@ -53,6 +59,31 @@ public class AccountController {
         return ResponseEntity.status(HttpStatus.CREATED).body(created);
     }
 
+    /**
+     * [ITA]
+     * Crea a lotti persone e account (onboarding).
+     * POST /api/accounts/bulk
+     * Body: BulkAccountProvisioningDTO (al massimo 1000 elementi, validati uno per uno)
+     * Restituisce: BulkProvisioningReportDTO con l’esito di ogni elemento.
+     * [ENG]
+     * Bulk-create personas and accounts (onboarding).
+     * POST /api/accounts/bulk
+     * Body: BulkAccountProvisioningDTO (at most 1000 items, validated one by one)
+     * Returns: BulkProvisioningReportDTO with the outcome of every item.
+     */
+    @Operation(
+            summary = "Crea persone e account a lotti / Bulk-create personas and accounts",
+            description = "Crea una persona e il suo account per ogni elemento; gli elementi non validi o in conflitto sono riportati come falliti senza bloccare gli altri. / Creates a persona and its account for every item; invalid or conflicting items are reported as failed without blocking the others."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Report con l'esito di ogni elemento / Report with the outcome of every item"),
+            @ApiResponse(responseCode = "400", description = "Richiesta vuota o troppo grande / Empty or oversized request")
+    })
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkProvisioningReportDTO> provisionAccounts(@Valid @RequestBody BulkAccountProvisioningDTO request) {
+        return ResponseEntity.ok(provisioningService.provision(request));
+    }
+
     /**
      * [ITA]
      * Aggiorna un account esistente.
@@ -164,6 +195,33 @@ public class AccountController {
         return ResponseEntity.ok(page);
     }
 
+    /**
+     * [ITA]
+     * Recupera gli account con paginazione a cursore (seek per ID).
+     * GET /api/accounts/scroll?cursor=...&size=...
+     * Restituisce: CursorPageDTO<AccountResponseDTO>; nextCursor va passato nella richiesta successiva.
+     * [ENG]
+     * Get accounts with cursor (seek-by-id) pagination.
+     * GET /api/accounts/scroll?cursor=...&size=...
+     * Returns: CursorPageDTO<AccountResponseDTO>; nextCursor must be passed in the following request.
+     */
+    @Operation(
+            summary = "Scorre gli account con cursore / Scroll accounts with a cursor",
+            description = "Paginazione a costo costante anche su pagine profonde. / Constant-cost pagination even on deep pages."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Pagina recuperata con successo / Page successfully retrieved"),
+            @ApiResponse(responseCode = "400", description = "Cursore non valido / Invalid cursor")
+    })
+    @Parameter(name = "cursor", description = "Token della pagina precedente / Token from the previous page")
+    @Parameter(name = "size", description = "Numero elementi (max 500) / Page size (max 500)", example = "50")
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorPageDTO<AccountResponseDTO>> scrollAccounts(
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", required = false) Integer size) {
+        return ResponseEntity.ok(service.getAllAccounts(cursor, size));
+    }
+
     /**
      * [ITA]
      * Blocca un account impostando lockedUntil.
@@ -1,12 +1,19 @@
 package com.example.demo.controllers;
 
 
+import com.example.demo.config.export.ExportFormat;
 import com.example.demo.dto.AuditLogDTO;
+import com.example.demo.dto.request.AuditLogSearchDTO;
+import com.example.demo.dto.response.CursorPageDTO;
 import com.example.demo.services.AuditLogServiceImpl;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.Instant;
 import java.util.List;
 
 @RestController
@@ -26,6 +33,44 @@ public class AuditLogController {
         return ResponseEntity.ok(lista);
     }
 
+    //Get page by cursor (seek by id)
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorPageDTO<AuditLogDTO>> scroll(@RequestParam(required = false) String cursor,
+                                                   @RequestParam(required = false) Integer size) {
+        CursorPageDTO<AuditLogDTO> page = service.findAll(cursor, size);
+        return ResponseEntity.ok(page);
+    }
+
+    //Get page by timestamp range (default: last 24h, newest first, cursor on timestamp + id), reads only the matching monthly partitions
+    @GetMapping("/range")
+    public ResponseEntity<CursorPageDTO<AuditLogDTO>> range(@RequestParam(required = false) Instant from,
+                                                            @RequestParam(required = false) Instant to,
+                                                            @RequestParam(required = false) String cursor,
+                                                            @RequestParam(required = false) Integer size) {
+        CursorPageDTO<AuditLogDTO> page = service.findInRange(from, to, cursor, size);
+        return ResponseEntity.ok(page);
+    }
+
+    //Search by entity, author, action and time range (newest first, cursor on timestamp + id)
+    @GetMapping("/search")
+    public ResponseEntity<CursorPageDTO<AuditLogDTO>> search(@ModelAttribute AuditLogSearchDTO filter,
+                                                             @RequestParam(required = false) String cursor,
+                                                             @RequestParam(required = false) Integer size) {
+        CursorPageDTO<AuditLogDTO> page = service.search(filter, cursor, size);
+        return ResponseEntity.ok(page);
+    }
+
+    //Export all (NDJSON or CSV, streamed)
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(defaultValue = "ndjson") String format) {
+        ExportFormat exportFormat = ExportFormat.from(format);
+        StreamingResponseBody body = out -> service.exportAll(exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=auditLog." + exportFormat.getExtension())
+                .body(body);
+    }
+
     //Get by id
     @GetMapping("/id/{id}")
     public ResponseEntity<AuditLogDTO> getById(@PathVariable Long id) {
@@ -33,11 +78,18 @@ public class AuditLogController {
         return ResponseEntity.ok(response);
     }
 
-    //POST
+    //POST (queued on the audit pipeline, the ID is assigned when the batch is written)
     @PostMapping
-    public ResponseEntity<AuditLogDTO> create(@RequestBody AuditLogDTO dto) {
+    public ResponseEntity<AuditLogDTO> create(@Valid @RequestBody AuditLogDTO dto) {
         AuditLogDTO entity = service.create(dto);
-        return ResponseEntity.status(HttpStatus.CREATED).body(entity);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(entity);
+    }
+
+    //POST (async, written in batches by the audit pipeline)
+    @PostMapping("/async")
+    public ResponseEntity<Void> record(@Valid @RequestBody AuditLogDTO dto) {
+        boolean accepted = service.record(dto);
+        return ResponseEntity.status(accepted ? HttpStatus.ACCEPTED : HttpStatus.SERVICE_UNAVAILABLE).build();
     }
 
     //PUT
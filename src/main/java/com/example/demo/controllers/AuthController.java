@@ -2,14 +2,18 @@ package com.example.demo.controllers;
 
 
 import com.example.demo.dto.request.LoginRequestDTO;
+import com.example.demo.dto.request.RefreshRequestDTO;
 import com.example.demo.dto.response.LoginResponseDTO;
 import com.example.demo.config.security.LoginService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -22,7 +26,7 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping("api/auth")
 @Tag(
         name = "Auth",
-        description = "Endpoint per autenticazione (login) / Endpoint for authentication (login)"
+        description = "Endpoint per autenticazione (login, refresh, logout) / Endpoint for authentication (login, refresh, logout)"
 )
 public class AuthController {
 
@@ -44,8 +48,10 @@ public class AuthController {
      *
      * <p><strong>English:</strong> Performs login using username and password.</p>
      *
-     * @param request DTO contenente username e password
-     *                <p><strong>English:</strong> DTO containing username and password.</p>
+     * @param request     DTO contenente username e password
+     *                    <p><strong>English:</strong> DTO containing username and password.</p>
+     * @param httpRequest richiesta HTTP, da cui si ricava l’IP del client
+     *                    <p><strong>English:</strong> HTTP request, from which the client IP is taken.</p>
      * @return {@code ResponseEntity} con {@link LoginResponseDTO} e stato HTTP 200 (OK)
      *         <p><strong>English:</strong> {@code ResponseEntity} with {@link LoginResponseDTO} and HTTP status 200 (OK).</p>
      */
@@ -55,10 +61,55 @@ public class AuthController {
                     + "Requires username and password, returns JWT token and account details if credentials are valid."
     )
     @PostMapping("/login")
-    public ResponseEntity<LoginResponseDTO> login(@Valid @RequestBody LoginRequestDTO request){
-        LoginResponseDTO response = service.login(request);
+    public ResponseEntity<LoginResponseDTO> login(@Valid @RequestBody LoginRequestDTO request, HttpServletRequest httpRequest){
+        LoginResponseDTO response = service.login(request, httpRequest.getRemoteAddr());
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Rinnova l’access token con un refresh token, senza password.
+     *
+     * <p><strong>English:</strong> Renews the access token with a refresh token, without password.</p>
+     *
+     * @param request DTO contenente il refresh token
+     *                <p><strong>English:</strong> DTO containing the refresh token.</p>
+     * @return {@code ResponseEntity} con {@link LoginResponseDTO} (nuovo access token e nuovo refresh token) e stato HTTP 200 (OK)
+     *         <p><strong>English:</strong> {@code ResponseEntity} with {@link LoginResponseDTO} (new access token and new refresh token) and HTTP status 200 (OK).</p>
+     */
+    @Operation(
+            summary = "Rinnova l'access token / Renew the access token",
+            description = "Il refresh token è monouso: la risposta ne contiene uno nuovo. Il riuso di un token già usato revoca la sessione. / "
+                    + "The refresh token is single-use: the response carries a new one. Reusing an already used token revokes the session."
+    )
+    @PostMapping("/refresh")
+    public ResponseEntity<LoginResponseDTO> refresh(@Valid @RequestBody RefreshRequestDTO request){
+        return ResponseEntity.ok(service.refresh(request.getRefreshToken()));
+    }
 
+    /**
+     * Chiude la sessione revocando access token e refresh token.
+     *
+     * <p><strong>English:</strong> Ends the session by revoking the access token and the refresh token.</p>
+     *
+     * @param authorization header Authorization con l’access token, facoltativo
+     *                      <p><strong>English:</strong> Authorization header with the access token, optional.</p>
+     * @param request       DTO con il refresh token, facoltativo
+     *                      <p><strong>English:</strong> DTO with the refresh token, optional.</p>
+     * @return {@code ResponseEntity} vuota con stato HTTP 204 (No Content)
+     *         <p><strong>English:</strong> empty {@code ResponseEntity} with HTTP status 204 (No Content).</p>
+     */
+    @Operation(
+            summary = "Effettua il logout / Perform logout",
+            description = "L'access token resta rifiutato fino alla sua scadenza e la sessione di refresh viene revocata. / "
+                    + "The access token stays rejected until it expires and the refresh session is revoked."
+    )
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+            @RequestBody(required = false) RefreshRequestDTO request
+    ){
+        String accessToken = authorization != null && authorization.startsWith("Bearer ") ? authorization.substring(7) : null;
+        service.logout(accessToken, request != null ? request.getRefreshToken() : null);
+        return ResponseEntity.noContent().build();
+    }
 }
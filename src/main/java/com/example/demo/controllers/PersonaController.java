@@ -1,10 +1,14 @@
 package com.example.demo.controllers;
 
+import com.example.demo.config.export.ExportFormat;
 import com.example.demo.dto.PersonaDTO;
+import com.example.demo.dto.response.CursorPageDTO;
 import com.example.demo.services.interfaces.PersonaService;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -25,6 +29,25 @@ public class PersonaController {
         return ResponseEntity.ok(lista);
     }
 
+    //Get page by cursor (seek by id)
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorPageDTO<PersonaDTO>> scroll(@RequestParam(required = false) String cursor,
+                                                   @RequestParam(required = false) Integer size) {
+        CursorPageDTO<PersonaDTO> page = service.findAll(cursor, size);
+        return ResponseEntity.ok(page);
+    }
+
+    //Export all (NDJSON or CSV, streamed)
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(defaultValue = "ndjson") String format) {
+        ExportFormat exportFormat = ExportFormat.from(format);
+        StreamingResponseBody body = out -> service.exportAll(exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=persona." + exportFormat.getExtension())
+                .body(body);
+    }
+
     //Get one by id
     @GetMapping("/id/{id}")
     public ResponseEntity<PersonaDTO> getById(@PathVariable Long id) {
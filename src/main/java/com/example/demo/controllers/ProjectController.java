@@ -2,6 +2,7 @@ package com.example.demo.controllers;
 
 
 import com.example.demo.dto.ProjectDTO;
+import com.example.demo.dto.response.CursorPageDTO;
 import com.example.demo.services.ProjectServiceImpl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -26,6 +27,14 @@ public class ProjectController {
         return ResponseEntity.ok(lista);
     }
 
+    //Get page by cursor (seek by id)
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorPageDTO<ProjectDTO>> scroll(@RequestParam(required = false) String cursor,
+                                                   @RequestParam(required = false) Integer size) {
+        CursorPageDTO<ProjectDTO> page = service.findAll(cursor, size);
+        return ResponseEntity.ok(page);
+    }
+
     //Get by id
     @GetMapping("/id/{id}")
     public ResponseEntity<ProjectDTO> getById(@PathVariable Long id) {
@@ -1,5 +1,6 @@
 package com.example.demo.dto;
 
+import jakarta.validation.constraints.Size;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -10,8 +11,11 @@ import java.time.Instant;
 public class AuditLogDTO{
 
     private Long id;
+    // Limiti delle colonne di audit_Logs / audit_Logs column limits
+    @Size(max = 100, message = "entityName non può superare 100 caratteri / entityName cannot exceed 100 characters")
     private String entityName;
     private Long entityId;
+    @Size(max = 50, message = "action non può superare 50 caratteri / action cannot exceed 50 characters")
     private String action;
     private Long changedByAccountId;
     private Instant timestamp;
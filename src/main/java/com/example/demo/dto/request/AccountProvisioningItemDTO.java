@@ -0,0 +1,69 @@
+package com.example.demo.dto.request;
+
+import com.example.demo.dto.PersonaDTO;
+import jakarta.validation.constraints.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.Set;
+
+/**
+ * Elemento del provisioning a lotti: una persona e l’account da creare per lei.
+ * Bulk provisioning item: a persona and the account to create for it.
+ *
+ * <p>Ogni elemento viene validato singolarmente: un elemento non valido compare nel report come fallito senza
+ * bloccare gli altri.</p>
+ * <p>Every item is validated on its own: an invalid item shows up in the report as failed without blocking the
+ * others.</p>
+ */
+@Setter
+@Getter
+public class AccountProvisioningItemDTO {
+
+    /**
+     * Dati anagrafici della nuova persona; sono obbligatori firstName e lastName. Dei riferimenti vengono applicati
+     * solo departmentId e positionId; id, accountId, teamIds e projectIds sono ignorati.
+     *
+     * Personal data of the new persona; firstName and lastName are required. Of the references only departmentId
+     * and positionId are applied; id, accountId, teamIds and projectIds are ignored.
+     */
+    @NotNull(message = "persona è obbligatoria / persona is required")
+    private PersonaDTO persona;
+
+    /**
+     * Username del nuovo account, con gli stessi vincoli di {@link CreateAccountRequestDTO}.
+     * Username of the new account, with the same constraints as {@link CreateAccountRequestDTO}.
+     */
+    @NotBlank(message = "username non può essere vuoto / username cannot be blank")
+    @Size(
+        min = 3, max = 50,
+        message = "username deve avere tra 3 e 50 caratteri / username must be between 3 and 50 characters"
+    )
+    @Pattern(
+        regexp = "^[a-zA-Z0-9._-]+$",
+        message = "username può contenere solo lettere, numeri, punti, underscore e trattini / username can contain only letters, numbers, dots, underscores, and hyphens"
+    )
+    private String username;
+
+    /**
+     * Password del nuovo account, con gli stessi vincoli di {@link CreateAccountRequestDTO}.
+     * Password of the new account, with the same constraints as {@link CreateAccountRequestDTO}.
+     */
+    @NotBlank(message = "password non può essere vuota / password cannot be blank")
+    @Size(
+        min = 8, max = 100,
+        message = "password deve avere tra 8 e 100 caratteri / password must be between 8 and 100 characters"
+    )
+    @Pattern(
+        regexp = "^(?=.*[a-z])(?=.*[A-Z])(?=.*\\d)(?=.*[@$!%*?&])[A-Za-z\\d@$!%*?&].*$",
+        message = "password deve contenere almeno una lettera minuscola, maiuscola, numero e carattere speciale / password must contain at least one lowercase letter, one uppercase letter, one digit, and one special character"
+    )
+    private String password;
+
+    /**
+     * ID dei Role da assegnare; l’esistenza viene verificata con una sola query per l’intera richiesta.
+     * IDs of the Roles to assign; existence is checked with a single query for the whole request.
+     */
+    @NotEmpty(message = "roleIds non può essere vuoto / roleIds cannot be empty")
+    private Set<Long> roleIds;
+}
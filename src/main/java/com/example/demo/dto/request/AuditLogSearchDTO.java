@@ -0,0 +1,51 @@
+package com.example.demo.dto.request;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * Filtri della ricerca nei log di audit; i campi {@code null} non filtrano.
+ * Audit log search filters; {@code null} fields do not filter.
+ */
+@Getter
+@Setter
+public class AuditLogSearchDTO {
+
+    /**
+     * Nome dell’entità modificata (es. "Account").
+     * Modified entity name (e.g. "Account").
+     */
+    private String entityName;
+
+    /**
+     * ID dell’entità modificata.
+     * Modified entity ID.
+     */
+    private Long entityId;
+
+    /**
+     * ID dell’account autore della modifica.
+     * ID of the account that made the change.
+     */
+    private Long changedBy;
+
+    /**
+     * Azione eseguita (CREATE, UPDATE, DELETE, ...).
+     * Action performed (CREATE, UPDATE, DELETE, ...).
+     */
+    private String action;
+
+    /**
+     * Inizio dell’intervallo, incluso.
+     * Range start, inclusive.
+     */
+    private Instant from;
+
+    /**
+     * Fine dell’intervallo, esclusa.
+     * Range end, exclusive.
+     */
+    private Instant to;
+}
@@ -0,0 +1,32 @@
+package com.example.demo.dto.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Richiesta di provisioning a lotti di persone e account.
+ * Bulk provisioning request for personas and accounts.
+ *
+ * <p>Gli elementi non sono validati con {@code @Valid}: gli errori di un elemento finiscono nel report invece di
+ * rifiutare l’intera richiesta.</p>
+ * <p>Items are not validated with {@code @Valid}: the errors of one item end up in the report instead of rejecting
+ * the whole request.</p>
+ */
+@Setter
+@Getter
+public class BulkAccountProvisioningDTO {
+
+    /**
+     * Numero massimo di elementi per richiesta.
+     * Maximum number of items per request.
+     */
+    public static final int MAX_ITEMS = 1000;
+
+    @NotEmpty(message = "items non può essere vuoto / items cannot be empty")
+    @Size(max = MAX_ITEMS, message = "al massimo " + MAX_ITEMS + " elementi per richiesta / at most " + MAX_ITEMS + " items per request")
+    private List<AccountProvisioningItemDTO> items;
+}
@@ -0,0 +1,18 @@
+package com.example.demo.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+/**
+ * DTO per la richiesta di rinnovo dell’access token tramite refresh token.
+ *
+ * <p><strong>English:</strong> DTO for renewing the access token with a refresh token.</p>
+ */
+@Data
+public class RefreshRequestDTO {
+
+    @Schema(description = "Refresh token ricevuto al login o all'ultimo rinnovo | Refresh token received at login or at the last renewal", required = true)
+    @NotBlank(message = "Refresh token non può essere vuoto | Refresh token cannot be blank")
+    private String refreshToken;
+}
@@ -0,0 +1,45 @@
+package com.example.demo.dto.response;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Esito di un elemento del provisioning a lotti.
+ * Outcome of a bulk provisioning item.
+ */
+@Getter
+@Setter
+public class AccountProvisioningResultDTO {
+
+    /**
+     * Esito dell’elemento.
+     * Item outcome.
+     */
+    public enum Status {
+        CREATED,
+        FAILED
+    }
+
+    /**
+     * Posizione dell’elemento nella richiesta (da 0).
+     * Position of the item in the request (0-based).
+     */
+    private int index;
+
+    private String username;
+
+    private Status status;
+
+    private Long personaId;
+
+    private Long accountId;
+
+    /**
+     * Motivi del fallimento; vuoto se l’elemento è stato creato.
+     * Failure reasons; empty if the item was created.
+     */
+    private List<String> errors = new ArrayList<>();
+}
@@ -0,0 +1,23 @@
+package com.example.demo.dto.response;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Report del provisioning a lotti: conteggi ed esito di ogni elemento, nell’ordine della richiesta.
+ * Bulk provisioning report: counts and the outcome of every item, in request order.
+ */
+@Getter
+@Setter
+public class BulkProvisioningReportDTO {
+
+    private int requested;
+
+    private int created;
+
+    private int failed;
+
+    private List<AccountProvisioningResultDTO> items;
+}
@@ -0,0 +1,39 @@
+package com.example.demo.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * DTO di risposta per la paginazione a cursore.
+ * Response DTO for cursor pagination.
+ *
+ * @param <T> Tipo degli elementi / Item type
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageDTO<T> {
+
+    /**
+     * Elementi della pagina, ordinati per ID.
+     * Page items, ordered by ID.
+     */
+    private List<T> items;
+
+    /**
+     * Token opaco da passare come parametro cursor per la pagina successiva (null se non ci sono altre pagine).
+     * Opaque token to pass as the cursor parameter for the next page (null when there are no more pages).
+     */
+    private String nextCursor;
+
+    /**
+     * Indica se esistono altri elementi dopo questa pagina.
+     * Whether more items exist after this page.
+     */
+    private boolean hasNext;
+}
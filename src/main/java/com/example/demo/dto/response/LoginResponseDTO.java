@@ -38,4 +38,7 @@ public class LoginResponseDTO {
 
     @Schema(description = "Token JWT per le richieste protette | JWT token for protected requests", example = "eyJhbGciOiJIUzI1NiIsInR5cCI6IkpXVCJ9...")
     private String token;
+
+    @Schema(description = "Refresh token opaco, valido per un solo uso | Opaque single-use refresh token", example = "q7yJx0...")
+    private String refreshToken;
 }
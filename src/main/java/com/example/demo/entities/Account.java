@@ -10,6 +10,7 @@ import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.Instant;
+import java.util.Locale;
 import java.util.Set;
 
 /**
@@ -18,21 +19,43 @@ import java.util.Set;
  */
 @Schema(name = "Account", description = "Entità che rappresenta un account utente | Entity representing a user account")
 @Entity
-@Table(name = "accounts")
+@Table(name = "accounts", indexes = {
+        @Index(name = "idx_accounts_username_normalized", columnList = "username_normalized"),
+        @Index(name = "idx_accounts_persona_id", columnList = "persona_id"),
+        @Index(name = "idx_accounts_locked_until", columnList = "locked_until")
+})
+@NamedEntityGraph(name = Account.GRAPH_LIST, attributeNodes = @NamedAttributeNode("persona"))
+@NamedEntityGraph(name = Account.GRAPH_DETAIL, attributeNodes = {
+        @NamedAttributeNode("persona"),
+        @NamedAttributeNode(value = "roles", subgraph = "roles")
+}, subgraphs = @NamedSubgraph(name = "roles", attributeNodes = @NamedAttributeNode("permissions")))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-public class Account {
+public class Account implements Identifiable {
 
+    /**
+     * Piano di fetch per pagine: persona in join; i ruoli EAGER sono caricati a lotti (default_batch_fetch_size).
+     * Fetch plan for pages: persona joined; EAGER roles are loaded in batches (default_batch_fetch_size).
+     */
+    public static final String GRAPH_LIST = "Account.list";
 
     /**
-     * Identificativo univoco dell'account.
-     * Unique identifier of the account.
+     * Piano di fetch per il singolo account: persona, ruoli e permessi in un’unica query.
+     * Fetch plan for a single account: persona, roles and permissions in a single query.
+     */
+    public static final String GRAPH_DETAIL = "Account.detail";
+
+
+    /**
+     * Identificativo univoco dell'account. Generato da sequenza a blocchi di 50, così gli inserimenti possono essere raggruppati in batch JDBC.
+     * Unique identifier of the account. Generated from a sequence in blocks of 50, so inserts can be grouped into JDBC batches.
      */
     @Schema(description = "Identificativo univoco dell'account | Unique account identifier", example = "1", required = true)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "accounts_seq")
+    @SequenceGenerator(name = "accounts_seq", sequenceName = "accounts_seq", allocationSize = 50)
     private Long id;
 
     /**
@@ -43,6 +66,14 @@ public class Account {
     @Column(length = 50, nullable = false, unique = true)
     private String username;
 
+    /**
+     * Username in minuscolo, mantenuto automaticamente, usato per le ricerche case-insensitive indicizzate.
+     * Lower-cased username, maintained automatically, used for indexed case-insensitive lookups.
+     */
+    @Schema(hidden = true)
+    @Column(name = "username_normalized", length = 50)
+    private String usernameNormalized;
+
     /**
      * Hash della password (obbligatorio).
      * Password hash (required).
@@ -90,6 +121,14 @@ public class Account {
     @Column(name = "locked_until")
     private Instant lockedUntil;
 
+    /**
+     * Versione dello stato di sicurezza, incrementata a ogni modifica rilevante (ruoli, password, blocco, abilitazione).
+     * Security state version, incremented on every relevant change (roles, password, lock, enablement).
+     */
+    @Schema(description = "Versione dello stato di sicurezza dell'account | Account security state version", example = "0", accessMode = Schema.AccessMode.READ_ONLY)
+    @Column(name = "token_version")
+    private Integer tokenVersion;
+
     /**
      * Istante di creazione dell'account (readonly).
      * Account creation timestamp (readonly).
@@ -126,7 +165,29 @@ public class Account {
     @JoinTable(
             name = "account_role",
             joinColumns = @JoinColumn(name = "account_id"),
-            inverseJoinColumns = @JoinColumn(name = "role_id")
+            inverseJoinColumns = @JoinColumn(name = "role_id"),
+            indexes = @Index(name = "idx_account_role_role_id", columnList = "role_id, account_id")
     )
     private Set<Role> roles;
+
+    /**
+     * Allinea usernameNormalized a username prima di ogni inserimento o aggiornamento.
+     * Aligns usernameNormalized with username before every insert or update.
+     */
+    @PrePersist
+    @PreUpdate
+    void normalizeUsername() {
+        this.usernameNormalized = normalize(username);
+    }
+
+    /**
+     * Forma normalizzata di uno username (minuscolo, Locale.ROOT).
+     * Normalized form of a username (lower case, Locale.ROOT).
+     *
+     * @param username Username da normalizzare / Username to normalize
+     * @return Username normalizzato o null / Normalized username or null
+     */
+    public static String normalize(String username) {
+        return username != null ? username.toLowerCase(Locale.ROOT) : null;
+    }
 }
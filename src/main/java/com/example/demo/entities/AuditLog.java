@@ -16,12 +16,17 @@ import java.time.Instant;
  */
 @Schema(name = "AuditLog", description = "Entità per i log di audit | Entity for audit logs")
 @Entity
-@Table(name = "audit_Logs")
+@Table(name = "audit_Logs", indexes = {
+        @Index(name = "idx_audit_entity_time", columnList = "entity_name, entity_id, timestamp, id"),
+        @Index(name = "idx_audit_actor_time", columnList = "changed_by_id, timestamp, id"),
+        @Index(name = "idx_audit_action_time", columnList = "action, timestamp, id"),
+        @Index(name = "idx_audit_time", columnList = "timestamp, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-public class AuditLog {
+public class AuditLog implements Identifiable {
 
     /**
      * Identificativo del log.
@@ -57,12 +62,16 @@ public class AuditLog {
     private String action;
 
     /**
-     * Account che ha effettuato la modifica.
-     * Account who performed the change.
+     * Account che ha effettuato la modifica. Senza vincolo di chiave esterna: le tabelle partizionate non
+     * lo supportano e lo storico non deve impedire la cancellazione di un account. LAZY: i DTO leggono solo
+     * l’ID dal proxy, senza caricare account, persona e ruoli.
+     * Account who performed the change. No foreign key constraint: partitioned tables do not support it and
+     * history must not prevent an account from being deleted. LAZY: DTOs only read the ID from the proxy,
+     * without loading account, persona and roles.
      */
     @Schema(description = "Utente che ha effettuato la modifica | User who performed the change")
-    @ManyToOne
-    @JoinColumn(name = "changed_by_id")
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "changed_by_id", foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     private Account changedBy;
 
     /**
@@ -71,7 +80,7 @@ public class AuditLog {
      */
     @Schema(description = "Timestamp del log | Log timestamp", accessMode = Schema.AccessMode.READ_ONLY)
     @CreatedDate
-    @Column(name = "timestamp", updatable = false)
+    @Column(name = "timestamp", nullable = false, updatable = false)
     private Instant timestamp;
 
     /**
@@ -81,4 +90,15 @@ public class AuditLog {
     @Schema(description = "Dettagli della modifica | Change details", example = "{\"field\":\"username\",\"old\":\"oldUser\",\"new\":\"newUser\"}")
     @Column(columnDefinition = "TEXT")
     private String details;
+
+    /**
+     * Valorizza il timestamp se assente: è la chiave di partizionamento di {@code audit_Logs}.
+     * Sets the timestamp when missing: it is the partitioning key of {@code audit_Logs}.
+     */
+    @PrePersist
+    void stampTimestamp() {
+        if (timestamp == null) {
+            timestamp = Instant.now();
+        }
+    }
 }
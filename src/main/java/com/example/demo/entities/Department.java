@@ -18,11 +18,18 @@ import java.util.Set;
 @Schema(name = "Department", description = "Entità che rappresenta un dipartimento | Entity representing a department")
 @Entity
 @Table(name = "departments")
+@NamedEntityGraph(name = Department.GRAPH_LIST, attributeNodes = @NamedAttributeNode("manager"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-public class Department {
+public class Department implements Identifiable {
+
+    /**
+     * Piano di fetch per liste e dettaglio: responsabile in join, persone via CollectionIdAssembler.
+     * Fetch plan for lists and detail: manager joined, personas via CollectionIdAssembler.
+     */
+    public static final String GRAPH_LIST = "Department.list";
 
     /**
      * Identificativo del dipartimento.
@@ -0,0 +1,18 @@
+package com.example.demo.entities;
+
+/**
+ * Contratto comune delle entità con chiave primaria {@code Long}.
+ * Permette di leggere l’ID senza reflection (ad es. in EntityMapper.toIdSet) e, sui proxy lazy
+ * di Hibernate, senza inizializzare l’entità.
+ *
+ * Common contract of entities with a {@code Long} primary key.
+ * Allows reading the ID without reflection (e.g. in EntityMapper.toIdSet) and, on Hibernate lazy
+ * proxies, without initialising the entity.
+ */
+public interface Identifiable {
+
+    /**
+     * @return Identificativo dell’entità / Entity identifier
+     */
+    Long getId();
+}
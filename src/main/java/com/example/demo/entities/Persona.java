@@ -21,19 +21,31 @@ import java.util.Set;
 @Schema(name = "Persona", description = "Entità che rappresenta una persona | Entity representing a person")
 @Entity
 @Table(name = "personas")
+@NamedEntityGraph(name = Persona.GRAPH_LIST, attributeNodes = {
+        @NamedAttributeNode("account"),
+        @NamedAttributeNode("department"),
+        @NamedAttributeNode("position")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-public class Persona {
+public class Persona implements Identifiable {
 
     /**
-     * Identificativo della persona.
-     * Person identifier.
+     * Piano di fetch per liste e dettaglio: associazioni to-one in join, collezioni via CollectionIdAssembler.
+     * Fetch plan for lists and detail: to-one associations joined, collections via CollectionIdAssembler.
+     */
+    public static final String GRAPH_LIST = "Persona.list";
+
+    /**
+     * Identificativo della persona. Generato da sequenza a blocchi di 50, così gli inserimenti possono essere raggruppati in batch JDBC.
+     * Person identifier. Generated from a sequence in blocks of 50, so inserts can be grouped into JDBC batches.
      */
     @Schema(description = "ID della persona | Person ID", example = "1", required = true)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "personas_seq")
+    @SequenceGenerator(name = "personas_seq", sequenceName = "personas_seq", allocationSize = 50)
     private Long id;
 
     /**
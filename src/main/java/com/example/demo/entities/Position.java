@@ -20,7 +20,7 @@ import java.util.Set;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-public class Position {
+public class Position implements Identifiable {
 
     /**
      * Identificativo della posizione.
@@ -0,0 +1,96 @@
+package com.example.demo.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.Instant;
+
+/**
+ * Sessione di refresh: un refresh token opaco, memorizzato solo come hash SHA-256.
+ * Refresh session: an opaque refresh token, stored only as a SHA-256 hash.
+ *
+ * <p>Le sessioni ruotate restano con {@code revokedAt} valorizzato fino alla scadenza, così il riuso di un token
+ * già ruotato viene riconosciuto e revoca l’intera famiglia. Non vengono registrate in {@code audit_Logs}.</p>
+ * <p>Rotated sessions are kept with {@code revokedAt} set until they expire, so reuse of an already rotated token
+ * is detected and revokes the whole family. They are not recorded in {@code audit_Logs}.</p>
+ */
+@Entity
+@Table(name = "refresh_sessions", indexes = {
+        @Index(name = "idx_refresh_sessions_token_hash", columnList = "token_hash", unique = true),
+        @Index(name = "idx_refresh_sessions_account", columnList = "account_id"),
+        @Index(name = "idx_refresh_sessions_family", columnList = "family_id"),
+        @Index(name = "idx_refresh_sessions_expires", columnList = "expires_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RefreshSession implements Identifiable {
+
+    /**
+     * Identificativo della sessione.
+     * Session identifier.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Account proprietario; le sessioni vengono eliminate insieme all’account.
+     * Owning account; sessions are deleted together with the account.
+     */
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "account_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    @ToString.Exclude
+    private Account account;
+
+    /**
+     * SHA-256 del refresh token; il token in chiaro non viene mai salvato.
+     * SHA-256 of the refresh token; the plain token is never stored.
+     */
+    @Column(name = "token_hash", length = 32, nullable = false)
+    @ToString.Exclude
+    private byte[] tokenHash;
+
+    /**
+     * Famiglia di rotazione: tutte le sessioni nate dallo stesso login.
+     * Rotation family: all sessions born from the same login.
+     */
+    @Column(name = "family_id", nullable = false)
+    private Long familyId;
+
+    /**
+     * Versione dello stato di sicurezza dell’account all’emissione; se cambia, la sessione non è più valida.
+     * Account security state version at issue time; if it changes, the session is no longer valid.
+     */
+    @Column(name = "token_version", nullable = false)
+    private Integer tokenVersion;
+
+    /**
+     * Istante di emissione.
+     * Issue instant.
+     */
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    /**
+     * Istante di scadenza.
+     * Expiration instant.
+     */
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    /**
+     * Istante di rotazione o revoca, {@code null} se la sessione è attiva.
+     * Rotation or revocation instant, {@code null} if the session is active.
+     */
+    @Column(name = "revoked_at")
+    private Instant revokedAt;
+}
@@ -0,0 +1,57 @@
+package com.example.demo.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Access token revocato prima della scadenza, identificato dal claim {@code jti}.
+ * Access token revoked before expiry, identified by its {@code jti} claim.
+ *
+ * <p>La riga serve solo fino alla scadenza del token, poi viene eliminata.</p>
+ * <p>The row is only needed until the token expires, then it is deleted.</p>
+ */
+@Entity
+@Table(name = "revoked_tokens", indexes = {
+        @Index(name = "idx_revoked_tokens_revoked_at", columnList = "revoked_at"),
+        @Index(name = "idx_revoked_tokens_expires_at", columnList = "expires_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RevokedToken {
+
+    /**
+     * Claim {@code jti} del token revocato.
+     * {@code jti} claim of the revoked token.
+     */
+    @Id
+    @Column(name = "token_id", length = 36)
+    private String tokenId;
+
+    /**
+     * Account a cui apparteneva il token, se noto.
+     * Account the token belonged to, if known.
+     */
+    @Column(name = "account_id")
+    private Long accountId;
+
+    /**
+     * Istante di revoca; usato per allineare gli altri nodi.
+     * Revocation instant; used to bring the other nodes up to date.
+     */
+    @Column(name = "revoked_at", nullable = false)
+    private Instant revokedAt;
+
+    /**
+     * Scadenza del token: oltre questo istante la riga non serve più.
+     * Token expiration: past this instant the row is no longer needed.
+     */
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+}
@@ -17,11 +17,27 @@ import java.time.LocalDate;
 @Schema(name = "Task", description = "Entità che rappresenta un task | Entity representing a task")
 @Entity
 @Table(name = "tasks")
+@NamedEntityGraph(name = Task.GRAPH_LIST, attributeNodes = {
+        @NamedAttributeNode(value = "assignedTo", subgraph = "assignedTo"),
+        @NamedAttributeNode("project")
+}, subgraphs = @NamedSubgraph(name = "assignedTo", attributeNodes = {
+        @NamedAttributeNode("account"),
+        @NamedAttributeNode("department"),
+        @NamedAttributeNode("position")
+}))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-public class Task {
+public class Task implements Identifiable {
+
+    /**
+     * Piano di fetch per liste e dettaglio: progetto e assegnatario in join, insieme alle associazioni
+     * to-one EAGER dell’assegnatario (account, dipartimento, posizione).
+     * Fetch plan for lists and detail: project and assignee joined, together with the assignee's
+     * EAGER to-one associations (account, department, position).
+     */
+    public static final String GRAPH_LIST = "Task.list";
 
     /**
      * Identificativo del task.
@@ -21,7 +21,7 @@ import java.util.Set;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-public class Team {
+public class Team implements Identifiable {
 
     /**
      * Identificativo del team.
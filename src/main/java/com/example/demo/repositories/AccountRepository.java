@@ -1,9 +1,19 @@
 package com.example.demo.repositories;
 
 import com.example.demo.entities.Account;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 
@@ -15,7 +25,93 @@ import java.util.Optional;
  * Provides basic CRUD methods and all query operations offered by JpaRepository.
  */
 @Repository
-public interface AccountRepository extends JpaRepository<Account, Long> {
+public interface AccountRepository extends JpaRepository<Account, Long>, CursorRepository<Account> {
     Optional<Account> findByUsername(String username);
 
+    /**
+     * Account per il dettaglio: persona, ruoli e permessi in un’unica query.
+     * Account for the detail view: persona, roles and permissions in a single query.
+     */
+    @EntityGraph(Account.GRAPH_DETAIL)
+    Optional<Account> findDetailById(Long id);
+
+    /**
+     * Pagina di account per le liste, con la persona in join.
+     * Page of accounts for lists, with the persona joined.
+     */
+    @EntityGraph(Account.GRAPH_LIST)
+    Page<Account> findListPageBy(Pageable pageable);
+
+    @Override
+    @EntityGraph(Account.GRAPH_LIST)
+    Slice<Account> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    /**
+     * Ricerca case-insensitive sulla colonna indicizzata username_normalized.
+     * Case-insensitive lookup on the indexed username_normalized column.
+     */
+    @Query("select a from Account a where a.usernameNormalized = :normalized")
+    Optional<Account> findByUsernameNormalized(@Param("normalized") String normalized);
+
+    /**
+     * Ricerca case-insensitive per username.
+     * Case-insensitive lookup by username.
+     */
+    default Optional<Account> findByUsernameIgnoreCase(String username) {
+        return findByUsernameNormalized(Account.normalize(username));
+    }
+
+    /**
+     * Come {@link #findByUsernameNormalized(String)}, con il piano di fetch del dettaglio.
+     * Like {@link #findByUsernameNormalized(String)}, with the detail fetch plan.
+     */
+    @EntityGraph(Account.GRAPH_DETAIL)
+    @Query("select a from Account a where a.usernameNormalized = :normalized")
+    Optional<Account> findDetailByUsernameNormalized(@Param("normalized") String normalized);
+
+    /**
+     * Username normalizzati già presenti tra quelli indicati, con una sola query (provisioning a lotti).
+     * Normalized usernames already present among the given ones, with a single query (bulk provisioning).
+     */
+    @Query("select a.usernameNormalized from Account a where a.usernameNormalized in :normalized")
+    List<String> findExistingUsernamesNormalized(@Param("normalized") Collection<String> normalized);
+
+    /**
+     * Valorizza username_normalized per le righe create prima dell’introduzione della colonna.
+     * Fills username_normalized for rows created before the column was introduced.
+     */
+    @Modifying
+    @Query("update Account a set a.usernameNormalized = lower(a.username) where a.usernameNormalized is null")
+    int backfillUsernameNormalized();
+
+    /**
+     * Account associati a una persona (indice su persona_id).
+     * Accounts linked to a persona (index on persona_id).
+     */
+    @EntityGraph(Account.GRAPH_LIST)
+    Page<Account> findByPersonaId(Long personaId, Pageable pageable);
+
+    /**
+     * Account che possiedono un ruolo, tramite join su account_role (indice su role_id).
+     * Accounts holding a role, via join on account_role (index on role_id).
+     */
+    @EntityGraph(Account.GRAPH_LIST)
+    @Query(value = "select a from Account a join a.roles r where r.id = :roleId",
+            countQuery = "select count(a) from Account a join a.roles r where r.id = :roleId")
+    Page<Account> findByRoleId(@Param("roleId") Long roleId, Pageable pageable);
+
+    /**
+     * Account bloccati oltre l’istante indicato (indice su locked_until).
+     * Accounts locked beyond the given instant (index on locked_until).
+     */
+    @EntityGraph(Account.GRAPH_LIST)
+    Page<Account> findByLockedUntilAfter(Instant instant, Pageable pageable);
+
+    /**
+     * Legge solo la versione dello stato di sicurezza dell’account (lookup per chiave primaria).
+     * Reads only the account security state version (primary key lookup).
+     */
+    @Query("select coalesce(a.tokenVersion, 0) from Account a where a.id = :id")
+    Optional<Integer> findTokenVersionById(@Param("id") Long id);
+
 }
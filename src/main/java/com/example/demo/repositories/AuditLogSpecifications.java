@@ -0,0 +1,71 @@
+package com.example.demo.repositories;
+
+import com.example.demo.dto.request.AuditLogSearchDTO;
+import com.example.demo.entities.AuditLog;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Specification per la ricerca nei log di audit, pensate per gli indici compositi di {@code audit_Logs}.
+ *
+ * <p><strong>English:</strong> Specifications for the audit log search, designed around the composite indexes
+ * of {@code audit_Logs}.</p>
+ * <p><strong>Italiano:</strong> Specification per la ricerca nei log di audit, pensate per gli indici compositi di
+ * {@code audit_Logs}.</p>
+ *
+ * <p>I filtri di uguaglianza (entità, autore, azione) seguiti dall’intervallo su {@code timestamp} e
+ * dall’ordinamento {@code (timestamp, id)} decrescente corrispondono al prefisso di un indice: la query
+ * diventa una scansione di intervallo sull’indice, senza filesort. Il filtro sull’autore usa la colonna FK
+ * senza join su {@code accounts}.</p>
+ * <p><strong>English:</strong> Equality filters (entity, author, action) followed by the {@code timestamp} range
+ * and the descending {@code (timestamp, id)} order match an index prefix: the query becomes an index range scan
+ * with no filesort. The author filter uses the FK column without joining {@code accounts}.</p>
+ */
+public final class AuditLogSpecifications {
+
+    private AuditLogSpecifications() {
+    }
+
+    /**
+     * Combina in AND tutti i filtri valorizzati.
+     * ANDs together all the filters that are set.
+     */
+    public static Specification<AuditLog> matching(AuditLogSearchDTO filter) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (filter.getEntityName() != null) {
+                predicates.add(cb.equal(root.get("entityName"), filter.getEntityName()));
+            }
+            if (filter.getEntityId() != null) {
+                predicates.add(cb.equal(root.get("entityId"), filter.getEntityId()));
+            }
+            if (filter.getChangedBy() != null) {
+                predicates.add(cb.equal(root.get("changedBy").get("id"), filter.getChangedBy()));
+            }
+            if (filter.getAction() != null) {
+                predicates.add(cb.equal(root.get("action"), filter.getAction()));
+            }
+            if (filter.getFrom() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("timestamp"), filter.getFrom()));
+            }
+            if (filter.getTo() != null) {
+                predicates.add(cb.lessThan(root.get("timestamp"), filter.getTo()));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    /**
+     * Righe successive alla posizione {@code (timestamp, id)} nell’ordine decrescente.
+     * Rows after the {@code (timestamp, id)} position in descending order.
+     */
+    public static Specification<AuditLog> before(Instant timestamp, long id) {
+        return (root, query, cb) -> cb.or(
+                cb.lessThan(root.get("timestamp"), timestamp),
+                cb.and(cb.equal(root.get("timestamp"), timestamp), cb.lessThan(root.get("id"), id)));
+    }
+}
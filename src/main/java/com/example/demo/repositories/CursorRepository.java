@@ -0,0 +1,25 @@
+package com.example.demo.repositories;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.repository.NoRepositoryBean;
+import org.springframework.data.repository.Repository;
+
+/**
+ * Frammento di repository per la paginazione a cursore (seek per ID).
+ * Restituisce uno Slice, quindi non esegue la query di conteggio.
+ *
+ * Repository fragment for cursor (seek-by-id) pagination.
+ * Returns a Slice, so no count query is executed.
+ *
+ * @param <T> Tipo dell’entità / Entity type
+ */
+@NoRepositoryBean
+public interface CursorRepository<T> extends Repository<T, Long> {
+
+    /**
+     * Righe con ID maggiore dell’ultimo ID letto, in ordine di ID (usa l’indice della chiave primaria).
+     * Rows with an ID greater than the last ID read, in ID order (uses the primary key index).
+     */
+    Slice<T> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+}
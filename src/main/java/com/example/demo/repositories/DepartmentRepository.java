@@ -1,9 +1,37 @@
 package com.example.demo.repositories;
 
 import com.example.demo.entities.Department;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface DepartmentRepository extends JpaRepository<Department, Long> {
+
+    /**
+     * Tutte le righe per la lista, con il piano di fetch {@link Department#GRAPH_LIST}.
+     * All rows for the list, with the {@link Department#GRAPH_LIST} fetch plan.
+     */
+    @EntityGraph(Department.GRAPH_LIST)
+    List<Department> findListBy();
+
+    /**
+     * Singola riga per il dettaglio, con il piano di fetch {@link Department#GRAPH_LIST}.
+     * Single row for the detail view, with the {@link Department#GRAPH_LIST} fetch plan.
+     */
+    @EntityGraph(Department.GRAPH_LIST)
+    Optional<Department> findDetailById(Long id);
+
+    /**
+     * ID delle persone per dipartimento (colonna personas.department_id).
+     * Persona IDs per department (personas.department_id column).
+     */
+    @Query(value = "select department_id as ownerId, id as targetId from personas where department_id in (:departmentIds)", nativeQuery = true)
+    List<IdLink> findPersonaLinks(@Param("departmentIds") Collection<Long> departmentIds);
 }
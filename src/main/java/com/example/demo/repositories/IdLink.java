@@ -0,0 +1,21 @@
+package com.example.demo.repositories;
+
+/**
+ * Proiezione minima di un’associazione: ID del proprietario e ID dell’elemento collegato.
+ * Letta direttamente dalla tabella di join o dalla colonna FK, senza caricare le entità.
+ *
+ * Minimal projection of an association: owner ID and linked item ID.
+ * Read directly from the join table or the FK column, without loading the entities.
+ */
+public interface IdLink {
+
+    /**
+     * @return ID dell’entità proprietaria / Owner entity ID
+     */
+    Long getOwnerId();
+
+    /**
+     * @return ID dell’entità collegata / Linked entity ID
+     */
+    Long getTargetId();
+}
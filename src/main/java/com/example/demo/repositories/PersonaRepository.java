@@ -1,9 +1,64 @@
 package com.example.demo.repositories;
 
 import com.example.demo.entities.Persona;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
 @Repository
-public interface PersonaRepository extends JpaRepository<Persona, Long> {
+public interface PersonaRepository extends JpaRepository<Persona, Long>, CursorRepository<Persona>, StreamingRepository<Persona> {
+
+    /**
+     * Tutte le righe per la lista, con il piano di fetch {@link Persona#GRAPH_LIST}.
+     * All rows for the list, with the {@link Persona#GRAPH_LIST} fetch plan.
+     */
+    @EntityGraph(Persona.GRAPH_LIST)
+    List<Persona> findListBy();
+
+    /**
+     * Singola riga per il dettaglio, con il piano di fetch {@link Persona#GRAPH_LIST}.
+     * Single row for the detail view, with the {@link Persona#GRAPH_LIST} fetch plan.
+     */
+    @EntityGraph(Persona.GRAPH_LIST)
+    Optional<Persona> findDetailById(Long id);
+
+    @Override
+    @EntityGraph(Persona.GRAPH_LIST)
+    Slice<Persona> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    @Override
+    @EntityGraph(Persona.GRAPH_LIST)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("select e from Persona e order by e.id")
+    Stream<Persona> streamAll();
+
+    /**
+     * ID dei team per persona (tabella persona_team).
+     * Team IDs per persona (persona_team table).
+     */
+    @Query(value = "select persona_id as ownerId, team_id as targetId from persona_team where persona_id in (:personaIds)", nativeQuery = true)
+    List<IdLink> findTeamLinks(@Param("personaIds") Collection<Long> personaIds);
+
+    /**
+     * ID dei progetti per persona (tabella persona_project).
+     * Project IDs per persona (persona_project table).
+     */
+    @Query(value = "select persona_id as ownerId, project_id as targetId from persona_project where persona_id in (:personaIds)", nativeQuery = true)
+    List<IdLink> findProjectLinks(@Param("personaIds") Collection<Long> personaIds);
 }
@@ -2,8 +2,20 @@ package com.example.demo.repositories;
 
 import com.example.demo.entities.Position;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface PositionRepository extends JpaRepository<Position, Long> {
+
+    /**
+     * ID delle persone per posizione (colonna personas.position_id).
+     * Persona IDs per position (personas.position_id column).
+     */
+    @Query(value = "select position_id as ownerId, id as targetId from personas where position_id in (:positionIds)", nativeQuery = true)
+    List<IdLink> findPersonaLinks(@Param("positionIds") Collection<Long> positionIds);
 }
@@ -2,8 +2,27 @@ package com.example.demo.repositories;
 
 import com.example.demo.entities.Project;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
-public interface ProjectRepository extends JpaRepository<Project, Long> {
+public interface ProjectRepository extends JpaRepository<Project, Long>, CursorRepository<Project> {
+
+    /**
+     * ID dei membri per progetto (tabella persona_project).
+     * Member IDs per project (persona_project table).
+     */
+    @Query(value = "select project_id as ownerId, persona_id as targetId from persona_project where project_id in (:projectIds)", nativeQuery = true)
+    List<IdLink> findTeamMemberLinks(@Param("projectIds") Collection<Long> projectIds);
+
+    /**
+     * ID dei task per progetto (colonna tasks.project_id).
+     * Task IDs per project (tasks.project_id column).
+     */
+    @Query(value = "select project_id as ownerId, id as targetId from tasks where project_id in (:projectIds)", nativeQuery = true)
+    List<IdLink> findTaskLinks(@Param("projectIds") Collection<Long> projectIds);
 }
@@ -0,0 +1,47 @@
+package com.example.demo.repositories;
+
+import com.example.demo.entities.RefreshSession;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Optional;
+
+@Repository
+public interface RefreshSessionRepository extends JpaRepository<RefreshSession, Long> {
+
+    /**
+     * Sessione per hash del token (indice univoco), con account, ruoli e permessi in un’unica query.
+     * Session by token hash (unique index), with account, roles and permissions in a single query.
+     */
+    @EntityGraph(attributePaths = {"account", "account.roles", "account.roles.permissions"})
+    Optional<RefreshSession> findByTokenHash(byte[] tokenHash);
+
+    /**
+     * Marca la sessione come ruotata solo se è ancora attiva; 0 righe = già usata da un’altra richiesta.
+     * Marks the session as rotated only if it is still active; 0 rows = already used by another request.
+     */
+    @Modifying
+    @Query("update RefreshSession s set s.revokedAt = :now where s.id = :id and s.revokedAt is null")
+    int markRotated(@Param("id") Long id, @Param("now") Instant now);
+
+    /**
+     * Revoca tutte le sessioni attive di una famiglia di rotazione.
+     * Revokes all active sessions of a rotation family.
+     */
+    @Modifying
+    @Query("update RefreshSession s set s.revokedAt = :now where s.familyId = :familyId and s.revokedAt is null")
+    int revokeFamily(@Param("familyId") Long familyId, @Param("now") Instant now);
+
+    /**
+     * Elimina le sessioni scadute (indice su expires_at).
+     * Deletes expired sessions (index on expires_at).
+     */
+    @Modifying
+    @Query("delete from RefreshSession s where s.expiresAt < :now")
+    int deleteExpired(@Param("now") Instant now);
+}
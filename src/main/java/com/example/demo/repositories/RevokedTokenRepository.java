@@ -0,0 +1,37 @@
+package com.example.demo.repositories;
+
+import com.example.demo.entities.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+
+    /**
+     * ID dei token revocati non ancora scaduti, per ricostruire il filtro in memoria.
+     * IDs of revoked tokens not yet expired, to rebuild the in-memory filter.
+     */
+    @Query("select r.tokenId from RevokedToken r where r.expiresAt > :now")
+    List<String> findActiveTokenIds(@Param("now") Instant now);
+
+    /**
+     * ID dei token revocati da un certo istante (indice su revoked_at), anche da altri nodi.
+     * IDs of tokens revoked since a given instant (index on revoked_at), including by other nodes.
+     */
+    @Query("select r.tokenId from RevokedToken r where r.revokedAt >= :since")
+    List<String> findTokenIdsRevokedSince(@Param("since") Instant since);
+
+    /**
+     * Elimina le revoche di token già scaduti (indice su expires_at).
+     * Deletes revocations of already expired tokens (index on expires_at).
+     */
+    @Modifying
+    @Query("delete from RevokedToken r where r.expiresAt <= :now")
+    int deleteExpired(@Param("now") Instant now);
+}
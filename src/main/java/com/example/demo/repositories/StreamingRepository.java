@@ -0,0 +1,41 @@
+package com.example.demo.repositories;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.NoRepositoryBean;
+import org.springframework.data.repository.Repository;
+
+import jakarta.persistence.QueryHint;
+import java.util.stream.Stream;
+
+/**
+ * Frammento di repository per la lettura in streaming di un’intera tabella (esportazioni).
+ * Lo stream va consumato all’interno di una transazione e chiuso al termine.
+ *
+ * Repository fragment for streaming reads of a whole table (exports).
+ * The stream must be consumed inside a transaction and closed afterwards.
+ *
+ * @param <T> Tipo dell’entità / Entity type
+ */
+@NoRepositoryBean
+public interface StreamingRepository<T> extends Repository<T, Long> {
+
+    /**
+     * Tutte le righe in ordine di ID su un cursore forward-only, {@value #FETCH_SIZE} righe per round-trip.
+     * Con MySQL Connector/J il cursore lato server richiede useCursorFetch=true nell’URL JDBC.
+     *
+     * All rows in ID order over a forward-only cursor, {@value #FETCH_SIZE} rows per round-trip.
+     * With MySQL Connector/J the server-side cursor requires useCursorFetch=true in the JDBC URL.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("select e from #{#entityName} e order by e.id")
+    Stream<T> streamAll();
+
+    /** Righe lette per round-trip / Rows fetched per round-trip. */
+    String FETCH_SIZE = "500";
+}
@@ -1,9 +1,48 @@
 package com.example.demo.repositories;
 
 import com.example.demo.entities.Task;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
 @Repository
-public interface TaskRepository extends JpaRepository<Task, Long> {
+public interface TaskRepository extends JpaRepository<Task, Long>, CursorRepository<Task>, StreamingRepository<Task> {
+
+    /**
+     * Tutte le righe per la lista, con il piano di fetch {@link Task#GRAPH_LIST}.
+     * All rows for the list, with the {@link Task#GRAPH_LIST} fetch plan.
+     */
+    @EntityGraph(Task.GRAPH_LIST)
+    List<Task> findListBy();
+
+    /**
+     * Singola riga per il dettaglio, con il piano di fetch {@link Task#GRAPH_LIST}.
+     * Single row for the detail view, with the {@link Task#GRAPH_LIST} fetch plan.
+     */
+    @EntityGraph(Task.GRAPH_LIST)
+    Optional<Task> findDetailById(Long id);
+
+    @Override
+    @EntityGraph(Task.GRAPH_LIST)
+    Slice<Task> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    @Override
+    @EntityGraph(Task.GRAPH_LIST)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("select e from Task e order by e.id")
+    Stream<Task> streamAll();
 }
@@ -2,8 +2,20 @@ package com.example.demo.repositories;
 
 import com.example.demo.entities.Team;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface TeamRepository extends JpaRepository<Team, Long> {
+
+    /**
+     * ID dei membri per team (tabella persona_team).
+     * Member IDs per team (persona_team table).
+     */
+    @Query(value = "select team_id as ownerId, persona_id as targetId from persona_team where team_id in (:teamIds)", nativeQuery = true)
+    List<IdLink> findMemberLinks(@Param("teamIds") Collection<Long> teamIds);
 }
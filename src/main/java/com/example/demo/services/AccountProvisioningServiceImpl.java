@@ -0,0 +1,362 @@
+package com.example.demo.services;
+
+import com.example.demo.config.exceptions.ServiceBusyException;
+import com.example.demo.config.mapper.EntityMapper;
+import com.example.demo.config.security.BoundedPasswordEncoder;
+import com.example.demo.config.validation.ReferenceResolver;
+import com.example.demo.dto.PersonaDTO;
+import com.example.demo.dto.request.AccountProvisioningItemDTO;
+import com.example.demo.dto.request.BulkAccountProvisioningDTO;
+import com.example.demo.dto.response.AccountProvisioningResultDTO;
+import com.example.demo.dto.response.BulkProvisioningReportDTO;
+import com.example.demo.entities.Account;
+import com.example.demo.entities.Department;
+import com.example.demo.entities.Persona;
+import com.example.demo.entities.Position;
+import com.example.demo.entities.Role;
+import com.example.demo.repositories.AccountRepository;
+import com.example.demo.repositories.DepartmentRepository;
+import com.example.demo.repositories.PersonaRepository;
+import com.example.demo.repositories.PositionRepository;
+import com.example.demo.services.interfaces.AccountProvisioningService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Provisioning a lotti di persone e account, pensato per gli onboarding di centinaia di persone.
+ *
+ * <p><strong>English:</strong> Bulk provisioning of personas and accounts, meant for onboarding hundreds of
+ * people at once.</p>
+ * <p><strong>Italiano:</strong> Provisioning a lotti di persone e account, pensato per gli onboarding di
+ * centinaia di persone.</p>
+ *
+ * <p>Ruoli, reparti e posizioni dell’intera richiesta vengono risolti con una query ciascuno; gli username già in
+ * uso con una query per blocco. Gli elementi validi vengono scritti a blocchi di
+ * {@code accounts.provisioning.chunk-size}, ognuno nella propria transazione: gli hash BCrypt del blocco sono
+ * calcolati in parallelo sul pool di {@link BoundedPasswordEncoder} prima di aprire la transazione, e gli ID da
+ * sequenza permettono a Hibernate di inviare gli INSERT in batch JDBC. Se un blocco viola un vincolo (es. email
+ * duplicata) viene rieseguito un elemento alla volta, così solo gli elementi in conflitto risultano falliti.</p>
+ * <p><strong>English:</strong> Roles, departments and positions of the whole request are resolved with one query
+ * each; usernames already in use with one query per chunk. Valid items are written in chunks of
+ * {@code accounts.provisioning.chunk-size}, each in its own transaction: the chunk's BCrypt hashes are computed in
+ * parallel on the {@link BoundedPasswordEncoder} pool before the transaction opens, and sequence IDs let Hibernate
+ * send the INSERTs as JDBC batches. If a chunk violates a constraint (e.g. a duplicate email) it is replayed one
+ * item at a time, so only the conflicting items fail.</p>
+ */
+@Service
+@Slf4j
+public class AccountProvisioningServiceImpl implements AccountProvisioningService {
+
+    /**
+     * Errori restituiti al client per un elemento rifiutato dal database; il dettaglio del driver va solo nel log.
+     * Errors returned to the client for an item rejected by the database; the driver detail only goes to the log.
+     */
+    static final String CONFLICT_MESSAGE =
+            "username, email o codice fiscale già in uso / username, email or taxCode already in use";
+    static final String DATABASE_ERROR_MESSAGE =
+            "creazione non riuscita per un errore del database / creation failed because of a database error";
+
+    private final AccountRepository accountRepository;
+    private final PersonaRepository personaRepository;
+    private final DepartmentRepository departmentRepository;
+    private final PositionRepository positionRepository;
+    private final ReferenceResolver referenceResolver;
+    private final PasswordEncoder passwordEncoder;
+    private final EntityMapper mapper;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Riferimenti risolti per l’intera richiesta.
+     * References resolved for the whole request.
+     */
+    private record References(Map<Long, Role> roles, Map<Long, Department> departments,
+                              Map<Long, Position> positions) {
+    }
+
+    /**
+     * Costruttore con iniezione delle dipendenze.
+     * Constructor with dependency injection.
+     *
+     * @param accountRepository    repository degli account / account repository
+     * @param personaRepository    repository delle persone / persona repository
+     * @param departmentRepository repository dei reparti / department repository
+     * @param positionRepository   repository delle posizioni / position repository
+     * @param referenceResolver    risoluzione a lotti dei Role / batched Role resolution
+     * @param passwordEncoder      encoder delle password / password encoder
+     * @param mapper               mapper DTO/entità / DTO/entity mapper
+     * @param validator            validatore degli elementi / item validator
+     * @param transactionManager   gestore delle transazioni dei blocchi / transaction manager for the chunks
+     * @param chunkSize            elementi per transazione / items per transaction
+     */
+    public AccountProvisioningServiceImpl(
+            AccountRepository accountRepository,
+            PersonaRepository personaRepository,
+            DepartmentRepository departmentRepository,
+            PositionRepository positionRepository,
+            ReferenceResolver referenceResolver,
+            PasswordEncoder passwordEncoder,
+            EntityMapper mapper,
+            Validator validator,
+            PlatformTransactionManager transactionManager,
+            @Value("${accounts.provisioning.chunk-size:100}") int chunkSize
+    ) {
+        this.accountRepository = accountRepository;
+        this.personaRepository = personaRepository;
+        this.departmentRepository = departmentRepository;
+        this.positionRepository = positionRepository;
+        this.referenceResolver = referenceResolver;
+        this.passwordEncoder = passwordEncoder;
+        this.mapper = mapper;
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    @Override
+    public BulkProvisioningReportDTO provision(BulkAccountProvisioningDTO request) {
+        List<AccountProvisioningItemDTO> items = request.getItems();
+        List<AccountProvisioningResultDTO> results = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            AccountProvisioningResultDTO result = new AccountProvisioningResultDTO();
+            result.setIndex(i);
+            result.setUsername(items.get(i) != null ? items.get(i).getUsername() : null);
+            results.add(result);
+        }
+
+        References references = resolveReferences(items);
+        Set<String> usernames = new HashSet<>();
+        List<Integer> accepted = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            List<String> errors = validate(items.get(i), references, usernames);
+            if (errors.isEmpty()) {
+                accepted.add(i);
+            } else {
+                fail(results.get(i), errors);
+            }
+        }
+
+        for (int from = 0; from < accepted.size(); from += chunkSize) {
+            List<Integer> chunk = accepted.subList(from, Math.min(from + chunkSize, accepted.size()));
+            provisionChunk(items, chunk, references, results);
+        }
+
+        BulkProvisioningReportDTO report = new BulkProvisioningReportDTO();
+        report.setRequested(items.size());
+        report.setCreated((int) results.stream()
+                .filter(result -> result.getStatus() == AccountProvisioningResultDTO.Status.CREATED).count());
+        report.setFailed(items.size() - report.getCreated());
+        report.setItems(results);
+        log.info("Provisioning a lotti: {} richiesti, {} creati, {} falliti",
+                report.getRequested(), report.getCreated(), report.getFailed());
+        return report;
+    }
+
+    /**
+     * Risolve ruoli, reparti e posizioni di tutti gli elementi con una query per tipo.
+     * Resolves roles, departments and positions of all items with one query per type.
+     */
+    private References resolveReferences(List<AccountProvisioningItemDTO> items) {
+        Set<Long> roleIds = new HashSet<>();
+        Set<Long> departmentIds = new HashSet<>();
+        Set<Long> positionIds = new HashSet<>();
+        for (AccountProvisioningItemDTO item : items) {
+            if (item == null) {
+                continue;
+            }
+            if (item.getRoleIds() != null) {
+                item.getRoleIds().stream().filter(Objects::nonNull).forEach(roleIds::add);
+            }
+            if (item.getPersona() != null) {
+                addIfPresent(departmentIds, item.getPersona().getDepartmentId());
+                addIfPresent(positionIds, item.getPersona().getPositionId());
+            }
+        }
+        return new References(
+                roleIds.isEmpty() ? Map.of() : referenceResolver.roles(roleIds),
+                byId(departmentIds, departmentRepository::findAllById, Department::getId),
+                byId(positionIds, positionRepository::findAllById, Position::getId));
+    }
+
+    private List<String> validate(AccountProvisioningItemDTO item, References references, Set<String> usernames) {
+        List<String> errors = new ArrayList<>();
+        if (item == null) {
+            errors.add("elemento mancante / missing item");
+            return errors;
+        }
+        validator.validate(item).stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .forEach(errors::add);
+        PersonaDTO persona = item.getPersona();
+        if (persona != null) {
+            if (persona.getFirstName() == null || persona.getFirstName().isBlank()) {
+                errors.add("persona.firstName non può essere vuoto / persona.firstName cannot be blank");
+            }
+            if (persona.getLastName() == null || persona.getLastName().isBlank()) {
+                errors.add("persona.lastName non può essere vuoto / persona.lastName cannot be blank");
+            }
+            if (persona.getDepartmentId() != null && !references.departments().containsKey(persona.getDepartmentId())) {
+                errors.add("Department not found with id: " + persona.getDepartmentId());
+            }
+            if (persona.getPositionId() != null && !references.positions().containsKey(persona.getPositionId())) {
+                errors.add("Position not found with id: " + persona.getPositionId());
+            }
+        }
+        if (item.getRoleIds() != null) {
+            item.getRoleIds().stream()
+                    .filter(roleId -> roleId == null || !references.roles().containsKey(roleId))
+                    .forEach(roleId -> errors.add("Role con id " + roleId + " non trovato"));
+        }
+        if (item.getUsername() != null && !usernames.add(Account.normalize(item.getUsername()))) {
+            errors.add("username ripetuto nella richiesta / username repeated in the request");
+        }
+        return errors;
+    }
+
+    private void provisionChunk(List<AccountProvisioningItemDTO> items, List<Integer> chunk, References references,
+                                List<AccountProvisioningResultDTO> results) {
+        Set<String> taken = new HashSet<>(accountRepository.findExistingUsernamesNormalized(chunk.stream()
+                .map(index -> Account.normalize(items.get(index).getUsername()))
+                .toList()));
+        List<Integer> pending = new ArrayList<>();
+        for (Integer index : chunk) {
+            if (taken.contains(Account.normalize(items.get(index).getUsername()))) {
+                fail(results.get(index), List.of("username già in uso / username already taken"));
+            } else {
+                pending.add(index);
+            }
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        Map<Integer, String> hashes = new HashMap<>();
+        try {
+            List<String> encoded = encodeAll(pending.stream().map(index -> items.get(index).getPassword()).toList());
+            for (int i = 0; i < pending.size(); i++) {
+                hashes.put(pending.get(i), encoded.get(i));
+            }
+        } catch (ServiceBusyException ex) {
+            pending.forEach(index -> fail(results.get(index), List.of(ex.getMessage())));
+            return;
+        }
+
+        try {
+            List<Account> saved = transactionTemplate.execute(status -> persist(items, pending, hashes, references));
+            record(pending, saved, results);
+        } catch (DataAccessException ex) {
+            log.debug("Blocco di provisioning rifiutato dal database, riprovo un elemento alla volta: {}",
+                    NestedExceptionUtils.getMostSpecificCause(ex).getMessage());
+            for (Integer index : pending) {
+                try {
+                    List<Account> saved = transactionTemplate.execute(
+                            status -> persist(items, List.of(index), hashes, references));
+                    record(List.of(index), saved, results);
+                } catch (DataAccessException itemEx) {
+                    log.warn("Elemento {} del provisioning rifiutato dal database: {}", index,
+                            NestedExceptionUtils.getMostSpecificCause(itemEx).getMessage());
+                    fail(results.get(index), List.of(itemEx instanceof DataIntegrityViolationException
+                            ? CONFLICT_MESSAGE : DATABASE_ERROR_MESSAGE));
+                }
+            }
+        } finally {
+            // Con open-in-view il persistence context dura quanto la richiesta: lo si svuota a ogni blocco
+            // With open-in-view the persistence context lives as long as the request: empty it after every chunk
+            entityManager.clear();
+        }
+    }
+
+    /**
+     * Crea persone e account di un blocco; gli INSERT partono tutti al flush finale, raggruppati per tabella.
+     * Creates the personas and accounts of a chunk; all INSERTs go out at the final flush, grouped by table.
+     */
+    private List<Account> persist(List<AccountProvisioningItemDTO> items, List<Integer> indexes,
+                                  Map<Integer, String> hashes, References references) {
+        List<Persona> personas = new ArrayList<>(indexes.size());
+        List<Account> accounts = new ArrayList<>(indexes.size());
+        for (Integer index : indexes) {
+            AccountProvisioningItemDTO item = items.get(index);
+            PersonaDTO dto = item.getPersona();
+            Persona persona = mapper.toEntity(dto);
+            persona.setId(null);
+            persona.setDepartment(dto.getDepartmentId() != null ? references.departments().get(dto.getDepartmentId()) : null);
+            persona.setPosition(dto.getPositionId() != null ? references.positions().get(dto.getPositionId()) : null);
+            personas.add(persona);
+            accounts.add(Account.builder()
+                    .username(item.getUsername())
+                    .passwordHash(hashes.get(index))
+                    .persona(persona)
+                    .roles(item.getRoleIds().stream().map(references.roles()::get).collect(Collectors.toSet()))
+                    .emailVerified(false)
+                    .enabled(true)
+                    .failedAttempts(0)
+                    .tokenVersion(0)
+                    .build());
+        }
+        personaRepository.saveAll(personas);
+        return accountRepository.saveAllAndFlush(accounts);
+    }
+
+    private List<String> encodeAll(List<String> rawPasswords) {
+        if (passwordEncoder instanceof BoundedPasswordEncoder bounded) {
+            return bounded.encodeAll(rawPasswords);
+        }
+        return rawPasswords.stream().map(passwordEncoder::encode).toList();
+    }
+
+    private static void record(List<Integer> indexes, List<Account> saved, List<AccountProvisioningResultDTO> results) {
+        for (int i = 0; i < indexes.size(); i++) {
+            AccountProvisioningResultDTO result = results.get(indexes.get(i));
+            Account account = saved.get(i);
+            result.setStatus(AccountProvisioningResultDTO.Status.CREATED);
+            result.setAccountId(account.getId());
+            result.setPersonaId(account.getPersona().getId());
+        }
+    }
+
+    private static void fail(AccountProvisioningResultDTO result, List<String> errors) {
+        result.setStatus(AccountProvisioningResultDTO.Status.FAILED);
+        result.getErrors().addAll(errors);
+    }
+
+    private static void addIfPresent(Set<Long> ids, Long id) {
+        if (id != null) {
+            ids.add(id);
+        }
+    }
+
+    private static <T> Map<Long, T> byId(Set<Long> ids, Function<Collection<Long>, List<T>> loader,
+                                         Function<T, Long> id) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        return loader.apply(ids).stream().collect(Collectors.toMap(id, Function.identity()));
+    }
+}
@@ -1,20 +1,26 @@
 package com.example.demo.services;
 
+import com.example.demo.config.catalog.RoleCatalog;
 import com.example.demo.config.exceptions.EntityNotFoundException;
 import com.example.demo.config.mapper.EntityMapper;
+import com.example.demo.config.pagination.CursorPagination;
+import com.example.demo.config.validation.ReferenceResolver;
 import com.example.demo.dto.request.AccountPasswordResetDTO;
 import com.example.demo.dto.request.CreateAccountRequestDTO;
 import com.example.demo.dto.request.UpdateAccountRequestDTO;
 import com.example.demo.dto.response.AccountResponseDTO;
 import com.example.demo.dto.response.AccountSummaryDTO;
+import com.example.demo.dto.response.CursorPageDTO;
 import com.example.demo.entities.Account;
 import com.example.demo.entities.Persona;
 import com.example.demo.entities.Role;
 import com.example.demo.repositories.AccountRepository;
 import com.example.demo.repositories.PersonaRepository;
 import com.example.demo.repositories.RoleRepository;
+import com.example.demo.services.events.AccountChangedEvent;
 import com.example.demo.services.interfaces.AccountService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -22,6 +28,9 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -37,21 +46,24 @@ public class AccountServiceImpl implements AccountService {
     private final AccountRepository accountRepository;
     private final PersonaRepository personaRepository;
     private final RoleRepository roleRepository;
+    private final RoleCatalog roleCatalog;
+    private final ReferenceResolver referenceResolver;
     private final PasswordEncoder passwordEncoder;
     private final EntityMapper mapper;
+    private final ApplicationEventPublisher eventPublisher;
 
 
     /**
      * Crea un nuovo account a partire da CreateAccountRequestDTO.
      * - Verifica che Persona esista.
-     * - Recupera i Role dal loro ID.
+     * - Recupera i Role dal loro ID con una sola query, riusando quelli già risolti dalla validazione.
      * - Effettua l’hashing della password.
      * - Costruisce e salva l’entity Account.
      * - Restituisce il DTO di risposta.
      *
      * Creates a new account from CreateAccountRequestDTO.
      * - Verifies that the Persona exists.
-     * - Retrieves the Roles by their IDs.
+     * - Retrieves the Roles by their IDs with a single query, reusing those already resolved by validation.
      * - Hashes the password.
      * - Builds and saves the Account entity.
      * - Returns the response DTO.
@@ -62,14 +74,10 @@ public class AccountServiceImpl implements AccountService {
      */
     @Override
     public AccountResponseDTO createAccount(CreateAccountRequestDTO request) {
-        Persona persona = personaRepository.findById(request.getPersonaId())
+        Persona persona = referenceResolver.persona(request.getPersonaId())
                 .orElseThrow(() -> new EntityNotFoundException(
                         "Persona con id " + request.getPersonaId() + " non trovata"));
-        Set<Role> roles = request.getRoleIds().stream()
-                .map(roleId -> roleRepository.findById(roleId)
-                        .orElseThrow(() -> new EntityNotFoundException(
-                                "Role con id " + roleId + " non trovato")))
-                .collect(Collectors.toSet());
+        Set<Role> roles = resolveRoles(request.getRoleIds());
         String encodedPassword = passwordEncoder.encode(request.getPassword());
         Account account = Account.builder()
                 .username(request.getUsername())
@@ -79,6 +87,7 @@ public class AccountServiceImpl implements AccountService {
                 .emailVerified(false)
                 .enabled(true)
                 .failedAttempts(0)
+                .tokenVersion(0)
                 .build();
         Account saved = accountRepository.save(account);
         return mapper.toAccountResponseDto(saved);
@@ -115,6 +124,7 @@ public class AccountServiceImpl implements AccountService {
     public AccountResponseDTO updateAccount(Long id, UpdateAccountRequestDTO request) {
         Account account = accountRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Account not found with id: " + id));
+        String previousUsername = account.getUsername();
         if (request.getUsername() != null && !request.getUsername().isBlank()) {
             account.setUsername(request.getUsername());
         }
@@ -122,16 +132,12 @@ public class AccountServiceImpl implements AccountService {
             account.setPasswordHash(passwordEncoder.encode(request.getPassword()));
         }
         if (request.getPersonaId() != null) {
-            Persona persona = personaRepository.findById(request.getPersonaId())
+            Persona persona = referenceResolver.persona(request.getPersonaId())
                     .orElseThrow(() -> new EntityNotFoundException("Persona con id " + request.getPersonaId() + " non trovata"));
             account.setPersona(persona);
         }
         if (request.getRoleIds() != null && !request.getRoleIds().isEmpty()) {
-            Set<Role> roles = request.getRoleIds().stream()
-                    .map(roleId -> roleRepository.findById(roleId)
-                            .orElseThrow(() -> new EntityNotFoundException("Role con id " + roleId + " non trovato")))
-                    .collect(Collectors.toSet());
-            account.setRoles(roles);
+            account.setRoles(resolveRoles(request.getRoleIds()));
         }
         if (request.getEnabled() != null) {
             account.setEnabled(request.getEnabled());
@@ -139,6 +145,7 @@ public class AccountServiceImpl implements AccountService {
         if (request.getEmailVerified() != null) {
             account.setEmailVerified(request.getEmailVerified());
         }
+        bumpTokenVersion(account, previousUsername);
         Account updated = accountRepository.save(account);
         return mapper.toAccountResponseDto(updated);
     }
@@ -157,7 +164,7 @@ public class AccountServiceImpl implements AccountService {
     @Override
     @Transactional(readOnly = true)
     public AccountResponseDTO getAccountById(Long id) {
-        Account account = accountRepository.findById(id)
+        Account account = accountRepository.findDetailById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Account not found with id: " + id));
         return mapper.toAccountResponseDto(account);
     }
@@ -173,10 +180,10 @@ public class AccountServiceImpl implements AccountService {
      */
     @Override
     public void deleteAccount(Long id) {
-        if (!accountRepository.existsById(id)) {
-            throw new EntityNotFoundException("Account not found with id: " + id);
-        }
-        accountRepository.deleteById(id);
+        Account account = accountRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Account not found with id: " + id));
+        accountRepository.delete(account);
+        eventPublisher.publishEvent(new AccountChangedEvent(account.getId(), account.getUsername()));
     }
 
 
@@ -194,10 +201,26 @@ public class AccountServiceImpl implements AccountService {
     @Override
     @Transactional(readOnly = true)
     public Page<AccountResponseDTO> getAllAccounts(Pageable pageable) {
-        return accountRepository.findAll(pageable)
+        return accountRepository.findListPageBy(pageable)
                 .map(mapper::toAccountResponseDto);
     }
 
+    /**
+     * Recupera gli account con paginazione a cursore (WHERE id > :ultimoId ORDER BY id).
+     *
+     * Retrieves accounts with cursor pagination (WHERE id > :lastId ORDER BY id).
+     *
+     * @param cursor Token della pagina precedente, null per la prima / Token from the previous page, null for the first
+     * @param size   Numero di elementi / Number of items
+     * @return CursorPageDTO<AccountResponseDTO> Pagina con il cursore successivo /
+     *         Page with the next cursor
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDTO<AccountResponseDTO> getAllAccounts(String cursor, Integer size) {
+        return CursorPagination.page(accountRepository, cursor, size, Account::getId, mapper::toAccountResponseDto);
+    }
+
    /**
      * Blocca l’account impostando lockedUntil.
      * Aggiorna lo stato e restituisce il DTO aggiornato.
@@ -220,6 +243,7 @@ public class AccountServiceImpl implements AccountService {
             throw new IllegalArgumentException("lockUntil must be in the future");
         }
         account.setLockedUntil(lockInfo.getLockUntil());
+        bumpTokenVersion(account);
         Account updated = accountRepository.save(account);
         return mapper.toAccountResponseDto(updated);
     }
@@ -239,6 +263,7 @@ public class AccountServiceImpl implements AccountService {
                 .orElseThrow(() -> new EntityNotFoundException("Account not found with id: " + id));
         account.setLockedUntil(null);
         account.setFailedAttempts(0);
+        bumpTokenVersion(account);
         Account updated = accountRepository.save(account);
         return mapper.toAccountResponseDto(updated);
     }
@@ -262,13 +287,12 @@ public class AccountServiceImpl implements AccountService {
      */
     @Override
     public AccountResponseDTO resetPassword(AccountPasswordResetDTO resetInfo) {
-        Account account = accountRepository.findAll().stream()
-                .filter(a -> a.getUsername().equals(resetInfo.getUsername()))
-                .findFirst()
+        Account account = accountRepository.findByUsername(resetInfo.getUsername())
                 .orElseThrow(() -> new EntityNotFoundException("Account with username" + resetInfo.getUsername() + "not found"));
         account.setPasswordHash(passwordEncoder.encode(resetInfo.getNewPassword()));
         account.setFailedAttempts(0);
         account.setLockedUntil(null);
+        bumpTokenVersion(account);
         Account updated = accountRepository.save(account);
         return mapper.toAccountResponseDto(updated);
     }
@@ -287,6 +311,7 @@ public class AccountServiceImpl implements AccountService {
         Account account = accountRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Account not found with id: " + id));
         account.setEmailVerified(true);
+        bumpTokenVersion(account);
         Account updated = accountRepository.save(account);
         return mapper.toAccountResponseDto(updated);
     }
@@ -305,6 +330,7 @@ public class AccountServiceImpl implements AccountService {
         Account account = accountRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Account not found with id: " + id));
         account.setEnabled(true);
+        bumpTokenVersion(account);
         Account updated = accountRepository.save(account);
         return mapper.toAccountResponseDto(updated);
     }
@@ -323,6 +349,7 @@ public class AccountServiceImpl implements AccountService {
         Account account = accountRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Account not found with id: " + id));
         account.setEnabled(false);
+        bumpTokenVersion(account);
         Account updated = accountRepository.save(account);
         return mapper.toAccountResponseDto(updated);
     }
@@ -340,10 +367,10 @@ public class AccountServiceImpl implements AccountService {
     @Override
     @Transactional(readOnly = true)
     public Page<AccountResponseDTO> getAccountsByPersona(Long personaId, Pageable pageable) {
-        Persona persona = personaRepository.findById(personaId)
-                .orElseThrow(() -> new EntityNotFoundException("Persona not found with id: " + personaId));
-        return (Page<AccountResponseDTO>) accountRepository.findAll(pageable)
-                .filter(account -> account.getPersona().getId().equals(persona.getId()))
+        if (!personaRepository.existsById(personaId)) {
+            throw new EntityNotFoundException("Persona not found with id: " + personaId);
+        }
+        return accountRepository.findByPersonaId(personaId, pageable)
                 .map(mapper::toAccountResponseDto);
     }
   /**
@@ -359,10 +386,10 @@ public class AccountServiceImpl implements AccountService {
     @Override
     @Transactional(readOnly = true)
     public Page<AccountResponseDTO> getAccountsByRole(Long roleId, Pageable pageable) {
-        Role role = roleRepository.findById(roleId)
-                .orElseThrow(() -> new EntityNotFoundException("Role not found with id: " + roleId));
-        return (Page<AccountResponseDTO>) accountRepository.findAll(pageable)
-                .filter(account -> account.getRoles().contains(role))
+        if (roleCatalog.snapshot().role(roleId).isEmpty() && !roleRepository.existsById(roleId)) {
+            throw new EntityNotFoundException("Role not found with id: " + roleId);
+        }
+        return accountRepository.findByRoleId(roleId, pageable)
                 .map(mapper::toAccountResponseDto);
     }
 
@@ -378,16 +405,14 @@ public class AccountServiceImpl implements AccountService {
     @Override
     @Transactional(readOnly = true)
     public Page<AccountResponseDTO> getLockedAccounts(Pageable pageable) {
-        Instant now = Instant.now();
-        return (Page<AccountResponseDTO>) accountRepository.findAll(pageable)
-                .filter(account -> account.getLockedUntil() != null && account.getLockedUntil().isAfter(now))
+        return accountRepository.findByLockedUntilAfter(Instant.now(), pageable)
                 .map(mapper::toAccountResponseDto);
     }
 
     /**
-     * Recupera un account per username.
+     * Recupera un account per username (case-insensitive, tramite indice).
      *
-     * Retrieves an account by username.
+     * Retrieves an account by username (case-insensitive, via index).
      *
      * @param username Username dell’account da recuperare / Username of the account to retrieve
      * @return AccountResponseDTO DTO di risposta con i dettagli dell’account / 
@@ -396,11 +421,45 @@ public class AccountServiceImpl implements AccountService {
     @Override
     @Transactional(readOnly = true)
     public AccountResponseDTO getAccountByUsername(String username) {
-        Account account = accountRepository.findAll().stream()
-                .filter(a -> a.getUsername().equals(username))
-                .findFirst()
+        Account account = accountRepository.findDetailByUsernameNormalized(Account.normalize(username))
                 .orElseThrow(() -> new EntityNotFoundException("Account con username " + username + " non trovato"));
         return mapper.toAccountResponseDto(account);
     }
 
+    /**
+     * Risolve gli ID dei Role con una sola query tramite {@link ReferenceResolver}.
+     * Lancia EntityNotFoundException per il primo ID inesistente.
+     *
+     * Resolves the Role IDs with a single query through {@link ReferenceResolver}.
+     * Throws EntityNotFoundException for the first missing ID.
+     *
+     * @param roleIds ID dei Role / Role IDs
+     * @return Role risolti / Resolved Roles
+     */
+    private Set<Role> resolveRoles(Set<Long> roleIds) {
+        Map<Long, Role> resolved = referenceResolver.roles(roleIds);
+        return roleIds.stream()
+                .map(roleId -> Optional.ofNullable(resolved.get(roleId))
+                        .orElseThrow(() -> new EntityNotFoundException("Role con id " + roleId + " non trovato")))
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Incrementa la versione dello stato di sicurezza, invalidando i claim incorporati nei token già emessi,
+     * e pubblica un AccountChangedEvent per invalidare le cache dopo il commit.
+     *
+     * Increments the security state version, invalidating the claims embedded in already issued tokens,
+     * and publishes an AccountChangedEvent to evict caches after commit.
+     *
+     * @param account           Account modificato / Modified account
+     * @param previousUsernames Username precedenti in caso di rinomina / Previous usernames on rename
+     */
+    private void bumpTokenVersion(Account account, String... previousUsernames) {
+        int current = account.getTokenVersion() != null ? account.getTokenVersion() : 0;
+        account.setTokenVersion(current + 1);
+        String[] usernames = Arrays.copyOf(previousUsernames, previousUsernames.length + 1);
+        usernames[previousUsernames.length] = account.getUsername();
+        eventPublisher.publishEvent(new AccountChangedEvent(account.getId(), usernames));
+    }
+
 }
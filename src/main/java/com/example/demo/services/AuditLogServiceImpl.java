@@ -1,17 +1,32 @@
 package com.example.demo.services;
 
 import com.example.demo.dto.AuditLogDTO;
+import com.example.demo.dto.request.AuditLogSearchDTO;
+import com.example.demo.dto.response.CursorPageDTO;
 import com.example.demo.entities.Account;
 import com.example.demo.entities.AuditLog;
+import com.example.demo.config.audit.AuditEvent;
+import com.example.demo.config.audit.AuditPipeline;
 import com.example.demo.config.exceptions.EntityNotFoundException;
+import com.example.demo.config.exceptions.ServiceBusyException;
 import com.example.demo.services.interfaces.AuditLogService;
+import com.example.demo.config.export.EntityExporter;
+import com.example.demo.config.export.ExportFormat;
 import com.example.demo.config.mapper.EntityMapper;
+import com.example.demo.config.pagination.CursorPagination;
 import com.example.demo.repositories.AccountRepository;
 import com.example.demo.repositories.AuditLogRepository;
+import com.example.demo.repositories.AuditLogSpecifications;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.OutputStream;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -20,19 +35,53 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class AuditLogServiceImpl implements AuditLogService {
 
+    /** Intervallo letto quando non sono indicati estremi / Range read when no bounds are given. */
+    private static final Duration DEFAULT_RANGE = Duration.ofHours(24);
+
+    /** Attesa suggerita quando la pipeline rifiuta un evento / Suggested wait when the pipeline rejects an event. */
+    private static final Duration RETRY_AFTER = Duration.ofSeconds(1);
+
+    /** Ordinamento della ricerca, servito dagli indici (..., timestamp, id) / Search ordering, served by the (..., timestamp, id) indexes. */
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "timestamp", "id");
+
     private final AuditLogRepository auditLogRepository;
     private final AccountRepository accountRepository;
     private final EntityMapper mapper;
+    private final EntityExporter exporter;
+    private final AuditPipeline auditPipeline;
 
 
+    /**
+     * Accoda il log di audit sulla {@link AuditPipeline} con il solo ID dell’autore: niente lettura dell’account né
+     * INSERT sul thread della richiesta. Il DTO restituito ha il timestamp dell’evento ma non ancora l’ID, assegnato
+     * alla scrittura del lotto; un autore inesistente finisce nel dead-letter della pipeline.
+     * Enqueues the audit log on the {@link AuditPipeline} with just the author's ID: no account read and no INSERT on
+     * the request thread. The returned DTO carries the event timestamp but not yet the ID, assigned when the batch is
+     * written; an unknown author ends up in the pipeline's dead letter.
+     *
+     * @throws ServiceBusyException se la pipeline rifiuta l’evento / if the pipeline rejects the event
+     */
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public AuditLogDTO create(AuditLogDTO dto) {
-        Account account = accountRepository.findById(dto.getChangedByAccountId())
-                .orElseThrow(() -> new EntityNotFoundException("Account not found with id: " + dto.getChangedByAccountId()));
-        AuditLog newAuditLog = mapper.toEntity(dto);
-        newAuditLog.setChangedBy(account);
-        AuditLog saved = auditLogRepository.save(newAuditLog);
-        return mapper.toDto(saved);
+        AuditEvent event = AuditEvent.from(dto);
+        if (!auditPipeline.submit(event)) {
+            throw new ServiceBusyException("Coda di audit piena, riprova più tardi / Audit queue full, retry later",
+                    RETRY_AFTER);
+        }
+        dto.setId(null);
+        dto.setTimestamp(event.timestamp());
+        return dto;
+    }
+
+    /**
+     * Accoda il log di audit sulla {@link AuditPipeline}: nessuna lettura né scrittura sul thread chiamante.
+     * Enqueues the audit log on the {@link AuditPipeline}: no read or write on the calling thread.
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public boolean record(AuditLogDTO dto) {
+        return auditPipeline.submit(AuditEvent.from(dto));
     }
 
 
@@ -49,7 +98,10 @@ public class AuditLogServiceImpl implements AuditLogService {
         if (dto.getAction() != null) {
             auditLog.setAction(dto.getAction());
         }
-        if (dto.getChangedByAccountId() != null && !auditLog.getChangedBy().getId().equals(dto.getChangedByAccountId())) {
+        // Nessun autore per le modifiche senza utente autenticato (login, setup, job)
+        // No author for changes made without an authenticated user (login, setup, jobs)
+        if (dto.getChangedByAccountId() != null && (auditLog.getChangedBy() == null
+                || !auditLog.getChangedBy().getId().equals(dto.getChangedByAccountId()))) {
             Account account = accountRepository.findById(dto.getChangedByAccountId())
                     .orElseThrow(() -> new EntityNotFoundException("Account not found with id: " + dto.getChangedByAccountId()));
             auditLog.setChangedBy(account);
@@ -81,6 +133,68 @@ public class AuditLogServiceImpl implements AuditLogService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDTO<AuditLogDTO> findAll(String cursor, Integer size) {
+        return CursorPagination.page(auditLogRepository, cursor, size, AuditLog::getId, mapper::toDto);
+    }
+
+    /**
+     * Log in {@code [from, to)} a pagine per cursore; senza estremi vengono lette le ultime 24 ore. È la ricerca senza
+     * altri filtri: ordine e cursore su {@code (timestamp, id)}, serviti dall’indice {@code idx_audit_time} dentro le
+     * sole partizioni mensili dell’intervallo.
+     * Logs in {@code [from, to)} paged by cursor; without bounds the last 24 hours are read. It is the search without
+     * other filters: order and cursor on {@code (timestamp, id)}, served by the {@code idx_audit_time} index within
+     * the range's monthly partitions only.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDTO<AuditLogDTO> findInRange(Instant from, Instant to, String cursor, Integer size) {
+        Instant end = to != null ? to : Instant.now();
+        Instant start = from != null ? from : end.minus(DEFAULT_RANGE);
+        if (!start.isBefore(end)) {
+            throw new IllegalArgumentException("'from' must be before 'to'");
+        }
+        AuditLogSearchDTO filter = new AuditLogSearchDTO();
+        filter.setFrom(start);
+        filter.setTo(end);
+        return search(filter, cursor, size);
+    }
+
+    /**
+     * Ricerca filtrata, dal log più recente, con cursore sulla posizione {@code (timestamp, id)}.
+     * Filtered search, newest log first, with a cursor on the {@code (timestamp, id)} position.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDTO<AuditLogDTO> search(AuditLogSearchDTO filter, String cursor, Integer size) {
+        if (filter.getFrom() != null && filter.getTo() != null && !filter.getFrom().isBefore(filter.getTo())) {
+            throw new IllegalArgumentException("'from' must be before 'to'");
+        }
+        int limit = CursorPagination.clampSize(size);
+        CursorPagination.TimePosition after = CursorPagination.decodeTime(cursor);
+        Specification<AuditLog> spec = AuditLogSpecifications.matching(filter);
+        if (after != null) {
+            spec = spec.and(AuditLogSpecifications.before(after.timestamp(), after.id()));
+        }
+        List<AuditLog> rows = auditLogRepository.findBy(spec, query -> query
+                .sortBy(NEWEST_FIRST)
+                .limit(limit + 1)
+                .all());
+        boolean hasNext = rows.size() > limit;
+        List<AuditLog> page = hasNext ? rows.subList(0, limit) : rows;
+        String next = hasNext
+                ? CursorPagination.encode(page.get(limit - 1).getTimestamp(), page.get(limit - 1).getId())
+                : null;
+        return new CursorPageDTO<>(page.stream().map(mapper::toDto).toList(), next, hasNext);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportAll(ExportFormat format, OutputStream out) {
+        exporter.export(auditLogRepository.streamAll(), rows -> rows.stream().map(mapper::toDto).toList(), AuditLogDTO.class, format, out);
+    }
+
     @Override
     public void delete(Long id) {
         if (!auditLogRepository.existsById(id)) {
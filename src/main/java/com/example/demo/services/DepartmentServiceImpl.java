@@ -1,5 +1,6 @@
 package com.example.demo.services;
 
+import com.example.demo.config.mapper.CollectionIdAssembler;
 import com.example.demo.config.mapper.EntityMapper;
 import com.example.demo.dto.DepartmentDTO;
 import com.example.demo.entities.Department;
@@ -13,7 +14,6 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -23,6 +23,7 @@ public class DepartmentServiceImpl implements DepartmentService {
     private final DepartmentRepository departmentRepository;
     private final PersonaRepository personaRepository;
     private final EntityMapper mapper;
+    private final CollectionIdAssembler assembler;
 
 
 
@@ -52,23 +53,21 @@ public class DepartmentServiceImpl implements DepartmentService {
             department.setLocation(dto.getLocation());
         }
         Department updated = departmentRepository.save(department);
-        return mapper.toDto(updated);
+        return assembler.toDto(updated);
     }
 
     @Override
     @Transactional(readOnly = true)
     public DepartmentDTO findById(Long id) {
-        Department department = departmentRepository.findById(id)
+        Department department = departmentRepository.findDetailById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Department not found with id: " + id));
-        return mapper.toDto(department);
+        return assembler.toDto(department);
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<DepartmentDTO> findAll() {
-        return departmentRepository.findAll().stream()
-                .map(mapper::toDto)
-                .collect(Collectors.toList());
+        return assembler.toDepartmentDtos(departmentRepository.findListBy());
     }
 
     @Override
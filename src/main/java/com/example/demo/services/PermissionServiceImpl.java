@@ -1,12 +1,15 @@
 package com.example.demo.services;
 
+import com.example.demo.config.catalog.RoleCatalog;
 import com.example.demo.config.exceptions.EntityNotFoundException;
 import com.example.demo.config.mapper.EntityMapper;
 import com.example.demo.dto.PermissionDTO;
 import com.example.demo.entities.Permission;
 import com.example.demo.repositories.PermissionRepository;
+import com.example.demo.services.events.PermissionChangedEvent;
 import com.example.demo.services.interfaces.PermissionService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -20,6 +23,8 @@ public class PermissionServiceImpl implements PermissionService {
 
     private final PermissionRepository permissionRepository;
     private final EntityMapper mapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RoleCatalog roleCatalog;
 
 
 
@@ -27,6 +32,7 @@ public class PermissionServiceImpl implements PermissionService {
     public PermissionDTO create(PermissionDTO dto){
         Permission newPermission = mapper.toEntity(dto);
         Permission saved = permissionRepository.save(newPermission);
+        eventPublisher.publishEvent(new PermissionChangedEvent(saved.getId()));
         return mapper.toDto(saved);
     }
 
@@ -41,21 +47,23 @@ public class PermissionServiceImpl implements PermissionService {
             permission.setDescription(dto.getDescription());
         }
         Permission updated = permissionRepository.save(permission);
+        eventPublisher.publishEvent(new PermissionChangedEvent(updated.getId()));
         return mapper.toDto(updated);
     }
 
     @Override
     @Transactional(readOnly = true)
     public PermissionDTO findById(Long id){
-        Permission permission = permissionRepository.findById(id)
-                .orElseThrow( () -> new EntityNotFoundException("Permission not found with id: " + id));
-        return mapper.toDto(permission);
+        return roleCatalog.snapshot().permission(id)
+                .map(mapper::toDto)
+                .orElseGet(() -> mapper.toDto(permissionRepository.findById(id)
+                        .orElseThrow( () -> new EntityNotFoundException("Permission not found with id: " + id))));
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<PermissionDTO> findAll(){
-        return permissionRepository.findAll().stream()
+        return roleCatalog.snapshot().permissions().stream()
                 .map(mapper::toDto)
                 .collect(Collectors.toList());
     }
@@ -66,5 +74,6 @@ public class PermissionServiceImpl implements PermissionService {
             throw  new EntityNotFoundException("Permission not found with id: " + id);
         }
         permissionRepository.deleteById(id);
+        eventPublisher.publishEvent(new PermissionChangedEvent(id));
     }
 }
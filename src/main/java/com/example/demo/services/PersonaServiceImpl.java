@@ -1,8 +1,13 @@
 package com.example.demo.services;
 
 import com.example.demo.config.exceptions.EntityNotFoundException;
+import com.example.demo.config.export.EntityExporter;
+import com.example.demo.config.export.ExportFormat;
+import com.example.demo.config.mapper.CollectionIdAssembler;
 import com.example.demo.config.mapper.EntityMapper;
+import com.example.demo.config.pagination.CursorPagination;
 import com.example.demo.dto.PersonaDTO;
+import com.example.demo.dto.response.CursorPageDTO;
 import com.example.demo.entities.*;
 import com.example.demo.repositories.*;
 import com.example.demo.services.interfaces.PersonaService;
@@ -11,6 +16,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.HashSet;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -27,6 +33,8 @@ public class PersonaServiceImpl implements PersonaService {
     private final TeamRepository teamRepository;
     private final ProjectRepository projectRepository;
     private final EntityMapper mapper;
+    private final CollectionIdAssembler assembler;
+    private final EntityExporter exporter;
 
     @Override
     public PersonaDTO create(PersonaDTO dto) {
@@ -164,23 +172,33 @@ public class PersonaServiceImpl implements PersonaService {
         }
 
         Persona updated = personaRepository.save(persona);
-        return mapper.toDto(updated);
+        return assembler.toDto(updated);
     }
 
     @Override
     @Transactional(readOnly = true)
     public PersonaDTO findById(Long id) {
-        Persona persona = personaRepository.findById(id)
+        Persona persona = personaRepository.findDetailById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Persona not found with id: " + id));
-        return mapper.toDto(persona);
+        return assembler.toDto(persona);
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<PersonaDTO> findAll() {
-        return personaRepository.findAll().stream()
-                .map(mapper::toDto)
-                .collect(Collectors.toList());
+        return assembler.toPersonaDtos(personaRepository.findListBy());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDTO<PersonaDTO> findAll(String cursor, Integer size) {
+        return CursorPagination.pageBatch(personaRepository, cursor, size, Persona::getId, assembler::toPersonaDtos);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportAll(ExportFormat format, OutputStream out) {
+        exporter.export(personaRepository.streamAll(), assembler::toPersonaDtos, PersonaDTO.class, format, out);
     }
 
     @Override
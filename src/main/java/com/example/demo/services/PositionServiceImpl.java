@@ -1,6 +1,7 @@
 package com.example.demo.services;
 
 import com.example.demo.config.exceptions.EntityNotFoundException;
+import com.example.demo.config.mapper.CollectionIdAssembler;
 import com.example.demo.config.mapper.EntityMapper;
 import com.example.demo.dto.PositionDTO;
 import com.example.demo.entities.Position;
@@ -11,7 +12,6 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -20,6 +20,7 @@ public class PositionServiceImpl implements PositionService {
 
     private final PositionRepository positionRepository;
     private final EntityMapper mapper;
+    private final CollectionIdAssembler assembler;
 
     @Override
     public PositionDTO create(PositionDTO dto) {
@@ -42,7 +43,7 @@ public class PositionServiceImpl implements PositionService {
             position.setSalaryGrade(dto.getSalaryGrade());
         }
         Position updated = positionRepository.save(position);
-        return mapper.toDto(updated);
+        return assembler.toDto(updated);
     }
 
     @Override
@@ -50,15 +51,13 @@ public class PositionServiceImpl implements PositionService {
     public PositionDTO findById(Long id) {
         Position position = positionRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Position not found with id: " + id));
-        return mapper.toDto(position);
+        return assembler.toDto(position);
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<PositionDTO> findAll() {
-        return positionRepository.findAll().stream()
-                .map(mapper::toDto)
-                .collect(Collectors.toList());
+        return assembler.toPositionDtos(positionRepository.findAll());
     }
 
     @Override
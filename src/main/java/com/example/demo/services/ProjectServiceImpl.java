@@ -1,8 +1,11 @@
 package com.example.demo.services;
 
 import com.example.demo.config.exceptions.EntityNotFoundException;
+import com.example.demo.config.mapper.CollectionIdAssembler;
 import com.example.demo.config.mapper.EntityMapper;
+import com.example.demo.config.pagination.CursorPagination;
 import com.example.demo.dto.ProjectDTO;
+import com.example.demo.dto.response.CursorPageDTO;
 import com.example.demo.entities.Project;
 import com.example.demo.repositories.ProjectRepository;
 import com.example.demo.services.interfaces.ProjectService;
@@ -11,7 +14,6 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -20,6 +22,7 @@ public class ProjectServiceImpl implements ProjectService {
 
     private final ProjectRepository projectRepository;
     private final EntityMapper mapper;
+    private final CollectionIdAssembler assembler;
 
     @Override
     public ProjectDTO create(ProjectDTO dto){
@@ -51,7 +54,7 @@ public class ProjectServiceImpl implements ProjectService {
             project.setStatus(dto.getStatus());
         }
         Project updated = projectRepository.save(project);
-        return mapper.toDto(updated);
+        return assembler.toDto(updated);
     }
 
     @Override
@@ -59,15 +62,19 @@ public class ProjectServiceImpl implements ProjectService {
     public ProjectDTO findById(Long id){
         Project project = projectRepository.findById(id)
                 .orElseThrow( ()-> new EntityNotFoundException("Project not found with id: " + id));
-        return mapper.toDto(project);
+        return assembler.toDto(project);
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<ProjectDTO> findAll(){
-        return projectRepository.findAll().stream()
-                .map(mapper::toDto)
-                .collect(Collectors.toList());
+        return assembler.toProjectDtos(projectRepository.findAll());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDTO<ProjectDTO> findAll(String cursor, Integer size){
+        return CursorPagination.pageBatch(projectRepository, cursor, size, Project::getId, assembler::toProjectDtos);
     }
 
     @Override
@@ -1,6 +1,7 @@
 package com.example.demo.services;
 
 
+import com.example.demo.config.catalog.RoleCatalog;
 import com.example.demo.config.exceptions.EntityNotFoundException;
 import com.example.demo.config.mapper.EntityMapper;
 import com.example.demo.dto.RoleDTO;
@@ -8,8 +9,10 @@ import com.example.demo.entities.Permission;
 import com.example.demo.entities.Role;
 import com.example.demo.repositories.PermissionRepository;
 import com.example.demo.repositories.RoleRepository;
+import com.example.demo.services.events.RoleChangedEvent;
 import com.example.demo.services.interfaces.RoleService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -25,6 +28,8 @@ public class RoleServiceImpl implements RoleService {
     private final RoleRepository roleRepository;
     private final PermissionRepository permissionRepository;
     private final EntityMapper mapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RoleCatalog roleCatalog;
 
     @Override
     public RoleDTO create(RoleDTO dto){
@@ -33,6 +38,7 @@ public class RoleServiceImpl implements RoleService {
         Role newRole = mapper.toEntity(dto);
         newRole.setPermissions(permission);
         Role saved = roleRepository.save(newRole);
+        eventPublisher.publishEvent(new RoleChangedEvent(saved.getId()));
         return mapper.toDto(saved);
     }
 
@@ -54,21 +60,25 @@ public class RoleServiceImpl implements RoleService {
             role.setPermissions(permissions);
         }
         Role updated = roleRepository.save(role);
+        eventPublisher.publishEvent(new RoleChangedEvent(updated.getId()));
         return mapper.toDto(updated);
     }
 
     @Override
     @Transactional(readOnly = true)
     public RoleDTO findById(Long id){
-        Role role = roleRepository.findById(id)
-                .orElseThrow(()-> new EntityNotFoundException("Role not found with id: " + id));
-        return mapper.toDto(role);
+        // Catalogo in memoria; il repository solo per ruoli non ancora visti da questo nodo
+        // In-memory catalog; the repository only for roles this node has not seen yet
+        return roleCatalog.snapshot().role(id)
+                .map(mapper::toDto)
+                .orElseGet(() -> mapper.toDto(roleRepository.findById(id)
+                        .orElseThrow(()-> new EntityNotFoundException("Role not found with id: " + id))));
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<RoleDTO> findAll(){
-        return roleRepository.findAll().stream()
+        return roleCatalog.snapshot().roles().stream()
                 .map(mapper::toDto)
                 .collect(Collectors.toList());
     }
@@ -79,5 +89,6 @@ public class RoleServiceImpl implements RoleService {
             throw  new EntityNotFoundException("Role not found with id: " + id);
         }
         roleRepository.deleteById(id);
+        eventPublisher.publishEvent(new RoleChangedEvent(id));
     }
 }
@@ -1,8 +1,12 @@
 package com.example.demo.services;
 
 import com.example.demo.config.exceptions.EntityNotFoundException;
+import com.example.demo.config.export.EntityExporter;
+import com.example.demo.config.export.ExportFormat;
 import com.example.demo.config.mapper.EntityMapper;
+import com.example.demo.config.pagination.CursorPagination;
 import com.example.demo.dto.TaskDTO;
+import com.example.demo.dto.response.CursorPageDTO;
 import com.example.demo.entities.Persona;
 import com.example.demo.entities.Project;
 import com.example.demo.entities.Task;
@@ -15,6 +19,7 @@ import org.hibernate.query.sqm.EntityTypeException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.OutputStream;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -27,6 +32,7 @@ public class TaskServiceImpl implements TaskService {
     private final PersonaRepository personaRepository;
     private final ProjectRepository projectRepository;
     private final EntityMapper mapper;
+    private final EntityExporter exporter;
 
     @Override
     public TaskDTO create(TaskDTO dto) {
@@ -82,7 +88,7 @@ public class TaskServiceImpl implements TaskService {
     @Override
     @Transactional(readOnly = true)
     public TaskDTO findById(Long id) {
-        Task task = taskRepository.findById(id)
+        Task task = taskRepository.findDetailById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Task not found with id:" + id));
         return mapper.toDto(task);
     }
@@ -90,11 +96,23 @@ public class TaskServiceImpl implements TaskService {
     @Override
     @Transactional(readOnly = true)
     public List<TaskDTO> findAll() {
-        return taskRepository.findAll().stream()
+        return taskRepository.findListBy().stream()
                 .map(mapper::toDto)
                 .collect(Collectors.toList());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDTO<TaskDTO> findAll(String cursor, Integer size) {
+        return CursorPagination.page(taskRepository, cursor, size, Task::getId, mapper::toDto);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportAll(ExportFormat format, OutputStream out) {
+        exporter.export(taskRepository.streamAll(), rows -> rows.stream().map(mapper::toDto).toList(), TaskDTO.class, format, out);
+    }
+
     @Override
     public void delete(Long id) {
         if (!taskRepository.existsById(id)) {
@@ -1,6 +1,7 @@
 package com.example.demo.services;
 
 import com.example.demo.config.exceptions.EntityNotFoundException;
+import com.example.demo.config.mapper.CollectionIdAssembler;
 import com.example.demo.config.mapper.EntityMapper;
 import com.example.demo.dto.TeamDTO;
 import com.example.demo.entities.Team;
@@ -11,7 +12,6 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -20,6 +20,7 @@ public class TeamServiceImpl implements TeamService {
 
     private final TeamRepository teamRepository;
     private final EntityMapper mapper;
+    private final CollectionIdAssembler assembler;
 
     @Override
     public TeamDTO create(TeamDTO dto){
@@ -39,7 +40,7 @@ public class TeamServiceImpl implements TeamService {
             team.setDescription(dto.getDescription());
         }
         Team updated = teamRepository.save(team);
-        return mapper.toDto(updated);
+        return assembler.toDto(updated);
     }
 
     @Override
@@ -47,15 +48,13 @@ public class TeamServiceImpl implements TeamService {
     public TeamDTO findById(Long id){
         Team team = teamRepository.findById(id)
                 .orElseThrow(()-> new EntityNotFoundException("Team not found with id: " + id));
-        return mapper.toDto(team);
+        return assembler.toDto(team);
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<TeamDTO> findAll(){
-        return teamRepository.findAll().stream()
-                .map(mapper::toDto)
-                .collect(Collectors.toList());
+        return assembler.toTeamDtos(teamRepository.findAll());
     }
 
     @Override
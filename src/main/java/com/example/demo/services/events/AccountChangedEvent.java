@@ -0,0 +1,80 @@
+package com.example.demo.services.events;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Evento applicativo pubblicato quando lo stato di sicurezza di un account cambia
+ * (ruoli, password, username, blocco, abilitazione, cancellazione).
+ *
+ * <p><strong>English:</strong> Application event published when an account's security state changes
+ * (roles, password, username, lock, enablement, deletion).</p>
+ * <p><strong>Italiano:</strong> Evento applicativo pubblicato quando lo stato di sicurezza di un account
+ * cambia (ruoli, password, username, blocco, abilitazione, cancellazione).</p>
+ *
+ * <p>Contiene tutti gli username interessati (precedente e nuovo, in caso di rinomina) così che
+ * le cache indicizzate per username possano essere invalidate con precisione.</p>
+ * <p><strong>English:</strong> Carries every affected username (previous and new, on rename) so that
+ * caches keyed by username can be invalidated precisely.</p>
+ */
+public class AccountChangedEvent {
+
+    private final Long accountId;
+    private final Set<String> usernames;
+
+    /**
+     * Crea l’evento per l’account indicato.
+     *
+     * <p><strong>English:</strong> Creates the event for the given account.</p>
+     *
+     * @param accountId ID dell’account modificato
+     *                  <p><strong>English:</strong> ID of the modified account.</p>
+     * @param usernames username interessati dalla modifica ({@code null} ignorati)
+     *                  <p><strong>English:</strong> usernames affected by the change ({@code null} ignored).</p>
+     */
+    public AccountChangedEvent(Long accountId, String... usernames) {
+        this.accountId = accountId;
+        Set<String> names = new LinkedHashSet<>();
+        for (String username : usernames) {
+            if (username != null) {
+                names.add(username);
+            }
+        }
+        this.usernames = Collections.unmodifiableSet(names);
+    }
+
+    /**
+     * @return ID dell’account modificato
+     *         <p><strong>English:</strong> ID of the modified account.</p>
+     */
+    public Long getAccountId() {
+        return accountId;
+    }
+
+    /**
+     * @return username interessati dalla modifica
+     *         <p><strong>English:</strong> usernames affected by the change.</p>
+     */
+    public Set<String> getUsernames() {
+        return usernames;
+    }
+
+    @Override
+    public String toString() {
+        return "AccountChangedEvent{accountId=" + accountId + ", usernames=" + usernames + '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof AccountChangedEvent that)) return false;
+        return Objects.equals(accountId, that.accountId) && usernames.equals(that.usernames);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(accountId, usernames);
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.demo.services.events;
+
+/**
+ * Evento applicativo pubblicato quando un permesso viene creato, modificato o eliminato.
+ *
+ * <p><strong>English:</strong> Application event published when a permission is created, updated or deleted.</p>
+ * <p><strong>Italiano:</strong> Evento applicativo pubblicato quando un permesso viene creato, modificato o
+ * eliminato.</p>
+ *
+ * <p>Come per {@link RoleChangedEvent}, i consumatori invalidano per intero le cache che dipendono dai
+ * permessi.</p>
+ * <p><strong>English:</strong> As with {@link RoleChangedEvent}, consumers fully invalidate the caches that
+ * depend on permissions.</p>
+ */
+public class PermissionChangedEvent {
+
+    private final Long permissionId;
+
+    /**
+     * Crea l’evento per il permesso indicato.
+     *
+     * <p><strong>English:</strong> Creates the event for the given permission.</p>
+     *
+     * @param permissionId ID del permesso modificato
+     *                     <p><strong>English:</strong> ID of the modified permission.</p>
+     */
+    public PermissionChangedEvent(Long permissionId) {
+        this.permissionId = permissionId;
+    }
+
+    /**
+     * @return ID del permesso modificato
+     *         <p><strong>English:</strong> ID of the modified permission.</p>
+     */
+    public Long getPermissionId() {
+        return permissionId;
+    }
+
+    @Override
+    public String toString() {
+        return "PermissionChangedEvent{permissionId=" + permissionId + '}';
+    }
+}
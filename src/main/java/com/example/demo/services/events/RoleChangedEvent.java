@@ -0,0 +1,42 @@
+package com.example.demo.services.events;
+
+/**
+ * Evento applicativo pubblicato quando un ruolo viene creato, modificato o eliminato.
+ *
+ * <p><strong>English:</strong> Application event published when a role is created, updated or deleted.</p>
+ * <p><strong>Italiano:</strong> Evento applicativo pubblicato quando un ruolo viene creato, modificato o eliminato.</p>
+ *
+ * <p>Poiché un ruolo può essere assegnato a un numero arbitrario di account, i consumatori
+ * invalidano per intero le cache che dipendono dai ruoli.</p>
+ * <p><strong>English:</strong> Since a role may be assigned to any number of accounts, consumers
+ * fully invalidate the caches that depend on roles.</p>
+ */
+public class RoleChangedEvent {
+
+    private final Long roleId;
+
+    /**
+     * Crea l’evento per il ruolo indicato.
+     *
+     * <p><strong>English:</strong> Creates the event for the given role.</p>
+     *
+     * @param roleId ID del ruolo modificato
+     *               <p><strong>English:</strong> ID of the modified role.</p>
+     */
+    public RoleChangedEvent(Long roleId) {
+        this.roleId = roleId;
+    }
+
+    /**
+     * @return ID del ruolo modificato
+     *         <p><strong>English:</strong> ID of the modified role.</p>
+     */
+    public Long getRoleId() {
+        return roleId;
+    }
+
+    @Override
+    public String toString() {
+        return "RoleChangedEvent{roleId=" + roleId + '}';
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.demo.services.interfaces;
+
+import com.example.demo.dto.request.BulkAccountProvisioningDTO;
+import com.example.demo.dto.response.BulkProvisioningReportDTO;
+
+/**
+ * Interfaccia del servizio di provisioning a lotti di persone e account.
+ *
+ * Interface for the bulk provisioning service of personas and accounts.
+ */
+public interface AccountProvisioningService {
+
+    /**
+     * Crea una persona e il suo account per ogni elemento della richiesta, a blocchi con una transazione ciascuno.
+     * Gli elementi non validi o in conflitto vengono riportati come falliti senza bloccare gli altri.
+     *
+     * Creates a persona and its account for every item of the request, in chunks with one transaction each.
+     * Invalid or conflicting items are reported as failed without blocking the others.
+     *
+     * @param request elementi da creare / items to create
+     * @return BulkProvisioningReportDTO esito di ogni elemento, nell’ordine della richiesta /
+     *         outcome of every item, in request order
+     */
+    BulkProvisioningReportDTO provision(BulkAccountProvisioningDTO request);
+}
@@ -6,6 +6,7 @@ import com.example.demo.dto.request.CreateAccountRequestDTO;
 import com.example.demo.dto.request.UpdateAccountRequestDTO;
 import com.example.demo.dto.response.AccountResponseDTO;
 import com.example.demo.dto.response.AccountSummaryDTO;
+import com.example.demo.dto.response.CursorPageDTO;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -77,6 +78,18 @@ public interface AccountService {
      */
     Page<AccountResponseDTO> getAllAccounts(Pageable pageable);
 
+    /**
+     * Recupera gli account con paginazione a cursore (seek per ID), a costo costante anche su pagine profonde.
+     *
+     * Retrieves accounts with cursor (seek-by-id) pagination, at constant cost even on deep pages.
+     *
+     * @param cursor Token della pagina precedente, null per la prima / Token from the previous page, null for the first
+     * @param size   Numero di elementi / Number of items
+     * @return CursorPageDTO<AccountResponseDTO> Pagina con il cursore successivo /
+     *         Page with the next cursor
+     */
+    CursorPageDTO<AccountResponseDTO> getAllAccounts(String cursor, Integer size);
+
      /**
      * Blocca un account impostando la data/ora di sblocco (lockedUntil).
      *
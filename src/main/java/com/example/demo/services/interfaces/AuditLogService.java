@@ -1,13 +1,23 @@
 package com.example.demo.services.interfaces;
 
+import com.example.demo.config.export.ExportFormat;
 import com.example.demo.dto.AuditLogDTO;
+import com.example.demo.dto.request.AuditLogSearchDTO;
+import com.example.demo.dto.response.CursorPageDTO;
 
+import java.io.OutputStream;
+import java.time.Instant;
 import java.util.List;
 
 public interface AuditLogService {
     AuditLogDTO create(AuditLogDTO dto);
+    boolean record(AuditLogDTO dto);
     AuditLogDTO update(Long id, AuditLogDTO dto);
     AuditLogDTO findById(Long id);
     List<AuditLogDTO> findAll();
+    CursorPageDTO<AuditLogDTO> findAll(String cursor, Integer size);
+    CursorPageDTO<AuditLogDTO> findInRange(Instant from, Instant to, String cursor, Integer size);
+    CursorPageDTO<AuditLogDTO> search(AuditLogSearchDTO filter, String cursor, Integer size);
+    void exportAll(ExportFormat format, OutputStream out);
     void delete(Long id);
 }
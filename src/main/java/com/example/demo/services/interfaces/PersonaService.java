@@ -1,7 +1,10 @@
 package com.example.demo.services.interfaces;
 
+import com.example.demo.config.export.ExportFormat;
 import com.example.demo.dto.PersonaDTO;
+import com.example.demo.dto.response.CursorPageDTO;
 
+import java.io.OutputStream;
 import java.util.List;
 
 public interface PersonaService {
@@ -9,5 +12,7 @@ public interface PersonaService {
     PersonaDTO update(Long id, PersonaDTO dto);
     PersonaDTO findById(Long id);
     List<PersonaDTO> findAll();
+    CursorPageDTO<PersonaDTO> findAll(String cursor, Integer size);
+    void exportAll(ExportFormat format, OutputStream out);
     void delete(Long id);
 }
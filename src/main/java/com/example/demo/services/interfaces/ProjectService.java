@@ -1,6 +1,7 @@
 package com.example.demo.services.interfaces;
 
 import com.example.demo.dto.ProjectDTO;
+import com.example.demo.dto.response.CursorPageDTO;
 
 import java.util.List;
 
@@ -9,5 +10,6 @@ public interface ProjectService {
    ProjectDTO update(Long id, ProjectDTO dto);
    ProjectDTO findById(Long id);
     List<ProjectDTO> findAll();
+    CursorPageDTO<ProjectDTO> findAll(String cursor, Integer size);
     void delete(Long id);
 }
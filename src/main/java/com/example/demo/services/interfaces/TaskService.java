@@ -1,7 +1,10 @@
 package com.example.demo.services.interfaces;
 
+import com.example.demo.config.export.ExportFormat;
 import com.example.demo.dto.TaskDTO;
+import com.example.demo.dto.response.CursorPageDTO;
 
+import java.io.OutputStream;
 import java.util.List;
 
 public interface TaskService {
@@ -9,5 +12,7 @@ public interface TaskService {
     TaskDTO update(Long id, TaskDTO dto);
     TaskDTO findById(Long id);
     List<TaskDTO> findAll();
+    CursorPageDTO<TaskDTO> findAll(String cursor, Integer size);
+    void exportAll(ExportFormat format, OutputStream out);
     void delete(Long id);
 }
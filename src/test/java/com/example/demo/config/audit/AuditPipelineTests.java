@@ -0,0 +1,210 @@
+package com.example.demo.config.audit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Verifica le politiche di backpressure, il replay del file di spill e l’isolamento delle righe rifiutate di
+ * {@link AuditPipeline}.
+ * Verifies {@link AuditPipeline}'s backpressure policies, spill file replay and isolation of rejected rows.
+ */
+class AuditPipelineTests {
+
+    @TempDir
+    Path dir;
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private AuditPipeline pipeline;
+
+    @Test
+    void dropDiscardsWhenQueueIsFull() {
+        AuditPipeline pipeline = pipeline("DROP");
+        assertThat(pipeline.submit(event(1))).isTrue();
+        assertThat(pipeline.submit(event(2))).isFalse();
+    }
+
+    @Test
+    void spillWritesOverflowToFileAndReplaysItOnStart() throws Exception {
+        AuditPipeline pipeline = pipeline("SPILL");
+        assertThat(pipeline.submit(event(1))).isTrue();
+        assertThat(pipeline.submit(event(2))).isTrue();
+        assertThat(Files.readAllLines(dir.resolve("spill.ndjson"))).hasSize(1);
+
+        pipeline.start();
+        pipeline.stop();
+
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), any(Collection.class), anyInt(), any());
+        assertThat(dir.resolve("spill.ndjson")).doesNotExist();
+        assertThat(dir.resolve("spill.ndjson.replay")).doesNotExist();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void rejectedRowGoesToDeadLetterWithoutLosingTheRestOfTheBatch() throws Exception {
+        doAnswer(invocation -> {
+            Collection<AuditEvent> rows = invocation.getArgument(1);
+            if (rows.stream().anyMatch(row -> row.entityId() == 3)) {
+                throw new DataIntegrityViolationException("Data too long for column 'action'");
+            }
+            return new int[0][];
+        }).when(jdbcTemplate).batchUpdate(anyString(), any(Collection.class), anyInt(), any());
+        AuditPipeline pipeline = pipeline("SPILL");
+        for (int i = 1; i <= 4; i++) {
+            assertThat(pipeline.submit(event(i))).isTrue();
+        }
+
+        pipeline.start();
+        pipeline.stop();
+
+        List<String> deadLetters = Files.readAllLines(dir.resolve("dead-letter.ndjson"));
+        assertThat(deadLetters).hasSize(1);
+        assertThat(deadLetters.get(0)).contains("\"entityId\":3");
+        assertThat(dir.resolve("spill.ndjson.replay")).doesNotExist();
+        // lotto dal file di spill (2, 3, 4), poi 2, 3, 4 uno alla volta, poi l'evento in coda
+        verify(jdbcTemplate, times(5)).batchUpdate(anyString(), any(Collection.class), anyInt(), any());
+    }
+
+    @Test
+    void interruptedReplayResumesFromTheFirstUndeliveredEvent() throws Exception {
+        AuditSpillFile spillFile = new AuditSpillFile(dir.resolve("spill.ndjson"),
+                new ObjectMapper().registerModule(new JavaTimeModule()));
+        spillFile.append(List.of(event(1), event(2), event(3), event(4), event(5)));
+
+        AuditSpillFile.Replay first = spillFile.replay(2, chunk -> chunk.get(0).entityId() == 3 ? 1 : chunk.size());
+        assertThat(first).isEqualTo(new AuditSpillFile.Replay(3, false));
+
+        List<Long> replayed = new ArrayList<>();
+        AuditSpillFile.Replay second = spillFile.replay(2, chunk -> {
+            chunk.forEach(row -> replayed.add(row.entityId()));
+            return chunk.size();
+        });
+        assertThat(second).isEqualTo(new AuditSpillFile.Replay(2, true));
+        assertThat(replayed).containsExactly(4L, 5L);
+        assertThat(spillFile.hasPending()).isFalse();
+        assertThat(dir.resolve("spill.ndjson.replay.offset")).doesNotExist();
+    }
+
+    @Test
+    void requiresAbsolutePathsForTheLocalFiles() {
+        assertThatThrownBy(() -> new AuditPipeline(jdbcTemplate, disabledJournal(), new ObjectMapper(),
+                new SimpleMeterRegistry(), 1, 10, Duration.ofMillis(10), "SPILL", Duration.ZERO, "audit-spill.ndjson",
+                dir.resolve("dead-letter.ndjson").toString(), Duration.ofSeconds(5)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("audit.pipeline.spill-file");
+    }
+
+    @Test
+    void rejectsEventsAfterStopUnlessTheyCanBeSpilled() throws Exception {
+        AuditPipeline drop = pipeline("DROP");
+        drop.start();
+        drop.stop();
+        assertThat(drop.submit(event(1))).isFalse();
+
+        AuditPipeline spill = pipeline("SPILL");
+        spill.start();
+        spill.stop();
+        assertThat(spill.submit(event(2))).isTrue();
+        assertThat(Files.readAllLines(dir.resolve("spill.ndjson"))).hasSize(1);
+    }
+
+    @Test
+    void journalTakesEventsAheadOfTheQueue() throws Exception {
+        AuditJournal journal = new AuditJournal(true, dir.resolve("journal").toString(), DataSize.ofKilobytes(64),
+                4, 100, false);
+        journal.open();
+        AuditPipeline pipeline = new AuditPipeline(jdbcTemplate, journal, new ObjectMapper(), new SimpleMeterRegistry(),
+                1, 10, Duration.ofMillis(10), "DROP", Duration.ZERO, dir.resolve("spill.ndjson").toString(),
+                dir.resolve("dead-letter.ndjson").toString(), Duration.ofSeconds(5));
+        for (int i = 0; i < 5; i++) {
+            assertThat(pipeline.submit(event(i))).isTrue();
+        }
+
+        pipeline.start();
+        verify(jdbcTemplate, timeout(5_000)).batchUpdate(anyString(), argThat((Collection<?> rows) -> rows.size() == 5), anyInt(), any());
+        pipeline.stop();
+        assertThat(journal.read(10)).isEmpty();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void journalCommitsPastRowsTheDatabaseRejects() throws Exception {
+        doAnswer(invocation -> {
+            Collection<AuditEvent> rows = invocation.getArgument(1);
+            if (rows.stream().anyMatch(row -> row.entityId() == 2)) {
+                throw new DataIntegrityViolationException("Data too long for column 'entity_name'");
+            }
+            return new int[0][];
+        }).when(jdbcTemplate).batchUpdate(anyString(), any(Collection.class), anyInt(), any());
+        AuditJournal journal = journalPipelineSubmitting(5);
+
+        verify(jdbcTemplate, timeout(5_000).times(6)).batchUpdate(anyString(), any(Collection.class), anyInt(), any());
+        pipeline.stop();
+
+        assertThat(journal.read(10)).isEmpty();
+        assertThat(Files.readAllLines(dir.resolve("dead-letter.ndjson"))).hasSize(1);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void journalKeepsEventsWhileTheDatabaseIsDown() throws Exception {
+        when(jdbcTemplate.batchUpdate(anyString(), any(Collection.class), anyInt(), any()))
+                .thenThrow(new DataAccessResourceFailureException("Communications link failure"));
+        AuditJournal journal = journalPipelineSubmitting(5);
+
+        verify(jdbcTemplate, timeout(5_000)).batchUpdate(anyString(), any(Collection.class), anyInt(), any());
+        pipeline.stop();
+
+        assertThat(journal.read(10)).hasSize(5);
+        assertThat(dir.resolve("dead-letter.ndjson")).doesNotExist();
+    }
+
+    private AuditJournal journalPipelineSubmitting(int events) throws Exception {
+        AuditJournal journal = new AuditJournal(true, dir.resolve("journal").toString(), DataSize.ofKilobytes(64),
+                4, 100, false);
+        journal.open();
+        pipeline = new AuditPipeline(jdbcTemplate, journal, new ObjectMapper().registerModule(new JavaTimeModule()),
+                new SimpleMeterRegistry(), 1, 10, Duration.ofMillis(10), "DROP", Duration.ZERO,
+                dir.resolve("spill.ndjson").toString(), dir.resolve("dead-letter.ndjson").toString(),
+                Duration.ofSeconds(5));
+        for (int i = 0; i < events; i++) {
+            assertThat(pipeline.submit(event(i))).isTrue();
+        }
+        pipeline.start();
+        return journal;
+    }
+
+    private AuditJournal disabledJournal() {
+        return new AuditJournal(false, dir.resolve("journal").toString(), DataSize.ofMegabytes(1), 4, 100, false);
+    }
+
+    private AuditPipeline pipeline(String overflow) {
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        return new AuditPipeline(jdbcTemplate, disabledJournal(), objectMapper, new SimpleMeterRegistry(), 1, 10,
+                Duration.ofMillis(10), overflow, Duration.ZERO, dir.resolve("spill.ndjson").toString(),
+                dir.resolve("dead-letter.ndjson").toString(), Duration.ofSeconds(5));
+    }
+
+    private static AuditEvent event(long entityId) {
+        return new AuditEvent("Persona", entityId, "UPDATE", null, Instant.now(), null);
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.demo.config.audit;
+
+import com.example.demo.entities.Department;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.transaction.TestTransaction;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Verifica che {@link EntityAuditListener} consegni i diff solo dopo il commit.
+ * Verifies that {@link EntityAuditListener} hands diffs over only after commit.
+ */
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+@Import({EntityAuditListener.class, JacksonAutoConfiguration.class})
+class EntityAuditListenerTests {
+
+    @Autowired
+    private TestEntityManager em;
+
+    @MockitoBean
+    private AuditPipeline auditPipeline;
+
+    @Test
+    void recordsCreateUpdateAndDeleteAfterCommit() {
+        Department department = em.persist(Department.builder().name("Sales").build());
+        em.flush();
+        department.setName("Marketing");
+        em.flush();
+        verify(auditPipeline, never()).submit(any());
+
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+
+        ArgumentCaptor<AuditEvent> captor = ArgumentCaptor.forClass(AuditEvent.class);
+        verify(auditPipeline, times(2)).submit(captor.capture());
+        List<AuditEvent> events = captor.getAllValues();
+        assertThat(events).extracting(AuditEvent::action).containsExactly("CREATE", "UPDATE");
+        assertThat(events).extracting(AuditEvent::entityName).containsOnly("Department");
+        assertThat(events.get(0).details()).contains("\"name\":\"Sales\"");
+        assertThat(events.get(1).details()).isEqualTo("{\"name\":[\"Sales\",\"Marketing\"]}");
+
+        TestTransaction.start();
+        em.remove(em.find(Department.class, department.getId()));
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+        verify(auditPipeline, times(3)).submit(captor.capture());
+        assertThat(captor.getValue().action()).isEqualTo("DELETE");
+    }
+
+    @Test
+    void discardsChangesOnRollback() {
+        em.persist(Department.builder().name("Legal").build());
+        em.flush();
+        TestTransaction.end();
+        verify(auditPipeline, never()).submit(any());
+    }
+}
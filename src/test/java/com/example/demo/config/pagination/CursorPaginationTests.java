@@ -0,0 +1,73 @@
+package com.example.demo.config.pagination;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Verifica la codifica dei cursori opachi per ID e per (timestamp, ID) e il rifiuto di quelli non validi.
+ * Verifies the encoding of opaque cursors by ID and by (timestamp, ID) and the rejection of invalid ones.
+ */
+class CursorPaginationTests {
+
+    @Test
+    void idCursorRoundTrips() {
+        assertThat(CursorPagination.decode(CursorPagination.encode(42L))).isEqualTo(42L);
+        assertThat(CursorPagination.decode(CursorPagination.encode(Long.MAX_VALUE))).isEqualTo(Long.MAX_VALUE);
+    }
+
+    @Test
+    void missingCursorStartsFromTheBeginning() {
+        assertThat(CursorPagination.decode(null)).isZero();
+        assertThat(CursorPagination.decode(" ")).isZero();
+        assertThat(CursorPagination.decodeTime(null)).isNull();
+        assertThat(CursorPagination.decodeTime("")).isNull();
+    }
+
+    @Test
+    void timeCursorRoundTrips() {
+        Instant timestamp = Instant.parse("2026-03-01T10:15:30.123456Z");
+
+        CursorPagination.TimePosition position = CursorPagination.decodeTime(CursorPagination.encode(timestamp, 7L));
+
+        assertThat(position).isEqualTo(new CursorPagination.TimePosition(timestamp, 7L));
+    }
+
+    @Test
+    void cursorsAreUrlSafe() {
+        assertThat(CursorPagination.encode(Instant.parse("2026-03-01T10:15:30Z"), 123_456_789L))
+                .matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    void invalidCursorsAreRejected() {
+        String idCursor = CursorPagination.encode(42L);
+        String timeCursor = CursorPagination.encode(Instant.now(), 42L);
+
+        assertThatThrownBy(() -> CursorPagination.decode("not a cursor")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> CursorPagination.decode(timeCursor)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> CursorPagination.decode(raw("id:abc"))).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> CursorPagination.decodeTime(idCursor)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> CursorPagination.decodeTime(raw("ts:yesterday|1")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> CursorPagination.decodeTime(raw("ts:2026-03-01T10:15:30Z")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void sizeIsClamped() {
+        assertThat(CursorPagination.clampSize(null)).isEqualTo(CursorPagination.DEFAULT_SIZE);
+        assertThat(CursorPagination.clampSize(0)).isEqualTo(CursorPagination.DEFAULT_SIZE);
+        assertThat(CursorPagination.clampSize(10)).isEqualTo(10);
+        assertThat(CursorPagination.clampSize(10_000)).isEqualTo(CursorPagination.MAX_SIZE);
+    }
+
+    private static String raw(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.US_ASCII));
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.demo.config.security;
+
+import com.example.demo.repositories.AccountRepository;
+import com.example.demo.services.events.AccountChangedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.DisabledException;
+import org.springframework.security.authentication.LockedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Verifica la modalità “trusted claims”: un token con versione corrente autentica senza caricare l’account, mentre
+ * una versione superata, un account disabilitato o bloccato vengono rifiutati.
+ * Verifies “trusted claims” mode: a token with the current version authenticates without loading the account, while
+ * a bumped version, a disabled or a locked account are rejected.
+ */
+class JwtAuthenticationFilterTests {
+
+    private static final long EXPIRATION_MS = Duration.ofMinutes(15).toMillis();
+    private static final long ACCOUNT_ID = 7L;
+
+    private final JwtUtil jwtUtil = new JwtUtil(new JwtKeyRing("0123456789abcdef0123456789abcdef",
+            Duration.ofDays(1), Duration.ofHours(1), EXPIRATION_MS), EXPIRATION_MS, 100);
+    private final AccountRepository accountRepository = mock(AccountRepository.class);
+    private final CustomUserDetailsService userDetailsService = mock(CustomUserDetailsService.class);
+    private final PermissionRegistry permissionRegistry = mock(PermissionRegistry.class);
+    private final TokenVersionChecker versionChecker = new TokenVersionChecker(accountRepository, 60_000);
+    private final JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtUtil, userDetailsService,
+            versionChecker, mock(TokenRevocationList.class), permissionRegistry, true);
+
+    JwtAuthenticationFilterTests() {
+        when(accountRepository.findTokenVersionById(ACCOUNT_ID)).thenReturn(Optional.of(1));
+        when(permissionRegistry.authoritiesFor(any())).thenReturn(List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        when(userDetailsService.loadUserByUsername("mario"))
+                .thenThrow(new UsernameNotFoundException("Account disabled"));
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void currentTokenAuthenticatesWithoutLoadingTheAccount() throws Exception {
+        MockHttpServletRequest request = filter(token(1, true, null));
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertThat(authentication).isNotNull();
+        assertThat(authentication.getName()).isEqualTo("mario");
+        assertThat(request.getAttribute("exception")).isNull();
+        verifyNoInteractions(userDetailsService);
+    }
+
+    @Test
+    void bumpedTokenVersionFallsBackToTheDatabaseState() throws Exception {
+        when(accountRepository.findTokenVersionById(ACCOUNT_ID)).thenReturn(Optional.of(2));
+
+        MockHttpServletRequest request = filter(token(1, true, null));
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+        assertThat(request.getAttribute("exception")).isInstanceOf(UsernameNotFoundException.class);
+        verify(userDetailsService).loadUserByUsername("mario");
+    }
+
+    @Test
+    void accountChangeIsSeenBeforeTheVersionExpires() throws Exception {
+        String token = token(1, true, null);
+        filter(token);
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNotNull();
+        SecurityContextHolder.clearContext();
+
+        when(accountRepository.findTokenVersionById(ACCOUNT_ID)).thenReturn(Optional.of(2));
+        versionChecker.onAccountChanged(new AccountChangedEvent(ACCOUNT_ID, "mario"));
+        filter(token);
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+        verify(userDetailsService).loadUserByUsername("mario");
+    }
+
+    @Test
+    void disabledAccountIsRejected() throws Exception {
+        MockHttpServletRequest request = filter(token(1, false, null));
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+        assertThat(request.getAttribute("exception")).isInstanceOf(DisabledException.class);
+        verifyNoInteractions(userDetailsService);
+    }
+
+    @Test
+    void lockedAccountIsRejected() throws Exception {
+        MockHttpServletRequest request = filter(token(1, true, Instant.now().plus(Duration.ofMinutes(10))));
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+        assertThat(request.getAttribute("exception")).isInstanceOf(LockedException.class);
+        verifyNoInteractions(userDetailsService);
+    }
+
+    @Test
+    void expiredLockIsAccepted() throws Exception {
+        filter(token(1, true, Instant.now().minus(Duration.ofMinutes(10))));
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNotNull();
+    }
+
+    private MockHttpServletRequest filter(String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/accounts");
+        request.setServletPath("/api/accounts");
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return request;
+    }
+
+    private String token(int version, boolean enabled, Instant lockedUntil) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(JwtUtil.CLAIM_ACCOUNT_ID, ACCOUNT_ID);
+        claims.put(JwtUtil.CLAIM_TOKEN_VERSION, version);
+        claims.put(JwtUtil.CLAIM_ENABLED, enabled);
+        if (lockedUntil != null) {
+            claims.put(JwtUtil.CLAIM_LOCKED_UNTIL, lockedUntil.getEpochSecond());
+        }
+        return jwtUtil.generateToken("mario", Set.of("USER"), claims);
+    }
+}
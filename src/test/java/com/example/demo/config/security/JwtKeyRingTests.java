@@ -0,0 +1,98 @@
+package com.example.demo.config.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.SecretKey;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Verifica firma con {@code kid}, rotazione e periodo di grazia delle chiavi JWT.
+ * Verifies {@code kid} signing, rotation and grace period of the JWT keys.
+ */
+class JwtKeyRingTests {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef";
+
+    private final MutableClock clock = new MutableClock(
+            Instant.now().truncatedTo(ChronoUnit.HOURS).plus(Duration.ofMinutes(50)));
+    private final JwtKeyRing keyRing = new JwtKeyRing(SECRET, Duration.ofHours(1), Duration.ofMinutes(30),
+            Duration.ofMinutes(15).toMillis(), clock);
+
+    @Test
+    void tokensCarryKidAndVerifyAfterRotationWithinGrace() {
+        JwtUtil jwtUtil = new JwtUtil(keyRing, Duration.ofMinutes(15).toMillis(), 0);
+        String token = jwtUtil.generateToken("mario", Set.of("USER"));
+        String kid = keyRing.signingKey().getKey();
+
+        clock.advance(Duration.ofMinutes(20));
+        keyRing.rotate();
+        assertThat(keyRing.signingKey().getKey()).isNotEqualTo(kid);
+        assertThat(jwtUtil.parseToken(token).getUsername()).isEqualTo("mario");
+    }
+
+    @Test
+    void keysAreDeterministicAcrossInstancesAndRetiredAfterGrace() {
+        JwtKeyRing other = new JwtKeyRing(SECRET, Duration.ofHours(1), Duration.ofMinutes(30),
+                Duration.ofMinutes(15).toMillis(), clock);
+        Map.Entry<String, SecretKey> key = keyRing.signingKey();
+        assertThat(other.verificationKey(key.getKey())).isEqualTo(key.getValue());
+
+        clock.advance(Duration.ofHours(2));
+        assertThatThrownBy(() -> keyRing.verificationKey(key.getKey())).isInstanceOf(MalformedJwtException.class);
+        assertThatThrownBy(() -> keyRing.verificationKey(null)).isInstanceOf(MalformedJwtException.class);
+    }
+
+    @Test
+    void rejectsTokensWithUnknownKid() {
+        JwtUtil jwtUtil = new JwtUtil(keyRing, Duration.ofMinutes(15).toMillis(), 0);
+        String forged = Jwts.builder()
+                .header().keyId("k1").and()
+                .subject("mario")
+                .expiration(Date.from(Instant.now().plusSeconds(60)))
+                .signWith(keyRing.signingKey().getValue(), Jwts.SIG.HS256)
+                .compact();
+
+        assertThatThrownBy(() -> jwtUtil.parseToken(forged)).isInstanceOf(MalformedJwtException.class);
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.demo.config.security;
+
+import com.example.demo.config.audit.AuditPartitionManager;
+import com.example.demo.config.exceptions.TooManyAttemptsException;
+import com.example.demo.services.events.AccountChangedEvent;
+import org.junit.jupiter.api.Test;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Verifica finestre scorrevoli, blocco automatico e salvataggio a lotti dei tentativi di login.
+ * Verifies sliding windows, automatic lockout and batched persistence of login attempts.
+ */
+class LoginAttemptTrackerTests {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final AtomicLong now = new AtomicLong(1_700_000_000_000L);
+    private final UserDetailsCache userDetailsCache = new UserDetailsCache(true, 100, Duration.ofMinutes(5),
+            new SimpleMeterRegistry());
+    private final LoginAttemptTracker tracker = new LoginAttemptTracker(jdbcTemplate, userDetailsCache, now::get, true,
+            Duration.ofMinutes(10), 3, Duration.ofMinutes(5), 5, 1000);
+
+    @Test
+    void locksUsernameAfterMaxFailuresUntilLockExpires() {
+        for (int i = 0; i < 3; i++) {
+            tracker.checkAllowed("Mario", null);
+            tracker.recordFailure("Mario", null);
+        }
+
+        assertThatThrownBy(() -> tracker.checkAllowed("mario", null))
+                .isInstanceOf(TooManyAttemptsException.class)
+                .extracting(ex -> ((TooManyAttemptsException) ex).getRetryAfter())
+                .isEqualTo(Duration.ofMinutes(5));
+
+        now.addAndGet(Duration.ofMinutes(5).toMillis());
+        assertThatCode(() -> tracker.checkAllowed("mario", null)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void failuresOutsideTheWindowAreForgotten() {
+        tracker.recordFailure("mario", null);
+        tracker.recordFailure("mario", null);
+        now.addAndGet(Duration.ofMinutes(11).toMillis());
+        tracker.recordFailure("mario", null);
+
+        assertThatCode(() -> tracker.checkAllowed("mario", null)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void throttlesIpAcrossUsernames() {
+        for (int i = 0; i < 5; i++) {
+            tracker.recordFailure("user" + i, "10.0.0.1");
+        }
+
+        assertThatThrownBy(() -> tracker.checkAllowed("other", "10.0.0.1")).isInstanceOf(TooManyAttemptsException.class);
+        assertThatCode(() -> tracker.checkAllowed("other", "10.0.0.2")).doesNotThrowAnyException();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flushCoalescesFailuresAndLocksIntoBatches() {
+        tracker.recordFailure("mario", null);
+        tracker.recordFailure("mario", null);
+        tracker.recordFailure("luigi", null);
+        tracker.recordFailure("luigi", null);
+        tracker.recordFailure("luigi", null);
+
+        tracker.flush();
+
+        ArgumentCaptor<List<Object[]>> failures = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<BatchPreparedStatementSetter> locks = ArgumentCaptor.forClass(BatchPreparedStatementSetter.class);
+        verify(jdbcTemplate).batchUpdate(eq(LoginAttemptTracker.FAILURES_SQL), failures.capture());
+        verify(jdbcTemplate).batchUpdate(eq(LoginAttemptTracker.LOCK_SQL), locks.capture());
+        assertThat(failures.getValue()).extracting(args -> args[1] + "=" + args[0])
+                .containsExactlyInAnyOrder("mario=2", "luigi=3");
+        assertThat(lockedKeys(locks.getValue())).containsExactly("luigi");
+
+        tracker.flush();
+        verify(jdbcTemplate).batchUpdate(anyString(), anyList());
+        verify(jdbcTemplate).batchUpdate(anyString(), any(BatchPreparedStatementSetter.class));
+    }
+
+    @Test
+    void lockIsWrittenInUtcWhateverTheJvmTimeZone() {
+        TimeZone jvmZone = TimeZone.getDefault();
+        TimeZone.setDefault(TimeZone.getTimeZone("Europe/Rome"));
+        try (SingleConnectionDataSource dataSource = new SingleConnectionDataSource(
+                "jdbc:h2:mem:login-attempts-tz;DB_CLOSE_DELAY=-1", "sa", "", true)) {
+            JdbcTemplate h2 = new JdbcTemplate(dataSource);
+            // Sessione nel fuso della JVM e colonna senza fuso, come datetime(6) su MariaDB
+            // Session in the JVM zone and a column without zone, like datetime(6) on MariaDB
+            h2.execute("set time zone 'Europe/Rome'");
+            h2.execute("create table accounts (username_normalized varchar(50), failed_attempts int, "
+                    + "locked_until timestamp(6))");
+            h2.update("insert into accounts (username_normalized) values ('luigi')");
+            LoginAttemptTracker tracker = new LoginAttemptTracker(h2, userDetailsCache, now::get, true,
+                    Duration.ofMinutes(10), 3, Duration.ofMinutes(5), 5, 1000);
+            for (int i = 0; i < 3; i++) {
+                tracker.recordFailure("luigi", null);
+            }
+
+            tracker.flush();
+
+            Timestamp lockedUntil = h2.queryForObject("select locked_until from accounts", (rs, row) ->
+                    rs.getTimestamp(1, AuditPartitionManager.utcCalendar()));
+            assertThat(lockedUntil.toInstant())
+                    .isEqualTo(Instant.ofEpochMilli(now.get()).plus(Duration.ofMinutes(5)));
+        } finally {
+            TimeZone.setDefault(jvmZone);
+        }
+    }
+
+    @Test
+    void flushEvictsLockedAccountsFromTheUserCache() {
+        AtomicInteger loads = new AtomicInteger();
+        Function<String, UserDetails> loader = username -> {
+            loads.incrementAndGet();
+            return User.withUsername(username).password("x").build();
+        };
+        userDetailsCache.get("Luigi", loader);
+        userDetailsCache.get("mario", loader);
+        when(jdbcTemplate.batchUpdate(eq(LoginAttemptTracker.LOCK_SQL), any(BatchPreparedStatementSetter.class)))
+                .thenReturn(new int[]{1});
+        for (int i = 0; i < 3; i++) {
+            tracker.recordFailure("luigi", null);
+        }
+
+        tracker.flush();
+        userDetailsCache.get("Luigi", loader);
+        userDetailsCache.get("mario", loader);
+
+        assertThat(loads).hasValue(3);
+    }
+
+    @Test
+    void failedFlushIsRetriedAndSuccessClearsPendingFailures() {
+        when(jdbcTemplate.batchUpdate(eq(LoginAttemptTracker.FAILURES_SQL), anyList()))
+                .thenThrow(new DataAccessResourceFailureException("down"))
+                .thenReturn(new int[]{1});
+        tracker.recordFailure("mario", null);
+        tracker.flush();
+        tracker.flush();
+        verify(jdbcTemplate, times(2)).batchUpdate(eq(LoginAttemptTracker.FAILURES_SQL), anyList());
+
+        tracker.recordFailure("luigi", null);
+        tracker.onAccountChanged(new AccountChangedEvent(1L, "Luigi"));
+        tracker.recordSuccess("mario");
+        tracker.flush();
+        verify(jdbcTemplate, times(2)).batchUpdate(eq(LoginAttemptTracker.FAILURES_SQL), anyList());
+        verify(jdbcTemplate, never()).batchUpdate(eq(LoginAttemptTracker.LOCK_SQL), any(BatchPreparedStatementSetter.class));
+    }
+
+    private static List<String> lockedKeys(BatchPreparedStatementSetter setter) {
+        List<String> keys = new ArrayList<>();
+        try {
+            for (int i = 0; i < setter.getBatchSize(); i++) {
+                PreparedStatement ps = mock(PreparedStatement.class);
+                setter.setValues(ps, i);
+                ArgumentCaptor<String> key = ArgumentCaptor.forClass(String.class);
+                verify(ps).setString(eq(2), key.capture());
+                keys.add(key.getValue());
+            }
+        } catch (SQLException ex) {
+            throw new IllegalStateException(ex);
+        }
+        return keys;
+    }
+}
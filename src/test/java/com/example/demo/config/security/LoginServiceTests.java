@@ -0,0 +1,62 @@
+package com.example.demo.config.security;
+
+import com.example.demo.config.mapper.EntityMapper;
+import com.example.demo.repositories.AccountRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+/**
+ * Verifica che il logout revochi il refresh token anche con un access token non valido.
+ * Verifies that logout revokes the refresh token even with an invalid access token.
+ */
+class LoginServiceTests {
+
+    private static final long EXPIRATION_MS = Duration.ofMinutes(15).toMillis();
+
+    private final JwtUtil jwtUtil = jwtUtil("0123456789abcdef0123456789abcdef");
+    private final RefreshTokenService refreshTokenService = mock(RefreshTokenService.class);
+    private final TokenRevocationList revocationList = mock(TokenRevocationList.class);
+    private final LoginService loginService = new LoginService(mock(AccountRepository.class),
+            mock(PasswordEncoder.class), jwtUtil, mock(AuthenticationManager.class), mock(EntityMapper.class),
+            mock(LoginAttemptTracker.class), refreshTokenService, revocationList);
+
+    @Test
+    void logoutRevokesBothTokens() {
+        loginService.logout(jwtUtil.generateToken("mario", Set.of("USER")), "refresh");
+
+        verify(revocationList).revoke(any(), any(), any());
+        verify(refreshTokenService).revoke("refresh");
+    }
+
+    @Test
+    void logoutWithAForgedAccessTokenStillRevokesTheRefreshToken() {
+        String forged = jwtUtil("fedcba9876543210fedcba9876543210").generateToken("mario", Set.of("USER"));
+
+        loginService.logout(forged, "refresh");
+
+        verifyNoInteractions(revocationList);
+        verify(refreshTokenService).revoke("refresh");
+    }
+
+    @Test
+    void logoutWithAGarbledAccessTokenStillRevokesTheRefreshToken() {
+        loginService.logout("not.a.jwt", "refresh");
+
+        verifyNoInteractions(revocationList);
+        verify(refreshTokenService).revoke("refresh");
+    }
+
+    private static JwtUtil jwtUtil(String secret) {
+        return new JwtUtil(new JwtKeyRing(secret, Duration.ofDays(1), Duration.ofHours(1), EXPIRATION_MS),
+                EXPIRATION_MS, 0);
+    }
+}
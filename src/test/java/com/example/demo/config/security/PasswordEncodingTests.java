@@ -0,0 +1,56 @@
+package com.example.demo.config.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Verifica il prefisso di algoritmo, il rilevamento degli hash da aggiornare e la calibrazione del costo, ammessa
+ * solo nel profilo dev.
+ * Verifies the algorithm prefix, detection of hashes to upgrade and cost calibration, allowed in the dev profile
+ * only.
+ */
+class PasswordEncodingTests {
+
+    private final PasswordEncoder encoder = SecurityConfig.delegatingPasswordEncoder(5);
+
+    @Test
+    void newHashesRecordAlgorithmAndCost() {
+        String hash = encoder.encode("secret");
+
+        assertThat(hash).startsWith("{bcrypt}$2a$05$");
+        assertThat(encoder.matches("secret", hash)).isTrue();
+        assertThat(encoder.upgradeEncoding(hash)).isFalse();
+    }
+
+    @Test
+    void legacyAndWeakerHashesAreFlaggedForUpgrade() {
+        String legacy = new BCryptPasswordEncoder(5).encode("secret");
+        String weaker = "{bcrypt}" + new BCryptPasswordEncoder(4).encode("secret");
+
+        assertThat(encoder.matches("secret", legacy)).isTrue();
+        assertThat(encoder.upgradeEncoding(legacy)).isTrue();
+        assertThat(encoder.matches("secret", weaker)).isTrue();
+        assertThat(encoder.upgradeEncoding(weaker)).isTrue();
+    }
+
+    @Test
+    void calibrationStaysWithinBounds() {
+        assertThat(BCryptCostCalibrator.calibrate(Duration.ofNanos(1), 4, 6)).isEqualTo(4);
+        assertThat(BCryptCostCalibrator.calibrate(Duration.ofMinutes(1), 4, 6)).isEqualTo(6);
+    }
+
+    @Test
+    void calibrationIsOnlyAllowedInDev() {
+        assertThat(SecurityConfig.bcryptStrength(12, false, Duration.ofMinutes(1), 4, 6)).isEqualTo(12);
+        assertThat(SecurityConfig.bcryptStrength(0, true, Duration.ofMinutes(1), 4, 6)).isEqualTo(6);
+        assertThatThrownBy(() -> SecurityConfig.bcryptStrength(0, false, Duration.ofMinutes(1), 4, 6))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("security.hashing.bcrypt.strength");
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.demo.config.security;
+
+import com.example.demo.config.exceptions.ServiceBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Verifica il controllo di ammissione e le metriche del pool di hashing.
+ * Verifies admission control and metrics of the hashing pool.
+ */
+class PasswordHashingExecutorTests {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private PasswordHashingExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdown();
+    }
+
+    @Test
+    void rejectsWhenThreadsAndQueueAreBusy() throws Exception {
+        executor = new PasswordHashingExecutor(1, 1, Duration.ofSeconds(5), Duration.ofSeconds(3), meterRegistry);
+        CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(() -> executor.execute("matches", this::blocked));
+        awaitGauge("security.hashing.active", 1);
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> executor.execute("matches", this::blocked));
+        awaitGauge("security.hashing.queue.size", 1);
+
+        assertThatThrownBy(() -> executor.execute("matches", () -> true))
+                .isInstanceOf(ServiceBusyException.class)
+                .extracting(ex -> ((ServiceBusyException) ex).getRetryAfter())
+                .isEqualTo(Duration.ofSeconds(3));
+
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(meterRegistry.get("security.hashing.rejected").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("security.hashing.duration").tag("operation", "matches").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void rejectsWhenResultIsLate() {
+        executor = new PasswordHashingExecutor(1, 1, Duration.ofMillis(50), Duration.ofSeconds(1), meterRegistry);
+
+        assertThatThrownBy(() -> executor.execute("encode", this::blocked)).isInstanceOf(ServiceBusyException.class);
+        assertThat(executor.execute("encode", () -> "hash")).isEqualTo("hash");
+    }
+
+    @Test
+    void executeAllKeepsOrderWithoutOverflowingTheQueue() {
+        executor = new PasswordHashingExecutor(2, 1, Duration.ofSeconds(5), Duration.ofSeconds(1), meterRegistry);
+        List<Supplier<Integer>> tasks = IntStream.range(0, 20).<Supplier<Integer>>mapToObj(i -> () -> i).toList();
+
+        assertThat(executor.executeAll("encode", tasks)).containsExactlyElementsOf(IntStream.range(0, 20).boxed().toList());
+        assertThat(meterRegistry.get("security.hashing.rejected").counter().count()).isZero();
+    }
+
+    private boolean blocked() {
+        try {
+            return release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void awaitGauge(String name, int value) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get(name).gauge().value() < value && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.demo.config.security;
+
+import com.example.demo.entities.Permission;
+import com.example.demo.entities.Role;
+import com.example.demo.config.catalog.RoleCatalog;
+import com.example.demo.services.events.RoleChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica catalogo versionato, indici di bit, compilazione dei ruoli e verifiche del bean {@code perm}.
+ * Verifies the versioned catalog, bit indices, role compilation and the {@code perm} bean checks.
+ */
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+@Import({RoleCatalog.class, PermissionRegistry.class, PermissionChecks.class})
+class PermissionRegistryTests {
+
+    @Autowired
+    private TestEntityManager em;
+    @Autowired
+    private RoleCatalog catalog;
+    @Autowired
+    private PermissionRegistry registry;
+    @Autowired
+    private PermissionChecks perm;
+
+    private Role editor;
+    private Permission delete;
+
+    @BeforeEach
+    void seed() {
+        Permission read = em.persist(Permission.builder().name("USER_READ").build());
+        Permission write = em.persist(Permission.builder().name("USER_WRITE").build());
+        delete = em.persist(Permission.builder().name("USER_DELETE").build());
+        em.persist(Role.builder().name("VIEWER").permissions(Set.of(read)).build());
+        editor = em.persist(Role.builder().name("EDITOR").permissions(new HashSet<>(Set.of(read, write))).build());
+        em.flush();
+        catalog.reload();
+    }
+
+    @Test
+    void compilesRolesIntoSharedAuthorities() {
+        List<GrantedAuthority> authorities = registry.authoritiesFor(Set.of("EDITOR"));
+
+        assertThat(registry.authoritiesFor(Set.of("EDITOR"))).isSameAs(authorities);
+        assertThat(authorities).extracting(GrantedAuthority::getAuthority)
+                .containsExactlyInAnyOrder("EDITOR", "USER_READ", "USER_WRITE", null);
+        PermissionSet permissions = registry.permissionsOf(List.of("VIEWER", "EDITOR"));
+        assertThat(permissions.size()).isEqualTo(2);
+        assertThat(permissions.contains(registry.bitOf("USER_WRITE"))).isTrue();
+        assertThat(permissions.contains(registry.bitOf("USER_DELETE"))).isFalse();
+        assertThat(registry.bitOf("UNKNOWN")).isEqualTo(-1);
+    }
+
+    @Test
+    void permBeanChecksBitsAndFollowsRoleChanges() {
+        Authentication editorAuth = authenticated(registry.authoritiesFor(Set.of("EDITOR")));
+        int deleteBit = registry.bitOf("USER_DELETE");
+
+        assertThat(perm.has(editorAuth, "USER_WRITE")).isTrue();
+        assertThat(perm.hasAll(editorAuth, "USER_READ", "USER_WRITE")).isTrue();
+        assertThat(perm.hasAll(editorAuth, "USER_READ", "USER_DELETE")).isFalse();
+        assertThat(perm.hasAny(editorAuth, "USER_DELETE", "UNKNOWN")).isFalse();
+        assertThat(perm.has(null, "USER_READ")).isFalse();
+
+        long version = catalog.snapshot().version();
+        assertThat(catalog.reload().version()).isEqualTo(version);
+        editor.getPermissions().add(delete);
+        em.flush();
+        catalog.onRoleChanged(new RoleChangedEvent(editor.getId()));
+        assertThat(catalog.snapshot().version()).isEqualTo(version + 1);
+
+        assertThat(registry.bitOf("USER_DELETE")).isEqualTo(deleteBit);
+        assertThat(perm.has(editorAuth, "USER_DELETE")).isTrue();
+        assertThat(perm.has(authenticated(List.of(() -> "VIEWER")), "USER_READ")).isTrue();
+    }
+
+    private static Authentication authenticated(List<? extends GrantedAuthority> authorities) {
+        return UsernamePasswordAuthenticationToken.authenticated("mario", null, authorities);
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.demo.config.security;
+
+import com.example.demo.entities.Account;
+import com.example.demo.entities.Permission;
+import com.example.demo.entities.Persona;
+import com.example.demo.entities.RefreshSession;
+import com.example.demo.entities.Role;
+import com.example.demo.repositories.RefreshSessionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica emissione, rotazione e revoca delle sessioni di refresh.
+ * Verifies issuing, rotation and revocation of refresh sessions.
+ */
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+@Import(RefreshTokenService.class)
+class RefreshTokenServiceTests {
+
+    @Autowired
+    private TestEntityManager em;
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+    @Autowired
+    private RefreshSessionRepository sessionRepository;
+
+    private Account account;
+
+    @BeforeEach
+    void seed() {
+        Permission permission = em.persist(Permission.builder().name("READ").build());
+        Role role = em.persist(Role.builder().name("USER").permissions(Set.of(permission)).build());
+        Persona persona = em.persist(Persona.builder().firstName("Mario").lastName("Rossi").build());
+        account = em.persist(Account.builder().username("mario").passwordHash("x").persona(persona)
+                .roles(new HashSet<>(Set.of(role))).tokenVersion(0).build());
+        em.flush();
+    }
+
+    @Test
+    void rotationIssuesNewTokenAndInvalidatesTheOldOne() {
+        String first = refreshTokenService.issue(account);
+        em.flush();
+        em.clear();
+
+        Optional<RefreshTokenService.Rotation> rotation = refreshTokenService.rotate(first);
+        assertThat(rotation).isPresent();
+        assertThat(rotation.get().refreshToken()).isNotEqualTo(first);
+        assertThat(rotation.get().account().getRoles()).extracting(Role::getName).containsExactly("USER");
+        em.flush();
+        em.clear();
+        assertThat(sessionRepository.findByTokenHash(RefreshTokenService.hash(first)))
+                .get().extracting(RefreshSession::getRevokedAt).isNotNull();
+        assertThat(sessionRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    void reuseOfRotatedTokenRevokesTheFamily() {
+        String first = refreshTokenService.issue(account);
+        em.flush();
+        em.clear();
+        String second = refreshTokenService.rotate(first).orElseThrow().refreshToken();
+        em.flush();
+        em.clear();
+
+        assertThat(refreshTokenService.rotate(first)).isEmpty();
+        em.flush();
+        em.clear();
+        assertThat(refreshTokenService.rotate(second)).isEmpty();
+    }
+
+    @Test
+    void securityVersionChangeInvalidatesSessions() {
+        String token = refreshTokenService.issue(account);
+        account.setTokenVersion(1);
+        em.flush();
+        em.clear();
+
+        assertThat(refreshTokenService.rotate(token)).isEmpty();
+        assertThat(refreshTokenService.rotate("unknown")).isEmpty();
+    }
+}
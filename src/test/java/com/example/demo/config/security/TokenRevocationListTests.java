@@ -0,0 +1,91 @@
+package com.example.demo.config.security;
+
+import com.example.demo.entities.RevokedToken;
+import com.example.demo.repositories.RevokedTokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Verifica il filtro di Bloom e la conferma sul database dei token revocati.
+ * Verifies the Bloom filter and the database confirmation of revoked tokens.
+ */
+class TokenRevocationListTests {
+
+    private final RevokedTokenRepository repository = mock(RevokedTokenRepository.class);
+
+    private TokenRevocationList newList() {
+        TokenRevocationList list = new TokenRevocationList(repository, 1000, 0.001, Duration.ofMinutes(1),
+                new SimpleMeterRegistry());
+        list.load();
+        return list;
+    }
+
+    @Test
+    void bloomFilterHasNoFalseNegativesAndFewFalsePositives() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        List<String> added = IntStream.range(0, 10_000).mapToObj(i -> UUID.randomUUID().toString()).toList();
+        added.forEach(filter::add);
+
+        assertThat(added).allMatch(filter::mightContain);
+        long falsePositives = IntStream.range(0, 10_000)
+                .filter(i -> filter.mightContain(UUID.randomUUID().toString()))
+                .count();
+        assertThat(falsePositives).isLessThan(200);
+    }
+
+    @Test
+    void unrevokedTokensAreAnsweredWithoutQueries() {
+        when(repository.findActiveTokenIds(any())).thenReturn(List.of("revoked-1"));
+        TokenRevocationList list = newList();
+        when(repository.existsById("revoked-1")).thenReturn(true);
+
+        assertThat(list.isRevoked(UUID.randomUUID().toString())).isFalse();
+        assertThat(list.isRevoked(null)).isFalse();
+        verify(repository, never()).existsById(anyString());
+
+        assertThat(list.isRevoked("revoked-1")).isTrue();
+        assertThat(list.isRevoked("revoked-1")).isTrue();
+        verify(repository, times(1)).existsById("revoked-1");
+    }
+
+    @Test
+    void revokeAndSyncUpdateTheFilter() {
+        TokenRevocationList list = newList();
+
+        list.revoke("local", 1L, Instant.now().plusSeconds(60));
+        list.revoke("expired", 1L, Instant.now().minusSeconds(1));
+        verify(repository, times(1)).save(any(RevokedToken.class));
+        assertThat(list.isRevoked("local")).isTrue();
+
+        when(repository.findTokenIdsRevokedSince(any())).thenReturn(List.of("remote"));
+        when(repository.existsById("remote")).thenReturn(true);
+        list.sync();
+        assertThat(list.isRevoked("remote")).isTrue();
+    }
+
+    @Test
+    void fallsBackToDatabaseUntilTheFirstLoadSucceeds() {
+        when(repository.findActiveTokenIds(any())).thenThrow(new DataAccessResourceFailureException("down"));
+        TokenRevocationList list = newList();
+        when(repository.existsById("any")).thenReturn(false);
+
+        assertThat(list.isRevoked("any")).isFalse();
+        verify(repository).existsById("any");
+    }
+}
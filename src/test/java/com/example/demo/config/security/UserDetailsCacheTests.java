@@ -0,0 +1,88 @@
+package com.example.demo.config.security;
+
+import com.example.demo.services.events.AccountChangedEvent;
+import com.example.demo.services.events.PermissionChangedEvent;
+import com.example.demo.services.events.RoleChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica che la cache dei dettagli utente venga svuotata dalle modifiche ad account, ruoli e permessi e che non
+ * conservi gli account bloccati.
+ * Verifies that the user details cache is evicted by account, role and permission changes and never keeps locked
+ * accounts.
+ */
+class UserDetailsCacheTests {
+
+    private final UserDetailsCache cache = new UserDetailsCache(true, 100, Duration.ofMinutes(5),
+            new SimpleMeterRegistry());
+    private final Map<String, Integer> loads = new HashMap<>();
+    private final Function<String, UserDetails> loader = username -> {
+        loads.merge(username, 1, Integer::sum);
+        return User.withUsername(username).password("x").roles("USER").build();
+    };
+
+    @Test
+    void loadsEachUserOnce() {
+        cache.get("mario", loader);
+        cache.get("mario", loader);
+
+        assertThat(loads).containsEntry("mario", 1);
+    }
+
+    @Test
+    void accountChangeEvictsOnlyThatAccount() {
+        cache.get("mario", loader);
+        cache.get("luigi", loader);
+
+        cache.onAccountChanged(new AccountChangedEvent(1L, "mario"));
+        cache.get("mario", loader);
+        cache.get("luigi", loader);
+
+        assertThat(loads).containsEntry("mario", 2).containsEntry("luigi", 1);
+    }
+
+    @Test
+    void roleAndPermissionChangesEvictEverything() {
+        cache.get("mario", loader);
+        cache.onRoleChanged(new RoleChangedEvent(1L));
+        cache.get("mario", loader);
+        cache.onPermissionChanged(new PermissionChangedEvent(1L));
+        cache.get("mario", loader);
+
+        assertThat(loads).containsEntry("mario", 3);
+    }
+
+    @Test
+    void evictIgnoreCaseMatchesTheNormalizedUsername() {
+        cache.get("Mario.Rossi", loader);
+
+        cache.evictIgnoreCase(Set.of("mario.rossi"));
+        cache.get("Mario.Rossi", loader);
+
+        assertThat(loads).containsEntry("Mario.Rossi", 2);
+    }
+
+    @Test
+    void lockedAccountsAreNotCached() {
+        Function<String, UserDetails> locked = username -> {
+            loads.merge(username, 1, Integer::sum);
+            return User.withUsername(username).password("x").roles("USER").accountLocked(true).build();
+        };
+
+        cache.get("mario", locked);
+        cache.get("mario", locked);
+
+        assertThat(loads).containsEntry("mario", 2);
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.demo.config.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Verifica la cache dei token già verificati: scadenza, limite di dimensione e indipendenza dalla firma.
+ * Verifies the cache of already verified tokens: expiration, size bound and independence from the signature.
+ */
+class VerifiedTokenCacheTests {
+
+    private static final long EXPIRATION_MS = Duration.ofMinutes(15).toMillis();
+
+    private final Instant now = Instant.now();
+
+    @Test
+    void returnsTheCachedTokenUntilItExpires() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(10);
+        ParsedToken parsed = parsed("mario", now.plusSeconds(60));
+
+        cache.put("k", parsed, now);
+
+        assertThat(cache.get("k", now)).isSameAs(parsed);
+        assertThat(cache.get("k", now.plusSeconds(60))).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void skipsExpiredTokensAndTokensWithoutExpiration() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(10);
+
+        cache.put("expired", parsed("mario", now.minusSeconds(1)), now);
+        cache.put("endless", parsed("mario", null), now);
+
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void zeroSizeDisablesTheCache() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(0);
+
+        cache.put("k", parsed("mario", now.plusSeconds(60)), now);
+
+        assertThat(cache.get("k", now)).isNull();
+    }
+
+    @Test
+    void staysWithinItsMaximumSize() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(100);
+
+        for (int i = 0; i < 1_000; i++) {
+            cache.put("k" + i, parsed("user" + i, now.plusSeconds(60)), now);
+        }
+
+        assertThat(cache.size()).isLessThanOrEqualTo(100);
+        assertThat(cache.get("k999", now)).isNotNull();
+    }
+
+    @Test
+    void aTamperedTokenIsNotServedFromTheCache() {
+        JwtUtil jwtUtil = new JwtUtil(new JwtKeyRing("0123456789abcdef0123456789abcdef", Duration.ofDays(1),
+                Duration.ofHours(1), EXPIRATION_MS), EXPIRATION_MS, 100);
+        String token = jwtUtil.generateToken("mario", Set.of("USER"));
+        String tampered = token.substring(0, token.length() - 2)
+                + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThat(jwtUtil.parseToken(token)).isSameAs(jwtUtil.parseToken(token));
+        assertThatThrownBy(() -> jwtUtil.parseToken(tampered)).isInstanceOf(MalformedJwtException.class);
+    }
+
+    private static ParsedToken parsed(String username, Instant expiration) {
+        return new ParsedToken(Jwts.claims()
+                .subject(username)
+                .expiration(expiration != null ? Date.from(expiration) : null)
+                .build());
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.demo.repositories;
+
+import com.example.demo.entities.Account;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Misura la latenza della ricerca case-insensitive per username a due dimensioni della tabella di account
+ * ({@value #SMALL} righe e 1M di default, {@code -Dbenchmark.accounts=N}) e verifica che p50 e p99 restino piatti:
+ * il rapporto tra le due misure deve restare entro {@value #MAX_P50_GROWTH} (p50) e {@value #MAX_P99_GROWTH} (p99).
+ * Come riferimento viene registrato anche il confronto su {@code lower(username)} senza indice.
+ * Escluso dall’esecuzione normale dei test: {@code mvn test -Pbenchmark}.
+ *
+ * Measures the latency of the case-insensitive username lookup at two accounts table sizes ({@value #SMALL} rows
+ * and 1M by default, {@code -Dbenchmark.accounts=N}) and checks that p50 and p99 stay flat: the ratio between the
+ * two measurements must stay within {@value #MAX_P50_GROWTH} (p50) and {@value #MAX_P99_GROWTH} (p99). The
+ * unindexed {@code lower(username)} comparison is logged as a reference.
+ * Excluded from the normal test run: {@code mvn test -Pbenchmark}.
+ */
+@Slf4j
+@Tag("benchmark")
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+// Senza transazione di test: il rollback di 2M righe terrebbe in memoria l’undo log
+// Without a test transaction: rolling back 2M rows would keep the undo log in memory
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AccountLookupBenchmarkTests {
+
+    private static final int SMALL = 10_000;
+    private static final int LARGE = Integer.getInteger("benchmark.accounts", 1_000_000);
+    private static final double MAX_P50_GROWTH = 3.0;
+    private static final double MAX_P99_GROWTH = 5.0;
+    private static final int WARMUP = 10_000;
+    private static final int SAMPLES = 10_000;
+    private static final int SCAN_SAMPLES = 20;
+    private static final int SEED_CHUNK = 50_000;
+
+    @Autowired
+    private AccountRepository accountRepository;
+    @Autowired
+    private EntityManager em;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void usernameLookupLatencyStaysFlatAsTheTableGrows() {
+        SplittableRandom random = new SplittableRandom(42);
+        Function<String, Account> indexed = username -> accountRepository.findByUsernameIgnoreCase(username).orElseThrow();
+        Function<String, Account> scan = username -> em.createQuery(
+                        "select a from Account a where lower(a.username) = :username", Account.class)
+                .setParameter("username", username.toLowerCase(Locale.ROOT))
+                .getSingleResult();
+
+        seed(1, SMALL);
+        measure(indexed, random, SMALL, WARMUP);
+        long[] small = measure(indexed, random, SMALL, SAMPLES);
+        log.info("username lookup, {} accounts: p50={} ms p99={} ms", SMALL, millis(small, 0.50), millis(small, 0.99));
+
+        seed(SMALL + 1, LARGE);
+        measure(indexed, random, LARGE, WARMUP);
+        long[] large = measure(indexed, random, LARGE, SAMPLES);
+        long[] scans = measure(scan, random, LARGE, SCAN_SAMPLES);
+        log.info("username lookup, {} accounts: p50={} ms p99={} ms, lower(username) scan p50={} ms",
+                LARGE, millis(large, 0.50), millis(large, 0.99), millis(scans, 0.50));
+
+        assertThat(millis(large, 0.50)).isLessThanOrEqualTo(millis(small, 0.50) * MAX_P50_GROWTH);
+        assertThat(millis(large, 0.99)).isLessThanOrEqualTo(millis(small, 0.99) * MAX_P99_GROWTH);
+    }
+
+    /**
+     * Righe {@code [first, last]} generate da H2 a blocchi, ognuno nella sua transazione.
+     * Rows {@code [first, last]} generated by H2 in chunks, each committed on its own.
+     */
+    private void seed(int first, int last) {
+        for (int from = first; from <= last; from += SEED_CHUNK) {
+            int to = Math.min(last, from + SEED_CHUNK - 1);
+            jdbcTemplate.update("insert into personas (id, first_name, last_name) "
+                    + "select x, 'Name' || x, 'Last' || x from system_range(?, ?)", from, to);
+            jdbcTemplate.update("insert into accounts (id, username, username_normalized, password_hash, persona_id, "
+                    + "token_version, enabled, email_verified) "
+                    + "select x, 'User.' || x, 'user.' || x, 'x', x, 0, true, false from system_range(?, ?)", from, to);
+        }
+    }
+
+    private long[] measure(Function<String, Account> lookup, SplittableRandom random, int accounts, int samples) {
+        long[] latencies = new long[samples];
+        for (int i = 0; i < samples; i++) {
+            long id = random.nextLong(1, accounts + 1L);
+            String username = (random.nextBoolean() ? "USER." : "user.") + id;
+            long start = System.nanoTime();
+            Account account = lookup.apply(username);
+            latencies[i] = System.nanoTime() - start;
+            assertThat(account.getId()).isEqualTo(id);
+            em.clear();
+        }
+        Arrays.sort(latencies);
+        return latencies;
+    }
+
+    private static double millis(long[] sorted, double percentile) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1)] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.demo.services;
+
+import com.example.demo.config.catalog.RoleCatalog;
+import com.example.demo.config.mapper.CollectionIdAssembler;
+import com.example.demo.config.mapper.EntityMapperImpl;
+import com.example.demo.config.validation.ExistingPersonaValidator;
+import com.example.demo.config.validation.ExistingRolesValidator;
+import com.example.demo.config.validation.ReferenceResolver;
+import com.example.demo.dto.request.CreateAccountRequestDTO;
+import com.example.demo.entities.Persona;
+import com.example.demo.entities.Role;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica che validazione e creazione di un account usino un numero di query indipendente dal numero di ruoli.
+ *
+ * Verifies that validating and creating an account use a number of queries independent of the number of roles.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.example.demo.services.SqlStatementCounter"
+})
+@Import({EntityMapperImpl.class, CollectionIdAssembler.class, RoleCatalog.class, ReferenceResolver.class,
+        AccountServiceImpl.class, AccountCreationQueryTests.Config.class})
+class AccountCreationQueryTests {
+
+    private static final int ROLES = 6;
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        @SuppressWarnings("deprecation")
+        PasswordEncoder passwordEncoder() {
+            return NoOpPasswordEncoder.getInstance();
+        }
+    }
+
+    @Autowired
+    private TestEntityManager em;
+    @Autowired
+    private ReferenceResolver resolver;
+    @Autowired
+    private AccountServiceImpl accountService;
+
+    private final List<Long> roleIds = new ArrayList<>();
+    private final List<Long> personaIds = new ArrayList<>();
+
+    @BeforeEach
+    void seed() {
+        for (int i = 0; i < ROLES; i++) {
+            roleIds.add(em.persist(Role.builder().name("ROLE_" + i).build()).getId());
+        }
+        for (int i = 0; i < 2; i++) {
+            personaIds.add(em.persist(Persona.builder().firstName("Name" + i).lastName("Last" + i).build()).getId());
+        }
+        em.flush();
+        em.clear();
+    }
+
+    @AfterEach
+    void resetRequest() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void createAccountQueriesDoNotGrowWithRoleCount() {
+        int oneRole = createInRequest("single", personaIds.get(0), Set.of(roleIds.get(0)));
+        int allRoles = createInRequest("multi", personaIds.get(1), new HashSet<>(roleIds));
+
+        assertThat(allRoles).isEqualTo(oneRole);
+    }
+
+    @Test
+    void validatorsReportMissingReferences() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+        assertThat(new ExistingRolesValidator(resolver).isValid(Set.of(roleIds.get(0), -1L), null)).isFalse();
+        assertThat(new ExistingRolesValidator(resolver).isValid(Set.of(roleIds.get(0)), null)).isTrue();
+        assertThat(new ExistingPersonaValidator(resolver).isValid(-1L, null)).isFalse();
+        assertThat(new ExistingPersonaValidator(resolver).isValid(personaIds.get(0), null)).isTrue();
+    }
+
+    /**
+     * Simula una richiesta HTTP: validazione del DTO seguita dalla creazione, contando le istruzioni SQL.
+     * Simulates an HTTP request: DTO validation followed by creation, counting the SQL statements.
+     */
+    private int createInRequest(String username, Long personaId, Set<Long> roles) {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        CreateAccountRequestDTO request = new CreateAccountRequestDTO();
+        request.setUsername(username);
+        request.setPassword("Password1!");
+        request.setPersonaId(personaId);
+        request.setRoleIds(roles);
+
+        SqlStatementCounter.reset();
+        assertThat(new ExistingPersonaValidator(resolver).isValid(personaId, null)).isTrue();
+        assertThat(new ExistingRolesValidator(resolver).isValid(roles, null)).isTrue();
+        assertThat(accountService.createAccount(request).getRoleIds()).hasSize(roles.size());
+        int statements = SqlStatementCounter.count();
+
+        em.flush();
+        em.clear();
+        RequestContextHolder.resetRequestAttributes();
+        return statements;
+    }
+}
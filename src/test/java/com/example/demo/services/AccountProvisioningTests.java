@@ -0,0 +1,180 @@
+package com.example.demo.services;
+
+import com.example.demo.config.mapper.CollectionIdAssembler;
+import com.example.demo.config.mapper.EntityMapperImpl;
+import com.example.demo.config.validation.ReferenceResolver;
+import com.example.demo.dto.PersonaDTO;
+import com.example.demo.dto.request.AccountProvisioningItemDTO;
+import com.example.demo.dto.request.BulkAccountProvisioningDTO;
+import com.example.demo.dto.response.AccountProvisioningResultDTO;
+import com.example.demo.dto.response.AccountProvisioningResultDTO.Status;
+import com.example.demo.dto.response.BulkProvisioningReportDTO;
+import com.example.demo.entities.Account;
+import com.example.demo.entities.Persona;
+import com.example.demo.entities.Role;
+import com.example.demo.repositories.AccountRepository;
+import com.example.demo.repositories.PersonaRepository;
+import com.example.demo.repositories.RoleRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica il provisioning a lotti: report per elemento, isolamento degli elementi in conflitto e numero di
+ * istruzioni SQL indipendente dal numero di elementi.
+ *
+ * Verifies bulk provisioning: per-item report, isolation of conflicting items and a number of SQL statements
+ * independent of the number of items.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.example.demo.services.SqlStatementCounter",
+        "accounts.provisioning.chunk-size=25"
+})
+@Import({EntityMapperImpl.class, CollectionIdAssembler.class, ReferenceResolver.class, ValidationAutoConfiguration.class,
+        AccountProvisioningServiceImpl.class, AccountProvisioningTests.Config.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AccountProvisioningTests {
+
+    private static final String PASSWORD = "Password1!";
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        @SuppressWarnings("deprecation")
+        PasswordEncoder passwordEncoder() {
+            return NoOpPasswordEncoder.getInstance();
+        }
+    }
+
+    @Autowired
+    private AccountProvisioningServiceImpl provisioningService;
+    @Autowired
+    private AccountRepository accountRepository;
+    @Autowired
+    private PersonaRepository personaRepository;
+    @Autowired
+    private RoleRepository roleRepository;
+
+    private Long roleId;
+
+    @BeforeEach
+    void seed() {
+        roleId = roleRepository.save(Role.builder().name("USER").build()).getId();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        accountRepository.deleteAllInBatch();
+        personaRepository.deleteAllInBatch();
+        roleRepository.deleteAll();
+    }
+
+    @Test
+    void reportsEveryItemAndCreatesTheValidOnes() {
+        accountRepository.save(Account.builder().username("taken").passwordHash("x")
+                .persona(personaRepository.save(Persona.builder().firstName("Old").lastName("Test").build()))
+                .tokenVersion(0).build());
+
+        List<AccountProvisioningItemDTO> items = List.of(
+                item("mario.rossi", "mario@example.com", Set.of(roleId)),
+                item("Mario.Rossi", "other@example.com", Set.of(roleId)),
+                item("x", "short@example.com", Set.of(roleId)),
+                item("anna.bianchi", "anna@example.com", Set.of(-1L)),
+                item("TAKEN", "taken@example.com", Set.of(roleId)),
+                item("luca.verdi", "luca@example.com", Set.of(roleId)));
+
+        BulkProvisioningReportDTO report = provisioningService.provision(request(items));
+
+        assertThat(report.getRequested()).isEqualTo(6);
+        assertThat(report.getCreated()).isEqualTo(2);
+        assertThat(report.getFailed()).isEqualTo(4);
+        assertThat(report.getItems()).extracting(AccountProvisioningResultDTO::getStatus)
+                .containsExactly(Status.CREATED, Status.FAILED, Status.FAILED, Status.FAILED, Status.FAILED, Status.CREATED);
+        AccountProvisioningResultDTO created = report.getItems().get(0);
+        Account account = accountRepository.findById(created.getAccountId()).orElseThrow();
+        assertThat(account.getPersona().getId()).isEqualTo(created.getPersonaId());
+        assertThat(account.getRoles()).extracting(Role::getId).containsExactly(roleId);
+        assertThat(report.getItems().get(3).getErrors()).containsExactly("Role con id -1 non trovato");
+    }
+
+    @Test
+    void constraintViolationOnlyFailsTheConflictingItem() {
+        List<AccountProvisioningItemDTO> items = List.of(
+                item("first", "same@example.com", Set.of(roleId)),
+                item("second", "unique@example.com", Set.of(roleId)),
+                item("third", "same@example.com", Set.of(roleId)));
+
+        BulkProvisioningReportDTO report = provisioningService.provision(request(items));
+
+        assertThat(report.getItems()).extracting(AccountProvisioningResultDTO::getStatus)
+                .containsExactly(Status.CREATED, Status.CREATED, Status.FAILED);
+        assertThat(report.getItems().get(2).getErrors())
+                .containsExactly(AccountProvisioningServiceImpl.CONFLICT_MESSAGE);
+        assertThat(accountRepository.count()).isEqualTo(2);
+        assertThat(personaRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    void statementsDoNotGrowWithTheNumberOfItems() {
+        int small = statements(batch("small", 5));
+        int large = statements(batch("large", 25));
+
+        assertThat(large).isLessThanOrEqualTo(small);
+        assertThat(accountRepository.count()).isEqualTo(30);
+    }
+
+    private int statements(BulkAccountProvisioningDTO request) {
+        SqlStatementCounter.reset();
+        assertThat(provisioningService.provision(request).getFailed()).isZero();
+        return SqlStatementCounter.count();
+    }
+
+    private BulkAccountProvisioningDTO batch(String prefix, int size) {
+        List<AccountProvisioningItemDTO> items = new ArrayList<>();
+        IntStream.range(0, size).forEach(i ->
+                items.add(item(prefix + i, prefix + i + "@example.com", Set.of(roleId))));
+        return request(items);
+    }
+
+    private static BulkAccountProvisioningDTO request(List<AccountProvisioningItemDTO> items) {
+        BulkAccountProvisioningDTO request = new BulkAccountProvisioningDTO();
+        request.setItems(items);
+        return request;
+    }
+
+    private static AccountProvisioningItemDTO item(String username, String email, Set<Long> roleIds) {
+        AccountProvisioningItemDTO item = new AccountProvisioningItemDTO();
+        item.setUsername(username);
+        item.setPassword(PASSWORD);
+        item.setRoleIds(roleIds);
+        item.setPersona(persona(username, email));
+        return item;
+    }
+
+    private static PersonaDTO persona(String name, String email) {
+        PersonaDTO persona = new PersonaDTO();
+        persona.setFirstName(name);
+        persona.setLastName("Test");
+        persona.setEmail(email);
+        return persona;
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.demo.services;
+
+import com.example.demo.config.audit.AuditJournal;
+import com.example.demo.config.audit.AuditPipeline;
+import com.example.demo.config.export.EntityExporter;
+import com.example.demo.config.mapper.EntityMapperImpl;
+import com.example.demo.dto.AuditLogDTO;
+import com.example.demo.dto.request.AuditLogSearchDTO;
+import com.example.demo.dto.response.CursorPageDTO;
+import com.example.demo.entities.Account;
+import com.example.demo.entities.AuditLog;
+import com.example.demo.entities.Persona;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Verifica filtri e paginazione a cursore (timestamp, id) della ricerca nei log di audit.
+ * Verifies filters and (timestamp, id) cursor pagination of the audit log search.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "audit.data-dir=${java.io.tmpdir}/demo-audit-tests"
+})
+@Import({EntityMapperImpl.class, EntityExporter.class, JacksonAutoConfiguration.class,
+        AuditPipeline.class, AuditJournal.class, SimpleMeterRegistry.class, AuditLogServiceImpl.class})
+class AuditLogSearchTests {
+
+    private static final Instant NOW = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+
+    @Autowired
+    private TestEntityManager em;
+    @Autowired
+    private AuditLogServiceImpl service;
+
+    @BeforeEach
+    void seed() {
+        for (int i = 0; i < 5; i++) {
+            // Due log per istante, per coprire il confronto sull'ID / Two logs per instant, to cover the ID tie-break
+            Instant timestamp = NOW.minus(i / 2, ChronoUnit.HOURS);
+            em.persist(AuditLog.builder().entityName("Account").entityId(42L).action("UPDATE").timestamp(timestamp).build());
+            em.persist(AuditLog.builder().entityName("Persona").entityId(7L).action("CREATE").timestamp(timestamp).build());
+        }
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void pagesThroughOneEntityNewestFirst() {
+        AuditLogSearchDTO filter = new AuditLogSearchDTO();
+        filter.setEntityName("Account");
+        filter.setEntityId(42L);
+
+        List<AuditLogDTO> all = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPageDTO<AuditLogDTO> page = service.search(filter, cursor, 2);
+            all.addAll(page.getItems());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertThat(all).hasSize(5).allMatch(dto -> dto.getEntityId() == 42L);
+        assertThat(all).extracting(AuditLogDTO::getId).doesNotHaveDuplicates();
+        for (int i = 1; i < all.size(); i++) {
+            AuditLogDTO previous = all.get(i - 1);
+            AuditLogDTO current = all.get(i);
+            assertThat(current.getTimestamp().isBefore(previous.getTimestamp())
+                    || current.getTimestamp().equals(previous.getTimestamp()) && current.getId() < previous.getId()).isTrue();
+        }
+    }
+
+    @Test
+    void filtersByActionAndTimeRange() {
+        AuditLogSearchDTO filter = new AuditLogSearchDTO();
+        filter.setAction("CREATE");
+        filter.setFrom(NOW.minus(1, ChronoUnit.HOURS));
+        filter.setTo(NOW.plusSeconds(1));
+
+        CursorPageDTO<AuditLogDTO> page = service.search(filter, null, null);
+
+        assertThat(page.getItems()).hasSize(4).allMatch(dto -> "CREATE".equals(dto.getAction()));
+        assertThat(page.isHasNext()).isFalse();
+    }
+
+    @Test
+    void rangePagesNewestFirstWithATimestampCursor() {
+        List<AuditLogDTO> all = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPageDTO<AuditLogDTO> page = service.findInRange(NOW.minus(1, ChronoUnit.HOURS), NOW.plusSeconds(1),
+                    cursor, 3);
+            all.addAll(page.getItems());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertThat(all).hasSize(8).extracting(AuditLogDTO::getId).doesNotHaveDuplicates();
+        assertThat(all).extracting(AuditLogDTO::getTimestamp).isSortedAccordingTo(Comparator.reverseOrder());
+    }
+
+    @Test
+    void updateSetsTheAuthorOfALogWrittenWithoutOne() {
+        Persona persona = em.persist(Persona.builder().firstName("Mario").lastName("Rossi").build());
+        Account account = em.persist(Account.builder().username("mario").passwordHash("x").persona(persona)
+                .tokenVersion(0).build());
+        AuditLog anonymous = em.persist(AuditLog.builder().entityName("Account").entityId(1L).action("LOGIN")
+                .timestamp(NOW).build());
+        em.flush();
+        em.clear();
+        AuditLogDTO dto = new AuditLogDTO();
+        dto.setChangedByAccountId(account.getId());
+
+        assertThat(service.update(anonymous.getId(), dto).getChangedByAccountId()).isEqualTo(account.getId());
+    }
+
+    @Test
+    void rejectsEmptyRange() {
+        AuditLogSearchDTO filter = new AuditLogSearchDTO();
+        filter.setFrom(NOW);
+        filter.setTo(NOW);
+        assertThatThrownBy(() -> service.search(filter, null, null)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
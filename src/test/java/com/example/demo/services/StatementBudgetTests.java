@@ -0,0 +1,158 @@
+package com.example.demo.services;
+
+import com.example.demo.config.audit.AuditJournal;
+import com.example.demo.config.audit.AuditPipeline;
+import com.example.demo.config.catalog.RoleCatalog;
+import com.example.demo.config.export.EntityExporter;
+import com.example.demo.config.export.ExportFormat;
+import com.example.demo.config.mapper.CollectionIdAssembler;
+import com.example.demo.config.mapper.EntityMapperImpl;
+import com.example.demo.dto.AuditLogDTO;
+import com.example.demo.entities.*;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.io.ByteArrayOutputStream;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica che le chiamate di lista restino entro un budget fisso di istruzioni SQL,
+ * indipendente dal numero di righe (nessun N+1).
+ *
+ * Verifies that list calls stay within a fixed SQL statement budget,
+ * independent of the number of rows (no N+1).
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.example.demo.services.SqlStatementCounter",
+        "audit.data-dir=${java.io.tmpdir}/demo-audit-tests"
+})
+@Import({EntityMapperImpl.class, CollectionIdAssembler.class, EntityExporter.class, JacksonAutoConfiguration.class,
+        AuditPipeline.class, AuditJournal.class, SimpleMeterRegistry.class,
+        PersonaServiceImpl.class, ProjectServiceImpl.class, TaskServiceImpl.class, DepartmentServiceImpl.class,
+        AuditLogServiceImpl.class, RoleCatalog.class, RoleServiceImpl.class, PermissionServiceImpl.class})
+class StatementBudgetTests {
+
+    private static final int ROWS = 30;
+    private static final int LIST_BUDGET = 8;
+
+    @Autowired
+    private TestEntityManager em;
+    @Autowired
+    private PersonaServiceImpl personaService;
+    @Autowired
+    private ProjectServiceImpl projectService;
+    @Autowired
+    private TaskServiceImpl taskService;
+    @Autowired
+    private DepartmentServiceImpl departmentService;
+    @Autowired
+    private AuditLogServiceImpl auditLogService;
+    @Autowired
+    private RoleCatalog roleCatalog;
+    @Autowired
+    private RoleServiceImpl roleService;
+    @Autowired
+    private PermissionServiceImpl permissionService;
+
+    @BeforeEach
+    void seed() {
+        Permission permission = em.persist(Permission.builder().name("READ").build());
+        Role role = em.persist(Role.builder().name("USER").permissions(Set.of(permission)).build());
+        Position position = em.persist(Position.builder().title("Dev").build());
+        Team team = em.persist(Team.builder().name("Core").build());
+        for (int i = 0; i < ROWS; i++) {
+            Department department = em.persist(Department.builder().name("Dept " + i).build());
+            Project project = em.persist(Project.builder().code("P" + i).name("Project " + i).build());
+            Persona persona = em.persist(Persona.builder()
+                    .firstName("Name" + i).lastName("Last" + i)
+                    .department(department).position(position)
+                    .teams(new HashSet<>(Set.of(team))).projects(new HashSet<>(Set.of(project)))
+                    .build());
+            Account account = em.persist(Account.builder()
+                    .username("user" + i).passwordHash("x").persona(persona)
+                    .roles(new HashSet<>(Set.of(role))).tokenVersion(0).build());
+            em.persist(Task.builder().title("Task " + i).assignedTo(persona).project(project).build());
+            em.persist(AuditLog.builder().entityName("Persona").entityId(persona.getId()).action("CREATE")
+                    .changedBy(account).timestamp(Instant.now()).build());
+        }
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void personaListStaysWithinBudget() {
+        assertThat(statements(() -> personaService.findAll())).isLessThanOrEqualTo(LIST_BUDGET);
+        em.clear();
+        assertThat(statements(() -> personaService.findAll(null, ROWS))).isLessThanOrEqualTo(LIST_BUDGET);
+    }
+
+    @Test
+    void projectListStaysWithinBudget() {
+        assertThat(statements(() -> projectService.findAll())).isLessThanOrEqualTo(LIST_BUDGET);
+    }
+
+    @Test
+    void taskListStaysWithinBudget() {
+        assertThat(statements(() -> taskService.findAll())).isLessThanOrEqualTo(LIST_BUDGET);
+    }
+
+    @Test
+    void departmentListStaysWithinBudget() {
+        assertThat(statements(() -> departmentService.findAll())).isLessThanOrEqualTo(LIST_BUDGET);
+    }
+
+    @Test
+    void auditLogListStaysWithinBudget() {
+        assertThat(statements(() -> auditLogService.findAll())).isLessThanOrEqualTo(LIST_BUDGET);
+    }
+
+    @Test
+    void auditLogCreateRunsNoStatementOnTheCallingThread() {
+        AuditLogDTO dto = new AuditLogDTO();
+        dto.setEntityName("Persona");
+        dto.setEntityId(1L);
+        dto.setAction("UPDATE");
+
+        assertThat(statements(() -> auditLogService.create(dto))).isZero();
+        assertThat(dto.getId()).isNull();
+        assertThat(dto.getTimestamp()).isNotNull();
+    }
+
+    @Test
+    void personaExportStaysWithinBudget() {
+        assertThat(statements(() -> {
+            personaService.exportAll(ExportFormat.NDJSON, new ByteArrayOutputStream());
+            return null;
+        })).isLessThanOrEqualTo(LIST_BUDGET);
+    }
+
+    @Test
+    void roleAndPermissionReadsUseNoStatements() {
+        roleCatalog.reload();
+
+        assertThat(statements(() -> roleService.findAll())).isZero();
+        assertThat(statements(() -> permissionService.findAll())).isZero();
+        Long roleId = roleCatalog.snapshot().roles().get(0).id();
+        assertThat(statements(() -> roleService.findById(roleId))).isZero();
+        assertThat(roleService.findById(roleId).getPermissionIds()).hasSize(1);
+    }
+
+    private int statements(Supplier<?> call) {
+        SqlStatementCounter.reset();
+        call.get();
+        return SqlStatementCounter.count();
+    }
+}